@@ -0,0 +1,27 @@
+-- Copyright 2016-2019 Cloudera, Inc.;
+-- ;
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.;
+-- You may obtain a copy of the License at;
+-- ;
+--    http://www.apache.org/licenses/LICENSE-2.0;
+-- ;
+-- Unless required by applicable law or agreed to in writing, software;
+-- distributed under the License is distributed on an "AS IS" BASIS,;
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.;
+-- See the License for the specific language governing permissions and;
+-- limitations under the License.;
+-- ;
+
+ALTER TABLE `schema_version_info` ADD `stateSequence` INT NOT NULL DEFAULT 0 AFTER `state`;
+
+UPDATE `schema_version_info`
+  INNER JOIN (SELECT `schemaVersionId`, MAX(`sequence`) AS `sequence`
+              FROM `schema_version_state`
+              GROUP BY `schemaVersionId`) AS `latest_state_sequence`
+    ON `latest_state_sequence`.`schemaVersionId` = `schema_version_info`.`id`
+  INNER JOIN `schema_version_state`
+    ON `schema_version_state`.`schemaVersionId` = `latest_state_sequence`.`schemaVersionId`
+       AND `schema_version_state`.`sequence` = `latest_state_sequence`.`sequence`
+SET `schema_version_info`.`state` = `schema_version_state`.`stateId`,
+    `schema_version_info`.`stateSequence` = `schema_version_state`.`sequence`;
@@ -0,0 +1,26 @@
+-- Copyright 2016-2019 Cloudera, Inc.;
+-- ;
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.;
+-- You may obtain a copy of the License at;
+-- ;
+--    http://www.apache.org/licenses/LICENSE-2.0;
+-- ;
+-- Unless required by applicable law or agreed to in writing, software;
+-- distributed under the License is distributed on an "AS IS" BASIS,;
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.;
+-- See the License for the specific language governing permissions and;
+-- limitations under the License.;
+-- ;
+
+ALTER TABLE "schema_version_info" ADD "stateSequence" NUMBER(10,0) DEFAULT 0 NOT NULL;
+
+MERGE INTO "schema_version_info"
+USING (SELECT "schemaVersionId",
+              MAX("stateId") KEEP (DENSE_RANK LAST ORDER BY "sequence") AS "stateId",
+              MAX("sequence") AS "sequence"
+       FROM "schema_version_state"
+       GROUP BY "schemaVersionId") "latest_state"
+ON ("schema_version_info"."id" = "latest_state"."schemaVersionId")
+WHEN MATCHED THEN UPDATE SET "schema_version_info"."state" = "latest_state"."stateId",
+                             "schema_version_info"."stateSequence" = "latest_state"."sequence";
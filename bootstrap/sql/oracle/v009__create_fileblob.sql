@@ -0,0 +1,34 @@
+-- Copyright 2016-2019 Cloudera, Inc.;
+-- ;
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.;
+-- You may obtain a copy of the License at;
+-- ;
+--    http://www.apache.org/licenses/LICENSE-2.0;
+-- ;
+-- Unless required by applicable law or agreed to in writing, software;
+-- distributed under the License is distributed on an "AS IS" BASIS,;
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.;
+-- See the License for the specific language governing permissions and;
+-- limitations under the License.;
+-- ;
+
+-- tables of DbFileStorage, deployments which created the fileblob table before need to add its new columns
+-- and create the fileblob_chunk table instead
+CREATE TABLE "fileblob" (
+  "name"                 VARCHAR(255)        NOT NULL,
+  "version"              NUMBER(19,0)        NOT NULL,
+  "data"                 BLOB                NOT NULL,
+  "timestamp"            NUMBER(19,0),
+  "contentId"            VARCHAR(255),
+  "chunks"               NUMBER(10,0),
+  "size"                 NUMBER(19,0),
+  CONSTRAINT fileblob_pk PRIMARY KEY ("name")
+) SEGMENT CREATION IMMEDIATE;
+
+CREATE TABLE "fileblob_chunk" (
+  "contentId"            VARCHAR(255)        NOT NULL,
+  "sequence"             NUMBER(10,0)        NOT NULL,
+  "data"                 BLOB                NOT NULL,
+  CONSTRAINT fileblob_chunk_pk PRIMARY KEY ("contentId", "sequence")
+) SEGMENT CREATION IMMEDIATE;
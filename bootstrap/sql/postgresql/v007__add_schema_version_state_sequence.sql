@@ -0,0 +1,23 @@
+-- Copyright 2016-2019 Cloudera, Inc.;
+-- ;
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.;
+-- You may obtain a copy of the License at;
+-- ;
+--    http://www.apache.org/licenses/LICENSE-2.0;
+-- ;
+-- Unless required by applicable law or agreed to in writing, software;
+-- distributed under the License is distributed on an "AS IS" BASIS,;
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.;
+-- See the License for the specific language governing permissions and;
+-- limitations under the License.;
+-- ;
+
+ALTER TABLE "schema_version_info" ADD COLUMN "stateSequence" INT NOT NULL DEFAULT 0;
+
+UPDATE "schema_version_info"
+SET "state" = "latest_state"."stateId", "stateSequence" = "latest_state"."sequence"
+FROM (SELECT DISTINCT ON ("schemaVersionId") "schemaVersionId", "stateId", "sequence"
+      FROM "schema_version_state"
+      ORDER BY "schemaVersionId", "sequence" DESC) AS "latest_state"
+WHERE "schema_version_info"."id" = "latest_state"."schemaVersionId";
@@ -0,0 +1,33 @@
+-- Copyright 2016-2019 Cloudera, Inc.;
+-- ;
+-- Licensed under the Apache License, Version 2.0 (the "License");
+-- you may not use this file except in compliance with the License.;
+-- You may obtain a copy of the License at;
+-- ;
+--    http://www.apache.org/licenses/LICENSE-2.0;
+-- ;
+-- Unless required by applicable law or agreed to in writing, software;
+-- distributed under the License is distributed on an "AS IS" BASIS,;
+-- WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.;
+-- See the License for the specific language governing permissions and;
+-- limitations under the License.;
+-- ;
+
+-- tables of DbFileStorage, deployments which created the fileblob table before need to add its new columns
+CREATE TABLE IF NOT EXISTS "fileblob" (
+  "name"                 VARCHAR(255)    NOT NULL,
+  "version"              BIGINT          NOT NULL,
+  "data"                 BYTEA           NOT NULL,
+  "timestamp"            BIGINT,
+  "contentId"            VARCHAR(255),
+  "chunks"               INT,
+  "size"                 BIGINT,
+  PRIMARY KEY ("name")
+);
+
+CREATE TABLE IF NOT EXISTS "fileblob_chunk" (
+  "contentId"            VARCHAR(255)    NOT NULL,
+  "sequence"             INT             NOT NULL,
+  "data"                 BYTEA           NOT NULL,
+  PRIMARY KEY ("contentId", "sequence")
+);
@@ -17,5 +17,31 @@
 package com.hortonworks.registries.cache.stats;
 
 
+/**
+ * Statistics of the lookups of a cache.
+ */
 public interface CacheStats {
+
+    /**
+     * @return number of lookups which returned a cached value
+     */
+    long hitCount();
+
+    /**
+     * @return number of lookups which did not find a cached value
+     */
+    long missCount();
+
+    /**
+     * @return number of entries evicted because of size or expiry bounds
+     */
+    long evictionCount();
+
+    /**
+     * @return ratio of lookups which returned a cached value, 1.0 when there were no lookups
+     */
+    default double hitRate() {
+        long requestCount = hitCount() + missCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount() / requestCount;
+    }
 }
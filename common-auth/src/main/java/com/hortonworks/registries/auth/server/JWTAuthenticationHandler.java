@@ -20,13 +20,20 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.text.ParseException;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.interfaces.RSAPublicKey;
 
 import com.hortonworks.registries.auth.client.AuthenticationException;
@@ -68,6 +75,12 @@ import com.nimbusds.jose.crypto.RSASSAVerifier;
  * null which indicates that all audiences will be accepted.</li>
  * <li>jwt.cookie.name: the name of the cookie that contains the JWT token.
  * Default value is "hadoop-jwt".</li>
+ * <li>jwt.cache.size: the maximum number of verified JWT tokens that are
+ * remembered, so that the signature of a token is not verified again on every
+ * request. Default value is 1000, 0 disables the cache.</li>
+ * <li>jwt.cache.expiry.secs: the number of seconds a verified JWT token is
+ * remembered for. A token is never remembered beyond its own expiration time.
+ * Default value is 300.</li>
  * </ul>
  */
 public class JWTAuthenticationHandler implements AuthenticationHandler {
@@ -80,12 +93,25 @@ public class JWTAuthenticationHandler implements AuthenticationHandler {
     public static final String PUBLIC_KEY_PEM = "public.key.pem";
     public static final String EXPECTED_JWT_AUDIENCES = "expected.jwt.audiences";
     public static final String JWT_COOKIE_NAME = "jwt.cookie.name";
+    public static final String JWT_CACHE_SIZE = "jwt.cache.size";
+    public static final String JWT_CACHE_EXPIRY_SECS = "jwt.cache.expiry.secs";
     private static final String ORIGINAL_URL_QUERY_PARAM = "originalUrl=";
+    private static final ThreadLocal<MessageDigest> TOKEN_DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException("It should not happen, " + ex.getMessage(), ex);
+        }
+    });
     private String authenticationProviderUrl = null;
     private RSAPublicKey publicKey = null;
     private List<String> audiences = null;
     private String cookieName = "hadoop-jwt";
     private String[] nonBrowserUserAgents;
+    private int verifiedTokenCacheSize = 1000;
+    private long verifiedTokenCacheExpiryMillis = 300 * 1000L;
+    // hashes of the serialized tokens which passed validation
+    private final ConcurrentMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
 
     /**
      * Primarily for testing, this provides a way to set the publicKey for
@@ -152,11 +178,17 @@ public class JWTAuthenticationHandler implements AuthenticationHandler {
         }
         nonBrowserUserAgents = Utils.getNonBrowserUserAgents(config.getProperty(
                 NON_BROWSER_USER_AGENTS, NON_BROWSER_USER_AGENTS_DEFAULT));
+
+        verifiedTokenCacheSize = Integer.parseInt(config.getProperty(JWT_CACHE_SIZE,
+                String.valueOf(verifiedTokenCacheSize)));
+        verifiedTokenCacheExpiryMillis = Long.parseLong(config.getProperty(JWT_CACHE_EXPIRY_SECS,
+                String.valueOf(verifiedTokenCacheExpiryMillis / 1000))) * 1000;
+        verifiedTokens.clear();
     }
 
     @Override
     public void destroy() {
-
+        verifiedTokens.clear();
     }
 
     @Override
@@ -181,18 +213,32 @@ public class JWTAuthenticationHandler implements AuthenticationHandler {
             String userName = null;
             SignedJWT jwtToken = null;
             boolean valid = false;
-            try {
-                jwtToken = SignedJWT.parse(serializedJWT);
-                valid = validateToken(jwtToken);
-                if (valid) {
-                    userName = jwtToken.getJWTClaimsSet().getSubject();
-                    LOG.info("USERNAME: " + userName);
-                } else {
-                    LOG.warn("jwtToken failed validation: " + jwtToken.serialize());
+            String tokenHash = verifiedTokenCacheSize > 0 ? hashToken(serializedJWT) : null;
+            VerifiedToken verifiedToken = tokenHash != null ? verifiedTokens.get(tokenHash) : null;
+            if (verifiedToken != null && verifiedToken.expiresAt > System.currentTimeMillis()) {
+                LOG.debug("JWT token has already been verified");
+                userName = verifiedToken.userName;
+                valid = true;
+            } else {
+                if (verifiedToken != null) {
+                    verifiedTokens.remove(tokenHash, verifiedToken);
+                }
+                try {
+                    jwtToken = SignedJWT.parse(serializedJWT);
+                    valid = validateToken(jwtToken);
+                    if (valid) {
+                        userName = jwtToken.getJWTClaimsSet().getSubject();
+                        LOG.info("USERNAME: " + userName);
+                        if (tokenHash != null) {
+                            cacheVerifiedToken(tokenHash, userName, jwtToken.getJWTClaimsSet().getExpirationTime());
+                        }
+                    } else {
+                        LOG.warn("jwtToken failed validation: " + jwtToken.serialize());
+                    }
+                } catch(ParseException pe) {
+                    // unable to parse the token let's try and get another one
+                    LOG.warn("Unable to parse the JWT token", pe);
                 }
-            } catch(ParseException pe) {
-                // unable to parse the token let's try and get another one
-                LOG.warn("Unable to parse the JWT token", pe);
             }
             if (valid) {
                 LOG.debug("Issuing AuthenticationToken for user.");
@@ -206,6 +252,35 @@ public class JWTAuthenticationHandler implements AuthenticationHandler {
         return token;
     }
 
+    private static String hashToken(String serializedJWT) {
+        MessageDigest md = TOKEN_DIGEST.get();
+        md.reset();
+        return Base64.getEncoder().encodeToString(md.digest(serializedJWT.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Remembers a token which passed validation until either the token or the cache entry expires. Audiences are
+     * only configured during init, so a token which passed audience validation stays valid for the cache.
+     */
+    private void cacheVerifiedToken(String tokenHash, String userName, Date expires) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + verifiedTokenCacheExpiryMillis;
+        if (expires != null) {
+            expiresAt = Math.min(expiresAt, expires.getTime());
+        }
+
+        if (verifiedTokens.size() >= verifiedTokenCacheSize) {
+            verifiedTokens.values().removeIf(x -> x.expiresAt <= now);
+            // still full with live tokens, make room by dropping arbitrary ones
+            Iterator<String> iterator = verifiedTokens.keySet().iterator();
+            while (verifiedTokens.size() >= verifiedTokenCacheSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        }
+        verifiedTokens.put(tokenHash, new VerifiedToken(userName, expiresAt));
+    }
+
     @Override
     public boolean shouldAuthenticate(HttpServletRequest request) {
         if (Utils.isBrowser(nonBrowserUserAgents, request)) {
@@ -382,4 +457,14 @@ public class JWTAuthenticationHandler implements AuthenticationHandler {
         }
         return valid;
     }
+
+    private static class VerifiedToken {
+        private final String userName;
+        private final long expiresAt;
+
+        VerifiedToken(String userName, long expiresAt) {
+            this.userName = userName;
+            this.expiresAt = expiresAt;
+        }
+    }
 }
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Properties;
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.Cookie;
@@ -379,6 +380,68 @@ public class TestJWTAuthenticationHandler extends
         }
     }
 
+    @Test
+    public void testVerifiedJWTIsCached() throws Exception {
+        AtomicInteger validations = new AtomicInteger();
+        handler = new CountingJWTAuthenticationHandler(validations);
+        handler.setPublicKey(publicKey);
+        handler.init(getProperties());
+
+        SignedJWT jwt = getJWT("alice", new Date(new Date().getTime() + 5000),
+                privateKey);
+        HttpServletRequest request = getRequest(jwt);
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        Assert.assertEquals("alice", handler.authenticate(request, response).getUserName());
+        Assert.assertEquals("alice", handler.authenticate(request, response).getUserName());
+        Assert.assertEquals(1, validations.get());
+
+        // other tokens are still validated
+        SignedJWT otherJwt = getJWT("bob", new Date(new Date().getTime() + 5000),
+                privateKey);
+        Assert.assertEquals("bob", handler.authenticate(getRequest(otherJwt), response).getUserName());
+        Assert.assertEquals(2, validations.get());
+    }
+
+    @Test
+    public void testCachedJWTExpires() throws Exception {
+        AtomicInteger validations = new AtomicInteger();
+        handler = new CountingJWTAuthenticationHandler(validations);
+        handler.setPublicKey(publicKey);
+        handler.init(getProperties());
+
+        SignedJWT jwt = getJWT("alice", new Date(new Date().getTime() + 1000),
+                privateKey);
+        HttpServletRequest request = getRequest(jwt);
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        Assert.assertEquals("alice", handler.authenticate(request, response).getUserName());
+
+        Thread.sleep(1500);
+        Assert.assertNull(handler.authenticate(request, response));
+        Mockito.verify(response).sendRedirect(REDIRECT_LOCATION);
+        Assert.assertEquals(2, validations.get());
+    }
+
+    @Test
+    public void testDisabledJWTCache() throws Exception {
+        AtomicInteger validations = new AtomicInteger();
+        handler = new CountingJWTAuthenticationHandler(validations);
+        handler.setPublicKey(publicKey);
+        Properties props = getProperties();
+        props.setProperty(JWTAuthenticationHandler.JWT_CACHE_SIZE, "0");
+        handler.init(props);
+
+        SignedJWT jwt = getJWT("alice", new Date(new Date().getTime() + 5000),
+                privateKey);
+        HttpServletRequest request = getRequest(jwt);
+        HttpServletResponse response = Mockito.mock(HttpServletResponse.class);
+
+        Assert.assertEquals("alice", handler.authenticate(request, response).getUserName());
+        Assert.assertEquals("alice", handler.authenticate(request, response).getUserName());
+        Assert.assertEquals(2, validations.get());
+    }
+
     @Test
     public void testOrigURLWithQueryString() throws Exception {
         handler.setPublicKey(publicKey);
@@ -450,6 +513,15 @@ public class TestJWTAuthenticationHandler extends
         return props;
     }
 
+    private HttpServletRequest getRequest(SignedJWT jwt) {
+        Cookie cookie = new Cookie("hadoop-jwt", jwt.serialize());
+        HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
+        Mockito.when(request.getCookies()).thenReturn(new Cookie[] { cookie });
+        Mockito.when(request.getRequestURL()).thenReturn(
+                new StringBuffer(SERVICE_URL));
+        return request;
+    }
+
     protected SignedJWT getJWT(String sub, Date expires, RSAPrivateKey privateKey)
             throws Exception {
         JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
@@ -472,4 +544,18 @@ public class TestJWTAuthenticationHandler extends
 
         return signedJWT;
     }
+
+    private static class CountingJWTAuthenticationHandler extends JWTAuthenticationHandler {
+        private final AtomicInteger validations;
+
+        CountingJWTAuthenticationHandler(AtomicInteger validations) {
+            this.validations = validations;
+        }
+
+        @Override
+        protected boolean validateToken(SignedJWT jwtToken) {
+            validations.incrementAndGet();
+            return super.validateToken(jwtToken);
+        }
+    }
 }
@@ -13,7 +13,12 @@
  */
 package com.hortonworks.registries.auth.util;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.servlet.ServletContext;
 
 import com.hortonworks.registries.auth.server.AuthenticationFilter;
@@ -91,6 +96,36 @@ public class TestSigner {
         }
     }
 
+    @Test
+    public void testConcurrentSignature() throws Exception {
+        Signer signer = new Signer(createStringSignerSecretProvider());
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(signer.sign("value-" + i));
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executorService.submit(() -> {
+                    List<String> signed = new ArrayList<>();
+                    for (int i = 0; i < 1000; i++) {
+                        String value = signer.sign("value-" + i);
+                        Assert.assertEquals("value-" + i, signer.verifyAndExtract(value));
+                        signed.add(value);
+                    }
+                    return signed;
+                }));
+            }
+            for (Future<List<String>> future : futures) {
+                Assert.assertEquals(expected, future.get());
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     private StringSignerSecretProvider createStringSignerSecretProvider() throws Exception {
         StringSignerSecretProvider secretProvider = new StringSignerSecretProvider();
         Properties secretProviderProps = new Properties();
@@ -21,6 +21,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -88,6 +89,19 @@ public class SlotSynchronizer<K> {
             reentrantLock.lock();
         }
 
+        private boolean tryLock(long timeoutInNanos) throws InterruptedException {
+            count.incrementAndGet();
+            boolean locked = false;
+            try {
+                locked = reentrantLock.tryLock(timeoutInNanos, TimeUnit.NANOSECONDS);
+            } finally {
+                if (!locked && count.decrementAndGet() == 0) {
+                    locks.remove(k, this);
+                }
+            }
+            return locked;
+        }
+
         /**
          * Unlocks this lock for respective slot if the current thread holds this lock.
          *
@@ -146,6 +160,41 @@ public class SlotSynchronizer<K> {
         }
     }
 
+    /**
+     * Returns the lock for the given slot {@code k} after taking a lock for the current thread if it becomes available
+     * within the given waiting time.
+     *
+     * @param k        slot key for which lock to be taken.
+     * @param timeout  maximum time to wait for the lock
+     * @param timeUnit time unit of the {@code timeout} argument
+     * @return the lock for the given slot, or null if the lock could not be taken within the given waiting time.
+     * @throws InterruptedException if the current thread is interrupted while waiting for the lock
+     */
+    public Lock tryLockSlot(K k, long timeout, TimeUnit timeUnit) throws InterruptedException {
+        Preconditions.checkNotNull(k, "Key k must not be null");
+
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        while (true) {
+            Lock newLock = new Lock(k);
+            Lock lock = locks.putIfAbsent(k, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+
+            if (!lock.tryLock(deadline - System.nanoTime())) {
+                return null;
+            }
+
+            // same as in lockSlot, retry if the acquired lock was already removed from the slot.
+            if (locks.get(k) != lock) {
+                lock.unlock();
+                continue;
+            }
+
+            return lock;
+        }
+    }
+
     /**
      * @return no of slots currently used.
      */
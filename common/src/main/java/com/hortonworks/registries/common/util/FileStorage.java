@@ -15,8 +15,16 @@
  **/
 package com.hortonworks.registries.common.util;
 
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Map;
 
 /**
@@ -44,6 +52,36 @@ public interface FileStorage {
      */
     String upload(InputStream inputStream, String name) throws IOException;
 
+    /**
+     * Uploads the content from given {@code InputStream} with the hex encoded SHA-256 digest of the content as its name.
+     * Content which is already stored is not stored again, so the same content uploaded many times is stored once.
+     * <p>
+     * Default implementation copies the content to a local temporary file to compute its digest before uploading it,
+     * implementations override it to compute the digest while storing the content.
+     *
+     * @param inputStream stream to read the file content from
+     * @return name of the stored file, which can be used later for {@link #download(String)}
+     * @throws java.io.IOException if any IO error occurs
+     */
+    default String uploadContent(InputStream inputStream) throws IOException {
+        File tempFile = File.createTempFile("upload-", ".tmp");
+        try {
+            HashingInputStream hashingInputStream = new HashingInputStream(Hashing.sha256(), inputStream);
+            try (OutputStream outputStream = new FileOutputStream(tempFile)) {
+                ByteStreams.copy(hashingInputStream, outputStream);
+            }
+            String name = hashingInputStream.hash().toString();
+            if (!exists(name)) {
+                try (InputStream tempInputStream = new FileInputStream(tempFile)) {
+                    upload(tempInputStream, name);
+                }
+            }
+            return name;
+        } finally {
+            tempFile.delete();
+        }
+    }
+
     /**
      * Returns {@link InputStream} of file for the given name.
      *
@@ -54,6 +92,21 @@ public interface FileStorage {
      */
     InputStream download(String name) throws IOException;
 
+    /**
+     * Returns the size in bytes of the file for the given name.
+     * <p>
+     * Default implementation reads the whole file, implementations override it to return the stored size.
+     *
+     * @param name identifier of the file that was first passed during {@link #upload(InputStream, String)}
+     * @return size of the file in bytes
+     * @throws IOException if there is no file for the given name or any IO error occurs
+     */
+    default long size(String name) throws IOException {
+        try (InputStream inputStream = download(name)) {
+            return ByteStreams.exhaust(inputStream);
+        }
+    }
+
     /**
      * Deletes the stored file for given {@code name}.
      *
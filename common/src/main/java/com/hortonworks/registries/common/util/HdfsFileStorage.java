@@ -83,6 +83,11 @@ public class HdfsFileStorage implements FileStorage {
         return hdfsFileSystem.open(filePath);
     }
 
+    @Override
+    public long size(String name) throws IOException {
+        return hdfsFileSystem.getFileStatus(new Path(directory, name)).getLen();
+    }
+
     @Override
     public boolean delete(String name) throws IOException {
         return hdfsFileSystem.delete(new Path(directory, name), true);
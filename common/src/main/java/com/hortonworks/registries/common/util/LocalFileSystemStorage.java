@@ -15,17 +15,22 @@
  **/
 package com.hortonworks.registries.common.util;
 
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
 import com.google.common.io.ByteStreams;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Map;
 
 /**
@@ -76,6 +81,29 @@ public class LocalFileSystemStorage implements FileStorage {
         return path.toString();
     }
 
+    @Override
+    public String uploadContent(InputStream inputStream) throws IOException {
+        ensureDirExists();
+
+        // content is written to a temporary file, which is moved to the name of the content once its digest is known
+        Path tempPath = Files.createTempFile(FileSystems.getDefault().getPath(directory), "upload-", ".tmp");
+        try {
+            HashingInputStream hashingInputStream = new HashingInputStream(Hashing.sha256(), inputStream);
+            try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+                ByteStreams.copy(hashingInputStream, outputStream);
+            }
+            String name = hashingInputStream.hash().toString();
+            Path path = FileSystems.getDefault().getPath(directory, name);
+            if (!Files.exists(path)) {
+                // concurrent uploads of the same content replace the file with the same content
+                Files.move(tempPath, path, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return name;
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
     @Override
     public InputStream download(String name) throws IOException {
         ensureDirExists();
@@ -85,6 +113,18 @@ public class LocalFileSystemStorage implements FileStorage {
         return new FileInputStream(file);
     }
 
+    @Override
+    public long size(String name) throws IOException {
+        ensureDirExists();
+
+        Path path = FileSystems.getDefault().getPath(directory, name);
+        try {
+            return Files.size(path);
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(path.toString());
+        }
+    }
+
     @Override
     public boolean delete(String name) throws IOException {
         ensureDirExists();
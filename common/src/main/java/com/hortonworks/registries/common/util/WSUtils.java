@@ -70,7 +70,9 @@ public final class WSUtils {
                     wrappedOutputStream = new BufferedOutputStream(os);
                 }
 
-                ByteStreams.copy(inputStream, wrappedOutputStream);
+                try (InputStream closedInputStream = inputStream) {
+                    ByteStreams.copy(closedInputStream, wrappedOutputStream);
+                }
 
                 wrappedOutputStream.flush();
             }
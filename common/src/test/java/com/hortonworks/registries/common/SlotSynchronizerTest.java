@@ -22,6 +22,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.IntStream;
 
@@ -89,6 +92,33 @@ public class SlotSynchronizerTest {
 
     }
 
+    @Test
+    public void testTryLockSlot() throws Exception {
+        SlotSynchronizer<Integer> slotSynchronizer = new SlotSynchronizer<>();
+        int key = new Random().nextInt();
+
+        SlotSynchronizer<Integer>.Lock lock = slotSynchronizer.lockSlot(key);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            // slot is held by the current thread, other threads should give up after the given time
+            Assert.assertNull(executorService.submit(() -> slotSynchronizer.tryLockSlot(key, 100, TimeUnit.MILLISECONDS)).get());
+            Assert.assertEquals(1, slotSynchronizer.occupiedSlots());
+
+            lock.unlock();
+            Assert.assertEquals(0, slotSynchronizer.occupiedSlots());
+
+            SlotSynchronizer<Integer>.Lock otherLock = executorService.submit(() -> {
+                SlotSynchronizer<Integer>.Lock acquiredLock = slotSynchronizer.tryLockSlot(key, 100, TimeUnit.MILLISECONDS);
+                acquiredLock.unlock();
+                return acquiredLock;
+            }).get();
+            Assert.assertNotNull(otherLock);
+            Assert.assertEquals(0, slotSynchronizer.occupiedSlots());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     private static class Work implements Runnable {
         private final int k;
         private final SlotSynchronizer<Integer> slotSynchronizer;
@@ -16,11 +16,14 @@
 package com.hortonworks.registries.util;
 
 import com.google.common.collect.Lists;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.hortonworks.registries.common.util.FileStorage;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -29,6 +32,7 @@ import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.util.List;
+import java.util.Random;
 
 public abstract class AbstractFileStorageTest {
 
@@ -58,4 +62,22 @@ public abstract class AbstractFileStorageTest {
         }
         Assert.assertEquals(lines, actual);
     }
+
+    @Test
+    public void testContentUpload() throws IOException {
+        FileStorage fileStorage = getFileStorage();
+        byte[] content = new byte[3 * 1024 * 1024 + 17];
+        new Random(7).nextBytes(content);
+
+        String name = fileStorage.uploadContent(new ByteArrayInputStream(content));
+        Assert.assertEquals(Hashing.sha256().hashBytes(content).toString(), name);
+        // the same content is stored once with the same name
+        Assert.assertEquals(name, fileStorage.uploadContent(new ByteArrayInputStream(content)));
+        Assert.assertEquals(content.length, fileStorage.size(name));
+
+        try (InputStream inputStream = fileStorage.download(name)) {
+            Assert.assertArrayEquals(content, ByteStreams.toByteArray(inputStream));
+        }
+        fileStorage.delete(name);
+    }
 }
@@ -16,6 +16,10 @@
 package com.hortonworks.registries.schemaregistry.authorizer.agent;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.hortonworks.registries.schemaregistry.AggregatedSchemaBranch;
 import com.hortonworks.registries.schemaregistry.AggregatedSchemaMetadataInfo;
 import com.hortonworks.registries.schemaregistry.ISchemaRegistry;
@@ -32,7 +36,13 @@ import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import org.apache.hadoop.security.authorize.AuthorizationException;
 import com.hortonworks.registries.schemaregistry.authorizer.core.Authorizer;
@@ -43,9 +53,23 @@ import javax.ws.rs.NotSupportedException;
 
 public class DefaultAuthorizationAgent implements AuthorizationAgent {
 
-    private Authorizer authorizer;
+    /**
+     * Maximum number of authorization decisions that are cached.
+     */
+    public static final String AUTHORIZATION_CACHE_SIZE = "authorizationCacheSize";
+
+    /**
+     * Number of seconds an authorization decision is cached for. Decisions are also dropped when the authorizer
+     * notifies about changed policies.
+     */
+    public static final String AUTHORIZATION_CACHE_EXPIRY_INTERVAL_SECS = "authorizationCacheExpiryInterval";
+
+    public static final long DEFAULT_AUTHORIZATION_CACHE_SIZE = 10000L;
+    public static final long DEFAULT_AUTHORIZATION_CACHE_EXPIRY_INTERVAL_SECS = 30L;
 
+    private Authorizer authorizer;
 
+    private Cache<AuthorizationDecisionKey, Boolean> authorizationDecisions;
 
     @Override
     public void configure(Map<String, Object> props) {
@@ -53,10 +77,23 @@ public class DefaultAuthorizationAgent implements AuthorizationAgent {
             if(authorizer != null) {
                 throw new AlreadyConfiguredException("DefaultAuthorizationAgent is already configured");
             }
+            this.authorizationDecisions = CacheBuilder.newBuilder()
+                    .maximumSize(getLongProperty(props, AUTHORIZATION_CACHE_SIZE, DEFAULT_AUTHORIZATION_CACHE_SIZE))
+                    .expireAfterWrite(getLongProperty(props,
+                            AUTHORIZATION_CACHE_EXPIRY_INTERVAL_SECS,
+                            DEFAULT_AUTHORIZATION_CACHE_EXPIRY_INTERVAL_SECS),
+                            TimeUnit.SECONDS)
+                    .build();
             this.authorizer = AuthorizerFactory.getAuthorizer(props);
+            this.authorizer.addPolicyChangeListener(authorizationDecisions::invalidateAll);
         }
     }
 
+    private static long getLongProperty(Map<String, Object> props, String name, long defaultValue) {
+        Object value = props != null ? props.get(name) : null;
+        return value != null ? Long.parseLong(value.toString()) : defaultValue;
+    }
+
 
     @Override
     public Collection<AggregatedSchemaMetadataInfo> authorizeGetAggregatedSchemaList
@@ -87,7 +124,7 @@ public class DefaultAuthorizationAgent implements AuthorizationAgent {
 
         if(serDesInfos != null &&
                 !serDesInfos.isEmpty() &&
-                !authorizer.authorize(new Authorizer.SerdeResource(), AccessType.READ, userAndGroups)) {
+                !isAuthorized(new Authorizer.SerdeResource(), AccessType.READ, userAndGroups)) {
             serDesInfos = new ArrayList<>();
         }
 
@@ -139,11 +176,32 @@ public class DefaultAuthorizationAgent implements AuthorizationAgent {
              ISchemaRegistry schemaRegistry,
              Collection<SchemaVersionKey> versions) throws SchemaNotFoundException {
 
+        if(versions == null) {
+            return null;
+        }
+
+        Set<String> schemaNames = versions.stream()
+                .map(SchemaVersionKey::getSchemaName)
+                .collect(Collectors.toSet());
+        Map<String, SchemaMetadataInfo> schemaMetadataInfos = new HashMap<>();
+        for(String schemaName : schemaNames) {
+            SchemaMetadataInfo smi = schemaRegistry.getSchemaMetadataInfo(schemaName);
+            if(smi != null) {
+                schemaMetadataInfos.put(schemaName, smi);
+            }
+        }
+        Map<SchemaVersionKey, SchemaBranch> primaryBranches = getPrimaryBranches(schemaRegistry,
+                schemaMetadataInfos.values());
+
         return authorizeGetEntities(userAndGroups, versions, schemaVersionKey -> {
             String sName = schemaVersionKey.getSchemaName();
-            String sGroup = schemaRegistry.getSchemaMetadataInfo(sName).getSchemaMetadata().getSchemaGroup();
-            SchemaVersionInfo svi = schemaRegistry.getSchemaVersionInfo(schemaVersionKey);
-            String sBranch = getPrimaryBranch(schemaRegistry.getSchemaBranchesForVersion(svi.getId()));
+            SchemaMetadataInfo smi = schemaMetadataInfos.get(sName);
+            if(smi == null) {
+                throw new SchemaNotFoundException("No SchemaMetadata exists with key: " + sName);
+            }
+            String sGroup = smi.getSchemaMetadata().getSchemaGroup();
+            String sBranch = getPrimaryBranch(schemaRegistry, primaryBranches, schemaVersionKey, () ->
+                    schemaRegistry.getSchemaVersionInfo(schemaVersionKey).getId());
 
             return new Authorizer.SchemaVersionResource(sGroup, sName, sBranch);
         });
@@ -443,13 +501,36 @@ public class DefaultAuthorizationAgent implements AuthorizationAgent {
                                                                  Collection<SchemaVersionInfo> versions)
             throws SchemaNotFoundException {
 
+        if(versions == null) {
+            return null;
+        }
+
+        Set<Long> schemaMetadataIds = versions.stream()
+                .map(SchemaVersionInfo::getSchemaMetadataId)
+                .collect(Collectors.toSet());
+        Map<Long, SchemaMetadataInfo> schemaMetadataInfos = new HashMap<>();
+        for(Long schemaMetadataId : schemaMetadataIds) {
+            SchemaMetadataInfo smi = schemaRegistry.getSchemaMetadataInfo(schemaMetadataId);
+            if(smi != null) {
+                schemaMetadataInfos.put(schemaMetadataId, smi);
+            }
+        }
+        Map<SchemaVersionKey, SchemaBranch> primaryBranches = getPrimaryBranches(schemaRegistry,
+                schemaMetadataInfos.values());
+
         return authorizeGetEntities(userAndGroups, versions, schemaVersionInfo -> {
-            SchemaMetadata sM =
-                    schemaRegistry.getSchemaMetadataInfo(schemaVersionInfo.getSchemaMetadataId())
-                            .getSchemaMetadata();
+            SchemaMetadataInfo smi = schemaMetadataInfos.get(schemaVersionInfo.getSchemaMetadataId());
+            if(smi == null) {
+                throw new SchemaNotFoundException("No SchemaMetadata exists with id: "
+                        + schemaVersionInfo.getSchemaMetadataId());
+            }
+            SchemaMetadata sM = smi.getSchemaMetadata();
             String sGroup = sM.getSchemaGroup();
             String sName = sM.getName();
-            String sBranch = getPrimaryBranch(schemaRegistry.getSchemaBranchesForVersion(schemaVersionInfo.getId()));
+            String sBranch = getPrimaryBranch(schemaRegistry,
+                    primaryBranches,
+                    new SchemaVersionKey(sName, schemaVersionInfo.getVersion()),
+                    schemaVersionInfo::getId);
 
             return new Authorizer.SchemaVersionResource(sGroup, sName, sBranch);
         });
@@ -470,15 +551,62 @@ public class DefaultAuthorizationAgent implements AuthorizationAgent {
         Authorizer.Resource map(T elem) throws SchemaNotFoundException;
     }
 
+    private interface SchemaVersionIdSupplier {
+        Long get() throws SchemaNotFoundException;
+    }
+
+    /**
+     * Entities which are mapped to the same resource are authorized only once.
+     */
     private <T> Collection<T> authorizeGetEntities(UserAndGroups userAndGroups,
                                                    Collection<T> entities,
                                                    EntityToAuthorizerResourceMapFunc<T> mapFunc)
             throws SchemaNotFoundException {
+        Map<Authorizer.Resource, Boolean> decisions = new HashMap<>();
         return removeUnauthorizedAndNullEntities(entities, elem ->
-                authorizer.authorize(mapFunc.map(elem), AccessType.READ, userAndGroups) ?
+                decisions.computeIfAbsent(mapFunc.map(elem),
+                        resource -> isAuthorized(resource, AccessType.READ, userAndGroups)) ?
                         elem : null);
     }
 
+    /**
+     * Returns the primary branch of every version of the given schemas. Branches and versions of all the schemas are
+     * loaded together, instead of looking up the branches of each version separately.
+     */
+    private Map<SchemaVersionKey, SchemaBranch> getPrimaryBranches(ISchemaRegistry schemaRegistry,
+                                                                   Collection<SchemaMetadataInfo> schemaMetadataInfos) {
+        Map<SchemaVersionKey, SchemaBranch> primaryBranches = new HashMap<>();
+        if(schemaMetadataInfos.isEmpty()) {
+            return primaryBranches;
+        }
+
+        for(AggregatedSchemaMetadataInfo asmi : schemaRegistry.getAggregatedSchemaMetadataInfos(schemaMetadataInfos)) {
+            String sName = asmi.getSchemaMetadata().getName();
+            for(AggregatedSchemaBranch branch : asmi.getSchemaBranches()) {
+                SchemaBranch sb = branch.getSchemaBranch();
+                for(SchemaVersionInfo svi : branch.getSchemaVersionInfos()) {
+                    primaryBranches.merge(new SchemaVersionKey(sName, svi.getVersion()), sb,
+                            (x, y) -> x.getId() <= y.getId() ? x : y);
+                }
+            }
+        }
+
+        return primaryBranches;
+    }
+
+    private String getPrimaryBranch(ISchemaRegistry schemaRegistry,
+                                    Map<SchemaVersionKey, SchemaBranch> primaryBranches,
+                                    SchemaVersionKey schemaVersionKey,
+                                    SchemaVersionIdSupplier schemaVersionIdSupplier) throws SchemaNotFoundException {
+        SchemaBranch primaryBranch = primaryBranches.get(schemaVersionKey);
+        if(primaryBranch != null) {
+            return primaryBranch.getName();
+        }
+
+        // version may have been added after the branches were loaded
+        return getPrimaryBranch(schemaRegistry.getSchemaBranchesForVersion(schemaVersionIdSupplier.get()));
+    }
+
     private <T> Collection<T> removeUnauthorizedAndNullEntities(Collection<T> elems,
                                                                 EntityFilterFunction<T> filterFunc)
             throws SchemaNotFoundException {
@@ -501,7 +629,7 @@ public class DefaultAuthorizationAgent implements AuthorizationAgent {
     private void authorize(Authorizer.Resource resource, AccessType accessType, UserAndGroups userAndGroups)
             throws AuthorizationException {
 
-        boolean isAuthorized = authorizer.authorize(resource, accessType, userAndGroups);
+        boolean isAuthorized = isAuthorized(resource, accessType, userAndGroups);
 
         raiseAuthorizationExceptionIfNeeded(isAuthorized,
                 userAndGroups.getUser(),
@@ -509,6 +637,16 @@ public class DefaultAuthorizationAgent implements AuthorizationAgent {
                 resource);
     }
 
+    private boolean isAuthorized(Authorizer.Resource resource, AccessType accessType, UserAndGroups userAndGroups) {
+        try {
+            return authorizationDecisions.get(new AuthorizationDecisionKey(resource, accessType, userAndGroups),
+                    () -> authorizer.authorize(resource, accessType, userAndGroups));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
     private String getPrimaryBranch(Collection<SchemaBranch> branches) {
         return branches.stream().min(Comparator.comparing(SchemaBranch::getId)).get().getName();
     }
@@ -530,4 +668,32 @@ public class DefaultAuthorizationAgent implements AuthorizationAgent {
         return authorizer;
     }
 
+    private static class AuthorizationDecisionKey {
+        private final Authorizer.Resource resource;
+        private final AccessType accessType;
+        private final UserAndGroups userAndGroups;
+
+        AuthorizationDecisionKey(Authorizer.Resource resource, AccessType accessType, UserAndGroups userAndGroups) {
+            this.resource = resource;
+            this.accessType = accessType;
+            this.userAndGroups = userAndGroups;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            AuthorizationDecisionKey that = (AuthorizationDecisionKey) o;
+            return Objects.equals(resource, that.resource)
+                    && accessType == that.accessType
+                    && Objects.equals(userAndGroups, that.userAndGroups);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(resource, accessType, userAndGroups);
+        }
+    }
+
 }
@@ -1147,4 +1147,38 @@ public class DefaultAuthorizationAgentTest {
 
         // NOT_FOUND test cases do not exist
     }
+
+    @Test
+    public void authorizationDecisionCache() throws SchemaNotFoundException {
+        Map<String, Object> props = new HashMap<>();
+        props.put(Authorizer.AUTHORIZER_CONFIG, TestAuthorizer.class.getCanonicalName());
+        DefaultAuthorizationAgent agent = new DefaultAuthorizationAgent();
+        agent.configure(props);
+        TestAuthorizer testAuthorizer = (TestAuthorizer) agent.getAuthorizer();
+
+        String user5 = "user5";
+        Authorizer.UserAndGroups userAndGroups =
+                AuthorizationUtils.getUserAndGroups(new SecurityContextForTesting(user5));
+
+        // versions on the same branch are authorized once
+        SchemaVersionInfo svi3 = schemaRegistry.getSchemaVersionInfo(siv3);
+        SchemaVersionInfo svi31 = schemaRegistry.getSchemaVersionInfo(siv31);
+        List<SchemaVersionInfo> versions = new ArrayList<>(Collections.nCopies(100, svi3));
+        versions.add(svi31);
+        Collection<SchemaVersionInfo> res = agent.authorizeGetAllVersions(userAndGroups, schemaRegistry, versions);
+        assertTrue(res.isEmpty());
+        assertThat(testAuthorizer.getAuthorizations(), is(2));
+
+        // decisions are cached across the requests
+        res = agent.authorizeGetAllVersions(userAndGroups, schemaRegistry, versions);
+        assertTrue(res.isEmpty());
+        assertThat(testAuthorizer.getAuthorizations(), is(2));
+
+        // changing the policies drops the cached decisions
+        testAuthorizer.addPolicy(new TestAuthorizer.Policy(new Authorizer.SchemaVersionResource("Group3",
+                "Schema3", SchemaBranch.MASTER_BRANCH), user5, Authorizer.AccessType.READ));
+        res = agent.authorizeGetAllVersions(userAndGroups, schemaRegistry, versions);
+        assertThat(res, is(Collections.nCopies(100, svi3)));
+        assertThat(testAuthorizer.getAuthorizations(), is(4));
+    }
 }
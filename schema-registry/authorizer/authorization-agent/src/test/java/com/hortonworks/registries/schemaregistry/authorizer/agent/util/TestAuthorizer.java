@@ -23,15 +23,19 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TestAuthorizer implements Authorizer {
 
     private List<Policy> policies = new ArrayList<>();
+    private List<Runnable> policyChangeListeners = new ArrayList<>();
+    private AtomicInteger authorizations = new AtomicInteger();
 
     public void configure(Map<String, Object> props) { }
 
     @Override
     public boolean authorize(Resource resource, AccessType accessType, UserAndGroups userAndGroups) {
+        authorizations.incrementAndGet();
         for(Policy p : policies) {
             if(resourcesEqual(resource, p.resource)
                && p.accessTypes.contains(accessType)
@@ -43,8 +47,18 @@ public class TestAuthorizer implements Authorizer {
         return false;
     }
 
+    @Override
+    public void addPolicyChangeListener(Runnable listener) {
+        policyChangeListeners.add(listener);
+    }
+
     public void addPolicy(Policy p) {
         policies.add(p);
+        policyChangeListeners.forEach(Runnable::run);
+    }
+
+    public int getAuthorizations() {
+        return authorizations.get();
     }
 
     public static class Policy {
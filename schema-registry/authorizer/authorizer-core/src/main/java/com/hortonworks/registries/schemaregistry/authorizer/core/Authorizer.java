@@ -16,6 +16,7 @@
 package com.hortonworks.registries.schemaregistry.authorizer.core;
 
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -48,6 +49,15 @@ public interface Authorizer {
      */
     boolean authorize(Resource resource, AccessType accessType, UserAndGroups userAndGroups);
 
+    /**
+     * Registers a listener which is called whenever the policies used by this authorizer are changed, so that
+     * authorization decisions cached by the caller can be dropped. Authorizers which never change their policies
+     * do not need to call it.
+     *
+     * @param listener - listener to be called after the policies are changed
+     */
+    default void addPolicyChangeListener(Runnable listener) { }
+
 
     ///// The below classes are used to define independent object model for authorization /////
 
@@ -91,6 +101,20 @@ public interface Authorizer {
         public String toString() {
             return String.format("UserAndGroups{ user='%s', groups='%s' }", user, groups);
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            UserAndGroups that = (UserAndGroups) o;
+            return Objects.equals(user, that.user) && Objects.equals(groups, that.groups);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(user, groups);
+        }
     }
 
     /**
@@ -116,6 +140,19 @@ public interface Authorizer {
         public ResourceType getResourceType() {
             return resourceType;
         }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            return resourceType == ((Resource) o).resourceType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(resourceType);
+        }
     }
 
     /**
@@ -157,6 +194,19 @@ public interface Authorizer {
             return sMetadataName;
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (!super.equals(o)) return false;
+
+            SchemaMetadataResource that = (SchemaMetadataResource) o;
+            return Objects.equals(sGroupName, that.sGroupName) && Objects.equals(sMetadataName, that.sMetadataName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), sGroupName, sMetadataName);
+        }
+
         @Override
         public String toString() {
             return String.format("SchemaMetadata{ schemaGroupName='%s', schemaMetadataName='%s' }",
@@ -183,6 +233,18 @@ public interface Authorizer {
             return sBranchName;
         }
 
+        @Override
+        public boolean equals(Object o) {
+            if (!super.equals(o)) return false;
+
+            return Objects.equals(sBranchName, ((SchemaBranchResource) o).sBranchName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(super.hashCode(), sBranchName);
+        }
+
         @Override
         public String toString() {
             return String.format("SchemaBranch{ schemaGroupName='%s', schemaMetadataName='%s', schemaBranchName='%s' }",
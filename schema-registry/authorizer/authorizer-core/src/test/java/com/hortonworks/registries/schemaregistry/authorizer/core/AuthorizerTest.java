@@ -19,7 +19,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.BlockJUnit4ClassRunner;
 
+import java.util.Collections;
+
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
 import static org.junit.Assert.assertThat;
 
 @RunWith(BlockJUnit4ClassRunner.class)
@@ -50,4 +53,20 @@ public class AuthorizerTest {
         assertThat(resource.getResourceType(), is(Authorizer.ResourceType.SCHEMA_VERSION));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void authorizerResourcesEqualityTests() {
+        assertThat(new Authorizer.SerdeResource(), is(new Authorizer.SerdeResource()));
+
+        Authorizer.Resource resource = new Authorizer.SchemaBranchResource("Group", "Schema", "Branch");
+        assertThat(resource, is(new Authorizer.SchemaBranchResource("Group", "Schema", "Branch")));
+        assertThat(resource.hashCode(), is(new Authorizer.SchemaBranchResource("Group", "Schema", "Branch").hashCode()));
+        assertThat(resource, not(new Authorizer.SchemaBranchResource("Group", "Schema", "Branch1")));
+        assertThat(resource, not(new Authorizer.SchemaVersionResource("Group", "Schema", "Branch")));
+        assertThat(resource, not(new Authorizer.SchemaMetadataResource("Group", "Schema")));
+
+        Authorizer.UserAndGroups userAndGroups = new Authorizer.UserAndGroups("user", Collections.singleton("group"));
+        assertThat(userAndGroups, is(new Authorizer.UserAndGroups("user", Collections.singleton("group"))));
+        assertThat(userAndGroups, not(new Authorizer.UserAndGroups("user", Collections.emptySet())));
+    }
+
+}
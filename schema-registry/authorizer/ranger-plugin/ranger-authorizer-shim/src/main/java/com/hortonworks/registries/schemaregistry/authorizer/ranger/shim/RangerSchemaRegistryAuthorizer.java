@@ -77,6 +77,16 @@ public class RangerSchemaRegistryAuthorizer implements Authorizer {
         return ret;
     }
 
+    @Override
+    public void addPolicyChangeListener(Runnable listener) {
+        try {
+            activatePluginClassLoader();
+            rangerSRAuthorizerImpl.addPolicyChangeListener(listener);
+        } finally {
+            deactivatePluginClassLoader();
+        }
+    }
+
     private void init(){
         if(LOG.isDebugEnabled()) {
             LOG.debug("==> RangerSchemaRegistryAuthorizer.init()");
@@ -19,9 +19,12 @@ import org.apache.ranger.plugin.policyengine.RangerAccessRequestImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResourceImpl;
 import org.apache.ranger.plugin.policyengine.RangerAccessResult;
 import org.apache.ranger.plugin.service.RangerBasePlugin;
+import org.apache.ranger.plugin.util.ServicePolicies;
 import com.hortonworks.registries.schemaregistry.authorizer.core.Authorizer;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class RangerSchemaRegistryAuthorizerImpl implements Authorizer {
 
@@ -36,7 +39,7 @@ public class RangerSchemaRegistryAuthorizerImpl implements Authorizer {
     private static final String RANGER_RESOURCE_SCHEMA_VERSION = "schema-version";
     private static final String RANGER_RESOURCE_NONE_SCHEMA_VERSION = "none-sv";
 
-    private final RangerBasePlugin plg;
+    private final SchemaRegistryRangerPlugin plg;
 
     public RangerSchemaRegistryAuthorizerImpl() {
         this.plg = SchemaRegistryRangerPlugin.getInstance();
@@ -45,6 +48,11 @@ public class RangerSchemaRegistryAuthorizerImpl implements Authorizer {
     @Override
     public void configure(Map<String, Object> props) { }
 
+    @Override
+    public void addPolicyChangeListener(Runnable listener) {
+        plg.addPolicyChangeListener(listener);
+    }
+
     @Override
     public boolean authorize(Resource registryResource,
                              AccessType accessType,
@@ -121,6 +129,8 @@ public class RangerSchemaRegistryAuthorizerImpl implements Authorizer {
 
         private static SchemaRegistryRangerPlugin instance;
 
+        private final List<Runnable> policyChangeListeners = new CopyOnWriteArrayList<>();
+
         private SchemaRegistryRangerPlugin() {
             this(PLG_TYPE, PLG_NAME);
         }
@@ -140,6 +150,20 @@ public class RangerSchemaRegistryAuthorizerImpl implements Authorizer {
             }
             return instance;
         }
+
+        private void addPolicyChangeListener(Runnable listener) {
+            policyChangeListeners.add(listener);
+        }
+
+        // Policy refresher calls this whenever it downloads new policies from Ranger admin
+        @Override
+        public void setPolicies(ServicePolicies policies) {
+            super.setPolicies(policies);
+
+            for (Runnable listener : policyChangeListeners) {
+                listener.run();
+            }
+        }
     }
 
 }
@@ -18,29 +18,58 @@ package com.hortonworks.registries.schemaregistry.client;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import org.apache.commons.io.IOUtils;
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.MoreFiles;
+import com.google.common.util.concurrent.Striped;
+import com.hortonworks.registries.schemaregistry.SerDesInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.regex.Pattern;
 
 /**
- *
+ * Caches the class loaders of serializer/deserializer jars downloaded from schema registry.
+ * <p>
+ * Jars are kept in the local jars directory with their file id as name, so they are reused after restarts and by all
+ * the clients on the host which are configured with the same directory. A jar is downloaded into a temporary file and
+ * renamed to its file id once it is complete, while holding a lock on a lock file of that jar, so that concurrent
+ * clients in this or other processes download it only once. The lock file is deleted before its lock is released. Files uploaded to schema registry are identified by the
+ * SHA-256 digest of their content, such jars are verified with their digest when they are downloaded and loaded.
+ * <p>
+ * Class loaders evicted from the cache are not closed, serializers/deserializers created with them may still load
+ * classes and resources lazily. They are released along with their jar files once those instances are unreachable.
  */
 public class ClassLoaderCache {
     private static final Logger LOG = LoggerFactory.getLogger(ClassLoaderCache.class);
     public static final String CACHE_SIZE_KEY = SchemaRegistryClient.Configuration.CLASSLOADER_CACHE_SIZE.name();
     public static final String CACHE_EXPIRY_INTERVAL_KEY = SchemaRegistryClient.Configuration.CLASSLOADER_CACHE_EXPIRY_INTERVAL_SECS.name();
 
+    private static final Pattern CONTENT_ID_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final String LOCK_FILE_SUFFIX = ".lock";
+
+    // file locks are held by the process, concurrent downloads of a jar in this process are serialized with these locks
+    private static final Striped<Lock> JAR_LOCKS = Striped.lock(64);
+
     private final LoadingCache<String, ClassLoader> loadingCache;
     private final SchemaRegistryClient schemaRegistryClient;
     private final File localJarsDir;
@@ -52,7 +81,7 @@ public class ClassLoaderCache {
             @Override
             public ClassLoader load(String fileId) throws Exception {
                 File file = getFile(fileId);
-                return new URLClassLoader(new URL[]{file.toURI().toURL()});
+                return new JarClassLoader(new URL[]{file.toURI().toURL()});
             }
         };
 
@@ -69,7 +98,7 @@ public class ClassLoaderCache {
 
     private void ensureLocalDirsExist() {
         if (!localJarsDir.exists()) {
-            if (!localJarsDir.mkdirs()) {
+            if (!localJarsDir.mkdirs() && !localJarsDir.isDirectory()) {
                 LOG.error("Could not create given local jar storage dir: [{}]", localJarsDir.getAbsolutePath());
             }
         }
@@ -79,36 +108,94 @@ public class ClassLoaderCache {
         ensureLocalDirsExist();
 
         File file = new File(localJarsDir, fileId);
-        boolean created = file.createNewFile();
-        if (created) {
-            LOG.debug("File [{}] is created successfully", file);
-        } else {
+        if (isValid(file, fileId)) {
             LOG.debug("File [{}] already exists", file);
+            return file;
         }
 
-        try (FileOutputStream fos = new FileOutputStream(file);
-             FileInputStream fileInputStream = new FileInputStream(file)) {
-            LOG.debug("Loading file: [{}]", file);
-
-            if (fileInputStream.read() != -1) {
-                LOG.debug("File [{}] is already written with content and returning the existing file", file);
-                return file;
-            } else {
-                LOG.debug("File [{}] does not have content, downloading and storing started..", file);
-                try (InputStream inputStream = schemaRegistryClient.downloadFile(fileId)) {
-                    IOUtils.copy(inputStream, fos);
-                    LOG.debug("Finished storing file [{}]", file);
-                } catch (Exception e) {
-                    // truncate it now, so that next time it would be fetched again.
-                    fos.getChannel().truncate(0);
-                    throw e;
+        Lock lock = JAR_LOCKS.get(file.getAbsolutePath());
+        lock.lock();
+        File lockFile = new File(localJarsDir, fileId + LOCK_FILE_SUFFIX);
+        try (FileChannel lockChannel = FileChannel.open(lockFile.toPath(),
+                                                        StandardOpenOption.CREATE,
+                                                        StandardOpenOption.WRITE);
+             FileLock fileLock = lockChannel.lock()) {
+            try {
+                // it may have been downloaded by others while waiting for the lock
+                if (isValid(file, fileId)) {
+                    LOG.debug("File [{}] is downloaded by another client", file);
+                    return file;
                 }
+
+                download(fileId, file);
+            } finally {
+                deleteLockFile(lockFile);
             }
+        } finally {
+            lock.unlock();
         }
 
         return file;
     }
 
+    /**
+     * Deletes the lock file while its lock is held. Clients which opened it before find the jar downloaded once they get
+     * the lock. A client creating a new lock file while the download failed may download the jar concurrently with them,
+     * which is safe as the jar is renamed atomically.
+     */
+    private static void deleteLockFile(File lockFile) {
+        try {
+            Files.deleteIfExists(lockFile.toPath());
+        } catch (IOException e) {
+            LOG.warn("Failed to delete lock file [{}]", lockFile, e);
+        }
+    }
+
+    private void download(String fileId, File file) throws IOException {
+        LOG.debug("File [{}] does not exist, downloading and storing started..", file);
+        File tempFile = File.createTempFile(fileId, ".tmp", localJarsDir);
+        try {
+            String digest;
+            try (HashingInputStream inputStream = new HashingInputStream(Hashing.sha256(), schemaRegistryClient.downloadFile(fileId));
+                 OutputStream outputStream = new FileOutputStream(tempFile)) {
+                ByteStreams.copy(inputStream, outputStream);
+                digest = inputStream.hash().toString();
+            }
+
+            if (isContentId(fileId) && !fileId.equals(digest)) {
+                throw new IOException("Digest of downloaded content [" + digest + "] does not match with file [" + fileId + "]");
+            }
+
+            // a corrupted file is replaced, rename is atomic so that others never see a partially written file
+            Files.deleteIfExists(file.toPath());
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            LOG.debug("Finished storing file [{}]", file);
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    private boolean isValid(File file, String fileId) throws IOException {
+        if (!file.isFile() || file.length() == 0) {
+            return false;
+        }
+        if (!isContentId(fileId)) {
+            // files are only renamed to their id once they are completely written
+            return true;
+        }
+
+        String digest = MoreFiles.asByteSource(file.toPath()).hash(Hashing.sha256()).toString();
+        if (!fileId.equals(digest)) {
+            LOG.warn("Digest [{}] of file [{}] does not match with its content, it will be downloaded again", digest, file);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean isContentId(String fileId) {
+        return CONTENT_ID_PATTERN.matcher(fileId).matches();
+    }
+
     public ClassLoader getClassLoader(String fileId) {
         try {
             return loadingCache.get(fileId);
@@ -117,4 +204,51 @@ public class ClassLoaderCache {
         }
     }
 
+    /**
+     * Downloads the jars of the serializers/deserializers of the given schemas and creates their class loaders. Failures
+     * are logged, those jars are downloaded again when they are used. Prefetching stops when the thread is interrupted.
+     *
+     * @param schemaNames names of the schemas
+     */
+    public void prefetch(Collection<String> schemaNames) {
+        Set<String> fileIds = new LinkedHashSet<>();
+        for (String schemaName : schemaNames) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                for (SerDesInfo serDesInfo : schemaRegistryClient.getSerDes(schemaName)) {
+                    fileIds.add(serDesInfo.getSerDesPair().getFileId());
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to get serializers/deserializers of schema [{}]", schemaName, e);
+            }
+        }
+
+        for (String fileId : fileIds) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                getClassLoader(fileId);
+            } catch (Exception e) {
+                LOG.warn("Failed to prefetch file [{}]", fileId, e);
+            }
+        }
+    }
+
+    /**
+     * Class loader of a serializer/deserializer jar, which is registered as parallel capable so that concurrent loads of
+     * different classes lock on the class name instead of the whole class loader.
+     */
+    private static final class JarClassLoader extends URLClassLoader {
+        static {
+            ClassLoader.registerAsParallelCapable();
+        }
+
+        private JarClassLoader(URL[] urls) {
+            super(urls);
+        }
+    }
+
 }
@@ -17,6 +17,7 @@ package com.hortonworks.registries.schemaregistry.client;
 
 import com.hortonworks.registries.schemaregistry.ISchemaRegistryService;
 import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
+import com.hortonworks.registries.schemaregistry.SchemaVersionInfo;
 import com.hortonworks.registries.schemaregistry.SerDesInfo;
 import com.hortonworks.registries.schemaregistry.errors.IncompatibleSchemaException;
 import com.hortonworks.registries.schemaregistry.errors.InvalidSchemaException;
@@ -25,6 +26,9 @@ import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
 import com.hortonworks.registries.schemaregistry.serde.SerDesException;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * This interface defines different methods to interact with remote schema registry.
@@ -176,6 +180,26 @@ public interface ISchemaRegistryClient extends ISchemaRegistryService, AutoClose
      */
     boolean isCompatibleWithAllVersions(String schemaBranchName,String schemaName, String toSchemaText) throws SchemaNotFoundException, SchemaBranchNotFoundException ;
 
+    /**
+     * Returns {@link SchemaVersionInfo}s of all the given {@code schemaIdVersions}. Implementations may retrieve them
+     * from the target schema registry with a single request along with the metadata of their schemas and keep them in
+     * their local caches, so that later lookups of these versions with {@link #getSchemaVersionInfo(SchemaIdVersion)}
+     * and of their schemas with {@link #getSchemaMetadataInfo(String)} are served locally.
+     *
+     * @param schemaIdVersions keys identifying schema versions
+     *
+     * @return {@link SchemaVersionInfo}s in the same order as the given {@code schemaIdVersions}
+     *
+     * @throws SchemaNotFoundException when there is no schema version exists for any of the given {@code schemaIdVersions}
+     */
+    default Collection<SchemaVersionInfo> getSchemaVersionInfos(Collection<SchemaIdVersion> schemaIdVersions) throws SchemaNotFoundException {
+        List<SchemaVersionInfo> schemaVersionInfos = new ArrayList<>(schemaIdVersions.size());
+        for (SchemaIdVersion schemaIdVersion : schemaIdVersions) {
+            schemaVersionInfos.add(getSchemaVersionInfo(schemaIdVersion));
+        }
+        return schemaVersionInfos;
+    }
+
     /**
      * Returns a new instance of default serializer configured for the given type of schema.
      *
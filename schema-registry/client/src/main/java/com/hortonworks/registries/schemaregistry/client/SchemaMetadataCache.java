@@ -110,6 +110,13 @@ public class SchemaMetadataCache {
         loadingCache.put(key, schemaMetadataInfo);
     }
 
+    public void put(SchemaMetadataInfo schemaMetadataInfo) {
+        String name = schemaMetadataInfo.getSchemaMetadata().getName();
+        schemaNameToIdMap.put(name, schemaMetadataInfo.getId());
+        loadingCache.put(Key.of(name), schemaMetadataInfo);
+        loadingCache.put(Key.of(schemaMetadataInfo.getId()), schemaMetadataInfo);
+    }
+
     public SchemaMetadataInfo getIfPresent(Key key) {
         return loadingCache.getIfPresent(key);
     }
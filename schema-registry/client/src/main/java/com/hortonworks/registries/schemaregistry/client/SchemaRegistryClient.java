@@ -14,12 +14,19 @@
  **/
 package com.hortonworks.registries.schemaregistry.client;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.hortonworks.registries.auth.KerberosLogin;
 import com.hortonworks.registries.auth.Login;
 import com.hortonworks.registries.auth.NOOPLogin;
@@ -39,6 +46,7 @@ import com.hortonworks.registries.schemaregistry.SchemaMetadataInfo;
 import com.hortonworks.registries.schemaregistry.SchemaProviderInfo;
 import com.hortonworks.registries.schemaregistry.SchemaVersion;
 import com.hortonworks.registries.schemaregistry.SchemaVersionInfo;
+import com.hortonworks.registries.schemaregistry.SchemaVersionInfoBatch;
 import com.hortonworks.registries.schemaregistry.SchemaVersionKey;
 import com.hortonworks.registries.schemaregistry.SchemaVersionRetriever;
 import com.hortonworks.registries.schemaregistry.SerDesInfo;
@@ -82,6 +90,7 @@ import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.security.auth.login.LoginException;
 import javax.ws.rs.BadRequestException;
+import javax.ws.rs.NotAllowedException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
@@ -108,12 +117,18 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.hortonworks.registries.schemaregistry.client.SchemaRegistryClient.Configuration.DEFAULT_CONNECTION_TIMEOUT;
 import static com.hortonworks.registries.schemaregistry.client.SchemaRegistryClient.Configuration.DEFAULT_READ_TIMEOUT;
@@ -164,13 +179,22 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
     private static final Set<Class<?>> DESERIALIZER_INTERFACE_CLASSES = Sets.<Class<?>>newHashSet(SnapshotDeserializer.class, PullDeserializer.class, PushDeserializer.class);
     private static final Set<Class<?>> SERIALIZER_INTERFACE_CLASSES = Sets.<Class<?>>newHashSet(SnapshotSerializer.class, PullSerializer.class);
     private static final String SEARCH_FIELDS = SCHEMA_REGISTRY_PATH + "/search/schemas/fields";
+    private static final String LIMIT_PARAM_NAME = "_limit";
+    private static final String AFTER_PARAM_NAME = "_after";
     private static final long KERBEROS_SYNCHRONIZATION_TIMEOUT_MS = 180000;
 
     private static final String SSL_KEY_PASSWORD = "keyPassword";
     private static final String SSL_KEY_STORE_PATH = "keyStorePath";
 
+    // maximum number of versions retrieved with one batch request
+    private static final int SCHEMA_VERSION_BATCH_SIZE = 500;
+
     private static final SchemaRegistryVersion CLIENT_VERSION = SchemaRegistryServiceInfo.get().version();
 
+    // readers are immutable and thread safe, they are shared by all the client instances
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final ConcurrentMap<Class<?>, ObjectReader> OBJECT_READERS = new ConcurrentHashMap<>();
+
     private Login login;
     private final Client client;
     private final UrlSelector urlSelector;
@@ -191,6 +215,7 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
 
     private static final String DEFAULT_RETRY_STRATEGY_CLASS = NOOPBackoffPolicy.class.getCanonicalName();
     private final RetryExecutor retryExecutor;
+    private final ExecutorService prefetchExecutor;
 
     /**
      * Creates {@link SchemaRegistryClient} instance with the given yaml config.
@@ -288,6 +313,23 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
                                                                                                   .name())).longValue(),
                                                          TimeUnit.SECONDS)
                                       .build();
+
+        String prefetchSchemas = configuration.getValue(Configuration.PREFETCH_SCHEMAS.name());
+        if (prefetchSchemas != null) {
+            // jars are prefetched in the background, so that an unreachable registry does not block creating the client
+            List<String> schemaNames = Arrays.stream(prefetchSchemas.split(","))
+                                             .map(String::trim)
+                                             .filter(x -> !x.isEmpty())
+                                             .collect(Collectors.toList());
+            ThreadFactory threadFactory = new ThreadFactoryBuilder().setNameFormat("schema-registry-client-prefetch-%d")
+                                                                    .setDaemon(true)
+                                                                    .build();
+            prefetchExecutor = Executors.newSingleThreadExecutor(threadFactory);
+            prefetchExecutor.execute(() -> classLoaderCache.prefetch(schemaNames));
+            prefetchExecutor.shutdown();
+        } else {
+            prefetchExecutor = null;
+        }
     }
 
     private BackoffPolicy createRetryPolicy(String retryPolicyClass, Map<String, Object> retryPolicyProps) {
@@ -385,6 +427,7 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
         private final WebTarget filesTarget;
         private final WebTarget schemaVersionsTarget;
         private final WebTarget schemaVersionsByIdTarget;
+        private final WebTarget schemaVersionsByIdBatchTarget;
         private final WebTarget schemaVersionsStatesMachineTarget;
 
         SchemaRegistryTargets(WebTarget rootTarget) {
@@ -393,6 +436,7 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
             schemasTarget = rootTarget.path(SCHEMAS_PATH);
             schemasByIdTarget = rootTarget.path(SCHEMAS_BY_ID_PATH);
             schemaVersionsByIdTarget = schemasTarget.path("versionsById");
+            schemaVersionsByIdBatchTarget = schemaVersionsByIdTarget.path("batch");
             schemaVersionsTarget = rootTarget.path(SCHEMA_VERSIONS_PATH);
             schemaVersionsStatesMachineTarget = schemaVersionsTarget.path("statemachine");
             searchFieldsTarget = rootTarget.path(SEARCH_FIELDS);
@@ -525,6 +569,51 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
         return schemaMetadataCache.get(SchemaMetadataCache.Key.of(schemaMetadataId));
     }
 
+    /**
+     * Iterates over all the schemas registered in the schema registry in the order of their ids. Schemas are fetched
+     * lazily with {@code pageSize} schemas in each request while iterating, instead of fetching all of them at once.
+     *
+     * @param pageSize maximum number of schemas to be fetched in a request
+     * @return iterator of the registered schemas
+     */
+    public Iterator<SchemaMetadataInfo> listSchemaMetadata(int pageSize) {
+        Preconditions.checkArgument(pageSize > 0, "pageSize should be greater than zero");
+
+        return new AbstractIterator<SchemaMetadataInfo>() {
+            private Iterator<SchemaMetadataInfo> page = Collections.emptyIterator();
+            private Long lastId;
+            private boolean lastPage;
+
+            @Override
+            protected SchemaMetadataInfo computeNext() {
+                if (!page.hasNext()) {
+                    if (lastPage) {
+                        return endOfData();
+                    }
+                    List<SchemaMetadataInfo> schemaMetadataInfos = getSchemaMetadataPage(lastId, pageSize);
+                    lastPage = schemaMetadataInfos.size() < pageSize;
+                    page = schemaMetadataInfos.iterator();
+                    if (!page.hasNext()) {
+                        return endOfData();
+                    }
+                }
+                SchemaMetadataInfo schemaMetadataInfo = page.next();
+                lastId = schemaMetadataInfo.getId();
+                return schemaMetadataInfo;
+            }
+        };
+    }
+
+    private List<SchemaMetadataInfo> getSchemaMetadataPage(Long afterId, int limit) {
+        return runRetryableBlock((SchemaRegistryTargets targets) -> {
+            WebTarget webTarget = targets.schemasTarget.queryParam(LIMIT_PARAM_NAME, limit);
+            if (afterId != null) {
+                webTarget = webTarget.queryParam(AFTER_PARAM_NAME, afterId);
+            }
+            return getEntities(webTarget, SchemaMetadataInfo.class);
+        });
+    }
+
     @Override
     public void deleteSchema(String schemaName) throws SchemaNotFoundException {
         Collection<SchemaVersionInfo> schemaVersionInfos = getAllVersions(schemaName);
@@ -756,11 +845,8 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
     }
 
     public static CatalogResponse readCatalogResponse(String msg) {
-        ObjectMapper objectMapper = new ObjectMapper();
         try {
-            JsonNode node = objectMapper.readTree(msg);
-
-            return objectMapper.treeToValue(node, CatalogResponse.class);
+            return objectReader(CatalogResponse.class).readValue(msg);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
@@ -776,6 +862,53 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
         }
     }
 
+    @Override
+    public Collection<SchemaVersionInfo> getSchemaVersionInfos(Collection<SchemaIdVersion> schemaIdVersions) throws SchemaNotFoundException {
+        Set<SchemaIdVersion> missingSchemaIdVersions = new LinkedHashSet<>();
+        for (SchemaIdVersion schemaIdVersion : schemaIdVersions) {
+            // versions are looked up again when the metadata of their schema is not cached, it comes with the batch
+            SchemaVersionInfo schemaVersionInfo = schemaVersionInfoCache.getSchemaIfPresent(SchemaVersionInfoCache.Key.of(schemaIdVersion));
+            if (schemaVersionInfo == null
+                    || schemaMetadataCache.getIfPresent(SchemaMetadataCache.Key.of(schemaVersionInfo.getName())) == null) {
+                missingSchemaIdVersions.add(schemaIdVersion);
+            }
+        }
+
+        for (List<SchemaIdVersion> batch : Iterables.partition(missingSchemaIdVersions, SCHEMA_VERSION_BATCH_SIZE)) {
+            SchemaVersionInfoBatch schemaVersionInfoBatch = doGetSchemaVersionInfoBatch(batch);
+            if (schemaVersionInfoBatch == null) {
+                break;
+            }
+            for (SchemaMetadataInfo schemaMetadataInfo : schemaVersionInfoBatch.getSchemaMetadataInfos()) {
+                schemaMetadataCache.put(schemaMetadataInfo);
+            }
+            for (SchemaVersionInfo schemaVersionInfo : schemaVersionInfoBatch.getSchemaVersionInfos()) {
+                schemaVersionInfoCache.put(schemaVersionInfo);
+            }
+        }
+
+        // versions not returned in the batch are loaded one by one, which also reports the ones that do not exist.
+        List<SchemaVersionInfo> schemaVersionInfos = new ArrayList<>(schemaIdVersions.size());
+        for (SchemaIdVersion schemaIdVersion : schemaIdVersions) {
+            schemaVersionInfos.add(getSchemaVersionInfo(schemaIdVersion));
+        }
+
+        return schemaVersionInfos;
+    }
+
+    private SchemaVersionInfoBatch doGetSchemaVersionInfoBatch(Collection<SchemaIdVersion> schemaIdVersions) {
+        LOG.info("Getting [{}] schema versions from target registry", schemaIdVersions.size());
+        try {
+            return runRetryableBlock((SchemaRegistryTargets targets) -> {
+                return postEntity(targets.schemaVersionsByIdBatchTarget, schemaIdVersions, SchemaVersionInfoBatch.class);
+            });
+        } catch (NotFoundException | NotAllowedException e) {
+            // target registry does not support batch lookups
+            LOG.debug("Batch lookup of schema versions is not supported by target registry", e);
+            return null;
+        }
+    }
+
     @Override
     public SchemaVersionInfo getLatestSchemaVersionInfo(String schemaName) throws SchemaNotFoundException {
         return getLatestSchemaVersionInfo(SchemaBranch.MASTER_BRANCH, schemaName);
@@ -975,7 +1108,7 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
             throw new RuntimeException(response.readEntity(String.class));
         }
 
-        return parseResponseAsEntities(response.readEntity(String.class), SchemaBranch.class);
+        return parseResponseAsEntities(response.readEntity(InputStream.class), SchemaBranch.class);
     }
 
     @Override
@@ -1009,10 +1142,21 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
     public Collection<SchemaVersionInfo> getAllVersions(String schemaBranchName, String schemaName, List<Byte> stateIds) throws SchemaNotFoundException, SchemaBranchNotFoundException {
         return runRetryableBlock((SchemaRegistryTargets targets) -> {
             WebTarget webTarget = targets.schemasTarget.path(encode(schemaName) + "/versions").queryParam("branch", schemaBranchName).queryParam("states", stateIds.toArray());
-            return getEntities(webTarget, SchemaVersionInfo.class);
+            return cacheSchemaVersionInfos(getEntities(webTarget, SchemaVersionInfo.class));
         });
     }
 
+    /**
+     * Keeps the given versions retrieved from the target registry in the cache, so that looking them up later does not
+     * need another request.
+     */
+    private Collection<SchemaVersionInfo> cacheSchemaVersionInfos(Collection<SchemaVersionInfo> schemaVersionInfos) {
+        for (SchemaVersionInfo schemaVersionInfo : schemaVersionInfos) {
+            schemaVersionInfoCache.put(schemaVersionInfo);
+        }
+        return schemaVersionInfos;
+    }
+
     private boolean transitionSchemaVersionState(Long schemaVersionId,
                                                  String operationOrTargetState,
                                                  byte[] transitionDetails) throws SchemaNotFoundException, SchemaLifecycleException {
@@ -1064,7 +1208,7 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
     public Collection<SchemaVersionInfo> getAllVersions(String schemaBranchName, String schemaName) throws SchemaNotFoundException {
         return runRetryableBlock((SchemaRegistryTargets targets) -> {
             WebTarget webTarget = targets.schemasTarget.path(encode(schemaName) + "/versions").queryParam("branch", schemaBranchName);
-            return getEntities(webTarget, SchemaVersionInfo.class);
+            return cacheSchemaVersionInfos(getEntities(webTarget, SchemaVersionInfo.class));
         });
     }
 
@@ -1220,6 +1364,9 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
 
     @Override
     public void close() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
         client.close();
     }
 
@@ -1270,12 +1417,12 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
     }
 
     private <T> List<T> getEntities(WebTarget target, Class<T> clazz) {
-        String response = null;
+        InputStream response = null;
         try {
-            response = login.doAction(new PrivilegedAction<String>() {
+            response = login.doAction(new PrivilegedAction<InputStream>() {
                 @Override
-                public String run() {
-                    return target.request(MediaType.APPLICATION_JSON_TYPE).get(String.class);
+                public InputStream run() {
+                    return target.request(MediaType.APPLICATION_JSON_TYPE).get(InputStream.class);
                 }
             });
         } catch (LoginException | ProcessingException e) {
@@ -1284,28 +1431,53 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
         return parseResponseAsEntities(response, clazz);
     }
 
-    private <T> List<T> parseResponseAsEntities(String response, Class<T> clazz) {
-        List<T> entities = new ArrayList<>();
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode node = mapper.readTree(response);
-            Iterator<JsonNode> it = node.get("entities").elements();
-            while (it.hasNext()) {
-                entities.add(mapper.treeToValue(it.next(), clazz));
-            }
-        } catch (Exception ex) {
+    private <T> List<T> parseResponseAsEntities(InputStream response, Class<T> clazz) {
+        try (InputStream inputStream = response) {
+            return readEntities(inputStream, clazz);
+        } catch (JsonProcessingException ex) {
             throw new RuntimeException(ex);
+        } catch (IOException ex) {
+            throw new RegistryRetryableException(ex);
+        }
+    }
+
+    /**
+     * Binds the elements of {@code entities} array in the given json response while it is being parsed, without
+     * building a tree of the whole response.
+     */
+    static <T> List<T> readEntities(InputStream inputStream, Class<T> clazz) throws IOException {
+        List<T> entities = null;
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Response is not a json object");
+            }
+            ObjectReader objectReader = objectReader(clazz);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if ("entities".equals(fieldName) && token == JsonToken.START_ARRAY) {
+                    entities = new ArrayList<>();
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        entities.add(objectReader.readValue(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (entities == null) {
+                throw new JsonParseException(parser, "Response does not have entities");
+            }
         }
         return entities;
     }
 
     private <T> T postEntity(WebTarget target, Object json, Class<T> responseType) {
-        String response = null;
+        InputStream response = null;
         try {
-            response = login.doAction(new PrivilegedAction<String>() {
+            response = login.doAction(new PrivilegedAction<InputStream>() {
                 @Override
-                public String run() {
-                    return target.request(MediaType.APPLICATION_JSON_TYPE).post(Entity.json(json), String.class);
+                public InputStream run() {
+                    return target.request(MediaType.APPLICATION_JSON_TYPE).post(Entity.json(json), InputStream.class);
                 }
             });
         } catch (LoginException | ProcessingException e) {
@@ -1316,20 +1488,33 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
 
     private <T> T readEntity(String response, Class<T> clazz) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(response, clazz);
+            return objectReader(clazz).readValue(response);
         } catch (Exception ex) {
             throw new RuntimeException(ex);
         }
     }
 
+    private <T> T readEntity(InputStream response, Class<T> clazz) {
+        try (InputStream inputStream = response) {
+            return objectReader(clazz).readValue(inputStream);
+        } catch (JsonProcessingException ex) {
+            throw new RuntimeException(ex);
+        } catch (IOException ex) {
+            throw new RegistryRetryableException(ex);
+        }
+    }
+
+    private static ObjectReader objectReader(Class<?> clazz) {
+        return OBJECT_READERS.computeIfAbsent(clazz, OBJECT_MAPPER::readerFor);
+    }
+
     private <T> T getEntity(WebTarget target, Class<T> clazz) {
-        String response = null;
+        InputStream response = null;
         try {
-            response = login.doAction(new PrivilegedAction<String>() {
+            response = login.doAction(new PrivilegedAction<InputStream>() {
                 @Override
-                public String run() {
-                    return target.request(MediaType.APPLICATION_JSON_TYPE).get(String.class);
+                public InputStream run() {
+                    return target.request(MediaType.APPLICATION_JSON_TYPE).get(InputStream.class);
                 }
             });
         } catch (LoginException | ProcessingException e) {
@@ -1443,6 +1628,19 @@ public class SchemaRegistryClient implements ISchemaRegistryClient {
                                      ConfigEntry.IntegerConverter.get(),
                                      ConfigEntry.PositiveNumberValidator.get());
 
+        /**
+         * Comma separated names of schemas which are prefetched on start. Their serializer/deserializer jars are loaded
+         * in the background when the client is created, instead of when the first serializer/deserializer instance is
+         * created, and deserializers retrieve all their versions when they are initialized.
+         */
+        public static final ConfigEntry<String> PREFETCH_SCHEMAS =
+                ConfigEntry.optional("schema.registry.client.prefetch.schemas",
+                                     String.class,
+                                     "Comma separated names of schemas whose serializer/deserializer jars and versions are loaded on start",
+                                     null,
+                                     ConfigEntry.StringConverter.get(),
+                                     ConfigEntry.NonEmptyStringValidator.get());
+
         public static final long DEFAULT_SCHEMA_CACHE_SIZE = 1024;
         public static final long DEFAULT_SCHEMA_CACHE_EXPIRY_INTERVAL_SECS = 5 * 60L;
 
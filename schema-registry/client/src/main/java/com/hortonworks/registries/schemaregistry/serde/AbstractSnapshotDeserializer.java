@@ -23,10 +23,17 @@ import com.hortonworks.registries.schemaregistry.SchemaMetadata;
 import com.hortonworks.registries.schemaregistry.SchemaVersionInfo;
 import com.hortonworks.registries.schemaregistry.SchemaVersionKey;
 import com.hortonworks.registries.schemaregistry.client.ISchemaRegistryClient;
+import com.hortonworks.registries.schemaregistry.client.SchemaRegistryClient;
 import com.hortonworks.registries.schemaregistry.errors.InvalidSchemaException;
 import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
 import com.hortonworks.registries.schemaregistry.exceptions.RegistryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -53,6 +60,7 @@ import java.util.concurrent.TimeUnit;
  * @param <S> parsed schema representation to be stored in local cache
  */
 public abstract class AbstractSnapshotDeserializer<I, O, S> extends AbstractSerDes implements SnapshotDeserializer<I, O, Integer> {
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractSnapshotDeserializer.class);
 
     /**
      * Maximum inmemory cache size maintained in deserializer instance.
@@ -98,6 +106,61 @@ public abstract class AbstractSnapshotDeserializer<I, O, S> extends AbstractSerD
                         }
                     }
                 });
+
+        Collection<String> warmUpSchemaNames = getWarmUpSchemaNames(config);
+        if (!warmUpSchemaNames.isEmpty()) {
+            warmUp(warmUpSchemaNames);
+        }
+    }
+
+    /**
+     * Returns the names of the schemas configured with {@link SchemaRegistryClient.Configuration#PREFETCH_SCHEMAS},
+     * whose versions are retrieved from schema registry at init so that deserializing payloads of these schemas does
+     * not need a request for each version.
+     */
+    private Collection<String> getWarmUpSchemaNames(Map<String, ?> config) {
+        Object value = config.get(SchemaRegistryClient.Configuration.PREFETCH_SCHEMAS.name());
+        if (value == null) {
+            return Collections.emptyList();
+        }
+
+        List<String> schemaNames = new ArrayList<>();
+        for (String schemaName : value.toString().split(",")) {
+            String trimmedSchemaName = schemaName.trim();
+            if (!trimmedSchemaName.isEmpty()) {
+                schemaNames.add(trimmedSchemaName);
+            }
+        }
+        return schemaNames;
+    }
+
+    /**
+     * Retrieves all versions of the given schemas along with their metadata, which are kept in the caches of
+     * schema registry client. Failures are only logged as the versions are retrieved again when they are needed.
+     */
+    private void warmUp(Collection<String> schemaNames) {
+        int versions = 0;
+        List<SchemaIdVersion> schemaIdVersions = new ArrayList<>();
+        for (String schemaName : schemaNames) {
+            try {
+                // versions are cached by the client as they are retrieved, they are not looked up again
+                Collection<SchemaVersionInfo> schemaVersionInfos = schemaRegistryClient.getAllVersions(schemaName);
+                versions += schemaVersionInfos.size();
+                if (!schemaVersionInfos.isEmpty()) {
+                    schemaIdVersions.add(new SchemaIdVersion(schemaVersionInfos.iterator().next().getId()));
+                }
+            } catch (Exception e) {
+                LOG.warn("Failed to retrieve versions of schema [{}]", schemaName, e);
+            }
+        }
+
+        try {
+            // metadata of all the schemas is retrieved with a batch lookup of one version of each schema
+            schemaRegistryClient.getSchemaVersionInfos(schemaIdVersions);
+        } catch (Exception e) {
+            LOG.warn("Failed to retrieve metadata of schemas {}", schemaNames, e);
+        }
+        LOG.info("Retrieved [{}] versions of schemas {}", versions, schemaNames);
     }
 
     private Long getCacheExpiryInSecs(Map<String, ?> config) {
@@ -47,12 +47,9 @@ public abstract class AbstractSnapshotSerializer<I, O> extends AbstractSerDes im
     public final O serialize(I input, SchemaMetadata schemaMetadata) throws SerDesException {
         ensureInitialized();
 
-        // compute schema based on input object
-        String schema = getSchemaText(input);
-
-        // register that schema and get the version
+        // register schema of the given input and get the version
         try {
-            SchemaIdVersion schemaIdVersion = schemaRegistryClient.addSchemaVersion(schemaMetadata, new SchemaVersion(schema, "Schema registered by serializer:" + this.getClass()));
+            SchemaIdVersion schemaIdVersion = registerSchemaVersion(input, schemaMetadata);
             // write the version and given object to the output
             return doSerialize(input, schemaIdVersion);
         } catch (SchemaNotFoundException | IncompatibleSchemaException | InvalidSchemaException | SchemaBranchNotFoundException e) {
@@ -60,6 +57,29 @@ public abstract class AbstractSnapshotSerializer<I, O> extends AbstractSerDes im
         }
     }
 
+    /**
+     * Registers the schema of the given {@code input} as a version of the given {@code schemaMetadata} and returns
+     * the registered version. Extensions can override this to resolve the version without computing the schema text
+     * of each input, for ex: by caching versions against the schema objects already seen.
+     *
+     * @param input input payload
+     * @param schemaMetadata metadata of the schema to which the version belongs
+     */
+    protected SchemaIdVersion registerSchemaVersion(I input, SchemaMetadata schemaMetadata)
+            throws SchemaNotFoundException, IncompatibleSchemaException, InvalidSchemaException, SchemaBranchNotFoundException {
+        // compute schema based on input object
+        return addSchemaVersion(schemaMetadata, getSchemaText(input));
+    }
+
+    /**
+     * Registers the given {@code schemaText} as a version of the given {@code schemaMetadata} with the target schema registry.
+     */
+    protected final SchemaIdVersion addSchemaVersion(SchemaMetadata schemaMetadata, String schemaText)
+            throws SchemaNotFoundException, IncompatibleSchemaException, InvalidSchemaException, SchemaBranchNotFoundException {
+        return schemaRegistryClient.addSchemaVersion(schemaMetadata,
+                                                     new SchemaVersion(schemaText, "Schema registered by serializer:" + this.getClass()));
+    }
+
     /**
      * Returns textual representation of the schema for the given {@code input} payload.
      * @param input input payload
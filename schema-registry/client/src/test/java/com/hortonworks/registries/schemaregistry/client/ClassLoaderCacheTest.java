@@ -0,0 +1,189 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.schemaregistry.client;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import mockit.Expectations;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.jar.JarOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ *
+ */
+public class ClassLoaderCacheTest {
+    private static final String RESOURCE_NAME = "serdes.txt";
+
+    private File localJarsDir;
+    private SchemaRegistryClient schemaRegistryClient;
+
+    @Before
+    public void setup() throws IOException {
+        localJarsDir = Files.createTempDirectory("local-jars").toFile();
+        Map<String, Object> config = new HashMap<>();
+        config.put(SchemaRegistryClient.Configuration.SCHEMA_REGISTRY_URL.name(), "some-url");
+        config.put(SchemaRegistryClient.Configuration.LOCAL_JAR_PATH.name(), localJarsDir.getAbsolutePath());
+        schemaRegistryClient = new SchemaRegistryClient(config);
+    }
+
+    @After
+    public void cleanup() {
+        schemaRegistryClient.close();
+        File[] files = localJarsDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        localJarsDir.delete();
+    }
+
+    @Test
+    public void testJarIsDownloadedOnceForAllCaches() throws Exception {
+        byte[] jar = createJar("serdes");
+        String fileId = Hashing.sha256().hashBytes(jar).toString();
+
+        new Expectations(schemaRegistryClient) {{
+            schemaRegistryClient.downloadFile(fileId);
+            result = new ByteArrayInputStream(jar);
+            times = 1;
+        }};
+
+        // caches of different clients share the jars stored in the same directory
+        assertResource(new ClassLoaderCache(schemaRegistryClient).getClassLoader(fileId), "serdes");
+        assertResource(new ClassLoaderCache(schemaRegistryClient).getClassLoader(fileId), "serdes");
+
+        Assert.assertArrayEquals(jar, Files.readAllBytes(new File(localJarsDir, fileId).toPath()));
+        // lock files are deleted once the jar is downloaded
+        Assert.assertArrayEquals(new String[]{fileId}, localJarsDir.list());
+    }
+
+    @Test
+    public void testPrefetchDoesNotBlockClientCreation() throws Exception {
+        CountDownLatch prefetchStarted = new CountDownLatch(1);
+        CountDownLatch prefetchReleased = new CountDownLatch(1);
+        AtomicBoolean prefetched = new AtomicBoolean();
+        new MockUp<ClassLoaderCache>() {
+            @Mock
+            public void prefetch(Collection<String> schemaNames) throws InterruptedException {
+                prefetchStarted.countDown();
+                prefetched.set(prefetchReleased.await(10, TimeUnit.SECONDS));
+            }
+        };
+
+        Map<String, Object> config = new HashMap<>();
+        config.put(SchemaRegistryClient.Configuration.SCHEMA_REGISTRY_URL.name(), "some-url");
+        config.put(SchemaRegistryClient.Configuration.LOCAL_JAR_PATH.name(), localJarsDir.getAbsolutePath());
+        config.put(SchemaRegistryClient.Configuration.PREFETCH_SCHEMAS.name(), "schema");
+        SchemaRegistryClient prefetchingClient = new SchemaRegistryClient(config);
+        try {
+            // the client is created while its prefetch is still running
+            Assert.assertFalse(prefetched.get());
+            Assert.assertTrue(prefetchStarted.await(10, TimeUnit.SECONDS));
+        } finally {
+            prefetchReleased.countDown();
+            prefetchingClient.close();
+        }
+    }
+
+    @Test
+    public void testCorruptedJarIsDownloadedAgain() throws Exception {
+        byte[] jar = createJar("serdes");
+        String fileId = Hashing.sha256().hashBytes(jar).toString();
+        Files.write(new File(localJarsDir, fileId).toPath(), "corrupted".getBytes(StandardCharsets.UTF_8));
+
+        new Expectations(schemaRegistryClient) {{
+            schemaRegistryClient.downloadFile(fileId);
+            result = new ByteArrayInputStream(jar);
+            times = 1;
+        }};
+
+        assertResource(new ClassLoaderCache(schemaRegistryClient).getClassLoader(fileId), "serdes");
+        Assert.assertArrayEquals(jar, Files.readAllBytes(new File(localJarsDir, fileId).toPath()));
+    }
+
+    @Test
+    public void testJarWithDifferentDigestIsNotStored() throws Exception {
+        byte[] jar = createJar("serdes");
+        String fileId = Hashing.sha256().hashBytes(createJar("other-serdes")).toString();
+
+        new Expectations(schemaRegistryClient) {{
+            schemaRegistryClient.downloadFile(fileId);
+            result = new ByteArrayInputStream(jar);
+        }};
+
+        try {
+            new ClassLoaderCache(schemaRegistryClient).getClassLoader(fileId);
+            Assert.fail("Jar with a different digest should not be loaded");
+        } catch (RuntimeException e) {
+            // expected
+        }
+        // neither the jar nor its lock file is left
+        Assert.assertArrayEquals(new String[0], localJarsDir.list());
+    }
+
+    @Test
+    public void testJarWithoutDigestIdIsReused() throws Exception {
+        byte[] jar = createJar("serdes");
+        String fileId = "5d6ac2a3-4d6c-4b1e-8f5c-7a4b0b4e9d3c";
+
+        new Expectations(schemaRegistryClient) {{
+            schemaRegistryClient.downloadFile(fileId);
+            result = new ByteArrayInputStream(jar);
+            times = 1;
+        }};
+
+        assertResource(new ClassLoaderCache(schemaRegistryClient).getClassLoader(fileId), "serdes");
+        assertResource(new ClassLoaderCache(schemaRegistryClient).getClassLoader(fileId), "serdes");
+    }
+
+    private static void assertResource(ClassLoader classLoader, String expected) throws IOException {
+        try (InputStream inputStream = classLoader.getResourceAsStream(RESOURCE_NAME)) {
+            Assert.assertNotNull(inputStream);
+            Assert.assertEquals(expected, new String(ByteStreams.toByteArray(inputStream), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static byte[] createJar(String content) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (JarOutputStream jarOutputStream = new JarOutputStream(outputStream)) {
+            jarOutputStream.putNextEntry(new ZipEntry(RESOURCE_NAME));
+            jarOutputStream.write(content.getBytes(StandardCharsets.UTF_8));
+            jarOutputStream.closeEntry();
+        }
+        return outputStream.toByteArray();
+    }
+}
@@ -18,12 +18,26 @@ package com.hortonworks.registries.schemaregistry.client;
 import com.hortonworks.registries.schemaregistry.SchemaBranch;
 import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
 import com.hortonworks.registries.schemaregistry.SchemaMetadata;
+import com.hortonworks.registries.schemaregistry.SchemaMetadataInfo;
 import com.hortonworks.registries.schemaregistry.SchemaVersion;
+import com.hortonworks.registries.schemaregistry.SchemaVersionInfo;
+import com.hortonworks.registries.schemaregistry.SchemaVersionInfoBatch;
+import com.hortonworks.registries.schemaregistry.SchemaVersionKey;
+import com.hortonworks.registries.schemaregistry.state.SchemaVersionLifecycleStates;
 import mockit.Expectations;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import mockit.Tested;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import static mockit.Deencapsulation.invoke;
 
@@ -58,4 +72,56 @@ public class SchemaRegistryClientTest {
         schemaRegistryClient.addSchemaVersion(schemaMetaData, schemaVersion);
         schemaRegistryClient.addSchemaVersion(schemaName, schemaVersion);
     }
+
+    @Test
+    public void testGetSchemaVersionInfosWithBatch() throws Exception {
+        final SchemaMetadata schemaMetadata = new SchemaMetadata.Builder("foo").schemaGroup("group").type("type").build();
+        final SchemaMetadataInfo schemaMetadataInfo = new SchemaMetadataInfo(schemaMetadata, 1L, System.currentTimeMillis());
+        final SchemaVersionInfo v1 = new SchemaVersionInfo(10L, "foo", 1, 1L, "schema-text-1", System.currentTimeMillis(),
+                                                           "desc", SchemaVersionLifecycleStates.ENABLED.getId());
+        final SchemaVersionInfo v2 = new SchemaVersionInfo(11L, "foo", 2, 1L, "schema-text-2", System.currentTimeMillis(),
+                                                           "desc", SchemaVersionLifecycleStates.ENABLED.getId());
+        final List<SchemaIdVersion> schemaIdVersions = Arrays.asList(new SchemaIdVersion(11L), new SchemaIdVersion(1L, 1));
+
+        new Expectations(schemaRegistryClient) {{
+            invoke(schemaRegistryClient, "doGetSchemaVersionInfoBatch", schemaIdVersions);
+            result = new SchemaVersionInfoBatch(Arrays.asList(v1, v2), Collections.singletonList(schemaMetadataInfo));
+            times = 1; // versions are cached after the first batch
+        }};
+
+        Collection<SchemaVersionInfo> schemaVersionInfos = schemaRegistryClient.getSchemaVersionInfos(schemaIdVersions);
+        Assert.assertEquals(Arrays.asList(v2, v1), schemaVersionInfos);
+        Assert.assertEquals(Arrays.asList(v2, v1), schemaRegistryClient.getSchemaVersionInfos(schemaIdVersions));
+
+        // lookups of the retrieved versions and their metadata are served from the caches
+        Assert.assertEquals(v1, schemaRegistryClient.getSchemaVersionInfo(new SchemaIdVersion(10L)));
+        Assert.assertEquals(v2, schemaRegistryClient.getSchemaVersionInfo(new SchemaVersionKey("foo", 2)));
+        Assert.assertEquals(schemaMetadataInfo, schemaRegistryClient.getSchemaMetadataInfo("foo"));
+        Assert.assertEquals(schemaMetadataInfo, schemaRegistryClient.getSchemaMetadataInfo(1L));
+    }
+
+    @Test
+    public void testReadEntities() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int size : new int[]{0, 10, 1_000, 10_000}) {
+            List<SchemaVersionKey> schemaVersionKeys = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                schemaVersionKeys.add(new SchemaVersionKey("schema-" + i, i));
+            }
+            // other fields of the response are skipped irrespective of their position
+            String response = "{\"responseCode\":1000,\"other\":{\"entities\":[1,2]},\"entities\":"
+                    + objectMapper.writeValueAsString(schemaVersionKeys) + ",\"responseMessage\":[\"x\"]}";
+
+            List<SchemaVersionKey> entities =
+                    SchemaRegistryClient.readEntities(new ByteArrayInputStream(response.getBytes(StandardCharsets.UTF_8)),
+                                                      SchemaVersionKey.class);
+            Assert.assertEquals(schemaVersionKeys, entities);
+        }
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void testReadEntitiesWithoutEntities() throws Exception {
+        SchemaRegistryClient.readEntities(new ByteArrayInputStream("{\"responseCode\":1000}".getBytes(StandardCharsets.UTF_8)),
+                                          SchemaVersionKey.class);
+    }
 }
@@ -359,7 +359,7 @@ public interface ISchemaRegistryService {
 
     /**
      * Uploads the given {@code inputStream} of any file and returns the identifier for which it can be downloaded later
-     * with {@link #downloadFile(String)}.
+     * with {@link #downloadFile(String)}. Files with the same content are stored once with the same identifier.
      *
      * @param inputStream input stream of a file to be uploaded.
      *
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.schemaregistry;
+
+import com.hortonworks.registries.schemaregistry.errors.InvalidSchemaException;
+import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
+
+import java.util.List;
+
+/**
+ * Result of parsing a schema text with a {@link SchemaProvider} once, which is shared by the steps of adding a schema
+ * version instead of parsing the same text in each of them. Fields of the schema are generated only when they are
+ * asked for, as they are not needed when the same schema version already exists.
+ */
+public class ParsedSchemaVersion {
+
+    private final String schemaText;
+    private final byte[] fingerprint;
+    private final FieldsGenerator fieldsGenerator;
+    private List<SchemaFieldInfo> schemaFieldInfos;
+
+    /**
+     * @param schemaText      schema text as it was given
+     * @param fingerprint     fingerprint of canonicalized form of the schema
+     * @param fieldsGenerator generates all the fields of the schema
+     */
+    public ParsedSchemaVersion(String schemaText, byte[] fingerprint, FieldsGenerator fieldsGenerator) {
+        this.schemaText = schemaText;
+        this.fingerprint = fingerprint;
+        this.fieldsGenerator = fieldsGenerator;
+    }
+
+    public String getSchemaText() {
+        return schemaText;
+    }
+
+    /**
+     * @return fingerprint of canonicalized form of the schema, same as {@link SchemaProvider#getFingerprint(String)}
+     */
+    public byte[] getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return all the fields of the schema, same as {@link SchemaProvider#generateFields(String)}
+     * @throws InvalidSchemaException  when the schema is invalid.
+     * @throws SchemaNotFoundException when there are no schemas found mentioned in include fields of the schema text.
+     */
+    public synchronized List<SchemaFieldInfo> getSchemaFieldInfos() throws InvalidSchemaException, SchemaNotFoundException {
+        if (schemaFieldInfos == null) {
+            schemaFieldInfos = fieldsGenerator.generateFields();
+        }
+        return schemaFieldInfos;
+    }
+
+    /**
+     * Generates fields of a parsed schema.
+     */
+    public interface FieldsGenerator {
+        List<SchemaFieldInfo> generateFields() throws InvalidSchemaException, SchemaNotFoundException;
+    }
+}
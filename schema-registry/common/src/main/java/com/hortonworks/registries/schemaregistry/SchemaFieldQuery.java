@@ -20,9 +20,12 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- *
+ * Query to find schema versions containing a field with the given name, namespace and type. Values which are not set
+ * match any field, a value ending with {@link #PREFIX_WILDCARD} matches the values starting with the rest of it.
  */
 public class SchemaFieldQuery {
+    public static final String PREFIX_WILDCARD = "*";
+
     private final String name;
     private final String namespace;
     private final String type;
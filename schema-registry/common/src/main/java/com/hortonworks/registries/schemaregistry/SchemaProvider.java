@@ -105,4 +105,20 @@ public interface SchemaProvider {
      * @throws SchemaNotFoundException when any of the dependent includedSchemas does not exist
      */
     String getResultantSchema(String schemaText) throws InvalidSchemaException, SchemaNotFoundException;
+
+    /**
+     * Returns the fingerprint and the fields of the given {@code schemaText}, which are the same as the ones returned
+     * by {@link #getFingerprint(String)} and {@link #generateFields(String)}. Providers can override this to parse and
+     * resolve the given schema only once for both of them.
+     *
+     * @param schemaText schema text
+     *
+     * @return parsed schema version of the given {@code schemaText}
+     *
+     * @throws InvalidSchemaException  when the given schema is invalid.
+     * @throws SchemaNotFoundException when there are no schemas found mentioned in include fields of the schema text.
+     */
+    default ParsedSchemaVersion parseSchemaVersion(String schemaText) throws InvalidSchemaException, SchemaNotFoundException {
+        return new ParsedSchemaVersion(schemaText, getFingerprint(schemaText), () -> generateFields(schemaText));
+    }
 }
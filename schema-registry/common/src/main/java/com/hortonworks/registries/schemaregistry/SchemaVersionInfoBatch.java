@@ -0,0 +1,63 @@
+/**
+ * Copyright 2017-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package com.hortonworks.registries.schemaregistry;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ *   This class represents the schema versions retrieved in a single lookup along with the metadata of the schemas
+ *   they belong to. Each schema metadata is included only once even when many of the versions belong to it.
+ */
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SchemaVersionInfoBatch implements Serializable {
+
+    private static final long serialVersionUID = 4633245262187094342L;
+
+    private Collection<SchemaVersionInfo> schemaVersionInfos = Collections.emptyList();
+    private Collection<SchemaMetadataInfo> schemaMetadataInfos = Collections.emptyList();
+
+    private SchemaVersionInfoBatch() {
+
+    }
+
+    public SchemaVersionInfoBatch(Collection<SchemaVersionInfo> schemaVersionInfos,
+                                  Collection<SchemaMetadataInfo> schemaMetadataInfos) {
+        this.schemaVersionInfos = schemaVersionInfos;
+        this.schemaMetadataInfos = schemaMetadataInfos;
+    }
+
+    public Collection<SchemaVersionInfo> getSchemaVersionInfos() {
+        return schemaVersionInfos;
+    }
+
+    public Collection<SchemaMetadataInfo> getSchemaMetadataInfos() {
+        return schemaMetadataInfos;
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaVersionInfoBatch{" +
+                "schemaVersionInfos=" + schemaVersionInfos +
+                ", schemaMetadataInfos=" + schemaMetadataInfos +
+                '}';
+    }
+}
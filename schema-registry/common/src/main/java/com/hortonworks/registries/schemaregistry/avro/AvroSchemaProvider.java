@@ -15,8 +15,15 @@
 package com.hortonworks.registries.schemaregistry.avro;
 
 import com.google.common.base.Joiner;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.hortonworks.registries.schemaregistry.AbstractSchemaProvider;
 import com.hortonworks.registries.schemaregistry.CompatibilityResult;
+import com.hortonworks.registries.schemaregistry.ParsedSchemaVersion;
 import com.hortonworks.registries.schemaregistry.SchemaCompatibility;
 import com.hortonworks.registries.schemaregistry.SchemaFieldInfo;
 import com.hortonworks.registries.schemaregistry.errors.InvalidSchemaException;
@@ -26,12 +33,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 /**
@@ -42,6 +52,23 @@ public class AvroSchemaProvider extends AbstractSchemaProvider {
 
     public static final String TYPE = "avro";
 
+    // total length of the schema texts of the cached parsed schemas
+    private static final long PARSED_SCHEMA_CACHE_MAX_WEIGHT = 8L * 1024 * 1024;
+    private static final long COMPATIBILITY_RESULT_CACHE_SIZE = 10000L;
+
+    // Parsed schemas are only read by validators, so they can be shared. They are weighed by the length of their text,
+    // so that a few large schemas can not hold a lot of memory.
+    private final Cache<String, Schema> parsedSchemas =
+            CacheBuilder.newBuilder()
+                        .maximumWeight(PARSED_SCHEMA_CACHE_MAX_WEIGHT)
+                        .weigher((String schemaText, Schema schema) -> schemaText.length())
+                        .build();
+
+    // Compatibility of a pair of schemas never changes, so checks against all the versions of a schema only validate
+    // the pairs which were not seen before. Pairs are kept with the digests of the schema texts instead of the texts.
+    private final Cache<CompatibilityKey, CompatibilityResult> compatibilityResults =
+            CacheBuilder.newBuilder().maximumSize(COMPATIBILITY_RESULT_CACHE_SIZE).build();
+
     @Override
     public String getName() {
         return "Avro schema provider";
@@ -61,23 +88,21 @@ public class AvroSchemaProvider extends AbstractSchemaProvider {
     public CompatibilityResult checkCompatibility(String toSchemaText,
                                                   String existingSchemaText,
                                                   SchemaCompatibility existingSchemaCompatibility) {
-        return AvroSchemaValidator
-                .of(existingSchemaCompatibility)
-                .validate(new Schema.Parser().parse(toSchemaText),
-                          new Schema.Parser().parse(existingSchemaText));
+        CompatibilityKey key = new CompatibilityKey(toSchemaText, existingSchemaText, existingSchemaCompatibility);
+        CompatibilityResult compatibilityResult = compatibilityResults.getIfPresent(key);
+        if (compatibilityResult == null) {
+            compatibilityResult = AvroSchemaValidator
+                    .of(existingSchemaCompatibility)
+                    .validate(parse(toSchemaText), parse(existingSchemaText));
+            compatibilityResults.put(key, compatibilityResult);
+        }
+
+        return compatibilityResult;
     }
 
     @Override
     public byte[] getFingerprint(String schemaText) throws InvalidSchemaException, SchemaNotFoundException {
-        try {
-            // generates fingerprint of canonical form of the given schema.
-            Schema schema = new Schema.Parser().parse(getResultantSchema(schemaText));
-            return MessageDigest.getInstance("MD5").digest(normalize(schema).getBytes());
-        } catch (IOException e) {
-            throw new InvalidSchemaException("Given schema is invalid", e);
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
+        return getFingerprint(resolve(schemaText));
     }
 
     @Override
@@ -89,7 +114,48 @@ public class AvroSchemaProvider extends AbstractSchemaProvider {
     @Override
     public List<SchemaFieldInfo> generateFields(String schemaText) throws InvalidSchemaException, SchemaNotFoundException {
         AvroFieldsGenerator avroFieldsGenerator = new AvroFieldsGenerator();
-        return avroFieldsGenerator.generateFields(new Schema.Parser().parse(getResultantSchema(schemaText)));
+        return avroFieldsGenerator.generateFields(resolve(schemaText));
+    }
+
+    @Override
+    public ParsedSchemaVersion parseSchemaVersion(String schemaText) throws InvalidSchemaException, SchemaNotFoundException {
+        Schema schema = resolve(schemaText);
+        return new ParsedSchemaVersion(schemaText,
+                                       getFingerprint(schema),
+                                       () -> new AvroFieldsGenerator().generateFields(schema));
+    }
+
+    /**
+     * @return effective schema of the given {@code schemaText}, it is resolved and parsed only once instead of
+     * rendering the resultant schema into text and parsing it again.
+     */
+    private Schema resolve(String schemaText) throws InvalidSchemaException, SchemaNotFoundException {
+        AvroSchemaResolver avroSchemaResolver = new AvroSchemaResolver(getSchemaVersionRetriever());
+        return avroSchemaResolver.resolve(schemaText);
+    }
+
+    private byte[] getFingerprint(Schema schema) throws InvalidSchemaException {
+        try {
+            // generates fingerprint of canonical form of the given schema.
+            return MessageDigest.getInstance("MD5").digest(normalize(schema).getBytes());
+        } catch (IOException e) {
+            throw new InvalidSchemaException("Given schema is invalid", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return parsed schema of the given {@code schemaText}, which is shared with other callers and should not be modified.
+     */
+    private Schema parse(String schemaText) {
+        try {
+            return parsedSchemas.get(schemaText, () -> new Schema.Parser().parse(schemaText));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            // parser throws only unchecked exceptions like SchemaParseException, rethrow them as they are.
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
     }
 
     public String normalize(Schema schema) throws IOException {
@@ -198,4 +264,33 @@ public class AvroSchemaProvider extends AbstractSchemaProvider {
         appendable.append(",\"type\":\"").append(schemaType.getName()).append("\"");
     }
 
+    private static class CompatibilityKey {
+        private final HashCode toSchemaDigest;
+        private final HashCode existingSchemaDigest;
+        private final SchemaCompatibility compatibility;
+
+        CompatibilityKey(String toSchemaText, String existingSchemaText, SchemaCompatibility compatibility) {
+            this.toSchemaDigest = Hashing.sha256().hashString(toSchemaText, StandardCharsets.UTF_8);
+            this.existingSchemaDigest = Hashing.sha256().hashString(existingSchemaText, StandardCharsets.UTF_8);
+            this.compatibility = compatibility;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            CompatibilityKey that = (CompatibilityKey) o;
+
+            return compatibility == that.compatibility &&
+                    Objects.equals(toSchemaDigest, that.toSchemaDigest) &&
+                    Objects.equals(existingSchemaDigest, that.existingSchemaDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(toSchemaDigest, existingSchemaDigest, compatibility);
+        }
+    }
+
 }
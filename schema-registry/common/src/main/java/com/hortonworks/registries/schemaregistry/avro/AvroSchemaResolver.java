@@ -95,6 +95,7 @@ import static org.apache.avro.Schema.Type.RECORD;
  *
  */
 public class AvroSchemaResolver implements SchemaResolver {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     private enum SchemaParsingState {
         PARSING, PARSED
@@ -118,6 +119,20 @@ public class AvroSchemaResolver implements SchemaResolver {
         return getResultantSchema(schemaText, schemaParsingStates);
     }
 
+    /**
+     * Returns the effective schema of the given {@code schemaText} without rendering it back into text, which is the
+     * same as parsing the text returned by {@link #resolveSchema(String)}.
+     *
+     * @param schemaText schema text which may include other schemas
+     * @return effective schema with all the included types
+     * @throws InvalidSchemaException  when the given schema or any of the included schemas is not valid
+     * @throws SchemaNotFoundException when any of the included schemas does not exist
+     */
+    public Schema resolve(String schemaText) throws InvalidSchemaException, SchemaNotFoundException {
+        Map<String, Schema> complexTypes = traverseIncludedSchemaTypes(schemaText, new HashMap<>());
+        return handleUnionFieldsWithNull(parse(schemaText, complexTypes), new HashSet<>());
+    }
+
     private String getResultantSchema(SchemaVersionKey schemaVersionKey,
                                       Map<String, SchemaParsingState> schemaParsingStates)
             throws InvalidSchemaException, SchemaNotFoundException {
@@ -129,15 +144,19 @@ public class AvroSchemaResolver implements SchemaResolver {
             throws InvalidSchemaException, SchemaNotFoundException {
         Map<String, Schema> complexTypes = traverseIncludedSchemaTypes(schemaText, schemaParsingStates);
 
-        Schema.Parser parser = new Schema.Parser();
-        parser.addTypes(complexTypes);
-        Schema schema = parser.parse(schemaText);
+        Schema schema = parse(schemaText, complexTypes);
         Set<String> visitingTypes = new HashSet<>();
         Schema updatedSchema = handleUnionFieldsWithNull(schema, visitingTypes);
 
         return (schema == updatedSchema && complexTypes.isEmpty()) ? schemaText : updatedSchema.toString();
     }
 
+    private static Schema parse(String schemaText, Map<String, Schema> complexTypes) {
+        Schema.Parser parser = new Schema.Parser();
+        parser.addTypes(complexTypes);
+        return parser.parse(schemaText);
+    }
+
     public Schema handleUnionFieldsWithNull(Schema schema, Set<String> visitingTypes) {
         if (visitingTypes.contains(schema.getFullName())) {
             return schema;
@@ -277,7 +296,7 @@ public class AvroSchemaResolver implements SchemaResolver {
     private List<SchemaVersionKey> getIncludedSchemaVersions(String schemaText) throws InvalidSchemaException {
         JsonNode jsonNode = null;
         try {
-            jsonNode = new ObjectMapper().readTree(schemaText);
+            jsonNode = OBJECT_MAPPER.readTree(schemaText);
         } catch (IOException e) {
             throw new InvalidSchemaException(e);
         }
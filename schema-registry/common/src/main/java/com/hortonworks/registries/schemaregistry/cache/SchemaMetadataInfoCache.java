@@ -0,0 +1,195 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package com.hortonworks.registries.schemaregistry.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.BiMap;
+import com.google.common.collect.HashBiMap;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.hortonworks.registries.schemaregistry.SchemaMetadataInfo;
+import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading cache of {@link SchemaMetadataInfo} which can be looked up with schema name or schema metadata id. Absent
+ * schema metadata is not cached, so it is looked up again on the next access. Entries expire after the given time since
+ * they were loaded, even if they are accessed.
+ */
+public class SchemaMetadataInfoCache implements AbstractCache {
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaMetadataInfoCache.class);
+
+    private final LoadingCache<Key, SchemaMetadataInfo> loadingCache;
+    private final BiMap<String, Long> schemaNameToIdMap;
+
+    public SchemaMetadataInfoCache(Integer size, Long expiryInSecs, final SchemaMetadataInfoFetcher schemaMetadataInfoFetcher) {
+        schemaNameToIdMap = Maps.synchronizedBiMap(HashBiMap.create());
+        loadingCache = CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(expiryInSecs, TimeUnit.SECONDS)
+                .build(new CacheLoader<Key, SchemaMetadataInfo>() {
+                    @Override
+                    public SchemaMetadataInfo load(Key key) throws Exception {
+                        SchemaMetadataInfo schemaMetadataInfo;
+                        Key otherKey;
+                        if (key.getName() != null) {
+                            schemaMetadataInfo = schemaMetadataInfoFetcher.fetch(key.getName());
+                            otherKey = Key.of(schemaMetadataInfo.getId());
+                        } else if (key.getId() != null) {
+                            schemaMetadataInfo = schemaMetadataInfoFetcher.fetch(key.getId());
+                            otherKey = Key.of(schemaMetadataInfo.getSchemaMetadata().getName());
+                        } else {
+                            throw new IllegalArgumentException("Given argument is not valid: " + key);
+                        }
+                        schemaNameToIdMap.forcePut(schemaMetadataInfo.getSchemaMetadata().getName(), schemaMetadataInfo.getId());
+                        loadingCache.put(otherKey, schemaMetadataInfo);
+                        return schemaMetadataInfo;
+                    }
+                });
+    }
+
+    /**
+     * @return schema metadata for the given key, or null if there is no such schema metadata
+     */
+    public SchemaMetadataInfo get(Key key) {
+        try {
+            return loadingCache.get(key);
+        } catch (UncheckedExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SchemaNotFoundException) {
+                return null;
+            }
+            LOG.error("Error occurred while retrieving schema metadata for [{}]", key, e);
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    public SchemaMetadataInfo getIfPresent(Key key) {
+        return loadingCache.getIfPresent(key);
+    }
+
+    public void invalidateSchemaMetadata(Key key) {
+        LOG.info("Invalidating cache entry for key [{}]", key);
+
+        loadingCache.invalidate(key);
+
+        // entries are always cached with both the keys, other key is invalidated even if this key has already expired
+        Long id = key.getName() != null ? schemaNameToIdMap.remove(key.getName()) : key.getId();
+        String name = key.getId() != null ? schemaNameToIdMap.inverse().remove(key.getId()) : key.getName();
+        if (id != null) {
+            loadingCache.invalidate(Key.of(id));
+        }
+        if (name != null) {
+            loadingCache.invalidate(Key.of(name));
+        }
+    }
+
+    public void invalidateAll() {
+        LOG.info("Invalidating all the cache entries");
+
+        loadingCache.invalidateAll();
+        schemaNameToIdMap.clear();
+    }
+
+    @Override
+    public SchemaRegistryCacheType getCacheType() {
+        return SchemaRegistryCacheType.SCHEMA_METADATA_CACHE;
+    }
+
+    public interface SchemaMetadataInfoFetcher {
+        SchemaMetadataInfo fetch(String name) throws SchemaNotFoundException;
+
+        SchemaMetadataInfo fetch(Long id) throws SchemaNotFoundException;
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Key {
+
+        @JsonProperty
+        private String name;
+
+        @JsonProperty
+        private Long id;
+
+        private Key(String name) {
+            Preconditions.checkNotNull(name, "name can not be null");
+            this.name = name;
+        }
+
+        private Key(Long id) {
+            Preconditions.checkNotNull(id, "id can not be null");
+            this.id = id;
+        }
+
+        // For JSON serialization/deserialization
+        private Key() {
+
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return "Key {" +
+                    "name='" + name + '\'' +
+                    ", id=" + id +
+                    '}';
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+
+            if (name != null ? !name.equals(key.name) : key.name != null) return false;
+            return id != null ? id.equals(key.id) : key.id == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = name != null ? name.hashCode() : 0;
+            result = 31 * result + (id != null ? id.hashCode() : 0);
+            return result;
+        }
+
+        public static Key of(String name) {
+            return new Key(name);
+        }
+
+        public static Key of(Long id) {
+            return new Key(id);
+        }
+    }
+}
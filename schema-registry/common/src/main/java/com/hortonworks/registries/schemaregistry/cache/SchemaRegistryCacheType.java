@@ -19,5 +19,6 @@ package com.hortonworks.registries.schemaregistry.cache;
 public enum  SchemaRegistryCacheType {
     SCHEMA_BRANCH_CACHE,
     SCHEMA_VERSION_CACHE,
+    SCHEMA_METADATA_CACHE,
     ALL;
 }
@@ -112,6 +112,25 @@ public class SchemaVersionInfoCache implements AbstractCache {
         return loadingCache.getIfPresent(key);
     }
 
+    /**
+     * Adds the given {@code schemaVersionInfo}, which was retrieved from the target service without going through this
+     * cache, so that it can be looked up with any of its keys.
+     *
+     * @param schemaVersionInfo schema version to be cached
+     */
+    public void put(SchemaVersionInfo schemaVersionInfo) {
+        LOG.debug("Adding entry to cache for schema version [{}]", schemaVersionInfo.getId());
+        updateCacheInvalidationEntries(schemaVersionInfo);
+
+        loadingCache.put(Key.of(new SchemaIdVersion(schemaVersionInfo.getId())), schemaVersionInfo);
+        loadingCache.put(Key.of(new SchemaVersionKey(schemaVersionInfo.getName(), schemaVersionInfo.getVersion())),
+                         schemaVersionInfo);
+        if (schemaVersionInfo.getSchemaMetadataId() != null) {
+            loadingCache.put(Key.of(new SchemaIdVersion(schemaVersionInfo.getSchemaMetadataId(), schemaVersionInfo.getVersion())),
+                             schemaVersionInfo);
+        }
+    }
+
     public void invalidateSchema(SchemaVersionInfoCache.Key key) {
         LOG.debug("Invalidating cache entry for key [{}]", key);
         loadingCache.invalidate(key);
@@ -172,6 +191,14 @@ public class SchemaVersionInfoCache implements AbstractCache {
 
         }
 
+        public SchemaVersionKey getSchemaVersionKey() {
+            return schemaVersionKey;
+        }
+
+        public SchemaIdVersion getSchemaIdVersion() {
+            return schemaIdVersion;
+        }
+
         @Override
         public String toString() {
             return "Key {" +
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry;
+
+import com.hortonworks.registries.schemaregistry.cache.SchemaMetadataInfoCache;
+import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
+import com.hortonworks.registries.schemaregistry.utils.ObjectMapperUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ */
+public class SchemaMetadataInfoCacheTest {
+
+    @Test
+    public void testSchemaMetadataCache() throws Exception {
+        SchemaMetadataInfo schemaMetadataInfo = createSchemaMetadataInfo("schema-1", 1L);
+        SchemaMetadataInfo otherSchemaMetadataInfo = createSchemaMetadataInfo("schema-2", 2L);
+        CountingFetcher fetcher = new CountingFetcher(schemaMetadataInfo, otherSchemaMetadataInfo);
+        SchemaMetadataInfoCache schemaMetadataInfoCache = new SchemaMetadataInfoCache(32, 60L, fetcher);
+
+        // loading with name caches it with id too
+        Assert.assertEquals(schemaMetadataInfo, schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of("schema-1")));
+        Assert.assertEquals(schemaMetadataInfo, schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of(1L)));
+        Assert.assertEquals(1, fetcher.fetches.get());
+
+        // loading with id caches it with name too
+        Assert.assertEquals(otherSchemaMetadataInfo, schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of(2L)));
+        Assert.assertEquals(otherSchemaMetadataInfo, schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of("schema-2")));
+        Assert.assertEquals(2, fetcher.fetches.get());
+
+        // invalidating with one key removes the entry of the other key
+        schemaMetadataInfoCache.invalidateSchemaMetadata(SchemaMetadataInfoCache.Key.of("schema-1"));
+        Assert.assertNull(schemaMetadataInfoCache.getIfPresent(SchemaMetadataInfoCache.Key.of("schema-1")));
+        Assert.assertNull(schemaMetadataInfoCache.getIfPresent(SchemaMetadataInfoCache.Key.of(1L)));
+        schemaMetadataInfoCache.invalidateSchemaMetadata(SchemaMetadataInfoCache.Key.of(2L));
+        Assert.assertNull(schemaMetadataInfoCache.getIfPresent(SchemaMetadataInfoCache.Key.of("schema-2")));
+        Assert.assertNull(schemaMetadataInfoCache.getIfPresent(SchemaMetadataInfoCache.Key.of(2L)));
+
+        Assert.assertEquals(schemaMetadataInfo, schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of(1L)));
+        Assert.assertEquals(3, fetcher.fetches.get());
+    }
+
+    @Test
+    public void testAbsentSchemaMetadataIsNotCached() throws Exception {
+        SchemaMetadataInfo schemaMetadataInfo = createSchemaMetadataInfo("schema-1", 1L);
+        CountingFetcher fetcher = new CountingFetcher();
+        SchemaMetadataInfoCache schemaMetadataInfoCache = new SchemaMetadataInfoCache(32, 60L, fetcher);
+
+        Assert.assertNull(schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of("schema-1")));
+        Assert.assertNull(schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of(1L)));
+
+        fetcher.add(schemaMetadataInfo);
+        Assert.assertEquals(schemaMetadataInfo, schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of("schema-1")));
+    }
+
+    @Test
+    public void testKeySerialization() throws Exception {
+        SchemaMetadataInfoCache.Key nameKey = SchemaMetadataInfoCache.Key.of("schema-1");
+        SchemaMetadataInfoCache.Key idKey = SchemaMetadataInfoCache.Key.of(1L);
+
+        Assert.assertEquals(nameKey, ObjectMapperUtils.deserialize(ObjectMapperUtils.serializeToString(nameKey),
+                                                                   SchemaMetadataInfoCache.Key.class));
+        Assert.assertEquals(idKey, ObjectMapperUtils.deserialize(ObjectMapperUtils.serializeToString(idKey),
+                                                                 SchemaMetadataInfoCache.Key.class));
+    }
+
+    private static SchemaMetadataInfo createSchemaMetadataInfo(String name, Long id) {
+        SchemaMetadata schemaMetadata = new SchemaMetadata.Builder(name)
+                .type("avro")
+                .schemaGroup("group")
+                .build();
+        return new SchemaMetadataInfo(schemaMetadata, id, System.currentTimeMillis());
+    }
+
+    private static class CountingFetcher implements SchemaMetadataInfoCache.SchemaMetadataInfoFetcher {
+        private final Map<String, SchemaMetadataInfo> byName = new HashMap<>();
+        private final Map<Long, SchemaMetadataInfo> byId = new HashMap<>();
+        private final AtomicInteger fetches = new AtomicInteger();
+
+        CountingFetcher(SchemaMetadataInfo... schemaMetadataInfos) {
+            for (SchemaMetadataInfo schemaMetadataInfo : schemaMetadataInfos) {
+                add(schemaMetadataInfo);
+            }
+        }
+
+        void add(SchemaMetadataInfo schemaMetadataInfo) {
+            byName.put(schemaMetadataInfo.getSchemaMetadata().getName(), schemaMetadataInfo);
+            byId.put(schemaMetadataInfo.getId(), schemaMetadataInfo);
+        }
+
+        @Override
+        public SchemaMetadataInfo fetch(String name) throws SchemaNotFoundException {
+            return fetch(byName.get(name), name);
+        }
+
+        @Override
+        public SchemaMetadataInfo fetch(Long id) throws SchemaNotFoundException {
+            return fetch(byId.get(id), id);
+        }
+
+        private SchemaMetadataInfo fetch(SchemaMetadataInfo schemaMetadataInfo, Object key) throws SchemaNotFoundException {
+            fetches.incrementAndGet();
+            if (schemaMetadataInfo == null) {
+                throw new SchemaNotFoundException("Schema not found with " + key);
+            }
+            return schemaMetadataInfo;
+        }
+    }
+}
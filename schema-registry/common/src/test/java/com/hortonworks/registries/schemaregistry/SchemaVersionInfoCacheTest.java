@@ -121,4 +121,42 @@ public class SchemaVersionInfoCacheTest {
         }
 
     }
+
+    @Test
+    public void testPutSchemaVersion() throws Exception {
+        SchemaVersionInfo schemaVersionInfo = new SchemaVersionInfo(3L, "schema-1", 2, 1L, "schema-text", System
+                .currentTimeMillis(), "schema-description", SchemaVersionLifecycleStates.ENABLED.getId());
+        SchemaIdVersion withVersionId = new SchemaIdVersion(3L);
+        SchemaIdVersion withMetaIdAndVersion = new SchemaIdVersion(1L, 2);
+        SchemaIdVersion withBoth = new SchemaIdVersion(1L, 2, 3L);
+        SchemaVersionKey schemaVersionKey = new SchemaVersionKey("schema-1", 2);
+
+        SchemaVersionRetriever schemaRetriever = new SchemaVersionRetriever() {
+            @Override
+            public SchemaVersionInfo retrieveSchemaVersion(SchemaVersionKey key) throws SchemaNotFoundException {
+                throw new SchemaNotFoundException("Not expected to be loaded: " + key);
+            }
+
+            @Override
+            public SchemaVersionInfo retrieveSchemaVersion(SchemaIdVersion key) throws SchemaNotFoundException {
+                throw new SchemaNotFoundException("Not expected to be loaded: " + key);
+            }
+        };
+
+        SchemaVersionInfoCache schemaVersionInfoCache = new SchemaVersionInfoCache(schemaRetriever, 32, 60 * 1000L);
+        schemaVersionInfoCache.put(schemaVersionInfo);
+
+        // all keys should be served from the cache without loading from target
+        for (SchemaIdVersion idVersion : Sets.newHashSet(withVersionId, withMetaIdAndVersion, withBoth)) {
+            Assert.assertEquals(schemaVersionInfo, schemaVersionInfoCache.getSchema(SchemaVersionInfoCache.Key.of(idVersion)));
+        }
+        Assert.assertEquals(schemaVersionInfo, schemaVersionInfoCache.getSchema(SchemaVersionInfoCache.Key.of(schemaVersionKey)));
+
+        // invalidating with one of the keys should invalidate the others as well
+        schemaVersionInfoCache.invalidateSchema(SchemaVersionInfoCache.Key.of(schemaVersionKey));
+        for (SchemaIdVersion idVersion : Sets.newHashSet(withVersionId, withMetaIdAndVersion, withBoth)) {
+            Assert.assertNull(schemaVersionInfoCache.getSchemaIfPresent(SchemaVersionInfoCache.Key.of(idVersion)));
+        }
+        Assert.assertNull(schemaVersionInfoCache.getSchemaIfPresent(SchemaVersionInfoCache.Key.of(schemaVersionKey)));
+    }
 }
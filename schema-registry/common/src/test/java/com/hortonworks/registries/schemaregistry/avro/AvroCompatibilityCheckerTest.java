@@ -17,6 +17,7 @@ package com.hortonworks.registries.schemaregistry.avro;
 
 import com.hortonworks.registries.schemaregistry.CompatibilityResult;
 import com.hortonworks.registries.schemaregistry.SchemaCompatibility;
+import org.apache.avro.SchemaParseException;
 import org.apache.commons.io.IOUtils;
 import org.junit.Assert;
 import org.junit.Test;
@@ -92,4 +93,25 @@ public class AvroCompatibilityCheckerTest {
         }
     }
 
+    @Test
+    public void testCompatibilityResultsAreReusedForSameSchemas() throws Exception {
+        AvroSchemaProvider avroSchemaProvider = new AvroSchemaProvider();
+        String toSchema = fetchResourceText("/avro/book-invalid-compat.avsc");
+
+        CompatibilityResult backwardResult =
+                avroSchemaProvider.checkCompatibility(toSchema, initialVersionSchema(), SchemaCompatibility.BACKWARD);
+        Assert.assertFalse(backwardResult.isCompatible());
+        Assert.assertSame(backwardResult,
+                          avroSchemaProvider.checkCompatibility(new String(toSchema), initialVersionSchema(), SchemaCompatibility.BACKWARD));
+
+        // results are kept per compatibility
+        Assert.assertTrue(avroSchemaProvider.checkCompatibility(toSchema, initialVersionSchema(), SchemaCompatibility.NONE)
+                                            .isCompatible());
+    }
+
+    @Test(expected = SchemaParseException.class)
+    public void testInvalidSchemaText() throws Exception {
+        new AvroSchemaProvider().checkCompatibility("{\"type\":\"record\"", initialVersionSchema(), SchemaCompatibility.BACKWARD);
+    }
+
 }
@@ -15,6 +15,7 @@
  */
 package com.hortonworks.registries.schemaregistry.avro;
 
+import com.hortonworks.registries.schemaregistry.ParsedSchemaVersion;
 import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
 import com.hortonworks.registries.schemaregistry.SchemaProvider;
 import com.hortonworks.registries.schemaregistry.SchemaVersionInfo;
@@ -31,6 +32,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.security.MessageDigest;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -148,4 +150,31 @@ public class AvroCompositeSchemasTest {
         Assert.assertEquals(effectiveSchema, parsedReturnedSchema);
     }
 
+    @Test
+    public void testParsedSchemaVersionIsSameAsParsingResultantSchema() throws Exception {
+        for (String schemaLocation : new String[]{"/avro/composites/account.avsc",
+                                                  "/avro/composites/util.avsc",
+                                                  "/avro/composites/unions.avsc",
+                                                  "/avro/composites/unions-with-defaults.avsc",
+                                                  "/avro/composites/unions-with-props.avsc"}) {
+            String schemaText = getResourceText(schemaLocation);
+
+            // fingerprints are stored with schema versions, they should not change with the way schemas are parsed
+            Schema resultantSchema = new Schema.Parser().parse(avroSchemaProvider.getResultantSchema(schemaText));
+            byte[] expectedFingerprint = MessageDigest.getInstance("MD5")
+                                                      .digest(avroSchemaProvider.normalize(resultantSchema).getBytes());
+
+            ParsedSchemaVersion parsedSchemaVersion = avroSchemaProvider.parseSchemaVersion(schemaText);
+            Assert.assertEquals(schemaText, parsedSchemaVersion.getSchemaText());
+            Assert.assertArrayEquals(schemaLocation, expectedFingerprint, parsedSchemaVersion.getFingerprint());
+            Assert.assertArrayEquals(schemaLocation, expectedFingerprint, avroSchemaProvider.getFingerprint(schemaText));
+            Assert.assertEquals(schemaLocation,
+                                new AvroFieldsGenerator().generateFields(resultantSchema),
+                                parsedSchemaVersion.getSchemaFieldInfos());
+            Assert.assertEquals(schemaLocation,
+                                parsedSchemaVersion.getSchemaFieldInfos(),
+                                avroSchemaProvider.generateFields(schemaText));
+        }
+    }
+
 }
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry;
+
+import com.google.common.collect.Iterables;
+import com.hortonworks.registries.schemaregistry.state.SchemaVersionLifecycleStates;
+import com.hortonworks.registries.schemaregistry.state.details.InitializedStateDetails;
+import com.hortonworks.registries.schemaregistry.state.details.MergeInfo;
+import com.hortonworks.registries.schemaregistry.utils.ObjectMapperUtils;
+import com.hortonworks.registries.storage.Storable;
+import com.hortonworks.registries.storage.StorageManager;
+import com.hortonworks.registries.storage.search.SearchQuery;
+import com.hortonworks.registries.storage.search.WhereClause;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link AggregatedSchemaMetadataInfo}s for a set of schemas. Branches, branch version mappings, versions, states
+ * and serdes of all the given schemas are loaded with one query for each of those tables, instead of looking them up for
+ * every schema and version separately, and they are assembled in memory.
+ */
+class AggregatedSchemaMetadataLoader {
+
+    // number of values in an IN list of a query, Oracle does not support more than 1000 values.
+    static final int MAX_IN_VALUES = 1000;
+
+    private final StorageManager storageManager;
+
+    AggregatedSchemaMetadataLoader(StorageManager storageManager) {
+        this.storageManager = storageManager;
+    }
+
+    /**
+     * @param schemaMetadataInfos schemas to be aggregated
+     * @return aggregated schema metadata of the given schemas in the same order
+     */
+    List<AggregatedSchemaMetadataInfo> load(Collection<SchemaMetadataInfo> schemaMetadataInfos) {
+        if (schemaMetadataInfos.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<String> schemaNames = schemaMetadataInfos.stream()
+                                                     .map(x -> x.getSchemaMetadata().getName())
+                                                     .collect(Collectors.toSet());
+        Set<Long> schemaMetadataIds = schemaMetadataInfos.stream()
+                                                         .map(SchemaMetadataInfo::getId)
+                                                         .collect(Collectors.toSet());
+
+        Map<Long, SchemaBranch> schemaBranches = new HashMap<>();
+        for (SchemaBranchStorable storable : this.<SchemaBranchStorable>findIn(SchemaBranchStorable.NAME_SPACE,
+                                                                               SchemaBranchStorable.SCHEMA_METADATA_NAME,
+                                                                               schemaNames)) {
+            schemaBranches.put(storable.getId(), storable.toSchemaBranch());
+        }
+
+        // version ids of each branch in ascending order
+        Map<Long, TreeSet<Long>> branchVersionIds = new HashMap<>();
+        for (SchemaBranchVersionMapping mapping : this.<SchemaBranchVersionMapping>findIn(SchemaBranchVersionMapping.NAMESPACE,
+                                                                                          SchemaBranchVersionMapping.SCHEMA_BRANCH_ID,
+                                                                                          schemaBranches.keySet())) {
+            branchVersionIds.computeIfAbsent(mapping.getSchemaBranchId(), x -> new TreeSet<>())
+                            .add(mapping.getSchemaVersionInfoId());
+        }
+
+        Map<Long, SchemaVersionInfo> schemaVersionInfos = new HashMap<>();
+        for (SchemaVersionStorable storable : this.<SchemaVersionStorable>findIn(SchemaVersionStorable.NAME_SPACE,
+                                                                                 SchemaVersionStorable.NAME,
+                                                                                 schemaNames)) {
+            schemaVersionInfos.put(storable.getId(), storable.toSchemaVersionInfo());
+        }
+
+        // latest initiated state of each version has the merge details
+        Map<Long, SchemaVersionStateStorable> initiatedStates = new HashMap<>();
+        for (SchemaVersionStateStorable storable : this.<SchemaVersionStateStorable>findIn(SchemaVersionStateStorable.NAME_SPACE,
+                                                                                           SchemaVersionStateStorable.SCHEMA_VERSION_ID,
+                                                                                           schemaVersionInfos.keySet())) {
+            if (SchemaVersionLifecycleStates.INITIATED.getId().equals(storable.getStateId())) {
+                initiatedStates.merge(storable.getSchemaVersionId(), storable,
+                                      (x, y) -> x.getSequence() >= y.getSequence() ? x : y);
+            }
+        }
+        for (SchemaVersionInfo schemaVersionInfo : schemaVersionInfos.values()) {
+            SchemaVersionStateStorable initiatedState = initiatedStates.get(schemaVersionInfo.getId());
+            schemaVersionInfo.setMergeInfo(initiatedState != null ? getMergeInfo(initiatedState) : null);
+        }
+
+        Map<Long, List<Long>> schemaSerDesIds = new HashMap<>();
+        for (SchemaSerDesMapping mapping : this.<SchemaSerDesMapping>findIn(SchemaSerDesMapping.NAMESPACE,
+                                                                            SchemaSerDesMapping.SCHEMA_METADATA_ID,
+                                                                            schemaMetadataIds)) {
+            schemaSerDesIds.computeIfAbsent(mapping.getSchemaMetadataId(), x -> new ArrayList<>())
+                           .add(mapping.getSerDesId());
+        }
+
+        Set<Long> serDesIds = schemaSerDesIds.values().stream().flatMap(Collection::stream).collect(Collectors.toSet());
+        Map<Long, SerDesInfo> serDesInfos = this.<SerDesInfoStorable>findIn(SerDesInfoStorable.NAME_SPACE,
+                                                                            SerDesInfoStorable.ID,
+                                                                            serDesIds)
+                .stream()
+                .collect(Collectors.toMap(SerDesInfoStorable::getId, SerDesInfoStorable::toSerDesInfo));
+
+        Map<String, List<SchemaBranch>> schemaNameWithBranches =
+                schemaBranches.values()
+                              .stream()
+                              .filter(x -> branchVersionIds.containsKey(x.getId()))
+                              .sorted(Comparator.comparing(SchemaBranch::getId))
+                              .collect(Collectors.groupingBy(SchemaBranch::getSchemaMetadataName));
+
+        List<AggregatedSchemaMetadataInfo> result = new ArrayList<>(schemaMetadataInfos.size());
+        for (SchemaMetadataInfo schemaMetadataInfo : schemaMetadataInfos) {
+            List<AggregatedSchemaBranch> aggregatedSchemaBranches = new ArrayList<>();
+            for (SchemaBranch schemaBranch : schemaNameWithBranches.getOrDefault(schemaMetadataInfo.getSchemaMetadata().getName(),
+                                                                                 Collections.emptyList())) {
+                TreeSet<Long> versionIds = branchVersionIds.get(schemaBranch.getId());
+                Long rootVersion = schemaBranch.getName().equals(SchemaBranch.MASTER_BRANCH) ? null : versionIds.first();
+                List<SchemaVersionInfo> branchSchemaVersionInfos = versionIds.descendingSet()
+                                                                             .stream()
+                                                                             .map(schemaVersionInfos::get)
+                                                                             .filter(x -> x != null)
+                                                                             .collect(Collectors.toList());
+                aggregatedSchemaBranches.add(new AggregatedSchemaBranch(schemaBranch, rootVersion, branchSchemaVersionInfos));
+            }
+
+            List<SerDesInfo> schemaSerDesInfos = schemaSerDesIds.getOrDefault(schemaMetadataInfo.getId(), Collections.emptyList())
+                                                                .stream()
+                                                                .map(serDesInfos::get)
+                                                                .collect(Collectors.toList());
+
+            result.add(new AggregatedSchemaMetadataInfo(schemaMetadataInfo.getSchemaMetadata(),
+                                                        schemaMetadataInfo.getId(),
+                                                        schemaMetadataInfo.getTimestamp(),
+                                                        aggregatedSchemaBranches,
+                                                        schemaSerDesInfos));
+        }
+
+        return result;
+    }
+
+    private MergeInfo getMergeInfo(SchemaVersionStateStorable initiatedState) {
+        if (initiatedState.getDetails() == null) {
+            return null;
+        }
+        try {
+            return ObjectMapperUtils.deserialize(initiatedState.getDetails(), InitializedStateDetails.class).getMergeInfo();
+        } catch (IOException e) {
+            throw new RuntimeException(String.format("Failed to serialize state details of schema version : '%s'",
+                                                     initiatedState.getSchemaVersionId()), e);
+        }
+    }
+
+    private <T extends Storable> List<T> findIn(String namespace, String fieldName, Collection<?> values) {
+        return findIn(storageManager, namespace, fieldName, values);
+    }
+
+    /**
+     * Finds the entries of the given namespace whose field has one of the given values, with an IN query for every
+     * {@link #MAX_IN_VALUES} values.
+     */
+    static <T extends Storable> List<T> findIn(StorageManager storageManager, String namespace, String fieldName, Collection<?> values) {
+        List<T> result = new ArrayList<>();
+        for (List<?> partition : Iterables.partition(new HashSet<>(values), MAX_IN_VALUES)) {
+            SearchQuery searchQuery = SearchQuery.searchFrom(namespace)
+                                                 .where(WhereClause.begin().in(fieldName, partition).combine());
+            result.addAll(storageManager.<T>search(searchQuery));
+        }
+        return result;
+    }
+}
@@ -16,8 +16,10 @@ package com.hortonworks.registries.schemaregistry;
 
 import com.google.common.base.Preconditions;
 import com.hortonworks.registries.common.QueryParam;
+import com.hortonworks.registries.common.Schema;
 import com.hortonworks.registries.common.util.FileStorage;
 import com.hortonworks.registries.schemaregistry.cache.SchemaBranchCache;
+import com.hortonworks.registries.schemaregistry.cache.SchemaMetadataInfoCache;
 import com.hortonworks.registries.schemaregistry.cache.SchemaRegistryCacheType;
 import com.hortonworks.registries.schemaregistry.cache.SchemaVersionInfoCache;
 import com.hortonworks.registries.schemaregistry.errors.IncompatibleSchemaException;
@@ -41,9 +43,11 @@ import com.hortonworks.registries.storage.OrderByField;
 import com.hortonworks.registries.storage.Storable;
 import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.StorageManager;
+import com.hortonworks.registries.storage.TransactionManager;
 import com.hortonworks.registries.storage.search.OrderBy;
 import com.hortonworks.registries.storage.search.SearchQuery;
 import com.hortonworks.registries.storage.search.WhereClause;
+import com.hortonworks.registries.storage.search.WhereClauseCombiner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,7 +61,6 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -69,6 +72,8 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
     private static final Logger LOG = LoggerFactory.getLogger(DefaultSchemaRegistry.class);
 
     public static final String ORDER_BY_FIELDS_PARAM_NAME = "_orderByFields";
+    public static final String LIMIT_PARAM_NAME = "_limit";
+    public static final String AFTER_PARAM_NAME = "_after";
     public static final String DEFAULT_SCHEMA_VERSION_MERGE_STRATEGY = "OPTIMISTIC";
     private static final Long DEFAULT_SCHEMA_LOCK_TIMEOUT_IN_SECS = 120L;
 
@@ -80,6 +85,8 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
     private List<SchemaProviderInfo> schemaProviderInfos;
     private SchemaVersionLifecycleManager schemaVersionLifecycleManager;
     private SchemaBranchCache schemaBranchCache;
+    private SchemaMetadataInfoCache schemaMetadataInfoCache;
+    private AggregatedSchemaMetadataLoader aggregatedSchemaMetadataLoader;
     private HAServerNotificationManager haServerNotificationManager;
     private SchemaLockManager schemaLockManager;
 
@@ -115,13 +122,18 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
         schemaBranchCache = new SchemaBranchCache(options.getMaxSchemaCacheSize(),
                                                   options.getSchemaExpiryInSecs(),
                                                   createSchemaBranchFetcher());
+        schemaMetadataInfoCache = new SchemaMetadataInfoCache(options.getMaxSchemaCacheSize(),
+                                                              options.getSchemaExpiryInSecs(),
+                                                              createSchemaMetadataInfoFetcher());
+        aggregatedSchemaMetadataLoader = new AggregatedSchemaMetadataLoader(storageManager);
 
         SchemaMetadataFetcher schemaMetadataFetcher = createSchemaMetadataFetcher();
         schemaVersionLifecycleManager = new SchemaVersionLifecycleManager(storageManager,
                                                                           props,
                                                                           schemaMetadataFetcher,
                                                                           schemaBranchCache,
-                                                                          haServerNotificationManager);
+                                                                          haServerNotificationManager,
+                                                                          schemaLockManager.getTransactionManager());
 
         Collection<? extends SchemaProvider> schemaProviders = initSchemaProviders(schemaProvidersConfig,
                                                                                    schemaVersionLifecycleManager.getSchemaVersionRetriever());
@@ -144,6 +156,12 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
                                                                       schemaProvider
                                                                               .getDefaultDeserializerClassName()))
                                .collect(Collectors.toList()));
+
+        try {
+            schemaVersionLifecycleManager.loadSchemaFieldIndex();
+        } catch (Exception e) {
+            LOG.warn("Failed to load schema field index, it will be loaded with the first search by fields", e);
+        }
     }
 
 
@@ -161,6 +179,28 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
         };
     }
 
+    private SchemaMetadataInfoCache.SchemaMetadataInfoFetcher createSchemaMetadataInfoFetcher() {
+        return new SchemaMetadataInfoCache.SchemaMetadataInfoFetcher() {
+            @Override
+            public SchemaMetadataInfo fetch(String name) throws SchemaNotFoundException {
+                SchemaMetadataInfo schemaMetadataInfo = fetchSchemaMetadataInfo(name);
+                if (schemaMetadataInfo == null) {
+                    throw new SchemaNotFoundException("Schema not found with name " + name);
+                }
+                return schemaMetadataInfo;
+            }
+
+            @Override
+            public SchemaMetadataInfo fetch(Long id) throws SchemaNotFoundException {
+                SchemaMetadataInfo schemaMetadataInfo = fetchSchemaMetadataInfo(id);
+                if (schemaMetadataInfo == null) {
+                    throw new SchemaNotFoundException("Schema not found with id " + id);
+                }
+                return schemaMetadataInfo;
+            }
+        };
+    }
+
     private SchemaMetadataFetcher createSchemaMetadataFetcher() {
         return new SchemaMetadataFetcher() {
 
@@ -266,11 +306,19 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
 
         storageManager.add(new SchemaLockStorable(givenSchemaMetadataStorable.getNameSpace(), givenSchemaMetadataStorable.getName(), System.currentTimeMillis()));
 
+        // the new schema can be cached before it is committed, for ex by the compatibility check of its first version
+        SchemaMetadataInfoCache.Key key = SchemaMetadataInfoCache.Key.of(schemaMetadata.getName());
+        schemaLockManager.getTransactionManager().afterRollback(() -> schemaMetadataInfoCache.invalidateSchemaMetadata(key));
+
         return givenSchemaMetadataStorable.getId();
     }
 
     @Override
     public SchemaMetadataInfo getSchemaMetadataInfo(Long schemaMetadataId) {
+        return schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of(schemaMetadataId));
+    }
+
+    private SchemaMetadataInfo fetchSchemaMetadataInfo(Long schemaMetadataId) {
         SchemaMetadataStorable givenSchemaMetadataStorable = new SchemaMetadataStorable();
         givenSchemaMetadataStorable.setId(schemaMetadataId);
 
@@ -291,34 +339,41 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
     @Override
     public void deleteSchema(String schemaName) throws SchemaNotFoundException {
         Collection<SchemaVersionInfo> schemaVersionInfos = getAllVersions(schemaName);
-        Long schemaMetadataId = null;
         // Remove all the schema version state entities for this schema name, invalidate relevant caches and notify all HA servers
         if (schemaVersionInfos != null) {
+            List<StorableKey> schemaVersionStateKeys = new ArrayList<>();
             for (SchemaVersionInfo schemaVersionInfo: schemaVersionInfos) {
                 invalidateCachesAndNotifyAllHAServers(schemaVersionInfo);
-                schemaMetadataId = schemaVersionInfo.getSchemaMetadataId();
-                List<QueryParam> queryParams = new ArrayList<>();
-                queryParams.add(new QueryParam(SchemaVersionStateStorable.SCHEMA_VERSION_ID, schemaVersionInfo.getId().toString()));
-                Collection<SchemaVersionStateStorable> schemaVersionStateStorables = storageManager.find(SchemaVersionStateStorable.NAME_SPACE, queryParams);
+                // only the fields of the keys are loaded, state details are not needed
+                SearchQuery searchQuery = SearchQuery.searchFrom(SchemaVersionStateStorable.NAME_SPACE)
+                                                     .select(SchemaVersionStateStorable.SCHEMA_VERSION_ID,
+                                                             SchemaVersionStateStorable.STATE,
+                                                             SchemaVersionStateStorable.SEQUENCE)
+                                                     .where(WhereClause.begin()
+                                                                       .eq(SchemaVersionStateStorable.SCHEMA_VERSION_ID, schemaVersionInfo.getId())
+                                                                       .combine());
+                Collection<SchemaVersionStateStorable> schemaVersionStateStorables = storageManager.search(searchQuery);
                 if (schemaVersionStateStorables != null) {
                     for (SchemaVersionStateStorable schemaVersionStateStorable : schemaVersionStateStorables) {
-                        storageManager.remove(schemaVersionStateStorable.getStorableKey());
+                        schemaVersionStateKeys.add(schemaVersionStateStorable.getStorableKey());
                     }
                 }
             }
+            storageManager.removeAll(schemaVersionStateKeys);
         }
         // Remove all serdes mappings for this schema name
         SchemaMetadataInfo schemaMetadataInfo = getSchemaMetadataInfo(schemaName);
         Collection<SchemaSerDesMapping> schemaSerDesMappings = getSchemaSerDesMappings(schemaMetadataInfo.getId());
         if (schemaSerDesMappings != null) {
-            for (SchemaSerDesMapping schemaSerDesMapping: schemaSerDesMappings) {
-                storageManager.remove(schemaSerDesMapping.getStorableKey());
-            }
+            storageManager.removeAll(schemaSerDesMappings.stream()
+                                                         .map(SchemaSerDesMapping::getStorableKey)
+                                                         .collect(Collectors.toList()));
         }
         // Finally remove the schema metadata entry that will remove other related entries on cascade at DB level
         SchemaMetadataStorable schemaMetadataStorable = new SchemaMetadataStorable();
         schemaMetadataStorable.setName(schemaName);
         storageManager.remove(schemaMetadataStorable.getStorableKey());
+        invalidateSchemaMetadataInAllHAServers(SchemaMetadataInfoCache.Key.of(schemaName));
 
         SchemaLockStorable schemaLockStorable = new SchemaLockStorable(SchemaMetadataStorable.NAME_SPACE, schemaName);
         storageManager.remove(schemaLockStorable.getStorableKey());
@@ -326,6 +381,10 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
 
     @Override
     public SchemaMetadataInfo getSchemaMetadataInfo(String schemaName) {
+        return schemaMetadataInfoCache.get(SchemaMetadataInfoCache.Key.of(schemaName));
+    }
+
+    private SchemaMetadataInfo fetchSchemaMetadataInfo(String schemaName) {
         SchemaMetadataStorable givenSchemaMetadataStorable = new SchemaMetadataStorable();
         givenSchemaMetadataStorable.setName(schemaName);
 
@@ -337,16 +396,12 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
     public Collection<AggregatedSchemaMetadataInfo> findAggregatedSchemaMetadata(Map<String, String> props)
             throws SchemaBranchNotFoundException, SchemaNotFoundException {
 
-        return findSchemaMetadata(props)
-                .stream()
-                .map(schemaMetadataInfo -> {
-                    try {
-                        return buildAggregatedSchemaMetadataInfo(schemaMetadataInfo);
-                    } catch (SchemaNotFoundException | SchemaBranchNotFoundException e) {
-                        throw new RuntimeException(e);
-                    }
-                })
-                .collect(Collectors.toList());
+        return getAggregatedSchemaMetadataInfos(findSchemaMetadata(props));
+    }
+
+    @Override
+    public Collection<AggregatedSchemaMetadataInfo> getAggregatedSchemaMetadataInfos(Collection<SchemaMetadataInfo> schemaMetadataInfos) {
+        return aggregatedSchemaMetadataLoader.load(schemaMetadataInfos);
     }
 
     @Override
@@ -361,6 +416,7 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
         if (schemaMetadataStorable != null) {
             schemaMetadataStorable = SchemaMetadataStorable.updateSchemaMetadata(schemaMetadataStorable, schemaMetadata);
             storageManager.update(schemaMetadataStorable);
+            invalidateSchemaMetadataInAllHAServers(SchemaMetadataInfoCache.Key.of(schemaName));
             return schemaMetadataStorable.toSchemaMetadataInfo();
         } else {
             return null;
@@ -372,7 +428,9 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
         // todo get only few selected columns instead of getting the whole row.
         Collection<SchemaMetadataStorable> storables;
 
-        if (props == null || props.isEmpty()) {
+        if (props != null && props.containsKey(LIMIT_PARAM_NAME)) {
+            storables = findSchemaMetadataPage(props);
+        } else if (props == null || props.isEmpty()) {
             storables = storageManager.list(SchemaMetadataStorable.NAME_SPACE);
         } else {
             List<QueryParam> orderByFieldQueryParams = new ArrayList<>();
@@ -398,6 +456,78 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
         return result;
     }
 
+    /**
+     * Returns at most {@link #LIMIT_PARAM_NAME} schemas with ids greater than {@link #AFTER_PARAM_NAME} in the ascending
+     * order of their ids, the remaining properties are used as filters. The next page can be fetched with the id of the
+     * last returned schema. Pages are always ordered by id, so {@link #ORDER_BY_FIELDS_PARAM_NAME} is not supported.
+     */
+    /**
+     * @return the positive page size given with {@link #LIMIT_PARAM_NAME}
+     * @throws IllegalArgumentException if the page size is not a positive number
+     */
+    public static int getPageLimit(Map<String, String> props) {
+        String value = props.get(LIMIT_PARAM_NAME);
+        int limit;
+        try {
+            limit = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for property " + LIMIT_PARAM_NAME + ": " + value, e);
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Property " + LIMIT_PARAM_NAME + " must be positive: " + value);
+        }
+        return limit;
+    }
+
+    private List<SchemaMetadataStorable> findSchemaMetadataPage(Map<String, String> props) {
+        int limit = getPageLimit(props);
+        if (props.containsKey(ORDER_BY_FIELDS_PARAM_NAME)) {
+            throw new IllegalArgumentException("Property " + ORDER_BY_FIELDS_PARAM_NAME + " is not supported with "
+                                                       + LIMIT_PARAM_NAME + ", pages are ordered by id");
+        }
+        Long afterId;
+        try {
+            afterId = props.get(AFTER_PARAM_NAME) != null ? Long.valueOf(props.get(AFTER_PARAM_NAME)) : null;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value for property " + AFTER_PARAM_NAME + ": " + props.get(AFTER_PARAM_NAME), e);
+        }
+
+        Schema schema = new SchemaMetadataStorable().getSchema();
+        Map<String, Object> filters = new HashMap<>();
+        for (Map.Entry<String, String> entry : props.entrySet()) {
+            Schema.Field field = schema.getField(entry.getKey());
+            if (field == null) {
+                LOG.debug("Property [{}] is not a field of schema metadata, it is ignored", entry.getKey());
+            } else {
+                try {
+                    filters.put(entry.getKey(),
+                                field.getType().getJavaType().getConstructor(String.class).newInstance(entry.getValue()));
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalArgumentException("Invalid value for property " + entry.getKey() + ": " + entry.getValue(), e);
+                }
+            }
+        }
+
+        WhereClauseCombiner whereClauseCombiner = null;
+        for (Map.Entry<String, Object> filter : filters.entrySet()) {
+            whereClauseCombiner = (whereClauseCombiner == null ? WhereClause.begin() : whereClauseCombiner.and())
+                    .eq(filter.getKey(), filter.getValue());
+        }
+        if (afterId != null) {
+            whereClauseCombiner = (whereClauseCombiner == null ? WhereClause.begin() : whereClauseCombiner.and())
+                    .gt(SchemaMetadataStorable.ID, afterId);
+        }
+
+        SearchQuery searchQuery = SearchQuery.searchFrom(SchemaMetadataStorable.NAME_SPACE)
+                                             .orderBy(OrderBy.asc(SchemaMetadataStorable.ID))
+                                             .limit(limit);
+        if (whereClauseCombiner != null) {
+            searchQuery.where(whereClauseCombiner.combine());
+        }
+
+        return new ArrayList<>(storageManager.<SchemaMetadataStorable>search(searchQuery));
+    }
+
     private List<OrderByField> getOrderByFields(List<QueryParam> queryParams) {
         if (queryParams == null || queryParams.isEmpty()) {
             return Collections.emptyList();
@@ -432,58 +562,12 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
 
     @Override
     public Collection<SchemaVersionKey> findSchemasByFields(SchemaFieldQuery schemaFieldQuery) {
-        List<QueryParam> queryParams = buildQueryParam(schemaFieldQuery);
-
-        Collection<SchemaFieldInfoStorable> fieldInfos = storageManager.find(SchemaFieldInfoStorable.STORABLE_NAME_SPACE, queryParams);
-        Collection<SchemaVersionKey> schemaVersionKeys;
-        if (fieldInfos != null && !fieldInfos.isEmpty()) {
-            List<Long> schemaIds = new ArrayList<>();
-            for (SchemaFieldInfoStorable fieldInfo : fieldInfos) {
-                schemaIds.add(fieldInfo.getSchemaInstanceId());
-            }
-
-            // todo get only few selected columns instead of getting the whole row.
-            // add OR query to find items from store
-            schemaVersionKeys = new ArrayList<>();
-            for (Long schemaId : schemaIds) {
-                SchemaVersionKey schemaVersionKey = getSchemaKey(schemaId);
-                if (schemaVersionKey != null) {
-                    schemaVersionKeys.add(schemaVersionKey);
-                }
-            }
-        } else {
-            schemaVersionKeys = Collections.emptyList();
-        }
-
-        return schemaVersionKeys;
-    }
-
-    private SchemaVersionKey getSchemaKey(Long schemaId) {
-        SchemaVersionKey schemaVersionKey = null;
-
-        List<QueryParam> queryParams = Collections.singletonList(new QueryParam(SchemaVersionStorable.ID, schemaId.toString()));
-        Collection<SchemaVersionStorable> versionedSchemas = storageManager.find(SchemaVersionStorable.NAME_SPACE, queryParams);
-        if (versionedSchemas != null && !versionedSchemas.isEmpty()) {
-            SchemaVersionStorable storable = versionedSchemas.iterator().next();
-            schemaVersionKey = new SchemaVersionKey(storable.getName(), storable.getVersion());
-        }
-
-        return schemaVersionKey;
+        return findSchemasByFields(Collections.singletonList(schemaFieldQuery));
     }
 
-    private List<QueryParam> buildQueryParam(SchemaFieldQuery schemaFieldQuery) {
-        List<QueryParam> queryParams = new ArrayList<>(3);
-        if (schemaFieldQuery.getNamespace() != null) {
-            queryParams.add(new QueryParam(SchemaFieldInfo.FIELD_NAMESPACE, schemaFieldQuery.getNamespace()));
-        }
-        if (schemaFieldQuery.getName() != null) {
-            queryParams.add(new QueryParam(SchemaFieldInfo.NAME, schemaFieldQuery.getName()));
-        }
-        if (schemaFieldQuery.getType() != null) {
-            queryParams.add(new QueryParam(SchemaFieldInfo.TYPE, schemaFieldQuery.getType()));
-        }
-
-        return queryParams;
+    @Override
+    public Collection<SchemaVersionKey> findSchemasByFields(Collection<SchemaFieldQuery> schemaFieldQueries) {
+        return schemaVersionLifecycleManager.findSchemasByFields(schemaFieldQueries);
     }
 
     @Override
@@ -653,8 +737,18 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
                 }
                 schemaVersionLifecycleManager.invalidateSchemaVersionCache(schemaVersionKey);
                 break;
+            case SCHEMA_METADATA_CACHE:
+                SchemaMetadataInfoCache.Key schemaMetadataKey;
+                try {
+                    schemaMetadataKey = ObjectMapperUtils.deserialize(keyAsString, SchemaMetadataInfoCache.Key.class);
+                } catch (IOException e) {
+                    throw new RuntimeException(String.format("Failed to deserialize keyString : [%s]", keyAsString),e);
+                }
+                schemaMetadataInfoCache.invalidateSchemaMetadata(schemaMetadataKey);
+                break;
             case ALL:
                 schemaBranchCache.invalidateAll();
+                schemaMetadataInfoCache.invalidateAll();
                 schemaVersionLifecycleManager.invalidateAllSchemaVersionCache();
                 break;
             default:
@@ -770,10 +864,13 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
             SchemaBranchVersionMapping schemaBranchVersionMapping = schemaBranchVersionMappingIterator.next();
             Long schemaVersionId = schemaBranchVersionMapping.getSchemaVersionInfoId();
             try {
-                List<QueryParam> schemaVersionCountParam = new ArrayList<>();
-                schemaVersionCountParam.add(new QueryParam(SchemaBranchVersionMapping.SCHEMA_VERSION_INFO_ID, schemaBranchVersionMapping.getSchemaVersionInfoId().toString()));
-                Collection<SchemaBranchVersionMapping> mappingsForSchemaTiedToMutlipleBranch = storageManager.find(SchemaBranchVersionMapping.NAMESPACE, schemaVersionCountParam);
-                if (mappingsForSchemaTiedToMutlipleBranch.size() > 1) {
+                // mappings of the other branches are loaded only when there are any
+                SearchQuery schemaVersionCountQuery = SearchQuery.searchFrom(SchemaBranchVersionMapping.NAMESPACE)
+                                                                 .where(WhereClause.begin()
+                                                                                   .eq(SchemaBranchVersionMapping.SCHEMA_VERSION_INFO_ID, schemaVersionId)
+                                                                                   .combine());
+                if (storageManager.count(schemaVersionCountQuery) > 1) {
+                    Collection<SchemaBranchVersionMapping> mappingsForSchemaTiedToMutlipleBranch = storageManager.search(schemaVersionCountQuery);
                     SchemaVersionInfo schemaVersionInfo = schemaVersionLifecycleManager.getSchemaVersionInfo(new SchemaIdVersion(schemaVersionId));
                     List<String> forkedBranchName = mappingsForSchemaTiedToMutlipleBranch.stream().
                             filter(mapping -> !mapping.getSchemaBranchId().equals(schemaBranchId)).
@@ -836,14 +933,12 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
 
     @Override
     public String uploadFile(InputStream inputStream) {
-        String fileName = UUID.randomUUID().toString();
+        // files are stored with the digest of their content, the same jar uploaded for many serdes is stored once
         try {
-            String uploadedFilePath = fileStorage.upload(inputStream, fileName);
+            return fileStorage.uploadContent(inputStream);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
-
-        return fileName;
     }
 
     @Override
@@ -851,6 +946,11 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
         return fileStorage.download(fileId);
     }
 
+    @Override
+    public long getFileSize(String fileId) throws IOException {
+        return fileStorage.size(fileId);
+    }
+
     @Override
     public Long addSerDes(SerDesPair serDesInfo) {
         SerDesInfoStorable serDesInfoStorable = new SerDesInfoStorable(serDesInfo);
@@ -1026,6 +1126,27 @@ public class DefaultSchemaRegistry implements ISchemaRegistry {
         haServerNotificationManager.notifyCacheInvalidation(schemaBranchCache.getCacheType(),keyAsString);
     }
 
+    private void invalidateSchemaMetadataInAllHAServers(SchemaMetadataInfoCache.Key key) {
+        schemaMetadataInfoCache.invalidateSchemaMetadata(key);
+
+        String keyAsString;
+
+        try {
+            keyAsString = ObjectMapperUtils.serializeToString(key);
+        } catch (Exception e) {
+            throw new RuntimeException(String.format("Failed to serialized key : %s", key),e);
+        }
+
+        // entries loaded until the transaction completes may have the state before the commit, they are invalidated
+        // again once it completes and peers are notified only after the commit, so that they load the committed state.
+        TransactionManager transactionManager = schemaLockManager.getTransactionManager();
+        transactionManager.afterRollback(() -> schemaMetadataInfoCache.invalidateSchemaMetadata(key));
+        transactionManager.afterCommit(() -> {
+            schemaMetadataInfoCache.invalidateSchemaMetadata(key);
+            haServerNotificationManager.notifyCacheInvalidation(schemaMetadataInfoCache.getCacheType(), keyAsString);
+        });
+    }
+
     // Clear the relevant caches for this schema version and notify HA servers
     private void invalidateCachesAndNotifyAllHAServers(SchemaVersionInfo schemaVersionInfo) {
         Collection<SchemaBranch> schemaBranches = schemaVersionLifecycleManager.getSchemaBranches(schemaVersionInfo.getId());
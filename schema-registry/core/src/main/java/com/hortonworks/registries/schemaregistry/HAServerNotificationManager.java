@@ -17,26 +17,61 @@
 package com.hortonworks.registries.schemaregistry;
 
 import com.hortonworks.registries.schemaregistry.cache.SchemaRegistryCacheType;
-import org.apache.commons.lang3.tuple.Pair;
+import org.glassfish.jersey.client.ClientProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
-import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.PriorityQueue;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Notifies the peer servers of a Schema Registry cluster about the current server debut and about cache invalidations.
+ * <p>
+ * Notifications are sent asynchronously, so that the latency of the calling request does not depend on the number of
+ * peers or on their availability. Each peer has its own queue which is drained in order by a shared pool of threads with
+ * a shared {@link Client}. Notifications queued while a peer is busy or unreachable are coalesced, the same cache key is
+ * sent only once. Failed notifications are retried up to {@link #MAX_RETRY} times with an increasing delay, a peer which
+ * fails a notification is not sent the rest of its queue until then.
+ * <p>
+ * Queues are bounded, when a peer falls behind by {@link #MAX_PENDING_NOTIFICATIONS} notifications its pending cache
+ * invalidations are replaced with one invalidation of all the caches. Requests to peers time out, so that a hung peer
+ * does not hold a notifier thread. {@link #close()} stops sending notifications and releases the threads and the client.
+ */
 public class HAServerNotificationManager {
 
     Set<String> hostIps = new HashSet<>();
     private final String UPDATE_ITERATE_LOCK = "UPDATE_ITERATE_LOCK";
-    private String serverUrl;
+    private volatile String serverUrl;
     private static final Logger LOG = LoggerFactory.getLogger(HAServerNotificationManager.class);
     public static Integer MAX_RETRY = 3;
+    private static final int NOTIFIER_THREADS = 4;
+    static final int MAX_PENDING_NOTIFICATIONS = 1000;
+    private static final int CONNECT_TIMEOUT_MS = 10 * 1000;
+    private static final int READ_TIMEOUT_MS = 30 * 1000;
+    private static final long RETRY_BACKOFF_MS = 100L;
+    private static final long MAX_RETRY_BACKOFF_MS = 30 * 1000L;
+    private static final String CACHE_INVALIDATION_URL_FORMAT = "api/v1/schemaregistry/cache/%s/invalidate";
+
+    private final ConcurrentMap<String, PeerNotifier> peerNotifiers = new ConcurrentHashMap<>();
+    private volatile ScheduledExecutorService notificationExecutor;
+    private volatile Client client;
+    private volatile boolean closed;
 
     public void refreshServerInfo(Collection<HostConfigStorable> hostConfigStorableList) {
         if (hostConfigStorableList != null) {
@@ -45,6 +80,7 @@ public class HAServerNotificationManager {
                 hostConfigStorableList.stream().filter(hostConfigStorable -> !hostConfigStorable.getHostUrl().equals(serverUrl)).forEach(hostConfig -> {
                     hostIps.add(hostConfig.getHostUrl());
                 });
+                peerNotifiers.keySet().retainAll(hostIps);
             }
         }
     }
@@ -54,47 +90,79 @@ public class HAServerNotificationManager {
     }
 
     public void notifyCacheInvalidation(SchemaRegistryCacheType schemaRegistryCacheType, String keyAsString) {
-        notify(String.format("api/v1/schemaregistry/cache/%s/invalidate",schemaRegistryCacheType.name()), keyAsString);
+        notify(new Notification(String.format(CACHE_INVALIDATION_URL_FORMAT, schemaRegistryCacheType.name()), keyAsString, true));
     }
 
     private void notify(String urlPath, Object postBody) {
+        notify(new Notification(urlPath, postBody, false));
+    }
+
+    private void notify(Notification notification) {
         // If Schema Registry was not started in HA mode then serverURL would be null, in case don't bother making POST calls
-        if(serverUrl != null) {
-            PriorityQueue < Pair<Integer, String> > queue = new PriorityQueue<>();
+        if(serverUrl != null && !closed) {
             synchronized (UPDATE_ITERATE_LOCK) {
-                hostIps.stream().forEach(hostIp -> {
-                    queue.add(Pair.of(1, hostIp));
-                });
+                hostIps.forEach(hostIp -> peerNotifiers.computeIfAbsent(hostIp, PeerNotifier::new).enqueue(notification));
             }
+        }
+    }
 
-            while (!queue.isEmpty()) {
-                Pair<Integer, String> priorityWithHostIp = queue.remove();
-
-                WebTarget target = ClientBuilder.newClient().target(String.format("%s%s", priorityWithHostIp.getRight(), urlPath));
-                Response response = null;
+    /**
+     * Posts the given body to the given url of a peer server.
+     *
+     * @return true if the peer server accepted the notification
+     */
+    protected boolean post(String url, Object postBody) {
+        Response response = getClient().target(url).request().post(Entity.json(postBody));
+        try {
+            return response.getStatus() == Response.Status.OK.getStatusCode();
+        } finally {
+            response.close();
+        }
+    }
 
-                try {
-                   response = target.request().post(Entity.json(postBody));
-                } catch (Exception e) {
-                    LOG.warn("Failed to notify the peer server '{}' about the current host debut.", priorityWithHostIp.getRight());
+    private Client getClient() {
+        if (client == null) {
+            synchronized (this) {
+                if (client == null) {
+                    client = ClientBuilder.newBuilder()
+                                          .property(ClientProperties.CONNECT_TIMEOUT, CONNECT_TIMEOUT_MS)
+                                          .property(ClientProperties.READ_TIMEOUT, READ_TIMEOUT_MS)
+                                          .build();
                 }
+            }
+        }
+        return client;
+    }
 
-                if ( (response == null || response.getStatus() != Response.Status.OK.getStatusCode()) && priorityWithHostIp.getLeft() < MAX_RETRY) {
-                    queue.add(Pair.of(priorityWithHostIp.getLeft() + 1, priorityWithHostIp.getRight()));
-                } else if (priorityWithHostIp.getLeft() < MAX_RETRY ) {
-                    LOG.info("Notified the peer server '{}' about the current host debut.", priorityWithHostIp.getRight());
-                } else if (priorityWithHostIp.getLeft() >= MAX_RETRY) {
-                    LOG.warn("Failed to notify the peer server '{}' about the current host debut, giving up after {} attempts.",
-                            priorityWithHostIp.getRight(), MAX_RETRY);
+    private ScheduledExecutorService getNotificationExecutor() {
+        if (notificationExecutor == null) {
+            synchronized (this) {
+                if (closed) {
+                    throw new RejectedExecutionException("Notification manager is closed");
                 }
-
-                try {
-                    Thread.sleep(priorityWithHostIp.getLeft() * 100);
-                } catch (InterruptedException e) {
-                    LOG.warn("Failed to notify the peer server '{}'",priorityWithHostIp.getRight(), e);
+                if (notificationExecutor == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    notificationExecutor = new ScheduledThreadPoolExecutor(NOTIFIER_THREADS, runnable -> {
+                        Thread thread = new Thread(runnable, "ha-server-notifier-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
                 }
             }
+        }
+        return notificationExecutor;
+    }
 
+    /**
+     * Stops sending notifications, pending notifications are dropped.
+     */
+    public synchronized void close() {
+        closed = true;
+        if (notificationExecutor != null) {
+            notificationExecutor.shutdownNow();
+        }
+        if (client != null) {
+            client.close();
         }
     }
 
@@ -111,4 +179,144 @@ public class HAServerNotificationManager {
     public String getHomeNodeURL() {
         return this.serverUrl;
     }
+
+    /**
+     * Queue of the notifications of a peer server, drained by at most one task at a time.
+     */
+    private final class PeerNotifier {
+        private final String peer;
+        // pending notifications with the number of attempts already made to deliver them
+        private Map<Notification, Integer> pendingNotifications = new LinkedHashMap<>();
+        private boolean drainScheduled;
+        // number of drains in a row which failed to deliver a notification, only accessed by the draining task
+        private int consecutiveFailures;
+
+        PeerNotifier(String peer) {
+            this.peer = peer;
+        }
+
+        synchronized void enqueue(Notification notification) {
+            if (pendingNotifications.size() >= MAX_PENDING_NOTIFICATIONS && !pendingNotifications.containsKey(notification)) {
+                coalesceCacheInvalidations();
+            }
+            pendingNotifications.putIfAbsent(notification, 0);
+            if (!drainScheduled && !closed) {
+                drainScheduled = true;
+                scheduleDrain(0);
+            }
+        }
+
+        /**
+         * Replaces the pending cache invalidations with one invalidation of all the caches.
+         */
+        private void coalesceCacheInvalidations() {
+            LOG.warn("Peer server '{}' has {} pending notifications, its caches are going to be invalidated entirely.",
+                     peer, pendingNotifications.size());
+            pendingNotifications.keySet().removeIf(x -> x.cacheInvalidation);
+            Notification invalidateAll = new Notification(String.format(CACHE_INVALIDATION_URL_FORMAT, SchemaRegistryCacheType.ALL.name()),
+                                                          SchemaRegistryCacheType.ALL.name(),
+                                                          true);
+            pendingNotifications.put(invalidateAll, 0);
+        }
+
+        private void drain() {
+            Map<Notification, Integer> notifications;
+            synchronized (this) {
+                notifications = pendingNotifications;
+                pendingNotifications = new LinkedHashMap<>();
+            }
+
+            boolean failed = false;
+            Map<Notification, Integer> undeliveredNotifications = new LinkedHashMap<>();
+            Iterator<Map.Entry<Notification, Integer>> iterator = notifications.entrySet().iterator();
+            while (iterator.hasNext() && !closed) {
+                Map.Entry<Notification, Integer> entry = iterator.next();
+                Notification notification = entry.getKey();
+                int attempts = entry.getValue() + 1;
+                if (deliver(notification)) {
+                    LOG.info("Notified the peer server '{}' with '{}'.", peer, notification.urlPath);
+                    continue;
+                }
+
+                failed = true;
+                if (attempts < MAX_RETRY) {
+                    undeliveredNotifications.put(notification, attempts);
+                } else {
+                    LOG.warn("Failed to notify the peer server '{}' with '{}', giving up after {} attempts.",
+                             peer, notification.urlPath, MAX_RETRY);
+                }
+                // the peer is likely unreachable, the rest of the notifications wait for the retry
+                iterator.forEachRemaining(x -> undeliveredNotifications.put(x.getKey(), x.getValue()));
+            }
+            consecutiveFailures = failed ? consecutiveFailures + 1 : 0;
+
+            synchronized (this) {
+                if (closed) {
+                    drainScheduled = false;
+                } else if (failed) {
+                    // undelivered notifications are retried before the ones queued in the meantime
+                    pendingNotifications.forEach(undeliveredNotifications::putIfAbsent);
+                    pendingNotifications = undeliveredNotifications;
+                    if (pendingNotifications.size() > MAX_PENDING_NOTIFICATIONS) {
+                        coalesceCacheInvalidations();
+                    }
+                    scheduleDrain(retryBackoffMs());
+                } else if (!pendingNotifications.isEmpty()) {
+                    scheduleDrain(0);
+                } else {
+                    drainScheduled = false;
+                }
+            }
+        }
+
+        /**
+         * @return delay before the next drain, doubled with every failed drain in a row
+         */
+        private long retryBackoffMs() {
+            return Math.min(RETRY_BACKOFF_MS << Math.min(consecutiveFailures - 1, 16), MAX_RETRY_BACKOFF_MS);
+        }
+
+        private void scheduleDrain(long delayMs) {
+            try {
+                getNotificationExecutor().schedule(this::drain, delayMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // notification manager is closed
+                drainScheduled = false;
+            }
+        }
+
+        private boolean deliver(Notification notification) {
+            try {
+                return post(String.format("%s%s", peer, notification.urlPath), notification.postBody);
+            } catch (Exception e) {
+                LOG.warn("Failed to notify the peer server '{}' with '{}'.", peer, notification.urlPath, e);
+                return false;
+            }
+        }
+    }
+
+    private static final class Notification {
+        private final String urlPath;
+        private final Object postBody;
+        private final boolean cacheInvalidation;
+
+        Notification(String urlPath, Object postBody, boolean cacheInvalidation) {
+            this.urlPath = urlPath;
+            this.postBody = postBody;
+            this.cacheInvalidation = cacheInvalidation;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Notification that = (Notification) o;
+            return Objects.equals(urlPath, that.urlPath) && Objects.equals(postBody, that.postBody);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(urlPath, postBody);
+        }
+    }
 }
@@ -22,6 +22,8 @@ import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
 import com.hortonworks.registries.storage.search.OrderBy;
 import com.hortonworks.registries.storage.search.WhereClause;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -109,7 +111,25 @@ public interface ISchemaRegistry extends ISchemaRegistryService {
     AggregatedSchemaMetadataInfo getAggregatedSchemaMetadataInfo(String schemaName) throws SchemaNotFoundException, SchemaBranchNotFoundException;
 
     /**
-     * @param props properties
+     * @param schemaMetadataInfos schemas to be aggregated
+     *
+     * @return {@link AggregatedSchemaMetadataInfo}s of the given schemas in the same order. Branches, versions and serdes
+     * of all the given schemas are loaded together instead of querying them for each schema.
+     */
+    Collection<AggregatedSchemaMetadataInfo> getAggregatedSchemaMetadataInfos(Collection<SchemaMetadataInfo> schemaMetadataInfos);
+
+    /**
+     * @param schemaFieldQueries field queries which should all be matched by a schema version
+     *
+     * @return keys of the schema versions which have a matching field for each of the given queries, ordered by schema
+     * name and version.
+     */
+    Collection<SchemaVersionKey> findSchemasByFields(Collection<SchemaFieldQuery> schemaFieldQueries);
+
+    /**
+     * @param props properties, a page of schemas in the order of their ids is returned when
+     *              {@link DefaultSchemaRegistry#LIMIT_PARAM_NAME} and optionally {@link DefaultSchemaRegistry#AFTER_PARAM_NAME}
+     *              with the id of the last schema of the previous page are given.
      *
      * @return All SchemaMetadata having the given properties.
      */
@@ -184,6 +204,15 @@ public interface ISchemaRegistry extends ISchemaRegistryService {
      */
     Collection<SchemaBranch> getSchemaBranchesForVersion(Long vertionId) throws SchemaBranchNotFoundException;
 
+    /**
+     * @param fileId identifier of a file uploaded with {@link #uploadFile(InputStream)}
+     *
+     * @return size of the file in bytes
+     *
+     * @throws IOException when there is no file stored with the given {@code fileId}
+     */
+    long getFileSize(String fileId) throws IOException;
+
 
     /**
      *  Invalidates a cache entry given its cache type and its key, invalidates all entries in all the caches if the cache type is 'ALL'
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry;
+
+import com.hortonworks.registries.schemaregistry.cache.SchemaVersionInfoCache;
+import com.hortonworks.registries.storage.StorageManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index of the fields of all schema versions by field name, namespace and type. Schema versions
+ * containing the fields of a {@link SchemaFieldQuery} are found without reading the storage for each matching field.
+ * <p>
+ * The index is loaded from storage at once. Schema versions which are added, updated or deleted afterwards are
+ * invalidated once the transaction changing them is committed, they are reloaded from storage by the next query.
+ * Storage is read without holding the lock of the index, which is only taken to replace the reloaded versions.
+ */
+class SchemaFieldIndex {
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaFieldIndex.class);
+
+    private static final Comparator<SchemaVersionKey> SCHEMA_VERSION_KEY_COMPARATOR =
+            Comparator.comparing(SchemaVersionKey::getSchemaName).thenComparing(SchemaVersionKey::getVersion);
+
+    private final StorageManager storageManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // below fields are guarded by the lock
+    private final Map<Long, IndexedVersion> versions = new HashMap<>();
+    private final Map<SchemaVersionKey, Long> versionIds = new HashMap<>();
+    private final NavigableMap<String, Set<IndexedField>> fieldsByName = new TreeMap<>();
+    private final NavigableMap<String, Set<IndexedField>> fieldsByNamespace = new TreeMap<>();
+    private final NavigableMap<String, Set<IndexedField>> fieldsByType = new TreeMap<>();
+    private volatile boolean loaded;
+
+    // invalidated schema version ids with a sequence number of their invalidation
+    private final ConcurrentMap<Long, Long> staleVersionIds = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    SchemaFieldIndex(StorageManager storageManager) {
+        this.storageManager = storageManager;
+    }
+
+    /**
+     * Loads all the schema versions and their fields from storage, if they are not loaded yet.
+     */
+    void load() {
+        if (loaded) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            long startTime = System.currentTimeMillis();
+            Map<Long, List<SchemaFieldInfoStorable>> schemaFieldInfos =
+                    storageManager.<SchemaFieldInfoStorable>list(SchemaFieldInfoStorable.STORABLE_NAME_SPACE)
+                            .stream()
+                            .collect(Collectors.groupingBy(SchemaFieldInfoStorable::getSchemaInstanceId));
+            for (SchemaVersionStorable schemaVersionStorable : storageManager.<SchemaVersionStorable>list(SchemaVersionStorable.NAME_SPACE)) {
+                index(schemaVersionStorable, schemaFieldInfos.getOrDefault(schemaVersionStorable.getId(), Collections.emptyList()));
+            }
+            loaded = true;
+            LOG.info("Loaded fields of [{}] schema versions in [{}] ms", versions.size(), System.currentTimeMillis() - startTime);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the schema versions which have a matching field for each of the given queries.
+     *
+     * @param schemaFieldQueries queries which should all be matched
+     * @return keys of the matching schema versions ordered by schema name and version
+     */
+    List<SchemaVersionKey> find(Collection<SchemaFieldQuery> schemaFieldQueries) {
+        load();
+        reloadStaleVersions();
+
+        lock.readLock().lock();
+        try {
+            Set<Long> schemaVersionIds = null;
+            for (SchemaFieldQuery schemaFieldQuery : schemaFieldQueries) {
+                Set<Long> matchingIds = find(schemaFieldQuery);
+                if (schemaVersionIds == null) {
+                    schemaVersionIds = matchingIds;
+                } else {
+                    schemaVersionIds.retainAll(matchingIds);
+                }
+                if (schemaVersionIds.isEmpty()) {
+                    break;
+                }
+            }
+
+            if (schemaVersionIds == null) {
+                return Collections.emptyList();
+            }
+            return schemaVersionIds.stream()
+                                   .map(x -> versions.get(x).schemaVersionKey)
+                                   .sorted(SCHEMA_VERSION_KEY_COMPARATOR)
+                                   .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the given schema version to be reloaded from storage by the next query.
+     */
+    void invalidate(Long schemaVersionId) {
+        staleVersionIds.put(schemaVersionId, invalidationSequence.incrementAndGet());
+    }
+
+    /**
+     * Marks the schema version of the given cache key to be reloaded from storage, if it can be resolved.
+     */
+    void invalidate(SchemaVersionInfoCache.Key key) {
+        Long schemaVersionId = null;
+        if (key.getSchemaIdVersion() != null) {
+            schemaVersionId = key.getSchemaIdVersion().getSchemaVersionId();
+            if (schemaVersionId == null) {
+                schemaVersionId = findVersionId(key.getSchemaIdVersion().getSchemaMetadataId(), key.getSchemaIdVersion().getVersion());
+            }
+        } else if (key.getSchemaVersionKey() != null) {
+            lock.readLock().lock();
+            try {
+                schemaVersionId = versionIds.get(key.getSchemaVersionKey());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        if (schemaVersionId != null) {
+            invalidate(schemaVersionId);
+        } else {
+            LOG.debug("Schema version of key [{}] is not indexed", key);
+        }
+    }
+
+    /**
+     * Discards the whole index, it is loaded again from storage on the next query.
+     */
+    void invalidateAll() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            versions.clear();
+            versionIds.clear();
+            fieldsByName.clear();
+            fieldsByNamespace.clear();
+            fieldsByType.clear();
+            staleVersionIds.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Long findVersionId(Long schemaMetadataId, Integer version) {
+        lock.readLock().lock();
+        try {
+            return versions.values()
+                           .stream()
+                           .filter(x -> x.schemaMetadataId.equals(schemaMetadataId) && x.schemaVersionKey.getVersion().equals(version))
+                           .map(x -> x.id)
+                           .findFirst()
+                           .orElse(null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reloadStaleVersions() {
+        if (staleVersionIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> invalidations = new HashMap<>(staleVersionIds);
+        Map<Long, SchemaVersionStorable> schemaVersionStorables =
+                AggregatedSchemaMetadataLoader.<SchemaVersionStorable>findIn(storageManager,
+                                                                             SchemaVersionStorable.NAME_SPACE,
+                                                                             SchemaVersionStorable.ID,
+                                                                             invalidations.keySet())
+                        .stream()
+                        .collect(Collectors.toMap(SchemaVersionStorable::getId, x -> x));
+        Map<Long, List<SchemaFieldInfoStorable>> schemaFieldInfos =
+                AggregatedSchemaMetadataLoader.<SchemaFieldInfoStorable>findIn(storageManager,
+                                                                               SchemaFieldInfoStorable.STORABLE_NAME_SPACE,
+                                                                               SchemaFieldInfo.SCHEMA_INSTANCE_ID,
+                                                                               schemaVersionStorables.keySet())
+                        .stream()
+                        .collect(Collectors.groupingBy(SchemaFieldInfoStorable::getSchemaInstanceId));
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Long, Long> invalidation : invalidations.entrySet()) {
+                Long schemaVersionId = invalidation.getKey();
+                if (!invalidation.getValue().equals(staleVersionIds.get(schemaVersionId))) {
+                    // invalidated again while it was read, or already reloaded by a query which read it later
+                    continue;
+                }
+                remove(schemaVersionId);
+                SchemaVersionStorable schemaVersionStorable = schemaVersionStorables.get(schemaVersionId);
+                if (schemaVersionStorable != null) {
+                    index(schemaVersionStorable, schemaFieldInfos.getOrDefault(schemaVersionId, Collections.emptyList()));
+                }
+                staleVersionIds.remove(schemaVersionId, invalidation.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Set<Long> find(SchemaFieldQuery schemaFieldQuery) {
+        Collection<IndexedField> candidates;
+        if (schemaFieldQuery.getName() != null) {
+            candidates = candidates(fieldsByName, schemaFieldQuery.getName());
+        } else if (schemaFieldQuery.getNamespace() != null) {
+            candidates = candidates(fieldsByNamespace, schemaFieldQuery.getNamespace());
+        } else if (schemaFieldQuery.getType() != null) {
+            candidates = candidates(fieldsByType, schemaFieldQuery.getType());
+        } else {
+            candidates = fieldsByName.values().stream().flatMap(Collection::stream).collect(Collectors.toList());
+        }
+
+        Set<Long> schemaVersionIds = new HashSet<>();
+        for (IndexedField candidate : candidates) {
+            if (matches(candidate.name, schemaFieldQuery.getName())
+                    && matches(candidate.namespace, schemaFieldQuery.getNamespace())
+                    && matches(candidate.type, schemaFieldQuery.getType())) {
+                schemaVersionIds.add(candidate.schemaVersionId);
+            }
+        }
+        return schemaVersionIds;
+    }
+
+    private static Collection<IndexedField> candidates(NavigableMap<String, Set<IndexedField>> fields, String pattern) {
+        if (!pattern.endsWith(SchemaFieldQuery.PREFIX_WILDCARD)) {
+            return fields.getOrDefault(pattern, Collections.emptySet());
+        }
+
+        String prefix = pattern.substring(0, pattern.length() - SchemaFieldQuery.PREFIX_WILDCARD.length());
+        List<IndexedField> candidates = new ArrayList<>();
+        // values with the same prefix are next to each other in the sorted map
+        for (Map.Entry<String, Set<IndexedField>> entry : fields.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) {
+                break;
+            }
+            candidates.addAll(entry.getValue());
+        }
+        return candidates;
+    }
+
+    private static boolean matches(String value, String pattern) {
+        if (pattern == null) {
+            return true;
+        }
+        if (value == null) {
+            return false;
+        }
+        if (pattern.endsWith(SchemaFieldQuery.PREFIX_WILDCARD)) {
+            return value.startsWith(pattern.substring(0, pattern.length() - SchemaFieldQuery.PREFIX_WILDCARD.length()));
+        }
+        return value.equals(pattern);
+    }
+
+    private void index(SchemaVersionStorable schemaVersionStorable, List<SchemaFieldInfoStorable> schemaFieldInfos) {
+        SchemaVersionKey schemaVersionKey = new SchemaVersionKey(schemaVersionStorable.getName(), schemaVersionStorable.getVersion());
+        List<IndexedField> fields = new ArrayList<>(schemaFieldInfos.size());
+        for (SchemaFieldInfoStorable schemaFieldInfo : schemaFieldInfos) {
+            IndexedField field = new IndexedField(schemaVersionStorable.getId(),
+                                                  schemaFieldInfo.getName(),
+                                                  schemaFieldInfo.getFieldNamespace(),
+                                                  schemaFieldInfo.getType());
+            fields.add(field);
+            addPosting(fieldsByName, field.name, field);
+            addPosting(fieldsByNamespace, field.namespace, field);
+            addPosting(fieldsByType, field.type, field);
+        }
+        versions.put(schemaVersionStorable.getId(),
+                     new IndexedVersion(schemaVersionStorable.getId(), schemaVersionStorable.getSchemaMetadataId(), schemaVersionKey, fields));
+        versionIds.put(schemaVersionKey, schemaVersionStorable.getId());
+    }
+
+    private void remove(Long schemaVersionId) {
+        IndexedVersion indexedVersion = versions.remove(schemaVersionId);
+        if (indexedVersion != null) {
+            versionIds.remove(indexedVersion.schemaVersionKey, schemaVersionId);
+            for (IndexedField field : indexedVersion.fields) {
+                removePosting(fieldsByName, field.name, field);
+                removePosting(fieldsByNamespace, field.namespace, field);
+                removePosting(fieldsByType, field.type, field);
+            }
+        }
+    }
+
+    private static void addPosting(NavigableMap<String, Set<IndexedField>> fields, String value, IndexedField field) {
+        if (value != null) {
+            fields.computeIfAbsent(value, x -> new HashSet<>()).add(field);
+        }
+    }
+
+    private static void removePosting(NavigableMap<String, Set<IndexedField>> fields, String value, IndexedField field) {
+        if (value != null) {
+            Set<IndexedField> postings = fields.get(value);
+            if (postings != null) {
+                postings.remove(field);
+                if (postings.isEmpty()) {
+                    fields.remove(value);
+                }
+            }
+        }
+    }
+
+    private static final class IndexedVersion {
+        private final Long id;
+        private final Long schemaMetadataId;
+        private final SchemaVersionKey schemaVersionKey;
+        private final List<IndexedField> fields;
+
+        private IndexedVersion(Long id, Long schemaMetadataId, SchemaVersionKey schemaVersionKey, List<IndexedField> fields) {
+            this.id = id;
+            this.schemaMetadataId = schemaMetadataId;
+            this.schemaVersionKey = schemaVersionKey;
+            this.fields = fields;
+        }
+    }
+
+    // identity is used for equality, a version can have fields with the same name, namespace and type
+    private static final class IndexedField {
+        private final Long schemaVersionId;
+        private final String name;
+        private final String namespace;
+        private final String type;
+
+        private IndexedField(Long schemaVersionId, String name, String namespace, String type) {
+            this.schemaVersionId = schemaVersionId;
+            this.name = name;
+            this.namespace = namespace;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.hortonworks.registries.common.QueryParam;
+import com.hortonworks.registries.schemaregistry.cache.SchemaVersionInfoCache;
+import com.hortonworks.registries.schemaregistry.errors.InvalidSchemaBranchVersionMapping;
+import com.hortonworks.registries.storage.StorableKey;
+import com.hortonworks.registries.storage.StorageManager;
+import com.hortonworks.registries.storage.search.SearchQuery;
+import com.hortonworks.registries.storage.search.WhereClause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the id of the latest schema version, and of the latest schema version in each state, for schemas and schema
+ * branches. Latest version lookups are served from these heads instead of loading and scanning all the versions of a
+ * schema or branch.
+ * <p>
+ * Heads of a schema, including the heads of its branches, are loaded from storage on first access and are discarded when
+ * one of its versions is invalidated. Versions are invalidated again once the transaction changing them completes, as
+ * heads loaded concurrently with that transaction may not have its changes. Versions which can not be resolved to a
+ * schema, like the versions added by other servers which are not visible yet, discard all the heads.
+ */
+class SchemaVersionHeads {
+    private static final Logger LOG = LoggerFactory.getLogger(SchemaVersionHeads.class);
+
+    private static final Comparator<SchemaVersionStorable> BY_VERSION = Comparator.comparing(SchemaVersionStorable::getVersion);
+    private static final Comparator<SchemaVersionStorable> BY_ID = Comparator.comparing(SchemaVersionStorable::getId);
+
+    private final StorageManager storageManager;
+    private final Cache<String, SchemaHeads> schemaHeads;
+
+    SchemaVersionHeads(StorageManager storageManager, int size, long expiryInSecs) {
+        this.storageManager = storageManager;
+        this.schemaHeads = CacheBuilder.newBuilder()
+                                       .maximumSize(size)
+                                       .expireAfterWrite(expiryInSecs, TimeUnit.SECONDS)
+                                       .build();
+    }
+
+    /**
+     * @param schemaName name of the schema
+     * @param stateId    state of the version, or null for a version in any state
+     * @return id of the version with the highest version number of the given schema in the given state, or null if there
+     * is no such version
+     */
+    Long getLatestVersionId(String schemaName, Byte stateId) {
+        SchemaHeads heads = getSchemaHeads(schemaName);
+        Heads schemaVersionHeads = heads.schemaVersionHeads;
+        if (schemaVersionHeads == null) {
+            // concurrent loads may both read the storage, either of their heads can be kept
+            schemaVersionHeads = loadSchemaVersionHeads(schemaName);
+            heads.schemaVersionHeads = schemaVersionHeads;
+        }
+        return schemaVersionHeads.getLatestVersionId(stateId);
+    }
+
+    /**
+     * @param schemaBranch branch of the schema
+     * @param stateId      state of the version, or null for a version in any state
+     * @return id of the latest version added to the given branch in the given state, or null if there is no such version
+     */
+    Long getLatestVersionId(SchemaBranch schemaBranch, Byte stateId) {
+        SchemaHeads heads = getSchemaHeads(schemaBranch.getSchemaMetadataName());
+        Heads branchHeads = heads.branchHeads.get(schemaBranch.getId());
+        if (branchHeads == null) {
+            branchHeads = loadBranchHeads(schemaBranch);
+            heads.branchHeads.putIfAbsent(schemaBranch.getId(), branchHeads);
+        }
+        return branchHeads.getLatestVersionId(stateId);
+    }
+
+    /**
+     * Discards the heads of the schema of the given version.
+     */
+    void invalidate(SchemaVersionInfoCache.Key key) {
+        String schemaName = null;
+        if (key.getSchemaVersionKey() != null) {
+            schemaName = key.getSchemaVersionKey().getSchemaName();
+        } else if (key.getSchemaIdVersion() != null && key.getSchemaIdVersion().getSchemaVersionId() != null) {
+            schemaName = findSchemaName(key.getSchemaIdVersion().getSchemaVersionId());
+        }
+
+        if (schemaName != null) {
+            schemaHeads.invalidate(schemaName);
+        } else {
+            LOG.debug("Schema of key [{}] is not found, invalidating all the schema version heads", key);
+            invalidateAll();
+        }
+    }
+
+    void invalidateAll() {
+        schemaHeads.invalidateAll();
+    }
+
+    private SchemaHeads getSchemaHeads(String schemaName) {
+        try {
+            return schemaHeads.get(schemaName, SchemaHeads::new);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private Heads loadSchemaVersionHeads(String schemaName) {
+        // only the fields of the heads are loaded, schema texts are not needed
+        SearchQuery searchQuery = SearchQuery.searchFrom(SchemaVersionStorable.NAME_SPACE)
+                                             .select(SchemaVersionStorable.ID, SchemaVersionStorable.VERSION, SchemaVersionStorable.STATE)
+                                             .where(WhereClause.begin().eq(SchemaVersionStorable.NAME, schemaName).combine());
+        Collection<SchemaVersionStorable> storables = storageManager.search(searchQuery);
+        return new Heads(storables, BY_VERSION);
+    }
+
+    private Heads loadBranchHeads(SchemaBranch schemaBranch) {
+        Collection<SchemaBranchVersionMapping> mappings =
+                storageManager.find(SchemaBranchVersionMapping.NAMESPACE,
+                                    Collections.singletonList(new QueryParam(SchemaBranchVersionMapping.SCHEMA_BRANCH_ID,
+                                                                             schemaBranch.getId().toString())));
+        if (mappings.isEmpty() && !SchemaBranch.MASTER_BRANCH.equals(schemaBranch.getName())) {
+            throw new InvalidSchemaBranchVersionMapping(String.format("No schema versions are attached to the schema branch id : '%s'",
+                                                                      schemaBranch.getId()));
+        }
+
+        Set<Long> schemaVersionIds = mappings.stream()
+                                             .map(SchemaBranchVersionMapping::getSchemaVersionInfoId)
+                                             .collect(Collectors.toSet());
+        Collection<SchemaVersionStorable> storables =
+                AggregatedSchemaMetadataLoader.<SchemaVersionStorable>findIn(storageManager,
+                                                                             SchemaVersionStorable.NAME_SPACE,
+                                                                             SchemaVersionStorable.ID,
+                                                                             schemaVersionIds);
+        return new Heads(storables, BY_ID);
+    }
+
+    private String findSchemaName(Long schemaVersionId) {
+        StorableKey storableKey = new StorableKey(SchemaVersionStorable.NAME_SPACE, SchemaVersionStorable.getPrimaryKey(schemaVersionId));
+        SchemaVersionStorable storable = storageManager.get(storableKey);
+        return storable != null ? storable.getName() : null;
+    }
+
+    private static final class SchemaHeads {
+        private volatile Heads schemaVersionHeads;
+        private final ConcurrentMap<Long, Heads> branchHeads = new ConcurrentHashMap<>();
+    }
+
+    private static final class Heads {
+        private final Long latestVersionId;
+        private final Map<Byte, Long> latestVersionIds;
+
+        private Heads(Collection<SchemaVersionStorable> storables, Comparator<SchemaVersionStorable> comparator) {
+            SchemaVersionStorable latest = null;
+            Map<Byte, SchemaVersionStorable> latestInStates = new HashMap<>();
+            for (SchemaVersionStorable storable : storables) {
+                if (latest == null || comparator.compare(storable, latest) > 0) {
+                    latest = storable;
+                }
+                latestInStates.merge(storable.getState(), storable, (x, y) -> comparator.compare(x, y) >= 0 ? x : y);
+            }
+
+            this.latestVersionId = latest != null ? latest.getId() : null;
+            this.latestVersionIds = new HashMap<>();
+            latestInStates.forEach((stateId, storable) -> latestVersionIds.put(stateId, storable.getId()));
+        }
+
+        private Long getLatestVersionId(Byte stateId) {
+            return stateId == null ? latestVersionId : latestVersionIds.get(stateId);
+        }
+    }
+}
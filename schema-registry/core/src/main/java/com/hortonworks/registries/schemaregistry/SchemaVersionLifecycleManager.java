@@ -45,7 +45,10 @@ import com.hortonworks.registries.storage.OrderByField;
 import com.hortonworks.registries.storage.Storable;
 import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.StorageManager;
+import com.hortonworks.registries.storage.TransactionManager;
 import com.hortonworks.registries.storage.search.OrderBy;
+import com.hortonworks.registries.storage.search.SearchQuery;
+import com.hortonworks.registries.storage.search.WhereClause;
 import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.slf4j.Logger;
@@ -80,17 +83,23 @@ public class SchemaVersionLifecycleManager {
     private StorageManager storageManager;
     private SchemaBranchCache schemaBranchCache;
     private HAServerNotificationManager haServerNotificationManager;
+    private TransactionManager transactionManager;
     private DefaultSchemaRegistry.SchemaMetadataFetcher schemaMetadataFetcher;
+    private final SchemaFieldIndex schemaFieldIndex;
+    private final SchemaVersionHeads schemaVersionHeads;
 
     public SchemaVersionLifecycleManager(StorageManager storageManager,
                                          Map<String, Object> props,
                                          DefaultSchemaRegistry.SchemaMetadataFetcher schemaMetadataFetcher,
                                          SchemaBranchCache schemaBranchCache,
-                                         HAServerNotificationManager haServerNotificationManager) {
+                                         HAServerNotificationManager haServerNotificationManager,
+                                         TransactionManager transactionManager) {
         this.storageManager = storageManager;
         this.schemaMetadataFetcher = schemaMetadataFetcher;
         this.schemaBranchCache = schemaBranchCache;
         this.haServerNotificationManager = haServerNotificationManager;
+        this.transactionManager = transactionManager;
+        this.schemaFieldIndex = new SchemaFieldIndex(storageManager);
         SchemaVersionLifecycleStateMachine.Builder builder = SchemaVersionLifecycleStateMachine.newBuilder();
 
         DefaultSchemaRegistry.Options options = new DefaultSchemaRegistry.Options(props);
@@ -100,6 +109,9 @@ public class SchemaVersionLifecycleManager {
                 schemaVersionRetriever,
                 options.getMaxSchemaCacheSize(),
                 options.getSchemaExpiryInSecs() * 1000L);
+        schemaVersionHeads = new SchemaVersionHeads(storageManager,
+                                                     options.getMaxSchemaCacheSize(),
+                                                     options.getSchemaExpiryInSecs());
 
         customSchemaStateExecutor = createSchemaReviewExecutor(props, builder);
 
@@ -160,13 +172,17 @@ public class SchemaVersionLifecycleManager {
         Long schemaMetadataId;
         if (retrievedschemaMetadataInfo != null) {
             schemaMetadataId = retrievedschemaMetadataInfo.getId();
+            // schema text is parsed only once for finding the existing version and creating a new one
+            ParsedSchemaVersion parsedSchemaVersion = parseSchemaVersion(retrievedschemaMetadataInfo.getSchemaMetadata().getType(),
+                                                                         schemaVersion.getSchemaText());
             // check whether the same schema text exists
-            schemaVersionInfo = getSchemaVersionInfo(schemaName, schemaVersion.getSchemaText(), disableCanonicalCheck);
+            schemaVersionInfo = findSchemaVersion(SchemaBranch.MASTER_BRANCH, parsedSchemaVersion, schemaName, disableCanonicalCheck);
             if (schemaVersionInfo == null) {
                 schemaVersionInfo = createSchemaVersion(schemaBranchName,
                                                         schemaMetadata,
                                                         retrievedschemaMetadataInfo.getId(),
-                                                        schemaVersion);
+                                                        schemaVersion,
+                                                        parsedSchemaVersion);
 
             }
         } else {
@@ -174,7 +190,8 @@ public class SchemaVersionLifecycleManager {
             schemaVersionInfo = createSchemaVersion(schemaBranchName,
                                                     schemaMetadata,
                                                     schemaMetadataId,
-                                                    schemaVersion);
+                                                    schemaVersion,
+                                                    parseSchemaVersion(schemaMetadata.getType(), schemaVersion.getSchemaText()));
         }
 
         return new SchemaIdVersion(schemaMetadataId, schemaVersionInfo.getVersion(), schemaVersionInfo.getId());
@@ -219,14 +236,17 @@ public class SchemaVersionLifecycleManager {
         SchemaVersionInfo schemaVersionInfo;
         // check whether there exists schema-metadata for schema-metadata-key
         SchemaMetadata schemaMetadata = schemaMetadataInfo.getSchemaMetadata();
+        // schema text is parsed only once for finding the existing version and creating a new one
+        ParsedSchemaVersion parsedSchemaVersion = parseSchemaVersion(schemaMetadata.getType(), schemaVersion.getSchemaText());
         // check whether the same schema text exists
-        schemaVersionInfo = findSchemaVersion(schemaBranchName, schemaMetadata.getType(), schemaVersion.getSchemaText(), schemaMetadataInfo
+        schemaVersionInfo = findSchemaVersion(schemaBranchName, parsedSchemaVersion, schemaMetadataInfo
                 .getSchemaMetadata().getName(), disableCanonicalCheck);
         if (schemaVersionInfo == null) {
             schemaVersionInfo = createSchemaVersion(schemaBranchName,
                                                     schemaMetadata,
                                                     schemaMetadataInfo.getId(),
-                                                    schemaVersion);
+                                                    schemaVersion,
+                                                    parsedSchemaVersion);
         }
 
         return new SchemaIdVersion(schemaMetadataInfo.getId(), schemaVersionInfo.getVersion(), schemaVersionInfo.getId());
@@ -257,19 +277,10 @@ public class SchemaVersionLifecycleManager {
         Preconditions.checkNotNull(schemaBranchName, "Schema branch name can't be null");
         Preconditions.checkNotNull(schemaName, "schemaName can't be null");
 
-        Collection<SchemaVersionInfo> schemaVersionInfos = getAllVersions(schemaBranchName, schemaName);
+        SchemaBranch schemaBranch = schemaBranchCache.get(SchemaBranchCache.Key.of(new SchemaBranchKey(schemaBranchName, schemaName)));
+        Long schemaVersionId = schemaVersionHeads.getLatestVersionId(schemaBranch, stateId);
 
-        SchemaVersionInfo latestSchema = null;
-        if (schemaVersionInfos != null && !schemaVersionInfos.isEmpty()) {
-            for (SchemaVersionInfo schemaVersionInfo : schemaVersionInfos) {
-                if (stateId == null || schemaVersionInfo.getStateId().equals(stateId)) {
-                    latestSchema = schemaVersionInfo;
-                    break;
-                }
-            }
-        }
-
-        return latestSchema;
+        return schemaVersionId != null ? getSchemaVersionInfo(new SchemaIdVersion(schemaVersionId)) : null;
     }
 
     public SchemaVersionInfo getLatestSchemaVersionInfo(String schemaName) throws SchemaNotFoundException {
@@ -281,25 +292,19 @@ public class SchemaVersionLifecycleManager {
     public SchemaVersionInfo getLatestSchemaVersionInfo(String schemaName, Byte stateId) throws SchemaNotFoundException {
         Preconditions.checkNotNull(schemaName, "schemaName can't be null");
 
-        Collection<SchemaVersionInfo> schemaVersionInfos = getAllVersions(schemaName);
-
-        SchemaVersionInfo latestSchema = null;
-        if (schemaVersionInfos != null && !schemaVersionInfos.isEmpty()) {
-            for (SchemaVersionInfo schemaVersionInfo : schemaVersionInfos) {
-                if (stateId == null || schemaVersionInfo.getStateId().equals(stateId)) {
-                    latestSchema = schemaVersionInfo;
-                    break;
-                }
-            }
+        if (getSchemaMetadataInfo(schemaName) == null) {
+            throw new SchemaNotFoundException("Schema not found with name " + schemaName);
         }
+        Long schemaVersionId = schemaVersionHeads.getLatestVersionId(schemaName, stateId);
 
-        return latestSchema;
+        return schemaVersionId != null ? getSchemaVersionInfo(new SchemaIdVersion(schemaVersionId)) : null;
     }
 
     private SchemaVersionInfo createSchemaVersion(String schemaBranchName,
                                                   SchemaMetadata schemaMetadata,
                                                   Long schemaMetadataId,
-                                                  SchemaVersion schemaVersion)
+                                                  SchemaVersion schemaVersion,
+                                                  ParsedSchemaVersion parsedSchemaVersion)
             throws IncompatibleSchemaException, InvalidSchemaException, SchemaNotFoundException, SchemaBranchNotFoundException {
 
         Preconditions.checkNotNull(schemaBranchName, "schemaBranchName must not be null");
@@ -325,9 +330,8 @@ public class SchemaVersionLifecycleManager {
 
         }
 
-        // generate fingerprint, it parses the schema and checks for semantic validation.
-        // throws InvalidSchemaException for invalid schemas.
-        final String fingerprint = getFingerprint(type, schemaVersion.getSchemaText());
+        // fingerprint is generated while parsing the schema, which checks for semantic validation.
+        final String fingerprint = Hex.encodeHexString(parsedSchemaVersion.getFingerprint());
         final String schemaName = schemaMetadata.getName();
 
         SchemaVersionStorable schemaVersionStorable = new SchemaVersionStorable();
@@ -344,6 +348,7 @@ public class SchemaVersionLifecycleManager {
         schemaVersionStorable.setTimestamp(System.currentTimeMillis());
 
         schemaVersionStorable.setState(DEFAULT_VERSION_STATE.getId());
+        schemaVersionStorable.setStateSequence(0);
 
         if (!schemaBranchName.equals(SchemaBranch.MASTER_BRANCH)) {
             schemaVersion.setState(SchemaVersionLifecycleStates.INITIATED.getId());
@@ -368,9 +373,14 @@ public class SchemaVersionLifecycleManager {
                     throw new IncompatibleSchemaException(errMsg);
                 }
             }
-            SchemaVersionInfo latestSchemaVersionInfo = getLatestSchemaVersionInfo(schemaName);
-            if (latestSchemaVersionInfo != null) {
-                version = latestSchemaVersionInfo.getVersion();
+            // read from storage instead of the heads, which may not have seen the versions added by other servers yet
+            Integer latestVersion = storageManager.max(SearchQuery.searchFrom(SchemaVersionStorable.NAME_SPACE)
+                                                                  .where(WhereClause.begin()
+                                                                                    .eq(SchemaVersionStorable.NAME, schemaName)
+                                                                                    .combine()),
+                                                       SchemaVersionStorable.VERSION);
+            if (latestVersion != null) {
+                version = latestVersion;
             }
         }
 
@@ -386,14 +396,22 @@ public class SchemaVersionLifecycleManager {
         storageManager.add(schemaBranchVersionMapping);
 
         String storableNamespace = new SchemaFieldInfoStorable().getNameSpace();
-        List<SchemaFieldInfo> schemaFieldInfos = getSchemaProvider(type).generateFields(schemaVersionStorable.getSchemaText());
-        for (SchemaFieldInfo schemaFieldInfo : schemaFieldInfos) {
-            final Long fieldInstanceId = storageManager.nextId(storableNamespace);
-            SchemaFieldInfoStorable schemaFieldInfoStorable = SchemaFieldInfoStorable.fromSchemaFieldInfo(schemaFieldInfo, fieldInstanceId);
+        List<SchemaFieldInfo> schemaFieldInfos = parsedSchemaVersion.getSchemaFieldInfos();
+        // field infos are added together as large schemas can have thousands of fields
+        List<Long> fieldInstanceIds = storageManager.nextIds(storableNamespace, schemaFieldInfos.size());
+        List<SchemaFieldInfoStorable> schemaFieldInfoStorables = new ArrayList<>(schemaFieldInfos.size());
+        long timestamp = System.currentTimeMillis();
+        for (int i = 0; i < schemaFieldInfos.size(); i++) {
+            SchemaFieldInfoStorable schemaFieldInfoStorable = SchemaFieldInfoStorable.fromSchemaFieldInfo(schemaFieldInfos.get(i),
+                                                                                                          fieldInstanceIds.get(i));
             schemaFieldInfoStorable.setSchemaInstanceId(schemaInstanceId);
-            schemaFieldInfoStorable.setTimestamp(System.currentTimeMillis());
-            storageManager.add(schemaFieldInfoStorable);
+            schemaFieldInfoStorable.setTimestamp(timestamp);
+            schemaFieldInfoStorables.add(schemaFieldInfoStorable);
         }
+        storageManager.addAll(schemaFieldInfoStorables);
+
+        // notifies the field indexes of all servers about the new version
+        invalidateSchemaInAllHAServer(SchemaVersionInfoCache.Key.of(new SchemaIdVersion(schemaInstanceId)));
 
         return schemaVersionStorable.toSchemaVersionInfo();
     }
@@ -543,8 +561,7 @@ public class SchemaVersionLifecycleManager {
         }
 
         return findSchemaVersion(SchemaBranch.MASTER_BRANCH,
-                                 schemaMetadataInfo.getSchemaMetadata().getType(),
-                                 schemaText,
+                                 parseSchemaVersion(schemaMetadataInfo.getSchemaMetadata().getType(), schemaText),
                                  schemaName,
                                  disableCanonicalCheck);
     }
@@ -560,14 +577,14 @@ public class SchemaVersionLifecycleManager {
     }
 
     private SchemaVersionInfo findSchemaVersion(String schemaBranchName,
-                                                String type,
-                                                String schemaText,
+                                                ParsedSchemaVersion parsedSchemaVersion,
                                                 String schemaMetadataName,
-                                                boolean disableCanonicalCheck) throws InvalidSchemaException, SchemaNotFoundException, SchemaBranchNotFoundException {
+                                                boolean disableCanonicalCheck) throws SchemaNotFoundException, SchemaBranchNotFoundException {
 
         Preconditions.checkNotNull(schemaBranchName, "Schema branch name can't be null");
 
-        String fingerPrint = getFingerprint(type, schemaText);
+        String schemaText = parsedSchemaVersion.getSchemaText();
+        String fingerPrint = Hex.encodeHexString(parsedSchemaVersion.getFingerprint());
         LOG.debug("Fingerprint of the given schema [{}] is [{}]", schemaText, fingerPrint);
         List<QueryParam> queryParams = Lists.newArrayList(
                 new QueryParam(SchemaVersionStorable.NAME, schemaMetadataName),
@@ -603,10 +620,13 @@ public class SchemaVersionLifecycleManager {
         }
     }
 
-    private String getFingerprint(String type,
-                                  String schemaText) throws InvalidSchemaException, SchemaNotFoundException {
+    private ParsedSchemaVersion parseSchemaVersion(String type,
+                                                   String schemaText) throws InvalidSchemaException, SchemaNotFoundException {
         SchemaProvider schemaProvider = getSchemaProvider(type);
-        return Hex.encodeHexString(schemaProvider.getFingerprint(schemaText));
+        if (schemaProvider == null) {
+            throw new UnsupportedSchemaTypeException("Given schema type " + type + " not supported");
+        }
+        return schemaProvider.parseSchemaVersion(schemaText);
     }
 
     public SchemaVersionInfo getSchemaVersionInfo(SchemaIdVersion schemaIdVersion) throws SchemaNotFoundException {
@@ -619,7 +639,9 @@ public class SchemaVersionLifecycleManager {
 
     public SchemaVersionInfo findSchemaVersionInfoByFingerprint(final String fingerprint) throws SchemaNotFoundException {
         final List<QueryParam> queryParams = Collections.singletonList(new QueryParam(SchemaVersionStorable.FINGERPRINT, fingerprint));
-        final List<OrderByField> orderParams = Collections.singletonList(OrderByField.of(SchemaVersionStorable.TIMESTAMP, true));
+        // versions registered within the same millisecond are ordered by their ids
+        final List<OrderByField> orderParams = Arrays.asList(OrderByField.of(SchemaVersionStorable.TIMESTAMP, true),
+                                                             OrderByField.of(SchemaVersionStorable.ID, true));
 
         final Collection<SchemaVersionStorable> schemas = storageManager.find(SchemaVersionStorable.NAME_SPACE, queryParams, orderParams);
 
@@ -693,9 +715,10 @@ public class SchemaVersionLifecycleManager {
 
             SchemaVersionInfo createdSchemaVersionInfo;
             try {
+                ParsedSchemaVersion parsedSchemaVersion = parseSchemaVersion(schemaMetadataInfo.getSchemaMetadata().getType(),
+                                                                             schemaVersionInfo.getSchemaText());
                 SchemaVersionInfo existingSchemaVersionInfo = findSchemaVersion(SchemaBranch.MASTER_BRANCH,
-                                                                                schemaMetadataInfo.getSchemaMetadata().getType(),
-                                                                                schemaVersionInfo.getSchemaText(),
+                                                                                parsedSchemaVersion,
                                                                                 schemaMetadataInfo.getSchemaMetadata().getName(),
                                                                                 disableCanonicalCheck);
                 if (existingSchemaVersionInfo != null) {
@@ -714,24 +737,20 @@ public class SchemaVersionLifecycleManager {
                                                                new SchemaVersion(schemaVersionInfo.getSchemaText(),
                                                                                  schemaVersionInfo.getDescription(),
                                                                                  SchemaVersionLifecycleStates.INITIATED.getId(),
-                                                                                 initializedStateDetails));
+                                                                                 initializedStateDetails),
+                                                               parsedSchemaVersion);
             } catch (InvalidSchemaException e) {
                 throw new SchemaVersionMergeException(String.format("Failed to merge schema version : '%s'", schemaVersionId
                         .toString()), e);
             }
 
-            Collection<SchemaVersionStateStorable> schemaVersionStates =
-                    storageManager.find(SchemaVersionStateStorable.NAME_SPACE,
-                                        Collections.singletonList(new QueryParam(SchemaVersionStateStorable.SCHEMA_VERSION_ID,
-                                                                                 schemaVersionId.toString())),
-                                        Collections.singletonList(OrderByField.of(SchemaVersionStateStorable.SEQUENCE, true)));
-
-            if (schemaVersionStates == null || schemaVersionStates.isEmpty()) {
+            SchemaVersionStorable mergedSchemaVersionStorable = getSchemaVersionStorable(schemaVersionId);
+            if (mergedSchemaVersionStorable == null) {
                 throw new RuntimeException(String.format("The database doesn't have any state transition recorded for the schema version id : '%s'", schemaVersionId));
             }
 
             updateSchemaVersionState(createdSchemaVersionInfo.getId(),
-                                     schemaVersionStates.iterator().next().getSequence(),
+                                     mergedSchemaVersionStorable.getStateSequence(),
                                      SchemaVersionLifecycleStates.ENABLED.getId(),
                                      null);
 
@@ -750,24 +769,17 @@ public class SchemaVersionLifecycleManager {
 
     private ImmutablePair<SchemaVersionLifecycleContext, SchemaVersionLifecycleState>
     createSchemaVersionLifeCycleContextAndState(Long schemaVersionId) throws SchemaNotFoundException {
-        // get the current state from storage for the given versionID
-        // we can use a query to get max value for the column for a given schema-version-id but StorageManager does not
-        // have API to take custom queries.
-        Collection<SchemaVersionStateStorable> schemaVersionStates =
-                storageManager.find(SchemaVersionStateStorable.NAME_SPACE,
-                                    Collections.singletonList(new QueryParam(SchemaVersionStateStorable.SCHEMA_VERSION_ID,
-                                                                             schemaVersionId.toString())),
-                                    Collections.singletonList(OrderByField.of(SchemaVersionStateStorable.SEQUENCE, true)));
-        if (schemaVersionStates.isEmpty()) {
+        // current state and its sequence are kept in the version entity, state entities are not read for them
+        SchemaVersionStorable schemaVersionStorable = getSchemaVersionStorable(schemaVersionId);
+        if (schemaVersionStorable == null) {
             throw new SchemaNotFoundException("No schema versions found with id " + schemaVersionId);
         }
-        SchemaVersionStateStorable stateStorable = schemaVersionStates.iterator().next();
 
         SchemaVersionLifecycleState schemaVersionLifecycleState = schemaVersionLifecycleStateMachine.getStates()
-                                                                                                    .get(stateStorable.getStateId());
+                                                                                                    .get(schemaVersionStorable.getState());
         SchemaVersionService schemaVersionService = createSchemaVersionService();
-        SchemaVersionLifecycleContext context = new SchemaVersionLifecycleContext(stateStorable.getSchemaVersionId(),
-                                                                                  stateStorable.getSequence(),
+        SchemaVersionLifecycleContext context = new SchemaVersionLifecycleContext(schemaVersionId,
+                                                                                  schemaVersionStorable.getStateSequence(),
                                                                                   schemaVersionService,
                                                                                   schemaVersionLifecycleStateMachine,
                                                                                   customSchemaStateExecutor);
@@ -776,23 +788,37 @@ public class SchemaVersionLifecycleManager {
 
     public SchemaVersionLifecycleContext createSchemaVersionLifeCycleContext(Long schemaVersionId,
                                                                              SchemaVersionLifecycleState schemaVersionLifecycleState) throws SchemaNotFoundException {
-        // get the current state from storage for the given versionID
-        // we can use a query to get max value for the column for a given schema-version-id but StorageManager does not
-        // have API to take custom queries.
-
-        List<QueryParam> queryParams = new ArrayList<>();
-        queryParams.add(new QueryParam(SchemaVersionStateStorable.SCHEMA_VERSION_ID, schemaVersionId.toString()));
-        queryParams.add(new QueryParam(SchemaVersionStateStorable.STATE, schemaVersionLifecycleState.getId()
-                                                                                                    .toString()));
-
-        Collection<SchemaVersionStateStorable> schemaVersionStates =
-                storageManager.find(SchemaVersionStateStorable.NAME_SPACE,
-                                    queryParams,
-                                    Collections.singletonList(OrderByField.of(SchemaVersionStateStorable.SEQUENCE, true)));
-        if (schemaVersionStates.isEmpty()) {
+        SchemaVersionStorable schemaVersionStorable = getSchemaVersionStorable(schemaVersionId);
+        if (schemaVersionStorable == null) {
             throw new SchemaNotFoundException("No schema versions found with id " + schemaVersionId);
         }
-        SchemaVersionStateStorable stateStorable = schemaVersionStates.iterator().next();
+
+        SchemaVersionStateStorable stateStorable = null;
+        if (schemaVersionLifecycleState.getId().equals(schemaVersionStorable.getState())) {
+            // entry of the current state is looked up with its key
+            SchemaVersionStateStorable stateKey = new SchemaVersionStateStorable();
+            stateKey.setSchemaVersionId(schemaVersionId);
+            stateKey.setStateId(schemaVersionStorable.getState());
+            stateKey.setSequence(schemaVersionStorable.getStateSequence());
+            stateStorable = storageManager.get(stateKey.getStorableKey());
+        }
+
+        if (stateStorable == null) {
+            // get the latest entry of the given state from storage for the given versionID
+            List<QueryParam> queryParams = new ArrayList<>();
+            queryParams.add(new QueryParam(SchemaVersionStateStorable.SCHEMA_VERSION_ID, schemaVersionId.toString()));
+            queryParams.add(new QueryParam(SchemaVersionStateStorable.STATE, schemaVersionLifecycleState.getId()
+                                                                                                        .toString()));
+
+            Collection<SchemaVersionStateStorable> schemaVersionStates =
+                    storageManager.find(SchemaVersionStateStorable.NAME_SPACE,
+                                        queryParams,
+                                        Collections.singletonList(OrderByField.of(SchemaVersionStateStorable.SEQUENCE, true)));
+            if (schemaVersionStates.isEmpty()) {
+                throw new SchemaNotFoundException("No schema versions found with id " + schemaVersionId);
+            }
+            stateStorable = schemaVersionStates.iterator().next();
+        }
 
         SchemaVersionService schemaVersionService = createSchemaVersionService();
         SchemaVersionLifecycleContext context = new SchemaVersionLifecycleContext(stateStorable.getSchemaVersionId(),
@@ -804,6 +830,11 @@ public class SchemaVersionLifecycleManager {
         return context;
     }
 
+    private SchemaVersionStorable getSchemaVersionStorable(Long schemaVersionId) {
+        StorableKey storableKey = new StorableKey(SchemaVersionStorable.NAME_SPACE, SchemaVersionStorable.getPrimaryKey(schemaVersionId));
+        return storageManager.get(storableKey);
+    }
+
     private SchemaVersionService createSchemaVersionService() {
         return new SchemaVersionService() {
 
@@ -847,9 +878,10 @@ public class SchemaVersionLifecycleManager {
         SchemaVersionStateStorable stateStorable = new SchemaVersionStateStorable();
         Long schemaVersionId = schemaVersionLifecycleContext.getSchemaVersionId();
         byte stateId = schemaVersionLifecycleContext.getState().getId();
+        int sequence = schemaVersionLifecycleContext.getSequence() + 1;
 
         stateStorable.setSchemaVersionId(schemaVersionId);
-        stateStorable.setSequence(schemaVersionLifecycleContext.getSequence() + 1);
+        stateStorable.setSequence(sequence);
         stateStorable.setStateId(stateId);
         stateStorable.setTimestamp(System.currentTimeMillis());
         stateStorable.setDetails(schemaVersionLifecycleContext.getDetails());
@@ -857,13 +889,13 @@ public class SchemaVersionLifecycleManager {
 
         storageManager.add(stateStorable);
 
-        // store latest state in versions entity
-        StorableKey storableKey = new StorableKey(SchemaVersionStorable.NAME_SPACE, SchemaVersionStorable.getPrimaryKey(schemaVersionId));
-        SchemaVersionStorable versionedSchema = storageManager.get(storableKey);
+        // store latest state and its sequence in versions entity, state entities are kept as the history of the version
+        SchemaVersionStorable versionedSchema = getSchemaVersionStorable(schemaVersionId);
         if (versionedSchema == null) {
             throw new SchemaNotFoundException("No Schema version exists with id " + schemaVersionId);
         }
         versionedSchema.setState(stateId);
+        versionedSchema.setStateSequence(sequence);
         storageManager.update(versionedSchema);
 
         // invalidate schema version from cache
@@ -882,7 +914,10 @@ public class SchemaVersionLifecycleManager {
     }
 
     private void doDeleteSchemaVersion(Long schemaVersionId) throws SchemaNotFoundException, SchemaLifecycleException {
-        SchemaVersionInfoCache.Key schemaVersionCacheKey = SchemaVersionInfoCache.Key.of(new SchemaIdVersion(schemaVersionId));
+        // caches are invalidated by the name of the version, its id can not be resolved to a schema once it is deleted
+        SchemaVersionInfo schemaVersionInfo = schemaVersionInfoCache.getSchema(SchemaVersionInfoCache.Key.of(new SchemaIdVersion(schemaVersionId)));
+        SchemaVersionInfoCache.Key schemaVersionCacheKey =
+                SchemaVersionInfoCache.Key.of(new SchemaVersionKey(schemaVersionInfo.getName(), schemaVersionInfo.getVersion()));
         invalidateSchemaInAllHAServer(schemaVersionCacheKey);
         storageManager.remove(createSchemaVersionStorableKey(schemaVersionId));
         deleteSchemaVersionBranchMapping(schemaVersionId);
@@ -1101,14 +1136,27 @@ public class SchemaVersionLifecycleManager {
 
     public void invalidateAllSchemaVersionCache() {
         schemaVersionInfoCache.invalidateAll();
+        schemaFieldIndex.invalidateAll();
+        schemaVersionHeads.invalidateAll();
     }
 
     public void invalidateSchemaVersionCache(SchemaVersionInfoCache.Key key) {
         schemaVersionInfoCache.invalidateSchema(key);
+        schemaFieldIndex.invalidate(key);
+        schemaVersionHeads.invalidate(key);
+    }
+
+    public void loadSchemaFieldIndex() {
+        schemaFieldIndex.load();
+    }
+
+    public Collection<SchemaVersionKey> findSchemasByFields(Collection<SchemaFieldQuery> schemaFieldQueries) {
+        return schemaFieldIndex.find(schemaFieldQueries);
     }
 
     public void invalidateSchemaInAllHAServer(SchemaVersionInfoCache.Key key) {
         schemaVersionInfoCache.invalidateSchema(key);
+        schemaVersionHeads.invalidate(key);
 
         String keyAsString;
 
@@ -1118,8 +1166,18 @@ public class SchemaVersionLifecycleManager {
             throw new RuntimeException(String.format("Failed to serialized key : %s", key),e);
         }
 
-        haServerNotificationManager.notifyCacheInvalidation(schemaVersionInfoCache.getCacheType(),keyAsString);
-
+        // entries loaded until the transaction completes may not have its changes, they are invalidated again. Field
+        // index reloads an invalidated version only once, so it and the peers are invalidated after the commit.
+        transactionManager.afterRollback(() -> {
+            schemaVersionInfoCache.invalidateSchema(key);
+            schemaVersionHeads.invalidate(key);
+        });
+        transactionManager.afterCommit(() -> {
+            schemaVersionInfoCache.invalidateSchema(key);
+            schemaVersionHeads.invalidate(key);
+            schemaFieldIndex.invalidate(key);
+            haServerNotificationManager.notifyCacheInvalidation(schemaVersionInfoCache.getCacheType(), keyAsString);
+        });
     }
 
 }
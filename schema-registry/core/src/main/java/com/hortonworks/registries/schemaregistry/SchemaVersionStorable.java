@@ -40,6 +40,7 @@ public class SchemaVersionStorable extends AbstractVersionedStorable {
     public static final String TIMESTAMP = "timestamp";
     public static final String FINGERPRINT = "fingerprint";
     public static final String STATE = "state";
+    public static final String STATE_SEQUENCE = "stateSequence";
 
     public static final Schema.Field ID_FIELD = Schema.Field.of(ID, Schema.Type.LONG);
 
@@ -52,7 +53,8 @@ public class SchemaVersionStorable extends AbstractVersionedStorable {
         Schema.Field.of(VERSION, Schema.Type.INTEGER),
         Schema.Field.of(TIMESTAMP, Schema.Type.LONG),
         Schema.Field.of(FINGERPRINT, Schema.Type.STRING),
-        Schema.Field.of(STATE, Schema.Type.BYTE)
+        Schema.Field.of(STATE, Schema.Type.BYTE),
+        Schema.Field.of(STATE_SEQUENCE, Schema.Type.INTEGER)
     );
     
 
@@ -103,6 +105,11 @@ public class SchemaVersionStorable extends AbstractVersionedStorable {
      */
     private Byte state;
 
+    /**
+     * Sequence of the latest {@link SchemaVersionStateStorable} of this version, which is the entry of its current state.
+     */
+    private Integer stateSequence;
+
     public SchemaVersionStorable() {
     }
 
@@ -209,6 +216,14 @@ public class SchemaVersionStorable extends AbstractVersionedStorable {
         this.state = state.byteValue();
     }
 
+    public Integer getStateSequence() {
+        return stateSequence;
+    }
+
+    public void setStateSequence(Integer stateSequence) {
+        this.stateSequence = stateSequence;
+    }
+
     public SchemaVersionInfo toSchemaVersionInfo() {
         return new SchemaVersionInfo(id, name, version, getSchemaMetadataId(), schemaText, timestamp, description, state);
     }
@@ -225,6 +240,7 @@ public class SchemaVersionStorable extends AbstractVersionedStorable {
                 ", timestamp=" + timestamp +
                 ", fingerprint='" + fingerprint + '\'' +
                 ", state=" + state +
+                ", stateSequence=" + stateSequence +
                 ", description='" + description + '\'' +
                 ", version=" + version +
                 ", rootEntityId=" + rootEntityId +
@@ -247,7 +263,8 @@ public class SchemaVersionStorable extends AbstractVersionedStorable {
         if (version != null ? !version.equals(that.version) : that.version != null) return false;
         if (timestamp != null ? !timestamp.equals(that.timestamp) : that.timestamp != null) return false;
         if (fingerprint != null ? !fingerprint.equals(that.fingerprint) : that.fingerprint != null) return false;
-        return state != null ? state.equals(that.state) : that.state == null;
+        if (state != null ? !state.equals(that.state) : that.state != null) return false;
+        return stateSequence != null ? stateSequence.equals(that.stateSequence) : that.stateSequence == null;
     }
 
     @Override
@@ -261,6 +278,7 @@ public class SchemaVersionStorable extends AbstractVersionedStorable {
         result = 31 * result + (timestamp != null ? timestamp.hashCode() : 0);
         result = 31 * result + (fingerprint != null ? fingerprint.hashCode() : 0);
         result = 31 * result + (state != null ? state.hashCode() : 0);
+        result = 31 * result + (stateSequence != null ? stateSequence.hashCode() : 0);
         return result;
     }
 }
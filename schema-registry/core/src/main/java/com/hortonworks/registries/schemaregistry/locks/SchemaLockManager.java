@@ -35,4 +35,8 @@ public class SchemaLockManager {
     public Lock getWriteLock(String lockName) {
         return new WriteLock(lockName, transactionManager);
     }
+
+    public TransactionManager getTransactionManager() {
+        return transactionManager;
+    }
 }
@@ -0,0 +1,251 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.schemaregistry;
+
+import com.hortonworks.registries.schemaregistry.cache.SchemaRegistryCacheType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ */
+public class HAServerNotificationManagerTest {
+
+    private static final String INVALIDATE_VERSION_URL_PATH = "api/v1/schemaregistry/cache/SCHEMA_VERSION_CACHE/invalidate";
+
+    private RecordingNotificationManager notificationManager;
+
+    @After
+    public void tearDown() {
+        if (notificationManager != null) {
+            notificationManager.close();
+        }
+    }
+
+    @Test
+    public void testNotificationsAreSentAsynchronouslyToAllPeers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(3);
+        notificationManager = new RecordingNotificationManager() {
+            @Override
+            protected boolean post(String url, Object postBody) {
+                await(release);
+                super.post(url, postBody);
+                delivered.countDown();
+                return true;
+            }
+        };
+        notificationManager.setHomeNodeURL("http://host-0/");
+        notificationManager.refreshServerInfo(hostConfigs("http://host-0/", "http://host-1/", "http://host-2/", "http://host-3/"));
+
+        // peers do not respond until released, the caller must not wait for them
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-1");
+        release.countDown();
+
+        Assert.assertTrue(delivered.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(Collections.singletonList("key-1"), notificationManager.bodies("http://host-1/" + INVALIDATE_VERSION_URL_PATH));
+        Assert.assertEquals(Collections.singletonList("key-1"), notificationManager.bodies("http://host-2/" + INVALIDATE_VERSION_URL_PATH));
+        Assert.assertEquals(Collections.singletonList("key-1"), notificationManager.bodies("http://host-3/" + INVALIDATE_VERSION_URL_PATH));
+        Assert.assertNull(notificationManager.bodies("http://host-0/" + INVALIDATE_VERSION_URL_PATH));
+    }
+
+    @Test
+    public void testPendingNotificationsAreCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        notificationManager = new RecordingNotificationManager() {
+            @Override
+            protected boolean post(String url, Object postBody) {
+                boolean delivered = super.post(url, postBody);
+                await(release);
+                return delivered;
+            }
+        };
+        notificationManager.setHomeNodeURL("http://host-0/");
+        notificationManager.addNodeUrl("http://host-1/");
+
+        // first notification blocks the peer, the next ones are queued while it is being delivered
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-1");
+        waitUntil(() -> notificationManager.posts.get() == 1);
+        for (int i = 0; i < 10; i++) {
+            notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-2");
+        }
+        release.countDown();
+
+        // notifications are delivered in order, nothing is left once the next one is delivered
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-3");
+        waitUntil(() -> notificationManager.posts.get() == 3);
+        Assert.assertEquals(Arrays.asList("key-1", "key-2", "key-3"), notificationManager.bodies("http://host-1/" + INVALIDATE_VERSION_URL_PATH));
+    }
+
+    @Test
+    public void testFailedNotificationsAreRetried() throws Exception {
+        AtomicInteger failures = new AtomicInteger(HAServerNotificationManager.MAX_RETRY - 1);
+        notificationManager = new RecordingNotificationManager() {
+            @Override
+            protected boolean post(String url, Object postBody) {
+                super.post(url, postBody);
+                return failures.getAndDecrement() <= 0;
+            }
+        };
+        notificationManager.setHomeNodeURL("http://host-0/");
+        notificationManager.addNodeUrl("http://host-1/");
+
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_BRANCH_CACHE, "key-1");
+
+        waitUntil(() -> notificationManager.posts.get() == HAServerNotificationManager.MAX_RETRY);
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_BRANCH_CACHE, "key-2");
+        waitUntil(() -> notificationManager.posts.get() == HAServerNotificationManager.MAX_RETRY + 1);
+        Assert.assertEquals(Collections.nCopies(HAServerNotificationManager.MAX_RETRY, "key-1"),
+                            notificationManager.bodies("http://host-1/api/v1/schemaregistry/cache/SCHEMA_BRANCH_CACHE/invalidate")
+                                               .subList(0, HAServerNotificationManager.MAX_RETRY));
+    }
+
+    @Test
+    public void testFailingPeerIsNotSentTheRestOfTheQueue() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger(HAServerNotificationManager.MAX_RETRY - 1);
+        notificationManager = new RecordingNotificationManager() {
+            @Override
+            protected boolean post(String url, Object postBody) {
+                super.post(url, postBody);
+                await(release);
+                return failures.getAndDecrement() <= 0;
+            }
+        };
+        notificationManager.setHomeNodeURL("http://host-0/");
+        notificationManager.addNodeUrl("http://host-1/");
+
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-1");
+        waitUntil(() -> notificationManager.posts.get() == 1);
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-2");
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-3");
+        release.countDown();
+
+        waitUntil(() -> notificationManager.posts.get() == HAServerNotificationManager.MAX_RETRY + 2);
+        Assert.assertEquals(Arrays.asList("key-1", "key-1", "key-1", "key-2", "key-3"),
+                            notificationManager.bodies("http://host-1/" + INVALIDATE_VERSION_URL_PATH));
+    }
+
+    @Test
+    public void testPendingCacheInvalidationsAreBounded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        notificationManager = new RecordingNotificationManager() {
+            @Override
+            protected boolean post(String url, Object postBody) {
+                boolean delivered = super.post(url, postBody);
+                await(release);
+                return delivered;
+            }
+        };
+        notificationManager.setHomeNodeURL("http://host-0/");
+        notificationManager.addNodeUrl("http://host-1/");
+
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-0");
+        waitUntil(() -> notificationManager.posts.get() == 1);
+        for (int i = 1; i <= HAServerNotificationManager.MAX_PENDING_NOTIFICATIONS + 1; i++) {
+            notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-" + i);
+        }
+        release.countDown();
+
+        // overflowing invalidations are replaced with one invalidation of all the caches
+        waitUntil(() -> notificationManager.bodies("http://host-1/api/v1/schemaregistry/cache/ALL/invalidate") != null);
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_BRANCH_CACHE, "key-last");
+        waitUntil(() -> notificationManager.bodies("http://host-1/api/v1/schemaregistry/cache/SCHEMA_BRANCH_CACHE/invalidate") != null);
+        Assert.assertEquals(1, notificationManager.bodies("http://host-1/api/v1/schemaregistry/cache/ALL/invalidate").size());
+        Assert.assertTrue(notificationManager.posts.get() <= 4);
+    }
+
+    @Test
+    public void testNoNotificationsAfterClose() throws Exception {
+        notificationManager = new RecordingNotificationManager();
+        notificationManager.setHomeNodeURL("http://host-0/");
+        notificationManager.addNodeUrl("http://host-1/");
+
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-1");
+        waitUntil(() -> notificationManager.posts.get() == 1);
+        notificationManager.close();
+        // notifications are not queued once closed
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-2");
+
+        Assert.assertEquals(1, notificationManager.posts.get());
+    }
+
+    @Test
+    public void testNoNotificationsWithoutHomeNode() throws Exception {
+        notificationManager = new RecordingNotificationManager();
+        notificationManager.addNodeUrl("http://host-1/");
+
+        // notifications are not queued without a home node
+        notificationManager.notifyCacheInvalidation(SchemaRegistryCacheType.SCHEMA_VERSION_CACHE, "key-1");
+
+        Assert.assertEquals(0, notificationManager.posts.get());
+    }
+
+    private static List<HostConfigStorable> hostConfigs(String... hostUrls) {
+        List<HostConfigStorable> hostConfigs = new ArrayList<>();
+        for (int i = 0; i < hostUrls.length; i++) {
+            hostConfigs.add(new HostConfigStorable((long) i, hostUrls[i], System.currentTimeMillis()));
+        }
+        return hostConfigs;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.isSatisfied()) {
+            Assert.assertTrue("Condition was not satisfied in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private interface Condition {
+        boolean isSatisfied();
+    }
+
+    private static class RecordingNotificationManager extends HAServerNotificationManager {
+        private final Map<String, List<Object>> bodiesByUrl = new ConcurrentHashMap<>();
+        private final AtomicInteger posts = new AtomicInteger();
+
+        @Override
+        protected boolean post(String url, Object postBody) {
+            bodiesByUrl.computeIfAbsent(url, x -> Collections.synchronizedList(new ArrayList<>())).add(postBody);
+            posts.incrementAndGet();
+            return true;
+        }
+
+        List<Object> bodies(String url) {
+            return bodiesByUrl.get(url);
+        }
+    }
+}
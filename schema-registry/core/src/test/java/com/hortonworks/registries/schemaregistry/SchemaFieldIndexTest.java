@@ -0,0 +1,146 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.schemaregistry;
+
+import com.hortonworks.registries.schemaregistry.cache.SchemaVersionInfoCache;
+import com.hortonworks.registries.storage.StorageManager;
+import com.hortonworks.registries.storage.impl.memory.InMemoryStorageManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ */
+public class SchemaFieldIndexTest {
+
+    private static final SchemaVersionKey SCHEMA_A_V1 = new SchemaVersionKey("schema-a", 1);
+    private static final SchemaVersionKey SCHEMA_B_V1 = new SchemaVersionKey("schema-b", 1);
+    private static final SchemaVersionKey SCHEMA_C_V1 = new SchemaVersionKey("schema-c", 1);
+
+    private StorageManager storageManager;
+    private SchemaFieldIndex schemaFieldIndex;
+    private long nextFieldId = 1L;
+
+    @Before
+    public void setup() {
+        storageManager = new InMemoryStorageManager();
+        storageManager.registerStorables(Arrays.asList(SchemaVersionStorable.class, SchemaFieldInfoStorable.class));
+        addSchemaVersion(1L, SCHEMA_A_V1,
+                         new SchemaFieldInfo("com.example.a", "id", "long"),
+                         new SchemaFieldInfo("com.example.a", "idx", "string"));
+        addSchemaVersion(2L, SCHEMA_B_V1,
+                         new SchemaFieldInfo("com.example.b", "id", "string"),
+                         new SchemaFieldInfo("org.example.b", "name", "string"));
+        schemaFieldIndex = new SchemaFieldIndex(storageManager);
+    }
+
+    @Test
+    public void testFindByFields() {
+        Assert.assertEquals(Arrays.asList(SCHEMA_A_V1, SCHEMA_B_V1), find(new SchemaFieldQuery("id", null, null)));
+        Assert.assertEquals(Collections.singletonList(SCHEMA_A_V1), find(new SchemaFieldQuery("idx", null, null)));
+        Assert.assertEquals(Collections.emptyList(), find(new SchemaFieldQuery("unknown", null, null)));
+
+        // all the attributes of a query are matched by the same field
+        Assert.assertEquals(Collections.singletonList(SCHEMA_A_V1), find(new SchemaFieldQuery("id", null, "long")));
+        Assert.assertEquals(Collections.singletonList(SCHEMA_B_V1), find(new SchemaFieldQuery("id", null, "string")));
+        Assert.assertEquals(Collections.emptyList(), find(new SchemaFieldQuery("id", "org.example.b", null)));
+
+        // query without any attribute matches all the versions with fields
+        Assert.assertEquals(Arrays.asList(SCHEMA_A_V1, SCHEMA_B_V1), find(new SchemaFieldQuery(null, null, null)));
+    }
+
+    @Test
+    public void testFindByPrefixes() {
+        Assert.assertEquals(Arrays.asList(SCHEMA_A_V1, SCHEMA_B_V1), find(new SchemaFieldQuery("i*", null, null)));
+        Assert.assertEquals(Collections.singletonList(SCHEMA_B_V1), find(new SchemaFieldQuery(null, "org.*", null)));
+        Assert.assertEquals(Collections.singletonList(SCHEMA_A_V1), find(new SchemaFieldQuery("idx*", "com.*", null)));
+        Assert.assertEquals(Collections.singletonList(SCHEMA_B_V1), find(new SchemaFieldQuery("n*", null, "str*")));
+        Assert.assertEquals(Arrays.asList(SCHEMA_A_V1, SCHEMA_B_V1), find(new SchemaFieldQuery(null, null, "*")));
+    }
+
+    @Test
+    public void testFindByMultipleFields() {
+        Assert.assertEquals(Collections.singletonList(SCHEMA_B_V1),
+                            schemaFieldIndex.find(Arrays.asList(new SchemaFieldQuery("id", null, null),
+                                                                new SchemaFieldQuery("name", null, null))));
+        Assert.assertEquals(Collections.singletonList(SCHEMA_A_V1),
+                            schemaFieldIndex.find(Arrays.asList(new SchemaFieldQuery("id", null, "long"),
+                                                                new SchemaFieldQuery("idx", null, null))));
+        Assert.assertEquals(Collections.emptyList(),
+                            schemaFieldIndex.find(Arrays.asList(new SchemaFieldQuery("idx", null, null),
+                                                                new SchemaFieldQuery("name", null, null))));
+    }
+
+    @Test
+    public void testInvalidatedVersionsAreReloaded() {
+        Assert.assertEquals(Arrays.asList(SCHEMA_A_V1, SCHEMA_B_V1), find(new SchemaFieldQuery("id", null, null)));
+
+        // added version is found after it is invalidated
+        addSchemaVersion(3L, SCHEMA_C_V1, new SchemaFieldInfo("com.example.c", "id", "int"));
+        Assert.assertEquals(Arrays.asList(SCHEMA_A_V1, SCHEMA_B_V1), find(new SchemaFieldQuery("id", null, null)));
+        schemaFieldIndex.invalidate(SchemaVersionInfoCache.Key.of(new SchemaIdVersion(3L)));
+        Assert.assertEquals(Arrays.asList(SCHEMA_A_V1, SCHEMA_B_V1, SCHEMA_C_V1), find(new SchemaFieldQuery("id", null, null)));
+
+        // deleted version is not found after it is invalidated with its name and version
+        storageManager.remove(createSchemaVersionStorable(1L, SCHEMA_A_V1).getStorableKey());
+        schemaFieldIndex.invalidate(SchemaVersionInfoCache.Key.of(SCHEMA_A_V1));
+        Assert.assertEquals(Arrays.asList(SCHEMA_B_V1, SCHEMA_C_V1), find(new SchemaFieldQuery("id", null, null)));
+        Assert.assertEquals(Collections.emptyList(), find(new SchemaFieldQuery("idx", null, null)));
+    }
+
+    @Test
+    public void testInvalidatedVersionsAreReloadedOnce() {
+        schemaFieldIndex.invalidate(3L);
+        Assert.assertEquals(Collections.emptyList(), find(new SchemaFieldQuery("id", null, "int")));
+
+        // not read again until it is invalidated again
+        addSchemaVersion(3L, SCHEMA_C_V1, new SchemaFieldInfo("com.example.c", "id", "int"));
+        Assert.assertEquals(Collections.emptyList(), find(new SchemaFieldQuery("id", null, "int")));
+
+        schemaFieldIndex.invalidate(3L);
+        Assert.assertEquals(Collections.singletonList(SCHEMA_C_V1), find(new SchemaFieldQuery("id", null, "int")));
+    }
+
+    private List<SchemaVersionKey> find(SchemaFieldQuery schemaFieldQuery) {
+        return schemaFieldIndex.find(Collections.singletonList(schemaFieldQuery));
+    }
+
+    private void addSchemaVersion(Long id, SchemaVersionKey schemaVersionKey, SchemaFieldInfo... schemaFieldInfos) {
+        storageManager.add(createSchemaVersionStorable(id, schemaVersionKey));
+        for (SchemaFieldInfo schemaFieldInfo : schemaFieldInfos) {
+            SchemaFieldInfoStorable schemaFieldInfoStorable = SchemaFieldInfoStorable.fromSchemaFieldInfo(schemaFieldInfo, nextFieldId++);
+            schemaFieldInfoStorable.setSchemaInstanceId(id);
+            schemaFieldInfoStorable.setTimestamp(System.currentTimeMillis());
+            storageManager.add(schemaFieldInfoStorable);
+        }
+    }
+
+    private static SchemaVersionStorable createSchemaVersionStorable(Long id, SchemaVersionKey schemaVersionKey) {
+        SchemaVersionStorable schemaVersionStorable = new SchemaVersionStorable();
+        schemaVersionStorable.setId(id);
+        schemaVersionStorable.setSchemaMetadataId(id);
+        schemaVersionStorable.setName(schemaVersionKey.getSchemaName());
+        schemaVersionStorable.setVersion(schemaVersionKey.getVersion());
+        schemaVersionStorable.setSchemaText("{}");
+        schemaVersionStorable.setTimestamp(System.currentTimeMillis());
+        return schemaVersionStorable;
+    }
+}
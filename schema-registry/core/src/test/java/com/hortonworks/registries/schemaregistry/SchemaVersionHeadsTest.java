@@ -0,0 +1,173 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.schemaregistry;
+
+import com.hortonworks.registries.common.QueryParam;
+import com.hortonworks.registries.schemaregistry.cache.SchemaVersionInfoCache;
+import com.hortonworks.registries.schemaregistry.errors.InvalidSchemaBranchVersionMapping;
+import com.hortonworks.registries.schemaregistry.state.SchemaVersionLifecycleStates;
+import com.hortonworks.registries.storage.OrderByField;
+import com.hortonworks.registries.storage.Storable;
+import com.hortonworks.registries.storage.impl.memory.InMemoryStorageManager;
+import com.hortonworks.registries.storage.search.SearchQuery;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ */
+public class SchemaVersionHeadsTest {
+
+    private static final String SCHEMA_NAME = "schema-1";
+    private static final int VERSION_COUNT = 1500;
+    private static final Byte ENABLED = SchemaVersionLifecycleStates.ENABLED.getId();
+    private static final Byte ARCHIVED = SchemaVersionLifecycleStates.ARCHIVED.getId();
+
+    private static final SchemaBranch MASTER_BRANCH = new SchemaBranch(1L, SchemaBranch.MASTER_BRANCH, SCHEMA_NAME, null, null);
+    private static final SchemaBranch OTHER_BRANCH = new SchemaBranch(2L, "other", SCHEMA_NAME, null, null);
+
+    private CountingStorageManager storageManager;
+    private SchemaVersionHeads schemaVersionHeads;
+
+    @Before
+    public void setup() {
+        storageManager = new CountingStorageManager();
+        storageManager.registerStorables(Arrays.asList(SchemaVersionStorable.class, SchemaBranchVersionMapping.class));
+        // even versions are enabled and odd versions are archived
+        for (long id = 1; id <= VERSION_COUNT; id++) {
+            addSchemaVersion(id, (int) id, id % 2 == 0 ? ENABLED : ARCHIVED, MASTER_BRANCH);
+        }
+        schemaVersionHeads = new SchemaVersionHeads(storageManager, 32, 60L);
+    }
+
+    @Test
+    public void testLatestVersionsOfSchema() {
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT), schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, null));
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT), schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, ENABLED));
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT - 1), schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, ARCHIVED));
+        Assert.assertNull(schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, SchemaVersionLifecycleStates.DELETED.getId()));
+        Assert.assertNull(schemaVersionHeads.getLatestVersionId("unknown", null));
+    }
+
+    @Test
+    public void testLatestVersionsOfBranches() {
+        // branch forked from version 10 with a version in it
+        storageManager.add(new SchemaBranchVersionMapping(OTHER_BRANCH.getId(), 10L));
+        addSchemaVersion(VERSION_COUNT + 1L, VERSION_COUNT + 1, SchemaVersionLifecycleStates.INITIATED.getId(), OTHER_BRANCH);
+
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT), schemaVersionHeads.getLatestVersionId(MASTER_BRANCH, null));
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT), schemaVersionHeads.getLatestVersionId(MASTER_BRANCH, ENABLED));
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT + 1), schemaVersionHeads.getLatestVersionId(OTHER_BRANCH, null));
+        Assert.assertEquals(Long.valueOf(10L), schemaVersionHeads.getLatestVersionId(OTHER_BRANCH, ENABLED));
+        Assert.assertNull(schemaVersionHeads.getLatestVersionId(OTHER_BRANCH, ARCHIVED));
+    }
+
+    @Test
+    public void testLatestVersionLookupsDoNotReadStorage() {
+        schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, null);
+        schemaVersionHeads.getLatestVersionId(MASTER_BRANCH, null);
+        int queries = storageManager.queries.get();
+
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(Long.valueOf(VERSION_COUNT), schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, ENABLED));
+            Assert.assertEquals(Long.valueOf(VERSION_COUNT - 1), schemaVersionHeads.getLatestVersionId(MASTER_BRANCH, ARCHIVED));
+        }
+        Assert.assertEquals(queries, storageManager.queries.get());
+    }
+
+    @Test
+    public void testInvalidatedHeadsAreReloaded() {
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT), schemaVersionHeads.getLatestVersionId(MASTER_BRANCH, null));
+
+        // added version is seen after it is invalidated
+        addSchemaVersion(VERSION_COUNT + 1L, VERSION_COUNT + 1, ENABLED, MASTER_BRANCH);
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT), schemaVersionHeads.getLatestVersionId(MASTER_BRANCH, null));
+        schemaVersionHeads.invalidate(SchemaVersionInfoCache.Key.of(new SchemaIdVersion(VERSION_COUNT + 1L)));
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT + 1), schemaVersionHeads.getLatestVersionId(MASTER_BRANCH, null));
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT + 1), schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, ENABLED));
+
+        // state change is seen after the version is invalidated with its name and version
+        SchemaVersionStorable schemaVersionStorable = storageManager.get(createSchemaVersionStorable(VERSION_COUNT + 1L, 0, null).getStorableKey());
+        schemaVersionStorable.setState(ARCHIVED);
+        storageManager.update(schemaVersionStorable);
+        schemaVersionHeads.invalidate(SchemaVersionInfoCache.Key.of(new SchemaVersionKey(SCHEMA_NAME, VERSION_COUNT + 1)));
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT), schemaVersionHeads.getLatestVersionId(MASTER_BRANCH, ENABLED));
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT + 1), schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, ARCHIVED));
+    }
+
+    @Test
+    public void testVersionNotFoundInStorageInvalidatesAllHeads() {
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT), schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, null));
+
+        // version added by a transaction which is not committed yet
+        schemaVersionHeads.invalidate(SchemaVersionInfoCache.Key.of(new SchemaIdVersion(VERSION_COUNT + 1L)));
+        addSchemaVersion(VERSION_COUNT + 1L, VERSION_COUNT + 1, ENABLED, MASTER_BRANCH);
+
+        Assert.assertEquals(Long.valueOf(VERSION_COUNT + 1), schemaVersionHeads.getLatestVersionId(SCHEMA_NAME, null));
+    }
+
+    @Test
+    public void testBranchWithoutVersions() {
+        SchemaBranch emptyMasterBranch = new SchemaBranch(3L, SchemaBranch.MASTER_BRANCH, "schema-2", null, null);
+        Assert.assertNull(schemaVersionHeads.getLatestVersionId(emptyMasterBranch, null));
+
+        try {
+            schemaVersionHeads.getLatestVersionId(OTHER_BRANCH, null);
+            Assert.fail("Branch without versions should not be valid");
+        } catch (InvalidSchemaBranchVersionMapping e) {
+            // expected
+        }
+    }
+
+    private void addSchemaVersion(Long id, int version, Byte stateId, SchemaBranch schemaBranch) {
+        storageManager.add(createSchemaVersionStorable(id, version, stateId));
+        storageManager.add(new SchemaBranchVersionMapping(schemaBranch.getId(), id));
+    }
+
+    private static SchemaVersionStorable createSchemaVersionStorable(Long id, int version, Byte stateId) {
+        SchemaVersionStorable schemaVersionStorable = new SchemaVersionStorable();
+        schemaVersionStorable.setId(id);
+        schemaVersionStorable.setSchemaMetadataId(1L);
+        schemaVersionStorable.setName(SCHEMA_NAME);
+        schemaVersionStorable.setVersion(version);
+        schemaVersionStorable.setState(stateId);
+        schemaVersionStorable.setSchemaText("{}");
+        schemaVersionStorable.setTimestamp(System.currentTimeMillis());
+        return schemaVersionStorable;
+    }
+
+    private static class CountingStorageManager extends InMemoryStorageManager {
+        private final AtomicInteger queries = new AtomicInteger();
+
+        @Override
+        public <T extends Storable> Collection<T> find(String namespace, List<QueryParam> queryParams, List<OrderByField> orderByFields) {
+            queries.incrementAndGet();
+            return super.find(namespace, queryParams, orderByFields);
+        }
+
+        @Override
+        public <T extends Storable> Collection<T> search(SearchQuery searchQuery) {
+            queries.incrementAndGet();
+            return super.search(searchQuery);
+        }
+    }
+}
@@ -15,6 +15,8 @@
 package com.hortonworks.registries.schemaregistry.webservice;
 
 import com.codahale.metrics.annotation.Timed;
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteStreams;
 import com.hortonworks.registries.common.SchemaRegistryVersion;
 import com.hortonworks.registries.common.catalog.CatalogResponse;
 import com.hortonworks.registries.common.ha.LeadershipParticipant;
@@ -36,6 +38,7 @@ import com.hortonworks.registries.schemaregistry.SchemaMetadataStorable;
 import com.hortonworks.registries.schemaregistry.SchemaProviderInfo;
 import com.hortonworks.registries.schemaregistry.SchemaVersion;
 import com.hortonworks.registries.schemaregistry.SchemaVersionInfo;
+import com.hortonworks.registries.schemaregistry.SchemaVersionInfoBatch;
 import com.hortonworks.registries.schemaregistry.SchemaVersionKey;
 import com.hortonworks.registries.schemaregistry.SchemaVersionMergeResult;
 import com.hortonworks.registries.schemaregistry.SerDesInfo;
@@ -67,12 +70,14 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
@@ -87,11 +92,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+import static com.hortonworks.registries.schemaregistry.DefaultSchemaRegistry.AFTER_PARAM_NAME;
+import static com.hortonworks.registries.schemaregistry.DefaultSchemaRegistry.LIMIT_PARAM_NAME;
 import static com.hortonworks.registries.schemaregistry.DefaultSchemaRegistry.ORDER_BY_FIELDS_PARAM_NAME;
+import static com.hortonworks.registries.schemaregistry.DefaultSchemaRegistry.getPageLimit;
 import static com.hortonworks.registries.schemaregistry.SchemaBranch.MASTER_BRANCH;
 
 /**
@@ -105,6 +117,13 @@ public class SchemaRegistryResource extends BaseRegistryResource {
     public static final String THROW_ERROR_IF_EXISTS = "_throwErrorIfExists";
     public static final String THROW_ERROR_IF_EXISTS_LOWER_CASE = THROW_ERROR_IF_EXISTS.toLowerCase();
 
+    private static final String RANGE_HEADER = "Range";
+    private static final String ACCEPT_RANGES_HEADER = "Accept-Ranges";
+    private static final String CONTENT_RANGE_HEADER = "Content-Range";
+    private static final Pattern BYTE_RANGE_PATTERN = Pattern.compile("bytes=(\\d+)-(\\d*)");
+    // maximum number of schema versions looked up with one batch request
+    private static final int MAX_SCHEMA_VERSION_BATCH_SIZE = 500;
+
     // reserved as schema related paths use these strings
     private static final String[] reservedNames = {"aggregate", "versions", "compatibility"};
     private final SchemaRegistryVersion schemaRegistryVersion;
@@ -155,6 +174,8 @@ public class SchemaRegistryResource extends BaseRegistryResource {
     @GET
     @Path("/schemas/aggregated")
     @ApiOperation(value = "Get list of schemas by filtering with the given query parameters",
+            notes = "Schemas are returned in pages of at most _limit schemas ordered by id when _limit is given, " +
+                    "the next page starts after the id given with _after. _orderByFields can not be used with _limit.",
             response = AggregatedSchemaMetadataInfo.class, responseContainer = "List", tags = OPERATION_GROUP_SCHEMA)
     @Timed
     @UnitOfWork
@@ -227,16 +248,49 @@ public class SchemaRegistryResource extends BaseRegistryResource {
                 filters.put(entry.getKey(), value != null && !value.isEmpty() ? value.get(0) : null);
             }
 
-            Collection<SchemaMetadataInfo> schemaMetadatas = authorizationAgent
-                    .authorizeFindSchemas(AuthorizationUtils.getUserAndGroups(securityContext), schemaRegistry.findSchemaMetadata(filters));
+            Collection<SchemaMetadataInfo> schemaMetadatas;
+            if (filters.containsKey(LIMIT_PARAM_NAME)) {
+                schemaMetadatas = findAuthorizedSchemaMetadataPage(filters, securityContext);
+            } else {
+                schemaMetadatas = authorizationAgent
+                        .authorizeFindSchemas(AuthorizationUtils.getUserAndGroups(securityContext), schemaRegistry.findSchemaMetadata(filters));
+            }
 
             return WSUtils.respondEntities(schemaMetadatas, Response.Status.OK);
+        } catch (IllegalArgumentException ex) {
+            return WSUtils.respond(Response.Status.BAD_REQUEST, CatalogResponse.ResponseMessage.BAD_REQUEST_WITH_MESSAGE, ex.getMessage());
         } catch (Exception ex) {
             LOG.error("Encountered error while listing schemas", ex);
             return WSUtils.respond(Response.Status.INTERNAL_SERVER_ERROR, CatalogResponse.ResponseMessage.EXCEPTION, ex.getMessage());
         }
     }
 
+    /**
+     * Schemas which are not authorized for the user are dropped from a page, so the next pages are fetched until the
+     * page is full or there are no more schemas. Clients can stop paginating when a page has less schemas than the limit.
+     */
+    private List<SchemaMetadataInfo> findAuthorizedSchemaMetadataPage(Map<String, String> filters,
+                                                                      SecurityContext securityContext) throws Exception {
+        int limit = getPageLimit(filters);
+        Map<String, String> pageFilters = new HashMap<>(filters);
+        List<SchemaMetadataInfo> result = new ArrayList<>();
+        Collection<SchemaMetadataInfo> page;
+        do {
+            page = schemaRegistry.findSchemaMetadata(pageFilters);
+            for (SchemaMetadataInfo schemaMetadataInfo : authorizationAgent
+                    .authorizeFindSchemas(AuthorizationUtils.getUserAndGroups(securityContext), page)) {
+                if (result.size() < limit) {
+                    result.add(schemaMetadataInfo);
+                }
+            }
+            if (result.size() < limit && !page.isEmpty()) {
+                pageFilters.put(AFTER_PARAM_NAME, String.valueOf(Iterables.getLast(page).getId()));
+            }
+        } while (result.size() < limit && page.size() == limit);
+
+        return result;
+    }
+
     @GET
     @Path("/search/schemas")
     @ApiOperation(value = "Search for schemas containing the given name and description",
@@ -315,24 +369,11 @@ public class SchemaRegistryResource extends BaseRegistryResource {
         MultivaluedMap<String, String> queryParameters = uriInfo.getQueryParameters();
         try {
             Collection<SchemaMetadataInfo> schemaMetadataInfos = findSchemaMetadataInfos(uriInfo.getQueryParameters());
-            List<AggregatedSchemaMetadataInfo> aggregatedSchemaMetadataInfos = new ArrayList<>();
-            for (SchemaMetadataInfo schemaMetadataInfo : schemaMetadataInfos) {
-                SchemaMetadata schemaMetadata = schemaMetadataInfo.getSchemaMetadata();
-                List<SerDesInfo> serDesInfos = new ArrayList<>(schemaRegistry.getSerDes(schemaMetadataInfo
-                                                                                                .getSchemaMetadata()
-                                                                                                .getName()));
-                aggregatedSchemaMetadataInfos.add(
-                        new AggregatedSchemaMetadataInfo(schemaMetadata,
-                                                         schemaMetadataInfo.getId(),
-                                                         schemaMetadataInfo.getTimestamp(),
-                                                         schemaRegistry.getAggregatedSchemaBranch(schemaMetadata.getName()),
-                                                         serDesInfos));
-            }
+            Collection<AggregatedSchemaMetadataInfo> aggregatedSchemaMetadataInfos =
+                    schemaRegistry.getAggregatedSchemaMetadataInfos(schemaMetadataInfos);
 
             return WSUtils.respondEntities(authorizationAgent.authorizeGetAggregatedSchemaList(AuthorizationUtils.getUserAndGroups(securityContext), aggregatedSchemaMetadataInfos),
                     Response.Status.OK);
-        } catch (SchemaBranchNotFoundException e) {
-            return WSUtils.respond(Response.Status.NOT_FOUND, CatalogResponse.ResponseMessage.ENTITY_NOT_FOUND,  e.getMessage());
         } catch (Exception ex) {
             LOG.error("Encountered error while finding schemas for given fields [{}]", queryParameters, ex);
             return WSUtils.respond(Response.Status.INTERNAL_SERVER_ERROR, CatalogResponse.ResponseMessage.EXCEPTION, ex.getMessage());
@@ -342,7 +383,10 @@ public class SchemaRegistryResource extends BaseRegistryResource {
     @GET
     @Path("/search/schemas/fields")
     @ApiOperation(value = "Search for schemas containing the given field names",
-            notes = "Search the schemas for given field names and return a list of schemas that contain the field.",
+            notes = "Search the schemas for given field names and return a list of schemas that contain the field. " +
+                    "A value ending with '*' matches the values starting with the rest of it. When the query parameters " +
+                    "are repeated, the n-th values of the parameters form the n-th field and schemas containing all the " +
+                    "fields are returned.",
             response = SchemaVersionKey.class, responseContainer = "List", tags = OPERATION_GROUP_SCHEMA)
     @Timed
     @UnitOfWork
@@ -352,7 +396,7 @@ public class SchemaRegistryResource extends BaseRegistryResource {
         try {
             Collection<SchemaVersionKey> schemaVersionKeys = authorizationAgent
                     .authorizeFindSchemasByFields(AuthorizationUtils.getUserAndGroups(securityContext), schemaRegistry,
-                            schemaRegistry.findSchemasByFields(buildSchemaFieldQuery(queryParameters)));
+                            schemaRegistry.findSchemasByFields(buildSchemaFieldQueries(queryParameters)));
 
             return WSUtils.respondEntities(schemaVersionKeys, Response.Status.OK);
         } catch (Exception ex) {
@@ -361,23 +405,35 @@ public class SchemaRegistryResource extends BaseRegistryResource {
         }
     }
 
-    private SchemaFieldQuery buildSchemaFieldQuery(MultivaluedMap<String, String> queryParameters) {
-        SchemaFieldQuery.Builder builder = new SchemaFieldQuery.Builder();
+    private List<SchemaFieldQuery> buildSchemaFieldQueries(MultivaluedMap<String, String> queryParameters) {
+        List<SchemaFieldQuery.Builder> builders = new ArrayList<>();
         for (Map.Entry<String, List<String>> entry : queryParameters.entrySet()) {
-            List<String> entryValue = entry.getValue();
-            String value = entryValue != null && !entryValue.isEmpty() ? entryValue.get(0) : null;
-            if (value != null) {
-                if (SchemaFieldInfo.FIELD_NAMESPACE.equals(entry.getKey())) {
-                    builder.namespace(value);
-                } else if (SchemaFieldInfo.NAME.equals(entry.getKey())) {
-                    builder.name(value);
-                } else if (SchemaFieldInfo.TYPE.equals(entry.getKey())) {
-                    builder.type(value);
+            List<String> entryValues = entry.getValue() != null ? entry.getValue() : Collections.emptyList();
+            for (int i = 0; i < entryValues.size(); i++) {
+                String value = entryValues.get(i);
+                if (value != null) {
+                    if (SchemaFieldInfo.FIELD_NAMESPACE.equals(entry.getKey())) {
+                        getOrAddBuilder(builders, i).namespace(value);
+                    } else if (SchemaFieldInfo.NAME.equals(entry.getKey())) {
+                        getOrAddBuilder(builders, i).name(value);
+                    } else if (SchemaFieldInfo.TYPE.equals(entry.getKey())) {
+                        getOrAddBuilder(builders, i).type(value);
+                    }
                 }
             }
         }
 
-        return builder.build();
+        if (builders.isEmpty()) {
+            return Collections.singletonList(new SchemaFieldQuery.Builder().build());
+        }
+        return builders.stream().map(SchemaFieldQuery.Builder::build).collect(Collectors.toList());
+    }
+
+    private static SchemaFieldQuery.Builder getOrAddBuilder(List<SchemaFieldQuery.Builder> builders, int index) {
+        while (builders.size() <= index) {
+            builders.add(new SchemaFieldQuery.Builder());
+        }
+        return builders.get(index);
     }
 
     @POST
@@ -804,6 +860,48 @@ public class SchemaRegistryResource extends BaseRegistryResource {
         return response;
     }
 
+    @POST
+    @Path("/schemas/versionsById/batch")
+    @ApiOperation(value = "Get the versions of the schemas identified by the given schema version ids along with the metadata of those schemas",
+            notes = "Versions which do not exist or can not be accessed by the user are not included in the response. " +
+                    "At most " + MAX_SCHEMA_VERSION_BATCH_SIZE + " versions can be requested at once",
+            response = SchemaVersionInfoBatch.class, tags = OPERATION_GROUP_SCHEMA)
+    @Timed
+    @UnitOfWork
+    public Response getSchemaVersionsByIds(@ApiParam(value = "identifiers of the schema versions", required = true) List<SchemaIdVersion> schemaIdVersions,
+                                           @Context SecurityContext securityContext) {
+        if (schemaIdVersions == null || schemaIdVersions.size() > MAX_SCHEMA_VERSION_BATCH_SIZE) {
+            return WSUtils.respond(Response.Status.BAD_REQUEST, CatalogResponse.ResponseMessage.BAD_REQUEST_WITH_MESSAGE,
+                                   "Between 0 and " + MAX_SCHEMA_VERSION_BATCH_SIZE + " schema versions can be requested at once");
+        }
+        try {
+            Authorizer.UserAndGroups userAndGroups = AuthorizationUtils.getUserAndGroups(securityContext);
+            List<SchemaVersionInfo> schemaVersionInfos = new ArrayList<>();
+            Map<String, SchemaMetadataInfo> schemaMetadataInfos = new LinkedHashMap<>();
+            for (SchemaIdVersion schemaIdVersion : schemaIdVersions) {
+                try {
+                    SchemaVersionInfo schemaVersionInfo = schemaRegistry.getSchemaVersionInfo(schemaIdVersion);
+                    authorizationAgent.authorizeSchemaVersion(userAndGroups, schemaRegistry, schemaVersionInfo, Authorizer.AccessType.READ);
+                    schemaVersionInfos.add(schemaVersionInfo);
+                    if (!schemaMetadataInfos.containsKey(schemaVersionInfo.getName())) {
+                        SchemaMetadataInfo schemaMetadataInfo = schemaRegistry.getSchemaMetadataInfo(schemaVersionInfo.getName());
+                        if (schemaMetadataInfo != null) {
+                            schemaMetadataInfos.put(schemaVersionInfo.getName(), schemaMetadataInfo);
+                        }
+                    }
+                } catch (AuthorizationException e) {
+                    LOG.debug("Access denied to schema version [{}]", schemaIdVersion, e);
+                } catch (SchemaNotFoundException e) {
+                    LOG.info("No schema version is found with [{}]", schemaIdVersion);
+                }
+            }
+            return WSUtils.respondEntity(new SchemaVersionInfoBatch(schemaVersionInfos, new ArrayList<>(schemaMetadataInfos.values())), Response.Status.OK);
+        } catch (Exception ex) {
+            LOG.error("Encountered error while getting schema versions with [{}]", schemaIdVersions, ex);
+            return WSUtils.respond(Response.Status.INTERNAL_SERVER_ERROR, CatalogResponse.ResponseMessage.EXCEPTION, ex.getMessage());
+        }
+    }
+
     @GET
     @Path("/schemas/versionsByFingerprint/{fingerprint}")
     @ApiOperation(value = "Get a version of the schema with the given fingerprint",
@@ -1144,13 +1242,44 @@ public class SchemaRegistryResource extends BaseRegistryResource {
     @ApiOperation(value = "Downloads the respective for the given fileId if it exists", response = StreamingOutput.class, tags = OPERATION_GROUP_OTHER)
     @Timed
     public Response downloadFile(@ApiParam(value = "Identifier of the file to be downloaded", required = true) @PathParam("fileId") String fileId,
+                                 @HeaderParam(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch,
+                                 @HeaderParam(RANGE_HEADER) String range,
                                  @Context SecurityContext securityContext) {
         Response response;
         try {
             authorizationAgent.authorizeSerDes(AuthorizationUtils.getUserAndGroups(securityContext), Authorizer.AccessType.READ);
-            StreamingOutput streamOutput = WSUtils.wrapWithStreamingOutput(schemaRegistry.downloadFile(fileId));
-            response = Response.ok(streamOutput).build();
-            return response;
+            // content of a file never changes for its id, so the id is used as its entity tag
+            EntityTag entityTag = new EntityTag(fileId);
+            InputStream inputStream = schemaRegistry.downloadFile(fileId);
+            if (matchesEntityTag(ifNoneMatch, entityTag)) {
+                inputStream.close();
+                return Response.notModified(entityTag).build();
+            }
+
+            long[] byteRange = parseByteRange(range);
+            if (byteRange == null) {
+                StreamingOutput streamOutput = WSUtils.wrapWithStreamingOutput(inputStream);
+                return Response.ok(streamOutput).tag(entityTag).header(ACCEPT_RANGES_HEADER, "bytes").build();
+            }
+
+            long size = schemaRegistry.getFileSize(fileId);
+            if (byteRange[0] >= size) {
+                inputStream.close();
+                return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                               .tag(entityTag)
+                               .header(CONTENT_RANGE_HEADER, "bytes */" + size)
+                               .build();
+            }
+            long last = byteRange[1] < 0 ? size - 1 : Math.min(byteRange[1], size - 1);
+            ByteStreams.skipFully(inputStream, byteRange[0]);
+            InputStream rangeInputStream = ByteStreams.limit(inputStream, last - byteRange[0] + 1);
+            String contentRange = "bytes " + byteRange[0] + "-" + last + "/" + size;
+            return Response.status(Response.Status.PARTIAL_CONTENT)
+                           .entity(WSUtils.wrapWithStreamingOutput(rangeInputStream))
+                           .tag(entityTag)
+                           .header(ACCEPT_RANGES_HEADER, "bytes")
+                           .header(CONTENT_RANGE_HEADER, contentRange)
+                           .build();
         } catch (AuthorizationException e) {
             LOG.debug("Access denied. ", e);
             return WSUtils.respond(Response.Status.FORBIDDEN, CatalogResponse.ResponseMessage.ACCESS_DENIED, e.getMessage());
@@ -1165,6 +1294,44 @@ public class SchemaRegistryResource extends BaseRegistryResource {
         return response;
     }
 
+    private static boolean matchesEntityTag(String ifNoneMatch, EntityTag entityTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if ("*".equals(value) || ("\"" + entityTag.getValue() + "\"").equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return first and last (or -1 till the end) positions of the given single byte range of the form bytes=first-[last],
+     * or null if the whole content is to be returned. Suffix ranges and multiple ranges are not supported, and they are
+     * served with the whole content as allowed by the HTTP spec.
+     */
+    private static long[] parseByteRange(String range) {
+        if (range == null) {
+            return null;
+        }
+        Matcher matcher = BYTE_RANGE_PATTERN.matcher(range.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            long first = Long.parseLong(matcher.group(1));
+            long last = matcher.group(2).isEmpty() ? -1 : Long.parseLong(matcher.group(2));
+            return last >= 0 && last < first ? null : new long[]{first, last};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     @POST
     @Path("/serdes")
     @ApiOperation(value = "Add a Serializer/Deserializer into the Schema Registry", response = Long.class, tags = OPERATION_GROUP_SERDE)
@@ -17,9 +17,12 @@ package com.hortonworks.registries.schemaregistry.serdes;
 
 import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
 import com.hortonworks.registries.schemaregistry.serde.SerDesException;
+import org.apache.avro.util.ByteBufferInputStream;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -49,6 +52,20 @@ public interface SerDesProtocolHandler {
      */
     SchemaIdVersion handleSchemaVersionDeserialization(InputStream inputStream) throws SerDesException;
 
+    /**
+     * Deserializes schema version related information from the given buffer starting at its current position. The
+     * position of the buffer is advanced past the schema version information, i.e. to the start of the payload.
+     * <p>
+     * Default implementation reads the buffer as a stream with {@link #handleSchemaVersionDeserialization(InputStream)},
+     * implementations should override this to read the information directly from the buffer without copying it.
+     *
+     * @param byteBuffer buffer positioned at the schema version information
+     * @return {@link SchemaIdVersion} instance created from deserializing respective information from given buffer.
+     */
+    default SchemaIdVersion handleSchemaVersionDeserialization(ByteBuffer byteBuffer) throws SerDesException {
+        return handleSchemaVersionDeserialization(new ByteBufferInputStream(Collections.singletonList(byteBuffer)));
+    }
+
     /**
      * Handles serialization of input into given output stream
      *
@@ -66,4 +83,18 @@ public interface SerDesProtocolHandler {
      */
     Object handlePayloadDeserialization(InputStream inputStream, Map<String, Object> context) throws SerDesException;
 
+    /**
+     * Handles deserialization of the remaining bytes of the given buffer and returns the deserialized Object.
+     * <p>
+     * Default implementation reads the buffer as a stream with {@link #handlePayloadDeserialization(InputStream, Map)},
+     * implementations should override this to decode the payload directly from the buffer without copying it.
+     *
+     * @param payload buffer containing the payload between its position and limit
+     * @param context any context required for deserialization.
+     * @return returns the deserialized Object.
+     */
+    default Object handlePayloadDeserialization(ByteBuffer payload, Map<String, Object> context) throws SerDesException {
+        return handlePayloadDeserialization(new ByteBufferInputStream(Collections.singletonList(payload)), context);
+    }
+
 }
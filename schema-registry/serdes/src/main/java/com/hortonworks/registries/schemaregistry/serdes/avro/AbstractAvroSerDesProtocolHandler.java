@@ -17,12 +17,15 @@ package com.hortonworks.registries.schemaregistry.serdes.avro;
 
 import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
 import com.hortonworks.registries.schemaregistry.serdes.SerDesProtocolHandler;
+import com.hortonworks.registries.schemaregistry.serdes.avro.exceptions.AvroException;
 import com.hortonworks.registries.schemaregistry.serdes.avro.exceptions.AvroRetryableException;
 import org.apache.avro.Schema;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Map;
 
 import static com.hortonworks.registries.schemaregistry.serdes.avro.AbstractAvroSnapshotDeserializer.SPECIFIC_AVRO_READER;
@@ -54,7 +57,7 @@ public abstract class AbstractAvroSerDesProtocolHandler implements SerDesProtoco
     @Override
     public void handleSchemaVersionSerialization(OutputStream outputStream, SchemaIdVersion schemaIdVersion) {
         try {
-            outputStream.write(new byte[]{protocolId});
+            outputStream.write(protocolId);
             doHandleSchemaVersionSerialization(outputStream, schemaIdVersion);
         } catch (IOException e) {
             throw new AvroRetryableException(e);
@@ -84,4 +87,43 @@ public abstract class AbstractAvroSerDesProtocolHandler implements SerDesProtoco
                                                                      readerSchema,
                                                                      useSpecificAvroReader);
     }
+
+    @Override
+    public Object handlePayloadDeserialization(ByteBuffer payload, Map<String, Object> context) {
+        boolean useSpecificAvroReader = (boolean) context.getOrDefault(SPECIFIC_AVRO_READER, false);
+        Schema writerSchema = (Schema) context.get(WRITER_SCHEMA);
+        Schema readerSchema = (Schema) context.get(READER_SCHEMA);
+        return avroSerDesHandler.handlePayloadDeserialization(payload, writerSchema, readerSchema, useSpecificAvroReader);
+    }
+
+    /**
+     * Reads a big-endian int at the current position of the given buffer, irrespective of the byte order of the buffer,
+     * and advances its position by 4 bytes.
+     */
+    protected static int readInt(ByteBuffer byteBuffer) {
+        checkRemaining(byteBuffer, Integer.BYTES);
+        int position = byteBuffer.position();
+        int value = byteBuffer.getInt(position);
+        byteBuffer.position(position + Integer.BYTES);
+        return byteBuffer.order() == ByteOrder.BIG_ENDIAN ? value : Integer.reverseBytes(value);
+    }
+
+    /**
+     * Reads a big-endian long at the current position of the given buffer, irrespective of the byte order of the buffer,
+     * and advances its position by 8 bytes.
+     */
+    protected static long readLong(ByteBuffer byteBuffer) {
+        checkRemaining(byteBuffer, Long.BYTES);
+        int position = byteBuffer.position();
+        long value = byteBuffer.getLong(position);
+        byteBuffer.position(position + Long.BYTES);
+        return byteBuffer.order() == ByteOrder.BIG_ENDIAN ? value : Long.reverseBytes(value);
+    }
+
+    private static void checkRemaining(ByteBuffer byteBuffer, int size) {
+        if (byteBuffer.remaining() < size) {
+            throw new AvroException("Expected at least " + size + " bytes of schema version information, but only "
+                                    + byteBuffer.remaining() + " bytes are remaining");
+        }
+    }
 }
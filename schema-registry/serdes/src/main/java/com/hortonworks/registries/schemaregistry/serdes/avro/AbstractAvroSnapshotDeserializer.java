@@ -38,6 +38,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -99,10 +100,19 @@ public abstract class AbstractAvroSnapshotDeserializer<I> extends AbstractSnapsh
 
     public static final String SPECIFIC_AVRO_READER = "specific.avro.reader";
 
+    /**
+     * Property name to return payloads written with {@code bytes} schema as read-only {@link ByteBuffer} slices of the
+     * received payload instead of {@code byte[]} copies, when the payload is deserialized from a {@link ByteBuffer}.
+     * Default value is false.
+     */
+    public static final String BYTES_PAYLOAD_AS_BYTE_BUFFER = "bytes.payload.as.byte.buffer";
+
     private AvroSchemaResolver avroSchemaResolver;
 
     protected boolean useSpecificAvroReader = false;
 
+    protected boolean bytesPayloadAsByteBuffer = false;
+
     public AbstractAvroSnapshotDeserializer() {
         super();
     }
@@ -117,6 +127,7 @@ public abstract class AbstractAvroSnapshotDeserializer<I> extends AbstractSnapsh
         SchemaVersionRetriever schemaVersionRetriever = createSchemaVersionRetriever();
         avroSchemaResolver = new AvroSchemaResolver(schemaVersionRetriever);
         useSpecificAvroReader = (boolean) getValue(config, SPECIFIC_AVRO_READER, false);
+        bytesPayloadAsByteBuffer = (boolean) getValue(config, BYTES_PAYLOAD_AS_BYTE_BUFFER, false);
     }
 
     private SchemaVersionRetriever createSchemaVersionRetriever() {
@@ -155,28 +166,77 @@ public abstract class AbstractAvroSnapshotDeserializer<I> extends AbstractSnapsh
                                              SchemaMetadata schemaMetadata,
                                              Integer writerSchemaVersion,
                                              Integer readerSchemaVersion) throws SerDesException {
-        String schemaName = schemaMetadata.getName();
-        SchemaVersionKey writerSchemaVersionKey = new SchemaVersionKey(schemaName, writerSchemaVersion);
+        Schema writerSchema = getWriterSchema(schemaMetadata, writerSchemaVersion);
+        Schema readerSchema = getReaderSchema(schemaMetadata, readerSchemaVersion);
+
+        return deserializePayloadForProtocol(protocolId, payloadInputStream, writerSchema, readerSchema);
+    }
+
+    /**
+     * Builds the deserialized object from the remaining bytes of the given {@code payload} and applying writer and
+     * reader schemas from the respective given versions. The payload is decoded directly from the given buffer.
+     *
+     * @param protocolId          protocol id
+     * @param payload             payload
+     * @param schemaMetadata      metadata about schema
+     * @param writerSchemaVersion schema version of the writer
+     * @param readerSchemaVersion schema version to be applied for reading or projection
+     * @return the deserialized object
+     * @throws SerDesException when any ser/des error occurs
+     */
+    protected Object buildDeserializedObject(byte protocolId,
+                                             ByteBuffer payload,
+                                             SchemaMetadata schemaMetadata,
+                                             Integer writerSchemaVersion,
+                                             Integer readerSchemaVersion) throws SerDesException {
+        Schema writerSchema = getWriterSchema(schemaMetadata, writerSchemaVersion);
+        Schema readerSchema = getReaderSchema(schemaMetadata, readerSchemaVersion);
+
+        return deserializePayloadForProtocol(protocolId, payload, writerSchema, readerSchema);
+    }
+
+    private Schema getWriterSchema(SchemaMetadata schemaMetadata, Integer writerSchemaVersion) {
+        SchemaVersionKey writerSchemaVersionKey = new SchemaVersionKey(schemaMetadata.getName(), writerSchemaVersion);
         LOG.debug("SchemaKey: [{}] for the received payload", writerSchemaVersionKey);
         Schema writerSchema = getSchema(writerSchemaVersionKey);
         if (writerSchema == null) {
             throw new RegistryException("No schema exists with metadata-key: " + schemaMetadata + " and writerSchemaVersion: " + writerSchemaVersion);
         }
-        Schema readerSchema = readerSchemaVersion != null ? getSchema(new SchemaVersionKey(schemaName, readerSchemaVersion)) : null;
+        return writerSchema;
+    }
 
-        return deserializePayloadForProtocol(protocolId, payloadInputStream, writerSchema, readerSchema);
+    private Schema getReaderSchema(SchemaMetadata schemaMetadata, Integer readerSchemaVersion) {
+        return readerSchemaVersion != null ? getSchema(new SchemaVersionKey(schemaMetadata.getName(), readerSchemaVersion)) : null;
     }
 
     protected Object deserializePayloadForProtocol(byte protocolId,
                                                    InputStream payloadInputStream,
                                                    Schema writerSchema,
                                                    Schema readerSchema) throws SerDesException  {
+        SerDesProtocolHandler serDesProtocolHandler = SerDesProtocolHandlerRegistry.get().getSerDesProtocolHandler(protocolId);
+
+        return serDesProtocolHandler.handlePayloadDeserialization(payloadInputStream, createContext(writerSchema, readerSchema));
+    }
+
+    protected Object deserializePayloadForProtocol(byte protocolId,
+                                                   ByteBuffer payload,
+                                                   Schema writerSchema,
+                                                   Schema readerSchema) throws SerDesException  {
+        SerDesProtocolHandler serDesProtocolHandler = SerDesProtocolHandlerRegistry.get().getSerDesProtocolHandler(protocolId);
+
+        Object deserializedObj = serDesProtocolHandler.handlePayloadDeserialization(payload, createContext(writerSchema, readerSchema));
+        if (!bytesPayloadAsByteBuffer && Schema.Type.BYTES.equals(writerSchema.getType()) && deserializedObj instanceof ByteBuffer) {
+            // keep returning byte arrays for bytes payloads unless slices of the received payload are asked for.
+            deserializedObj = AvroUtils.toByteArray((ByteBuffer) deserializedObj);
+        }
+        return deserializedObj;
+    }
+
+    private Map<String, Object> createContext(Schema writerSchema, Schema readerSchema) {
         Map<String, Object> props = new HashMap<>();
         props.put(SPECIFIC_AVRO_READER, useSpecificAvroReader);
         props.put(WRITER_SCHEMA, writerSchema);
         props.put(READER_SCHEMA, readerSchema);
-        SerDesProtocolHandler serDesProtocolHandler = SerDesProtocolHandlerRegistry.get().getSerDesProtocolHandler(protocolId);
-
-        return serDesProtocolHandler.handlePayloadDeserialization(payloadInputStream, props);
+        return props;
     }
 }
@@ -17,8 +17,15 @@
  */
 package com.hortonworks.registries.schemaregistry.serdes.avro;
 
+import com.hortonworks.registries.schemaregistry.ConfigEntry;
 import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
+import com.hortonworks.registries.schemaregistry.SchemaMetadata;
 import com.hortonworks.registries.schemaregistry.client.ISchemaRegistryClient;
+import com.hortonworks.registries.schemaregistry.client.SchemaRegistryClient;
+import com.hortonworks.registries.schemaregistry.errors.IncompatibleSchemaException;
+import com.hortonworks.registries.schemaregistry.errors.InvalidSchemaException;
+import com.hortonworks.registries.schemaregistry.errors.SchemaBranchNotFoundException;
+import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
 import com.hortonworks.registries.schemaregistry.serde.AbstractSnapshotDeserializer;
 import com.hortonworks.registries.schemaregistry.serde.AbstractSnapshotSerializer;
 import com.hortonworks.registries.schemaregistry.serde.SerDesException;
@@ -87,8 +94,17 @@ public abstract class AbstractAvroSnapshotSerializer<O> extends AbstractSnapshot
      */
     public static final String SERDES_PROTOCOL_VERSION = "serdes.protocol.version";
 
+    /**
+     * Property name for maximum number of schemas for which registered versions are cached by this serializer.
+     */
+    public static final String SCHEMA_VERSION_ID_CACHE_SIZE = "serdes.schema.version.id.cache.size";
+
+    public static final long DEFAULT_SCHEMA_VERSION_ID_CACHE_SIZE = 1024L;
+
     protected SerDesProtocolHandler serDesProtocolHandler;
 
+    private AvroSchemaIdVersionCache schemaIdVersionCache;
+
     @Override
     @SuppressWarnings("unchecked")
     public void doInit(Map<String, ?> config) {
@@ -105,6 +121,15 @@ public abstract class AbstractAvroSnapshotSerializer<O> extends AbstractSnapshot
         }
 
         this.serDesProtocolHandler = serDesProtocolHandler;
+
+        Number cacheSize = (Number) ((Map<String, Object>) config).getOrDefault(SCHEMA_VERSION_ID_CACHE_SIZE,
+                                                                                DEFAULT_SCHEMA_VERSION_ID_CACHE_SIZE);
+        // registered versions expire like the schema text cache of the client
+        ConfigEntry<Number> cacheExpiry = SchemaRegistryClient.Configuration.SCHEMA_TEXT_CACHE_EXPIRY_INTERVAL_SECS;
+        Object cacheExpiryValue = config.get(cacheExpiry.name());
+        Number cacheExpiryInSecs = cacheExpiryValue != null ? cacheExpiry.converter().convert(cacheExpiryValue)
+                                                            : cacheExpiry.defaultValue();
+        this.schemaIdVersionCache = new AvroSchemaIdVersionCache(cacheSize.longValue(), cacheExpiryInSecs.longValue());
     }
 
     private void validateSerdesProtocolVersion(Number number) {
@@ -115,6 +140,37 @@ public abstract class AbstractAvroSnapshotSerializer<O> extends AbstractSnapshot
         }
     }
 
+    /**
+     * Returns the registered version of the schema of the given {@code input} avro object. Versions are cached against
+     * the {@link Schema} of the input, so the schema text is computed and registered only for schemas which are not
+     * yet seen with the given {@code schemaMetadata}. An evolved schema is a different {@link Schema} and gets
+     * registered as a new version.
+     */
+    @Override
+    protected SchemaIdVersion registerSchemaVersion(Object input, SchemaMetadata schemaMetadata)
+            throws SchemaNotFoundException, IncompatibleSchemaException, InvalidSchemaException, SchemaBranchNotFoundException {
+        Schema schema = AvroUtils.computeSchema(input);
+        String schemaName = schemaMetadata.getName();
+        SchemaIdVersion schemaIdVersion = schemaIdVersionCache.get(schema, schemaName);
+        if (schemaIdVersion == null) {
+            schemaIdVersion = addSchemaVersion(schemaMetadata, getSchemaText(input));
+            schemaIdVersionCache.put(schema, schemaName, schemaIdVersion);
+        }
+
+        return schemaIdVersion;
+    }
+
+    @Override
+    public void close() throws Exception {
+        try {
+            super.close();
+        } finally {
+            if (schemaIdVersionCache != null) {
+                schemaIdVersionCache.invalidateAll();
+            }
+        }
+    }
+
     /**
      * @param input avro object
      * @return textual representation of the schema of the given {@code input} avro object
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry.serdes.avro;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericDatumWriter;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.util.ByteBufferInputStream;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Cache of avro {@link DatumReader}s and {@link DatumWriter}s used by {@link AvroSerDesHandler}s.
+ * <p>
+ * Creating a {@link DatumReader} for different writer and reader schemas requires building a resolving grammar, which is
+ * expensive to do for each record. Avro's {@link GenericDatumReader} and {@link GenericDatumWriter} (and their specific
+ * extensions) are thread safe and keep the resolved grammar, so they are shared across records and threads and cached by
+ * (writer schema, reader schema, specific/generic).
+ * <p>
+ * {@link BinaryEncoder}s and {@link BinaryDecoder}s are not thread safe, they are reused per thread.
+ */
+class AvroDatumCache {
+    private static final long DEFAULT_CACHE_SIZE = 1024L;
+
+    private static final ThreadLocal<BinaryEncoder> ENCODERS = new ThreadLocal<>();
+    private static final ThreadLocal<BinaryDecoder> DECODERS = new ThreadLocal<>();
+
+    private final Cache<DatumKey, DatumReader<Object>> datumReaders;
+    private final Cache<DatumKey, DatumWriter<Object>> datumWriters;
+
+    AvroDatumCache() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    AvroDatumCache(long maxSize) {
+        datumReaders = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+        datumWriters = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    }
+
+    /**
+     * @param writerSchema schema with which the payload was written
+     * @param readerSchema schema into which the payload should be read, {@code null} if it should be read with the
+     *                     writer schema
+     * @param specific     whether a specific or a generic reader is needed
+     * @return {@link DatumReader} which can be shared across threads
+     */
+    DatumReader<Object> getDatumReader(Schema writerSchema, Schema readerSchema, boolean specific) {
+        try {
+            return datumReaders.get(new DatumKey(writerSchema, readerSchema, specific),
+                                    () -> createDatumReader(writerSchema, readerSchema, specific));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    /**
+     * @param schema   schema with which the payload should be written
+     * @param specific whether a specific or a generic writer is needed
+     * @return {@link DatumWriter} which can be shared across threads
+     */
+    DatumWriter<Object> getDatumWriter(Schema schema, boolean specific) {
+        try {
+            return datumWriters.get(new DatumKey(schema, null, specific),
+                                    () -> specific ? new SpecificDatumWriter<>(schema) : new GenericDatumWriter<>(schema));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+    /**
+     * @return {@link BinaryEncoder} of the current thread configured to write into the given {@code outputStream}
+     */
+    static BinaryEncoder binaryEncoder(OutputStream outputStream) {
+        BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(outputStream, ENCODERS.get());
+        ENCODERS.set(encoder);
+        return encoder;
+    }
+
+    /**
+     * @return {@link BinaryDecoder} of the current thread configured to read from the given {@code inputStream}
+     */
+    static BinaryDecoder binaryDecoder(InputStream inputStream) {
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(inputStream, DECODERS.get());
+        DECODERS.set(decoder);
+        return decoder;
+    }
+
+    /**
+     * @return {@link BinaryDecoder} of the current thread configured to read the remaining bytes of the given
+     * {@code byteBuffer}. Bytes of heap buffers are read in place, position of the given buffer is not changed.
+     */
+    static BinaryDecoder binaryDecoder(ByteBuffer byteBuffer) {
+        BinaryDecoder decoder;
+        if (byteBuffer.hasArray()) {
+            decoder = DecoderFactory.get().binaryDecoder(byteBuffer.array(),
+                                                         byteBuffer.arrayOffset() + byteBuffer.position(),
+                                                         byteBuffer.remaining(),
+                                                         DECODERS.get());
+        } else {
+            decoder = DecoderFactory.get().binaryDecoder(new ByteBufferInputStream(Collections.singletonList(byteBuffer.duplicate())),
+                                                         DECODERS.get());
+        }
+        DECODERS.set(decoder);
+        return decoder;
+    }
+
+    private static DatumReader<Object> createDatumReader(Schema writerSchema, Schema readerSchema, boolean specific) {
+        if (specific) {
+            return new SpecificDatumReader<>(writerSchema, readerSchema);
+        } else {
+            return readerSchema == null ? new GenericDatumReader<>(writerSchema) : new GenericDatumReader<>(writerSchema, readerSchema);
+        }
+    }
+
+    private static class DatumKey {
+        private final Schema writerSchema;
+        private final Schema readerSchema;
+        private final boolean specific;
+
+        DatumKey(Schema writerSchema, Schema readerSchema, boolean specific) {
+            this.writerSchema = writerSchema;
+            this.readerSchema = readerSchema;
+            this.specific = specific;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            DatumKey datumKey = (DatumKey) o;
+
+            return specific == datumKey.specific &&
+                    Objects.equals(writerSchema, datumKey.writerSchema) &&
+                    Objects.equals(readerSchema, datumKey.readerSchema);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(writerSchema, readerSchema, specific);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry.serdes.avro;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
+import org.apache.avro.Schema;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of registered {@link SchemaIdVersion}s for avro {@link Schema}s used by serializers. This avoids rendering
+ * the schema as json and computing its digest for every serialized payload.
+ * <p>
+ * Lookups are done first by the identity of the given {@link Schema} instance, whose entries are weakly referenced
+ * so that schemas no longer used by the application can be collected. When the given instance is not known, lookup
+ * falls back to the structural equality of the schema, which covers payloads carrying equal but distinct schema
+ * instances (for ex: schemas parsed again for each record).
+ * <p>
+ * Entries are kept per schema name as the same avro schema can be registered with different schema metadata, for ex:
+ * keys and values of different topics. Entries expire after they are not accessed for the given time, so that a schema
+ * which is deleted and registered again is looked up again.
+ */
+class AvroSchemaIdVersionCache {
+
+    private final Cache<Schema, Map<String, SchemaIdVersion>> byIdentity;
+    private final Cache<Key, SchemaIdVersion> byValue;
+
+    AvroSchemaIdVersionCache(long maxSize, long expiryInSecs) {
+        Preconditions.checkArgument(maxSize > 0, "maxSize should be positive");
+        Preconditions.checkArgument(expiryInSecs > 0, "expiryInSecs should be positive");
+        // weakKeys() compares keys with identity(==) instead of equals().
+        byIdentity = CacheBuilder.newBuilder()
+                                 .weakKeys()
+                                 .maximumSize(maxSize)
+                                 .expireAfterAccess(expiryInSecs, TimeUnit.SECONDS)
+                                 .build();
+        byValue = CacheBuilder.newBuilder()
+                              .maximumSize(maxSize)
+                              .expireAfterAccess(expiryInSecs, TimeUnit.SECONDS)
+                              .build();
+    }
+
+    /**
+     * @return registered {@link SchemaIdVersion} of the given {@code schema} with the given {@code schemaName}, or
+     * {@code null} if it is not cached.
+     */
+    SchemaIdVersion get(Schema schema, String schemaName) {
+        Map<String, SchemaIdVersion> versions = byIdentity.getIfPresent(schema);
+        SchemaIdVersion schemaIdVersion = versions != null ? versions.get(schemaName) : null;
+        if (schemaIdVersion == null) {
+            schemaIdVersion = byValue.getIfPresent(new Key(schema, schemaName));
+            if (schemaIdVersion != null) {
+                // remember this instance so that further lookups do not need equality checks of schemas
+                putByIdentity(schema, schemaName, schemaIdVersion);
+            }
+        }
+
+        return schemaIdVersion;
+    }
+
+    void put(Schema schema, String schemaName, SchemaIdVersion schemaIdVersion) {
+        byValue.put(new Key(schema, schemaName), schemaIdVersion);
+        putByIdentity(schema, schemaName, schemaIdVersion);
+    }
+
+    void invalidateAll() {
+        byIdentity.invalidateAll();
+        byValue.invalidateAll();
+    }
+
+    private void putByIdentity(Schema schema, String schemaName, SchemaIdVersion schemaIdVersion) {
+        Map<String, SchemaIdVersion> versions = byIdentity.asMap().computeIfAbsent(schema, s -> new ConcurrentHashMap<>());
+        versions.put(schemaName, schemaIdVersion);
+    }
+
+    private static class Key {
+        private final Schema schema;
+        private final String schemaName;
+
+        Key(Schema schema, String schemaName) {
+            Preconditions.checkNotNull(schema, "schema can not be null");
+            Preconditions.checkNotNull(schemaName, "schemaName can not be null");
+
+            this.schema = schema;
+            this.schemaName = schemaName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key key = (Key) o;
+
+            return schemaName.equals(key.schemaName) && schema.equals(key.schema);
+        }
+
+        @Override
+        public int hashCode() {
+            // avro caches hashCode of a schema, so this does not traverse the schema for each lookup.
+            int result = schemaName.hashCode();
+            result = 31 * result + schema.hashCode();
+            return result;
+        }
+    }
+}
@@ -17,8 +17,11 @@ package com.hortonworks.registries.schemaregistry.serdes.avro;
 
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
 
 import org.apache.avro.Schema;
+import org.apache.avro.util.ByteBufferInputStream;
 
 /**
  * Interface for serializing and deserializing avro payloads.
@@ -31,4 +34,22 @@ public interface AvroSerDesHandler {
                                         Schema writerSchema,
                                         Schema readerSchema,
                                         boolean useSpecificAvroReader);
+
+    /**
+     * Deserializes the payload between the position and the limit of the given buffer. Implementations in this package
+     * decode the payload directly from the buffer and return payloads written with {@code bytes} schema as a read-only
+     * slice of the given buffer instead of copying them.
+     * <p>
+     * Default implementation reads the buffer as a stream with
+     * {@link #handlePayloadDeserialization(InputStream, Schema, Schema, boolean)}.
+     */
+    default Object handlePayloadDeserialization(ByteBuffer payload,
+                                                Schema writerSchema,
+                                                Schema readerSchema,
+                                                boolean useSpecificAvroReader) {
+        return handlePayloadDeserialization(new ByteBufferInputStream(Collections.singletonList(payload)),
+                                            writerSchema,
+                                            readerSchema,
+                                            useSpecificAvroReader);
+    }
 }
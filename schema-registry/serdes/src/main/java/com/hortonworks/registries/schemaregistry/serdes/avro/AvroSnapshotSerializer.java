@@ -18,10 +18,6 @@ package com.hortonworks.registries.schemaregistry.serdes.avro;
 import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
 import com.hortonworks.registries.schemaregistry.client.ISchemaRegistryClient;
 import com.hortonworks.registries.schemaregistry.serde.SerDesException;
-import com.hortonworks.registries.schemaregistry.serdes.avro.exceptions.AvroRetryableException;
-
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 
 /**
  * This is the default implementation of {@link AbstractAvroSnapshotDeserializer}.
@@ -49,14 +45,11 @@ public class AvroSnapshotSerializer extends AbstractAvroSnapshotSerializer<byte[
     }
 
     protected byte[] doSerialize(Object input, SchemaIdVersion schemaIdVersion) throws SerDesException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            serializeSchemaVersion(baos, schemaIdVersion);
-            serializePayload(baos, input);
+        PooledByteArrayOutputStream outputStream = PooledByteArrayOutputStream.get();
+        serializeSchemaVersion(outputStream, schemaIdVersion);
+        serializePayload(outputStream, input);
 
-            return baos.toByteArray();
-        } catch (IOException e) {
-            throw new AvroRetryableException(e);
-        }
+        return outputStream.toByteArray();
     }
 
 }
@@ -18,6 +18,7 @@ import com.hortonworks.registries.schemaregistry.serdes.avro.exceptions.AvroExce
 import org.apache.avro.Schema;
 import org.apache.avro.generic.GenericContainer;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.HashMap;
@@ -80,4 +81,24 @@ public final class AvroUtils {
         return schema;
     }
 
+    /**
+     * @return UTF-8 string decoded from the remaining bytes of the given {@code byteBuffer}, position of the buffer is
+     * not changed.
+     */
+    public static String toString(ByteBuffer byteBuffer) {
+        if (byteBuffer.hasArray()) {
+            return new String(byteBuffer.array(), byteBuffer.arrayOffset() + byteBuffer.position(), byteBuffer.remaining(), UTF_8);
+        }
+        return UTF_8.decode(byteBuffer.duplicate()).toString();
+    }
+
+    /**
+     * @return copy of the remaining bytes of the given {@code byteBuffer}, position of the buffer is not changed.
+     */
+    public static byte[] toByteArray(ByteBuffer byteBuffer) {
+        byte[] bytes = new byte[byteBuffer.remaining()];
+        byteBuffer.duplicate().get(bytes);
+        return bytes;
+    }
+
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry.serdes.avro;
+
+import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
+import com.hortonworks.registries.schemaregistry.SchemaMetadata;
+import com.hortonworks.registries.schemaregistry.client.ISchemaRegistryClient;
+import com.hortonworks.registries.schemaregistry.serde.SerDesException;
+import com.hortonworks.registries.schemaregistry.serdes.avro.exceptions.AvroException;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Implementation of {@link AbstractAvroSnapshotDeserializer} which deserializes payloads from {@link ByteBuffer}s, for
+ * ex: the record bytes received by kafka consumers. Protocol header is read in place and the payload is decoded directly
+ * from the given buffer without any intermediate copies.
+ * <p>
+ * Payloads written with {@code bytes} schema are returned as {@code byte[]} by default, they can be returned as
+ * read-only slices of the given buffer by setting {@link #BYTES_PAYLOAD_AS_BYTE_BUFFER} to true. Those slices share the
+ * content of the given buffer, so the buffer should not be modified while they are in use.
+ * <p>
+ * Position of the given buffer is not changed by {@link #deserialize(ByteBuffer, Integer)}.
+ */
+public class ByteBufferAvroSnapshotDeserializer extends AbstractAvroSnapshotDeserializer<ByteBuffer> {
+
+    public ByteBufferAvroSnapshotDeserializer() {
+    }
+
+    public ByteBufferAvroSnapshotDeserializer(ISchemaRegistryClient schemaRegistryClient) {
+        super(schemaRegistryClient);
+    }
+
+    @Override
+    public Object deserialize(ByteBuffer input, Integer readerSchemaVersion) throws SerDesException {
+        // header and payload are read by advancing position of the buffer, keep the given buffer intact.
+        return super.deserialize(input.duplicate(), readerSchemaVersion);
+    }
+
+    @Override
+    protected byte retrieveProtocolId(ByteBuffer byteBuffer) throws SerDesException {
+        // first byte is protocol version/id.
+        // protocol format:
+        // 1 byte  : protocol version
+        if (!byteBuffer.hasRemaining()) {
+            throw new AvroException("End of buffer reached while trying to read protocol id");
+        }
+
+        byte protocolId = byteBuffer.get();
+        if (SerDesProtocolHandlerRegistry.get().getSerDesProtocolHandler(protocolId) == null) {
+            throw new AvroException("Unknown protocol id [" + protocolId + "] received while deserializing the payload");
+        }
+
+        return protocolId;
+    }
+
+    @Override
+    protected SchemaIdVersion retrieveSchemaIdVersion(byte protocolId, ByteBuffer byteBuffer) throws SerDesException {
+        return SerDesProtocolHandlerRegistry.get()
+                                            .getSerDesProtocolHandler(protocolId)
+                                            .handleSchemaVersionDeserialization(byteBuffer);
+    }
+
+    @Override
+    protected Object doDeserialize(ByteBuffer payload,
+                                   byte protocolId,
+                                   SchemaMetadata schemaMetadata,
+                                   Integer writerSchemaVersion,
+                                   Integer readerSchemaVersion) throws SerDesException {
+        return buildDeserializedObject(protocolId, payload, schemaMetadata, writerSchemaVersion, readerSchemaVersion);
+    }
+}
@@ -67,4 +67,8 @@ public class ConfluentProtocolHandler extends AbstractAvroSerDesProtocolHandler
         return new SchemaIdVersion((long) schemaVersionId);
     }
 
+    @Override
+    public SchemaIdVersion handleSchemaVersionDeserialization(ByteBuffer byteBuffer) {
+        return new SchemaIdVersion((long) readInt(byteBuffer));
+    }
 }
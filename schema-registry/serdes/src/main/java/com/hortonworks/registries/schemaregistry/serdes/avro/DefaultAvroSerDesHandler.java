@@ -18,22 +18,17 @@ package com.hortonworks.registries.schemaregistry.serdes.avro;
 import com.hortonworks.registries.schemaregistry.serdes.avro.exceptions.AvroException;
 import com.hortonworks.registries.schemaregistry.serdes.avro.exceptions.AvroRetryableException;
 import org.apache.avro.Schema;
-import org.apache.avro.generic.GenericDatumReader;
-import org.apache.avro.generic.GenericDatumWriter;
 import org.apache.avro.io.BinaryEncoder;
 import org.apache.avro.io.DatumReader;
 import org.apache.avro.io.DatumWriter;
-import org.apache.avro.io.DecoderFactory;
-import org.apache.avro.io.EncoderFactory;
 import org.apache.avro.specific.SpecificData;
-import org.apache.avro.specific.SpecificDatumReader;
-import org.apache.avro.specific.SpecificDatumWriter;
 import org.apache.avro.specific.SpecificRecord;
 import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -42,6 +37,7 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class DefaultAvroSerDesHandler implements AvroSerDesHandler {
     private final Map<String, Schema> readerSchemaCache = new ConcurrentHashMap<>();
+    private final AvroDatumCache datumCache = new AvroDatumCache();
 
     @Override
     public void handlePayloadSerialization(OutputStream outputStream, Object input) {
@@ -56,15 +52,8 @@ public class DefaultAvroSerDesHandler implements AvroSerDesHandler {
                 // get UTF-8 bytes and directly send those over instead of using avro.
                 outputStream.write(input.toString().getBytes("UTF-8"));
             } else {
-                BinaryEncoder encoder = EncoderFactory.get().binaryEncoder(outputStream, null);
-                DatumWriter<Object> writer;
-                boolean isSpecificRecord = input instanceof SpecificRecord;
-                if (isSpecificRecord) {
-                    writer = new SpecificDatumWriter<>(schema);
-                } else {
-                    writer = new GenericDatumWriter<>(schema);
-                }
-
+                BinaryEncoder encoder = AvroDatumCache.binaryEncoder(outputStream);
+                DatumWriter<Object> writer = datumCache.getDatumWriter(schema, input instanceof SpecificRecord);
                 writer.write(input, encoder);
                 encoder.flush();
             }
@@ -90,8 +79,8 @@ public class DefaultAvroSerDesHandler implements AvroSerDesHandler {
                 // generate UTF-8 string object from the received bytes.
                 deserializedObj = new String(IOUtils.toByteArray(payloadInputStream), AvroUtils.UTF_8);
             } else {
-                DatumReader datumReader = getDatumReader(writerSchema, readerSchema, useSpecificAvroReader);
-                deserializedObj = datumReader.read(null, DecoderFactory.get().binaryDecoder(payloadInputStream, null));
+                DatumReader<Object> datumReader = getDatumReader(writerSchema, readerSchema, useSpecificAvroReader);
+                deserializedObj = datumReader.read(null, AvroDatumCache.binaryDecoder(payloadInputStream));
             }
         } catch (IOException e) {
             throw new AvroRetryableException(e);
@@ -101,16 +90,38 @@ public class DefaultAvroSerDesHandler implements AvroSerDesHandler {
         return deserializedObj;
     }
 
-    private DatumReader getDatumReader(Schema writerSchema, Schema readerSchema, boolean useSpecificAvroReader) {
-        if (useSpecificAvroReader) {
-            if (readerSchema == null) {
-                readerSchema = this.getReaderSchema(writerSchema);
+    @Override
+    public Object handlePayloadDeserialization(ByteBuffer payload,
+                                               Schema writerSchema,
+                                               Schema readerSchema,
+                                               boolean useSpecificAvroReader) {
+        Object deserializedObj;
+        Schema.Type writerSchemaType = writerSchema.getType();
+        try {
+            if (Schema.Type.BYTES.equals(writerSchemaType)) {
+                // serializer writes byte array directly, share the received bytes instead of copying them.
+                deserializedObj = payload.slice().asReadOnlyBuffer();
+            } else if (Schema.Type.STRING.equals(writerSchemaType)) {
+                // generate UTF-8 string object from the received bytes.
+                deserializedObj = AvroUtils.toString(payload);
+            } else {
+                DatumReader<Object> datumReader = getDatumReader(writerSchema, readerSchema, useSpecificAvroReader);
+                deserializedObj = datumReader.read(null, AvroDatumCache.binaryDecoder(payload));
             }
+        } catch (IOException e) {
+            throw new AvroRetryableException(e);
+        } catch (Exception e) {
+            throw new AvroException(e);
+        }
+        return deserializedObj;
+    }
 
-            return new SpecificDatumReader(writerSchema, readerSchema);
-        } else {
-            return readerSchema == null ? new GenericDatumReader(writerSchema) : new GenericDatumReader(writerSchema, readerSchema);
+    private DatumReader<Object> getDatumReader(Schema writerSchema, Schema readerSchema, boolean useSpecificAvroReader) {
+        if (useSpecificAvroReader && readerSchema == null) {
+            readerSchema = this.getReaderSchema(writerSchema);
         }
+
+        return datumCache.getDatumReader(writerSchema, readerSchema, useSpecificAvroReader);
     }
 
     private Schema getReaderSchema(Schema writerSchema) {
@@ -25,7 +25,7 @@ import com.hortonworks.registries.schemaregistry.exceptions.RegistryException;
 import com.hortonworks.registries.schemaregistry.serde.SerDesException;
 import com.hortonworks.registries.schemaregistry.serdes.avro.exceptions.AvroException;
 
-import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 
 public class MessageAndMetadataAvroDeserializer extends AbstractAvroSnapshotDeserializer<MessageAndMetadata> {
 
@@ -58,7 +58,7 @@ public class MessageAndMetadataAvroDeserializer extends AbstractAvroSnapshotDese
                                    SchemaMetadata schemaMetadata,
                                    Integer writerSchemaVersion,
                                    Integer readerSchemaVersion) throws SerDesException {
-        return buildDeserializedObject(protocolId, new ByteArrayInputStream(context.payload()), schemaMetadata,
+        return buildDeserializedObject(protocolId, ByteBuffer.wrap(context.payload()), schemaMetadata,
                 writerSchemaVersion, readerSchemaVersion);
     }
 
@@ -81,7 +81,7 @@ public class MessageAndMetadataAvroDeserializer extends AbstractAvroSnapshotDese
         final byte[] metadata = context.metadata();
         return SerDesProtocolHandlerRegistry.get()
                 .getSerDesProtocolHandler(protocolId)
-                .handleSchemaVersionDeserialization(new ByteArrayInputStream(metadata, 1, metadata.length));
+                .handleSchemaVersionDeserialization(ByteBuffer.wrap(metadata, 1, metadata.length - 1));
     }
 
 }
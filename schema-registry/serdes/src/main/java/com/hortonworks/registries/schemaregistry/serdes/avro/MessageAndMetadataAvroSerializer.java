@@ -20,10 +20,6 @@ package com.hortonworks.registries.schemaregistry.serdes.avro;
 import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
 import com.hortonworks.registries.schemaregistry.client.ISchemaRegistryClient;
 import com.hortonworks.registries.schemaregistry.serde.SerDesException;
-import com.hortonworks.registries.schemaregistry.serdes.avro.exceptions.AvroRetryableException;
-
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 
 public class MessageAndMetadataAvroSerializer extends AbstractAvroSnapshotSerializer<MessageAndMetadata> {
 
@@ -36,17 +32,14 @@ public class MessageAndMetadataAvroSerializer extends AbstractAvroSnapshotSerial
 
     @Override
     protected MessageAndMetadata doSerialize(Object input, SchemaIdVersion schemaIdVersion) throws SerDesException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            serializeSchemaVersion(baos, schemaIdVersion);
-            byte[] serializedSchemaVersion = baos.toByteArray();
-            baos.reset();
-
-            serializePayload(baos, input);
-            byte[] payload = baos.toByteArray();
-            return new MessageAndMetadata(serializedSchemaVersion, payload);
-        } catch (IOException ex) {
-            throw new AvroRetryableException(ex);
-        }
+        PooledByteArrayOutputStream outputStream = PooledByteArrayOutputStream.get();
+        serializeSchemaVersion(outputStream, schemaIdVersion);
+        byte[] serializedSchemaVersion = outputStream.toByteArray();
+        outputStream.reset();
+
+        serializePayload(outputStream, input);
+        byte[] payload = outputStream.toByteArray();
+        return new MessageAndMetadata(serializedSchemaVersion, payload);
     }
 
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry.serdes.avro;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * {@link ByteArrayOutputStream} which is reused by serializers of the current thread, so that the buffer is not
+ * allocated and grown again for each serialized payload. {@link #toByteArray()} returns an array of exactly the size
+ * of the written content, which is the only copy made while serializing.
+ * <p>
+ * Buffers which grew beyond {@link #MAX_RETAINED_SIZE} because of a large payload are not retained.
+ */
+class PooledByteArrayOutputStream extends ByteArrayOutputStream {
+    private static final int INITIAL_SIZE = 1024;
+    private static final int MAX_RETAINED_SIZE = 1024 * 1024;
+
+    private static final ThreadLocal<PooledByteArrayOutputStream> POOL =
+            ThreadLocal.withInitial(PooledByteArrayOutputStream::new);
+
+    private PooledByteArrayOutputStream() {
+        super(INITIAL_SIZE);
+    }
+
+    /**
+     * @return empty output stream of the current thread. It should not be used after the next invocation of this
+     * method on the same thread.
+     */
+    static PooledByteArrayOutputStream get() {
+        PooledByteArrayOutputStream outputStream = POOL.get();
+        if (outputStream.buf.length > MAX_RETAINED_SIZE) {
+            outputStream.buf = new byte[INITIAL_SIZE];
+        }
+        outputStream.reset();
+        return outputStream;
+    }
+}
@@ -64,4 +64,13 @@ public class SchemaMetadataIdProtocolHandler extends AbstractAvroSerDesProtocolH
         return new SchemaIdVersion(schemaMetadataId, schemaVersion);
     }
 
+    @Override
+    public SchemaIdVersion handleSchemaVersionDeserialization(ByteBuffer byteBuffer) {
+        // 8 bytes : schema metadata Id
+        // 4 bytes : schema version
+        long schemaMetadataId = readLong(byteBuffer);
+        int schemaVersion = readInt(byteBuffer);
+
+        return new SchemaIdVersion(schemaMetadataId, schemaVersion);
+    }
 }
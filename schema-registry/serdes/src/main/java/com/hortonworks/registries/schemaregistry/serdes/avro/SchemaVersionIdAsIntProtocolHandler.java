@@ -50,7 +50,7 @@ public class SchemaVersionIdAsIntProtocolHandler extends AbstractAvroSerDesProto
         } else {
             // 4 bytes
             try {
-                outputStream.write(new byte[]{protocolId});
+                outputStream.write(protocolId);
                 outputStream.write(ByteBuffer.allocate(4)
                                              .putInt(versionId.intValue()).array());
             } catch (IOException e) {
@@ -77,4 +77,8 @@ public class SchemaVersionIdAsIntProtocolHandler extends AbstractAvroSerDesProto
         return new SchemaIdVersion((long) schemaVersionId);
     }
 
+    @Override
+    public SchemaIdVersion handleSchemaVersionDeserialization(ByteBuffer byteBuffer) {
+        return new SchemaIdVersion((long) readInt(byteBuffer));
+    }
 }
@@ -60,4 +60,9 @@ public class SchemaVersionIdAsLongProtocolHandler extends AbstractAvroSerDesProt
     public Byte getProtocolId() {
         return protocolId;
     }
+
+    @Override
+    public SchemaIdVersion handleSchemaVersionDeserialization(ByteBuffer byteBuffer) {
+        return new SchemaIdVersion(readLong(byteBuffer));
+    }
 }
@@ -17,14 +17,14 @@ package com.hortonworks.registries.schemaregistry.serdes.avro.kafka;
 
 import com.hortonworks.registries.schemaregistry.client.ISchemaRegistryClient;
 import com.hortonworks.registries.schemaregistry.serdes.Utils;
-import com.hortonworks.registries.schemaregistry.serdes.avro.AvroSnapshotDeserializer;
+import com.hortonworks.registries.schemaregistry.serdes.avro.ByteBufferAvroSnapshotDeserializer;
 import com.hortonworks.registries.schemaregistry.serdes.avro.MessageAndMetadata;
 import com.hortonworks.registries.schemaregistry.serdes.avro.MessageAndMetadataAvroDeserializer;
 import org.apache.kafka.common.header.Header;
 import org.apache.kafka.common.header.Headers;
 import org.apache.kafka.common.serialization.Deserializer;
 
-import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Map;
 
@@ -90,18 +90,18 @@ public class KafkaAvroDeserializer implements Deserializer<Object> {
     private boolean isKey;
     private Map<String, Integer> readerVersions;
 
-    private final AvroSnapshotDeserializer avroSnapshotDeserializer;
+    private final ByteBufferAvroSnapshotDeserializer avroSnapshotDeserializer;
     private final MessageAndMetadataAvroDeserializer messageAndMetadataAvroDeserializer;
     private String keySchemaVersionIdHeaderName;
     private String valueSchemaVersionIdHeaderName;
 
     public KafkaAvroDeserializer() {
-        avroSnapshotDeserializer = new AvroSnapshotDeserializer();
+        avroSnapshotDeserializer = new ByteBufferAvroSnapshotDeserializer();
         messageAndMetadataAvroDeserializer = new MessageAndMetadataAvroDeserializer();
     }
 
     public KafkaAvroDeserializer(ISchemaRegistryClient schemaRegistryClient) {
-        avroSnapshotDeserializer = new AvroSnapshotDeserializer(schemaRegistryClient);
+        avroSnapshotDeserializer = new ByteBufferAvroSnapshotDeserializer(schemaRegistryClient);
         messageAndMetadataAvroDeserializer = new MessageAndMetadataAvroDeserializer(schemaRegistryClient);
     }
 
@@ -128,7 +128,7 @@ public class KafkaAvroDeserializer implements Deserializer<Object> {
 
     @Override
     public Object deserialize(String topic, byte[] data) {
-        return avroSnapshotDeserializer.deserialize(new ByteArrayInputStream(data), readerVersions.get(topic));
+        return avroSnapshotDeserializer.deserialize(ByteBuffer.wrap(data), readerVersions.get(topic));
     }
 
     @Override
@@ -16,25 +16,32 @@ package com.hortonworks.registries.schemaregistry.avro;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hortonworks.registries.schemaregistry.AggregatedSchemaBranch;
 import com.hortonworks.registries.schemaregistry.AggregatedSchemaMetadataInfo;
 import com.hortonworks.registries.schemaregistry.DefaultSchemaRegistry;
 import com.hortonworks.registries.schemaregistry.HAServerNotificationManager;
+import com.hortonworks.registries.schemaregistry.SchemaBranch;
 import com.hortonworks.registries.schemaregistry.SchemaCompatibility;
+import com.hortonworks.registries.schemaregistry.SchemaFieldQuery;
 import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
 import com.hortonworks.registries.schemaregistry.SchemaMetadata;
 import com.hortonworks.registries.schemaregistry.SchemaMetadataInfo;
 import com.hortonworks.registries.schemaregistry.SchemaVersion;
 import com.hortonworks.registries.schemaregistry.SchemaVersionInfo;
 import com.hortonworks.registries.schemaregistry.SchemaVersionKey;
+import com.hortonworks.registries.schemaregistry.SerDesPair;
 import com.hortonworks.registries.schemaregistry.errors.IncompatibleSchemaException;
 import com.hortonworks.registries.schemaregistry.errors.InvalidSchemaException;
 import com.hortonworks.registries.schemaregistry.errors.SchemaBranchNotFoundException;
 import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
 import com.hortonworks.registries.schemaregistry.locks.SchemaLockManager;
+import com.hortonworks.registries.schemaregistry.state.SchemaLifecycleException;
+import com.hortonworks.registries.schemaregistry.state.SchemaVersionLifecycleStates;
 import com.hortonworks.registries.storage.NOOPTransactionManager;
 import com.hortonworks.registries.storage.StorageManager;
 import com.hortonworks.registries.storage.impl.memory.InMemoryStorageManager;
 import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
 import org.apache.commons.codec.binary.Hex;
 import org.junit.Assert;
 import org.junit.Before;
@@ -44,11 +51,16 @@ import org.junit.rules.TestName;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  *
@@ -158,6 +170,172 @@ public class AvroSchemaRegistryTest {
                         new TypeReference<Collection<AggregatedSchemaMetadataInfo>>() {});
     }
 
+    @Test
+    public void testBulkAggregatedSchemaMetadata() throws Exception {
+        SchemaMetadata schemaMetadata = new SchemaMetadata.Builder(schemaName)
+                .type(AvroSchemaProvider.TYPE)
+                .compatibility(SchemaCompatibility.BOTH)
+                .schemaGroup(SCHEMA_GROUP).build();
+        SchemaIdVersion v1 = schemaRegistry.addSchemaVersion(schemaMetadata, new SchemaVersion(schema1, "initial version"));
+        schemaRegistry.createSchemaBranch(v1.getSchemaVersionId(), new SchemaBranch("branch-1", schemaName));
+        SchemaIdVersion branchVersion = schemaRegistry.addSchemaVersion("branch-1", schemaName, new SchemaVersion(schema2, "branch version"));
+        schemaRegistry.mergeSchemaVersion(branchVersion.getSchemaVersionId(), false);
+
+        String otherSchemaName = schemaName + "-other";
+        SchemaMetadata otherSchemaMetadata = new SchemaMetadata.Builder(otherSchemaName)
+                .type(AvroSchemaProvider.TYPE)
+                .schemaGroup(SCHEMA_GROUP).build();
+        schemaRegistry.addSchemaVersion(otherSchemaMetadata, new SchemaVersion(schema1, "initial version"));
+        Long serDesId = schemaRegistry.addSerDes(new SerDesPair("serdes", "serdes", "file-1", "serializer", "deserializer"));
+        schemaRegistry.mapSchemaWithSerDes(otherSchemaName, serDesId);
+
+        // schema without any versions
+        schemaRegistry.registerSchemaMetadata(new SchemaMetadata.Builder(schemaName + "-empty")
+                                                      .type(AvroSchemaProvider.TYPE)
+                                                      .schemaGroup(SCHEMA_GROUP).build());
+
+        Collection<AggregatedSchemaMetadataInfo> aggregatedSchemaMetadataInfos = schemaRegistry.findAggregatedSchemaMetadata(Collections.emptyMap());
+        Assert.assertEquals(3, aggregatedSchemaMetadataInfos.size());
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (AggregatedSchemaMetadataInfo aggregatedSchemaMetadataInfo : aggregatedSchemaMetadataInfos) {
+            AggregatedSchemaMetadataInfo expected = schemaRegistry.getAggregatedSchemaMetadataInfo(aggregatedSchemaMetadataInfo.getSchemaMetadata().getName());
+            Assert.assertEquals(expected.getSchemaMetadata(), aggregatedSchemaMetadataInfo.getSchemaMetadata());
+            Assert.assertEquals(expected.getId(), aggregatedSchemaMetadataInfo.getId());
+            Assert.assertEquals(objectMapper.writeValueAsString(expected.getSerDesInfos()),
+                                objectMapper.writeValueAsString(aggregatedSchemaMetadataInfo.getSerDesInfos()));
+
+            // branches are not returned in any specific order
+            Map<String, String> expectedBranches = new HashMap<>();
+            for (AggregatedSchemaBranch schemaBranch : expected.getSchemaBranches()) {
+                expectedBranches.put(schemaBranch.getSchemaBranch().getName(), objectMapper.writeValueAsString(schemaBranch));
+            }
+            Map<String, String> actualBranches = new HashMap<>();
+            for (AggregatedSchemaBranch schemaBranch : aggregatedSchemaMetadataInfo.getSchemaBranches()) {
+                actualBranches.put(schemaBranch.getSchemaBranch().getName(), objectMapper.writeValueAsString(schemaBranch));
+            }
+            Assert.assertEquals(expectedBranches, actualBranches);
+        }
+
+        AggregatedSchemaMetadataInfo aggregatedSchemaMetadataInfo = schemaRegistry.getAggregatedSchemaMetadataInfos(
+                Collections.singletonList(schemaRegistry.getSchemaMetadataInfo(schemaName))).iterator().next();
+        Assert.assertEquals(2, aggregatedSchemaMetadataInfo.getSchemaBranches().size());
+        for (AggregatedSchemaBranch schemaBranch : aggregatedSchemaMetadataInfo.getSchemaBranches()) {
+            if (SchemaBranch.MASTER_BRANCH.equals(schemaBranch.getSchemaBranch().getName())) {
+                Assert.assertNull(schemaBranch.getRootSchemaVersion());
+                Assert.assertNotNull(schemaBranch.getSchemaVersionInfos().iterator().next().getMergeInfo());
+            } else {
+                Assert.assertEquals(v1.getSchemaVersionId(), schemaBranch.getRootSchemaVersion());
+            }
+        }
+    }
+
+    @Test
+    public void testFindSchemaMetadataPages() throws Exception {
+        List<Long> schemaMetadataIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            schemaMetadataIds.add(schemaRegistry.registerSchemaMetadata(new SchemaMetadata.Builder(schemaName + "-" + i)
+                                                                                .type(AvroSchemaProvider.TYPE)
+                                                                                .schemaGroup(i % 2 == 0 ? SCHEMA_GROUP : "other-group")
+                                                                                .build()));
+        }
+
+        Map<String, String> props = new HashMap<>();
+        props.put(DefaultSchemaRegistry.LIMIT_PARAM_NAME, "2");
+        List<Long> pagedIds = new ArrayList<>();
+        Collection<SchemaMetadataInfo> page;
+        do {
+            page = schemaRegistry.findSchemaMetadata(props);
+            Assert.assertTrue(page.size() <= 2);
+            for (SchemaMetadataInfo schemaMetadataInfo : page) {
+                pagedIds.add(schemaMetadataInfo.getId());
+                props.put(DefaultSchemaRegistry.AFTER_PARAM_NAME, String.valueOf(schemaMetadataInfo.getId()));
+            }
+        } while (page.size() == 2);
+        Assert.assertEquals(schemaMetadataIds, pagedIds);
+
+        // other properties filter the pages
+        props.clear();
+        props.put(DefaultSchemaRegistry.LIMIT_PARAM_NAME, "2");
+        props.put(DefaultSchemaRegistry.AFTER_PARAM_NAME, String.valueOf(schemaMetadataIds.get(0)));
+        props.put("schemaGroup", SCHEMA_GROUP);
+        Collection<SchemaMetadataInfo> filteredPage = schemaRegistry.findSchemaMetadata(props);
+        Assert.assertEquals(Arrays.asList(schemaMetadataIds.get(2), schemaMetadataIds.get(4)),
+                            filteredPage.stream().map(SchemaMetadataInfo::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFindSchemaMetadataPagesWithInvalidProperties() throws Exception {
+        for (String limit : Arrays.asList("foo", "0", "-1")) {
+            assertInvalidPage(Collections.singletonMap(DefaultSchemaRegistry.LIMIT_PARAM_NAME, limit));
+        }
+
+        Map<String, String> props = new HashMap<>();
+        props.put(DefaultSchemaRegistry.LIMIT_PARAM_NAME, "2");
+        props.put(DefaultSchemaRegistry.AFTER_PARAM_NAME, "foo");
+        assertInvalidPage(props);
+
+        // pages are always ordered by id
+        props.remove(DefaultSchemaRegistry.AFTER_PARAM_NAME);
+        props.put(DefaultSchemaRegistry.ORDER_BY_FIELDS_PARAM_NAME, "name,d");
+        assertInvalidPage(props);
+    }
+
+    private void assertInvalidPage(Map<String, String> props) {
+        try {
+            schemaRegistry.findSchemaMetadata(props);
+            Assert.fail("Page should not be found with " + props);
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testRegisterSchemaWithManyFields() throws Exception {
+        SchemaBuilder.FieldAssembler<Schema> fields = SchemaBuilder.record("LargeRecord").namespace("org.hwx.schemas").fields();
+        for (int i = 0; i < 1500; i++) {
+            fields = fields.requiredLong("field" + i);
+        }
+        String largeSchema = fields.endRecord().toString();
+
+        SchemaMetadata schemaMetadata = new SchemaMetadata.Builder(schemaName)
+                .type(AvroSchemaProvider.TYPE)
+                .schemaGroup(SCHEMA_GROUP)
+                .build();
+        SchemaIdVersion schemaIdVersion = schemaRegistry.addSchemaVersion(schemaMetadata, new SchemaVersion(largeSchema, "large schema"));
+
+        SchemaVersionKey schemaVersionKey = new SchemaVersionKey(schemaName, schemaIdVersion.getVersion());
+        Assert.assertEquals(Collections.singletonList(schemaVersionKey),
+                            new ArrayList<>(schemaRegistry.findSchemasByFields(new SchemaFieldQuery("field1499", null, null))));
+
+        schemaRegistry.deleteSchema(schemaName);
+        Assert.assertNull(schemaRegistry.getSchemaMetadataInfo(schemaName));
+    }
+
+    @Test
+    public void testSchemaVersionStateTransitions() throws Exception {
+        SchemaIdVersion v1 = registerSchemaVersion(schemaName, schema1);
+        SchemaIdVersion v2 = schemaRegistry.addSchemaVersion(schemaName + "-schema", new SchemaVersion(schema2, "second version"));
+        Assert.assertEquals(SchemaVersionLifecycleStates.ENABLED.getId(), schemaRegistry.getSchemaVersionInfo(v2).getStateId());
+
+        schemaRegistry.disableSchemaVersion(v2.getSchemaVersionId());
+        Assert.assertEquals(SchemaVersionLifecycleStates.DISABLED.getId(), schemaRegistry.getSchemaVersionInfo(v2).getStateId());
+        Assert.assertEquals(v1.getSchemaVersionId(), getEnabledSchemaVersionIds(schemaName + "-schema").get(0));
+
+        schemaRegistry.enableSchemaVersion(v2.getSchemaVersionId());
+        Assert.assertEquals(SchemaVersionLifecycleStates.ENABLED.getId(), schemaRegistry.getSchemaVersionInfo(v2).getStateId());
+        Assert.assertEquals(v2.getSchemaVersionId(), getEnabledSchemaVersionIds(schemaName + "-schema").get(0));
+
+        schemaRegistry.archiveSchemaVersion(v2.getSchemaVersionId());
+        Assert.assertEquals(SchemaVersionLifecycleStates.ARCHIVED.getId(), schemaRegistry.getSchemaVersionInfo(v2).getStateId());
+        try {
+            schemaRegistry.enableSchemaVersion(v2.getSchemaVersionId());
+            Assert.fail("Archived schema version should not be enabled");
+        } catch (SchemaLifecycleException e) {
+            // expected
+        }
+    }
+
     @Test
     public void testNonExistingSchemaMetadata() {
         SchemaMetadataInfo schemaMetadataInfo = schemaRegistry.getSchemaMetadataInfo(INVALID_SCHEMA_METADATA_KEY);
@@ -252,6 +430,15 @@ public class AvroSchemaRegistryTest {
                 second.getSchemaVersionId(), schemaVersionFound.getId());
     }
 
+    private List<Long> getEnabledSchemaVersionIds(String schemaName) throws Exception {
+        return schemaRegistry.getAllVersions(SchemaBranch.MASTER_BRANCH,
+                                             schemaName,
+                                             Collections.singletonList(SchemaVersionLifecycleStates.ENABLED.getId()))
+                             .stream()
+                             .map(SchemaVersionInfo::getId)
+                             .collect(Collectors.toList());
+    }
+
     private SchemaIdVersion registerSchemaVersion(final String schemaName,
                                          final String schemaText) throws Exception {
         final SchemaMetadata schemaMetadata = createSchemaInfo(schemaName,
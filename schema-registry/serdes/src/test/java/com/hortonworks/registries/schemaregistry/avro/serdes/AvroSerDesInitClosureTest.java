@@ -15,13 +15,24 @@
  */
 package com.hortonworks.registries.schemaregistry.avro.serdes;
 
+import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
 import com.hortonworks.registries.schemaregistry.SchemaMetadata;
+import com.hortonworks.registries.schemaregistry.SchemaVersion;
+import com.hortonworks.registries.schemaregistry.SchemaVersionInfo;
+import com.hortonworks.registries.schemaregistry.client.MockSchemaRegistryClient;
+import com.hortonworks.registries.schemaregistry.client.SchemaRegistryClient;
+import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
 import com.hortonworks.registries.schemaregistry.serdes.avro.AvroSnapshotDeserializer;
 import com.hortonworks.registries.schemaregistry.serdes.avro.AvroSnapshotSerializer;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 /**
  *
@@ -83,4 +94,37 @@ public class AvroSerDesInitClosureTest {
         deserializer.deserialize(new ByteArrayInputStream(new byte[]{}), 1);
     }
 
+    @Test
+    public void testDeserInitWarmsUpConfiguredSchemas() throws Exception {
+        List<String> warmedUpSchemaNames = new ArrayList<>();
+        List<SchemaIdVersion> batchedSchemaIdVersions = new ArrayList<>();
+        MockSchemaRegistryClient schemaRegistryClient = new MockSchemaRegistryClient() {
+            @Override
+            public Collection<SchemaVersionInfo> getAllVersions(String schemaName) throws SchemaNotFoundException {
+                warmedUpSchemaNames.add(schemaName);
+                return super.getAllVersions(schemaName);
+            }
+
+            @Override
+            public Collection<SchemaVersionInfo> getSchemaVersionInfos(Collection<SchemaIdVersion> schemaIdVersions) throws SchemaNotFoundException {
+                batchedSchemaIdVersions.addAll(schemaIdVersions);
+                return super.getSchemaVersionInfos(schemaIdVersions);
+            }
+        };
+        String schemaText = "{\"type\":\"record\",\"name\":\"Foo\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+        String nextSchemaText = "{\"type\":\"record\",\"name\":\"Foo\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}," +
+                "{\"name\":\"name\",\"type\":\"string\",\"default\":\"\"}]}";
+        schemaRegistryClient.addSchemaVersion(schemaMetadata, new SchemaVersion(schemaText, "v1"));
+        schemaRegistryClient.addSchemaVersion(schemaMetadata, new SchemaVersion(nextSchemaText, "v2"));
+
+        AvroSnapshotDeserializer deserializer = new AvroSnapshotDeserializer(schemaRegistryClient);
+        // schemas which do not exist do not fail the initialization
+        deserializer.init(Collections.singletonMap(SchemaRegistryClient.Configuration.PREFETCH_SCHEMAS.name(), "foo, unknown"));
+        deserializer.close();
+
+        // versions are retrieved once for each schema, metadata of the schemas comes with one version of each of them
+        Assert.assertEquals(Arrays.asList("foo", "unknown"), warmedUpSchemaNames);
+        Assert.assertEquals(1, batchedSchemaIdVersions.size());
+    }
+
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry.serdes.avro;
+
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ */
+public class AvroDatumCacheTest {
+
+    private static final Schema WRITER_SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Device\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}");
+    private static final Schema READER_SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Device\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}," +
+                    "{\"name\":\"name\",\"type\":\"string\",\"default\":\"unknown\"}]}");
+
+    @Test
+    public void testDatumReadersAndWritersAreReused() {
+        AvroDatumCache datumCache = new AvroDatumCache();
+
+        Assert.assertSame(datumCache.getDatumWriter(WRITER_SCHEMA, false), datumCache.getDatumWriter(WRITER_SCHEMA, false));
+        Assert.assertNotSame(datumCache.getDatumWriter(WRITER_SCHEMA, false), datumCache.getDatumWriter(WRITER_SCHEMA, true));
+
+        Assert.assertSame(datumCache.getDatumReader(WRITER_SCHEMA, READER_SCHEMA, false),
+                          datumCache.getDatumReader(new Schema.Parser().parse(WRITER_SCHEMA.toString()),
+                                                    new Schema.Parser().parse(READER_SCHEMA.toString()),
+                                                    false));
+        Assert.assertNotSame(datumCache.getDatumReader(WRITER_SCHEMA, READER_SCHEMA, false),
+                             datumCache.getDatumReader(WRITER_SCHEMA, null, false));
+    }
+
+    @Test
+    public void testConcurrentResolvingDeserialization() throws Exception {
+        DefaultAvroSerDesHandler handler = new DefaultAvroSerDesHandler();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                final long offset = i * 1000L;
+                futures.add(executorService.submit(() -> {
+                    for (long id = offset; id < offset + 1000; id++) {
+                        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                        handler.handlePayloadSerialization(outputStream, new GenericRecordBuilder(WRITER_SCHEMA).set("id", id).build());
+
+                        GenericRecord record = (GenericRecord) handler.handlePayloadDeserialization(
+                                new ByteArrayInputStream(outputStream.toByteArray()), WRITER_SCHEMA, READER_SCHEMA, false);
+                        Assert.assertEquals(id, record.get("id"));
+                        Assert.assertEquals("unknown", record.get("name").toString());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+            executorService.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
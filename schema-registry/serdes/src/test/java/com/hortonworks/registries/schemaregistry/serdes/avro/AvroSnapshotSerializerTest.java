@@ -0,0 +1,130 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry.serdes.avro;
+
+import com.hortonworks.registries.schemaregistry.SchemaCompatibility;
+import com.hortonworks.registries.schemaregistry.SchemaIdVersion;
+import com.hortonworks.registries.schemaregistry.SchemaMetadata;
+import com.hortonworks.registries.schemaregistry.SchemaVersion;
+import com.hortonworks.registries.schemaregistry.avro.AvroSchemaProvider;
+import com.hortonworks.registries.schemaregistry.client.MockSchemaRegistryClient;
+import com.hortonworks.registries.schemaregistry.errors.IncompatibleSchemaException;
+import com.hortonworks.registries.schemaregistry.errors.InvalidSchemaException;
+import com.hortonworks.registries.schemaregistry.errors.SchemaBranchNotFoundException;
+import com.hortonworks.registries.schemaregistry.errors.SchemaNotFoundException;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ */
+public class AvroSnapshotSerializerTest {
+
+    private static final String SCHEMA_V1 = "{\"type\":\"record\",\"name\":\"Device\",\"fields\":[" +
+            "{\"name\":\"id\",\"type\":\"long\"}]}";
+    private static final String SCHEMA_V2 = "{\"type\":\"record\",\"name\":\"Device\",\"fields\":[" +
+            "{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"name\",\"type\":\"string\",\"default\":\"\"}]}";
+
+    private CountingSchemaRegistryClient schemaRegistryClient;
+    private AvroSnapshotSerializer serializer;
+
+    @Before
+    public void setup() {
+        schemaRegistryClient = new CountingSchemaRegistryClient();
+        serializer = new AvroSnapshotSerializer(schemaRegistryClient);
+        serializer.init(Collections.emptyMap());
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        serializer.close();
+    }
+
+    @Test
+    public void testSchemaVersionIsRegisteredOncePerSchema() {
+        Schema schema = new Schema.Parser().parse(SCHEMA_V1);
+        SchemaMetadata schemaMetadata = createSchemaMetadata("devices");
+
+        byte[] first = serializer.serialize(createRecord(schema, 1L), schemaMetadata);
+        for (long i = 0; i < 10; i++) {
+            serializer.serialize(createRecord(schema, i), schemaMetadata);
+        }
+        Assert.assertEquals(1, schemaRegistryClient.registrations.get());
+
+        // equal schema with a different instance resolves from the cache as well
+        Schema sameSchema = new Schema.Parser().parse(SCHEMA_V1);
+        byte[] second = serializer.serialize(createRecord(sameSchema, 1L), schemaMetadata);
+        Assert.assertEquals(1, schemaRegistryClient.registrations.get());
+        Assert.assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void testEvolvedSchemaIsRegisteredAsNewVersion() throws Exception {
+        SchemaMetadata schemaMetadata = createSchemaMetadata("evolving-devices");
+
+        Schema schemaV1 = new Schema.Parser().parse(SCHEMA_V1);
+        serializer.serialize(createRecord(schemaV1, 1L), schemaMetadata);
+
+        Schema schemaV2 = new Schema.Parser().parse(SCHEMA_V2);
+        serializer.serialize(new GenericRecordBuilder(schemaV2).set("id", 2L).set("name", "bottle").build(), schemaMetadata);
+        serializer.serialize(createRecord(schemaV1, 3L), schemaMetadata);
+
+        Assert.assertEquals(2, schemaRegistryClient.registrations.get());
+        Assert.assertEquals(2, schemaRegistryClient.getAllVersions("evolving-devices").size());
+    }
+
+    @Test
+    public void testSameSchemaWithDifferentSchemaMetadata() {
+        Schema schema = new Schema.Parser().parse(SCHEMA_V1);
+
+        serializer.serialize(createRecord(schema, 1L), createSchemaMetadata("topic-1"));
+        serializer.serialize(createRecord(schema, 1L), createSchemaMetadata("topic-2"));
+        serializer.serialize(createRecord(schema, 1L), createSchemaMetadata("topic-1"));
+
+        Assert.assertEquals(2, schemaRegistryClient.registrations.get());
+    }
+
+    private GenericRecord createRecord(Schema schema, long id) {
+        return new GenericRecordBuilder(schema).set("id", id).build();
+    }
+
+    private SchemaMetadata createSchemaMetadata(String name) {
+        return new SchemaMetadata.Builder(name)
+                .type(AvroSchemaProvider.TYPE)
+                .schemaGroup("test-group")
+                .compatibility(SchemaCompatibility.BACKWARD)
+                .build();
+    }
+
+    private static class CountingSchemaRegistryClient extends MockSchemaRegistryClient {
+        private final AtomicInteger registrations = new AtomicInteger();
+
+        @Override
+        public SchemaIdVersion addSchemaVersion(SchemaMetadata schemaMetadata, SchemaVersion schemaVersion, boolean disableCanonicalCheck)
+                throws InvalidSchemaException, IncompatibleSchemaException, SchemaNotFoundException, SchemaBranchNotFoundException {
+            registrations.incrementAndGet();
+            return super.addSchemaVersion(schemaMetadata, schemaVersion, disableCanonicalCheck);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016-2019 Cloudera, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.schemaregistry.serdes.avro;
+
+import com.hortonworks.registries.schemaregistry.SchemaCompatibility;
+import com.hortonworks.registries.schemaregistry.SchemaMetadata;
+import com.hortonworks.registries.schemaregistry.avro.AvroSchemaProvider;
+import com.hortonworks.registries.schemaregistry.client.MockSchemaRegistryClient;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.GenericRecordBuilder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+
+import static com.hortonworks.registries.schemaregistry.serdes.avro.AbstractAvroSnapshotSerializer.SERDES_PROTOCOL_VERSION;
+
+/**
+ *
+ */
+public class ByteBufferAvroSnapshotDeserializerTest {
+
+    private static final Schema SCHEMA = new Schema.Parser().parse(
+            "{\"type\":\"record\",\"name\":\"Device\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}," +
+                    "{\"name\":\"name\",\"type\":\"string\"}]}");
+
+    private MockSchemaRegistryClient schemaRegistryClient;
+    private ByteBufferAvroSnapshotDeserializer deserializer;
+
+    @Before
+    public void setup() {
+        schemaRegistryClient = new MockSchemaRegistryClient();
+        deserializer = new ByteBufferAvroSnapshotDeserializer(schemaRegistryClient);
+        deserializer.init(Collections.emptyMap());
+    }
+
+    @After
+    public void cleanup() throws Exception {
+        deserializer.close();
+    }
+
+    @Test
+    public void testDeserializationWithAllProtocols() throws Exception {
+        GenericRecord record = new GenericRecordBuilder(SCHEMA).set("id", 1L).set("name", "bottle").build();
+        for (Byte protocolId : new Byte[]{SerDesProtocolHandlerRegistry.METADATA_ID_VERSION_PROTOCOL,
+                                          SerDesProtocolHandlerRegistry.VERSION_ID_AS_LONG_PROTOCOL,
+                                          SerDesProtocolHandlerRegistry.VERSION_ID_AS_INT_PROTOCOL,
+                                          SerDesProtocolHandlerRegistry.CONFLUENT_VERSION_PROTOCOL}) {
+            byte[] serialized = serialize(record, protocolId);
+
+            // payload located in the middle of a larger array, as in a received batch of records.
+            byte[] batch = new byte[serialized.length + 20];
+            System.arraycopy(serialized, 0, batch, 10, serialized.length);
+            ByteBuffer byteBuffer = ByteBuffer.wrap(batch, 10, serialized.length).slice();
+
+            Assert.assertEquals(record, deserializer.deserialize(byteBuffer, null));
+            Assert.assertEquals(0, byteBuffer.position());
+
+            // header is read in the protocol's byte order irrespective of the buffer's order
+            byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+            Assert.assertEquals(record, deserializer.deserialize(byteBuffer, null));
+
+            ByteBuffer directBuffer = ByteBuffer.allocateDirect(serialized.length);
+            directBuffer.put(serialized).flip();
+            Assert.assertEquals(record, deserializer.deserialize(directBuffer, null));
+
+            AvroSnapshotDeserializer streamDeserializer = new AvroSnapshotDeserializer(schemaRegistryClient);
+            streamDeserializer.init(Collections.emptyMap());
+            Assert.assertEquals(record, streamDeserializer.deserialize(new ByteArrayInputStream(serialized), null));
+        }
+    }
+
+    @Test
+    public void testPrimitivePayloads() throws Exception {
+        byte[] bytes = {1, 2, 3, 4};
+        byte[] serializedBytes = serialize(bytes, SerDesProtocolHandlerRegistry.CURRENT_PROTOCOL);
+        Assert.assertArrayEquals(bytes, (byte[]) deserializer.deserialize(ByteBuffer.wrap(serializedBytes), null));
+
+        byte[] serializedString = serialize("some value", SerDesProtocolHandlerRegistry.CURRENT_PROTOCOL);
+        Assert.assertEquals("some value", deserializer.deserialize(ByteBuffer.wrap(serializedString), null));
+    }
+
+    @Test
+    public void testBytesPayloadAsByteBuffer() throws Exception {
+        ByteBufferAvroSnapshotDeserializer bufferDeserializer = new ByteBufferAvroSnapshotDeserializer(schemaRegistryClient);
+        bufferDeserializer.init(Collections.singletonMap(AbstractAvroSnapshotDeserializer.BYTES_PAYLOAD_AS_BYTE_BUFFER, true));
+
+        byte[] bytes = {1, 2, 3, 4};
+        byte[] serialized = serialize(bytes, SerDesProtocolHandlerRegistry.CURRENT_PROTOCOL);
+        ByteBuffer deserialized = (ByteBuffer) bufferDeserializer.deserialize(ByteBuffer.wrap(serialized), null);
+
+        Assert.assertTrue(deserialized.isReadOnly());
+        Assert.assertEquals(ByteBuffer.wrap(bytes), deserialized);
+
+        // slice shares the received payload instead of copying it
+        serialized[serialized.length - 1] = 42;
+        Assert.assertEquals(42, deserialized.get(deserialized.limit() - 1));
+
+        bufferDeserializer.close();
+    }
+
+    private byte[] serialize(Object input, Byte protocolId) throws Exception {
+        SchemaMetadata schemaMetadata = new SchemaMetadata.Builder("schema-" + AvroUtils.computeSchema(input).getType())
+                .type(AvroSchemaProvider.TYPE)
+                .schemaGroup("test-group")
+                .compatibility(SchemaCompatibility.BACKWARD)
+                .build();
+        try (AvroSnapshotSerializer serializer = new AvroSnapshotSerializer(schemaRegistryClient)) {
+            serializer.init(Collections.singletonMap(SERDES_PROTOCOL_VERSION, protocolId));
+            return serializer.serialize(input, schemaMetadata);
+        }
+    }
+}
@@ -16,34 +16,68 @@
 
 package com.hortonworks.registries.storage;
 
+import com.google.common.cache.CacheBuilder;
 import com.hortonworks.registries.cache.Cache;
+import com.hortonworks.registries.cache.stats.CacheStats;
 import com.hortonworks.registries.common.QueryParam;
 import com.hortonworks.registries.storage.cache.impl.GuavaCache;
+import com.hortonworks.registries.storage.cache.impl.GuavaCacheStats;
 import com.hortonworks.registries.storage.cache.writer.StorageWriter;
 import com.hortonworks.registries.storage.exception.StorageException;
 import com.hortonworks.registries.storage.search.SearchQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
-
+/**
+ * Storage manager which caches storables by their keys and the results of find, search and list queries. Query
+ * results are cached as the keys of the returned storables for the current generation of the namespace, every write
+ * to a namespace moves it to a new generation so that the earlier results of that namespace are not used anymore.
+ * The namespace moves to a new generation again once the write is committed, results read in the meantime may not have
+ * it. Aggregates and searches selecting only some of the fields are not cached.
+ */
 public class CacheBackedStorageManager implements StorageManager {
     private static final Logger LOG = LoggerFactory.getLogger(CacheBackedStorageManager.class);
 
+    public static final long DEFAULT_QUERY_CACHE_SIZE = 1000L;
+    public static final long DEFAULT_QUERY_CACHE_EXPIRY_SECS = 300L;
+
     private final StorageWriter writer;
     private final Cache<StorableKey, Storable> cache;
     private final StorageManager dao;
+    private final com.google.common.cache.Cache<QueryKey, List<StorableKey>> queryCache;
+    private final ConcurrentMap<String, AtomicLong> namespaceGenerations = new ConcurrentHashMap<>();
 
     public CacheBackedStorageManager(Cache<StorableKey, Storable> cache, StorageWriter storageWriter) {
-        if (cache == null || storageWriter == null) {
-            throw new IllegalArgumentException("Cache and storage writer objects must not be null");
+        this(cache, storageWriter, CacheBuilder.newBuilder()
+                                               .maximumSize(DEFAULT_QUERY_CACHE_SIZE)
+                                               .expireAfterWrite(DEFAULT_QUERY_CACHE_EXPIRY_SECS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * @param queryCacheBuilder builder of the cache of query results, size and expiry bounds are configured with it
+     */
+    public CacheBackedStorageManager(Cache<StorableKey, Storable> cache,
+                                     StorageWriter storageWriter,
+                                     CacheBuilder queryCacheBuilder) {
+        if (cache == null || storageWriter == null || queryCacheBuilder == null) {
+            throw new IllegalArgumentException("Cache, storage writer and query cache builder objects must not be null");
         }
         this.cache = cache;
         this.dao = ((GuavaCache)cache).getDao();
         this.writer = storageWriter;
+        this.queryCache = queryCacheBuilder.recordStats().build();
     }
 
     @Override
@@ -55,6 +89,7 @@ public class CacheBackedStorageManager implements StorageManager {
     @Override
     public void add(Storable storable) throws StorageException {
         writer.add(storable);
+        invalidateQueries(storable.getNameSpace());
         if (storable.isCacheable()) {
             cache.put(storable.getStorableKey(), storable);
         }
@@ -63,6 +98,7 @@ public class CacheBackedStorageManager implements StorageManager {
     @Override
     public <T extends Storable> T remove(StorableKey key) throws StorageException {
         Storable storable = (Storable) writer.remove(key);
+        invalidateQueries(key.getNameSpace());
         if (storable != null && storable.isCacheable()) {
             Storable cachedStorable = cache.get(key);
             if (!storable.equals(cachedStorable)) {
@@ -77,6 +113,7 @@ public class CacheBackedStorageManager implements StorageManager {
     @Override
     public void addOrUpdate(Storable storable) throws StorageException {
         writer.addOrUpdate(storable);
+        invalidateQueries(storable.getNameSpace());
         if (storable.isCacheable()) {
             cache.put(storable.getStorableKey(), storable);
         }
@@ -85,6 +122,7 @@ public class CacheBackedStorageManager implements StorageManager {
     @Override
     public void update(Storable storable) {
         writer.update(storable);
+        invalidateQueries(storable.getNameSpace());
         if (storable.isCacheable()) {
             cache.put(storable.getStorableKey(), storable);
         }
@@ -102,30 +140,108 @@ public class CacheBackedStorageManager implements StorageManager {
 
     @Override
     public <T extends Storable> Collection<T> find(String namespace, List<QueryParam> queryParams) throws StorageException {
-        //Adding workaround methods that calls dao until we figure out what needs to be in caching so the topologies can work.
-        return dao.find(namespace, queryParams);
-
+        return query(new QueryKey(namespace, getGeneration(namespace), QueryKey.FIND, queryParams, null),
+                     () -> dao.find(namespace, queryParams));
     }
 
     @Override
     public <T extends Storable> Collection<T> find(String namespace, List<QueryParam> queryParams, List<OrderByField> orderByFields) throws StorageException {
-        return ((GuavaCache)cache).getDao().find(namespace, queryParams, orderByFields);
+        return query(new QueryKey(namespace, getGeneration(namespace), QueryKey.FIND, queryParams, orderByFields),
+                     () -> dao.find(namespace, queryParams, orderByFields));
     }
 
     @Override
     public <T extends Storable> Collection<T> search(SearchQuery searchQuery) {
-        return ((GuavaCache)cache).getDao().search(searchQuery);
+        String namespace = searchQuery.getNameSpace();
+        if (searchQuery.getFieldNames() != null) {
+            // storables with only the selected fields can not be cached by their keys
+            writer.flush();
+            return dao.search(searchQuery);
+        }
+        return query(new QueryKey(namespace, getGeneration(namespace), searchQuery, null, null),
+                     () -> dao.search(searchQuery));
+    }
+
+    @Override
+    public long count(SearchQuery searchQuery) {
+        writer.flush();
+        return dao.count(searchQuery);
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> V max(SearchQuery searchQuery, String fieldName) {
+        writer.flush();
+        return dao.max(searchQuery, fieldName);
     }
 
     @Override
     public <T extends Storable> Collection<T> list(String namespace) throws StorageException {
-        return dao.list(namespace);
+        return query(new QueryKey(namespace, getGeneration(namespace), QueryKey.LIST, null, null),
+                     () -> dao.list(namespace));
+    }
+
+    /**
+     * Returns the cached result of the given query, or runs it and caches the keys of the result when all the returned
+     * storables are cacheable. Cached results are resolved through the storable cache.
+     */
+    private <T extends Storable> Collection<T> query(QueryKey queryKey, Supplier<Collection<T>> dbQuery) {
+        List<StorableKey> storableKeys = queryCache.getIfPresent(queryKey);
+        if (storableKeys != null) {
+            // storables are not loaded one by one, the query is cheaper when some of them were evicted
+            Map<StorableKey, Storable> cachedStorables = cache.getAll(storableKeys);
+            if (cachedStorables.size() == new HashSet<>(storableKeys).size()) {
+                List<T> storables = new ArrayList<>(storableKeys.size());
+                for (StorableKey storableKey : storableKeys) {
+                    storables.add((T) cachedStorables.get(storableKey));
+                }
+                return storables;
+            }
+            LOG.debug("Storables of the cached result of query [{}] are evicted", queryKey);
+            queryCache.invalidate(queryKey);
+        }
+
+        // pending writes of a write behind writer must be visible to the query, they are written by its own thread
+        writer.flush();
+        Collection<T> storables = dbQuery.get();
+        if (storables != null) {
+            Map<StorableKey, Storable> cacheableStorables = new HashMap<>();
+            List<StorableKey> keys = new ArrayList<>(storables.size());
+            for (T storable : storables) {
+                if (!storable.isCacheable()) {
+                    return storables;
+                }
+                cacheableStorables.put(storable.getStorableKey(), storable);
+                keys.add(storable.getStorableKey());
+            }
+            cache.putAll(cacheableStorables);
+            queryCache.put(queryKey, keys);
+        }
+        return storables;
+    }
+
+    private long getGeneration(String namespace) {
+        return namespaceGenerations.computeIfAbsent(namespace, x -> new AtomicLong()).get();
+    }
+
+    private void invalidateQueries(String namespace) {
+        AtomicLong generation = namespaceGenerations.computeIfAbsent(namespace, x -> new AtomicLong());
+        generation.incrementAndGet();
+        // results cached until the write is committed are discarded
+        writer.afterWritten(generation::incrementAndGet);
+    }
+
+    /**
+     * @return statistics of the cache of query results
+     */
+    public CacheStats getQueryCacheStats() {
+        return new GuavaCacheStats(queryCache.stats());
     }
 
     @Override
     public void cleanup() throws StorageException {
 //        writer.removeAll();       // TODO:
         cache.clear();
+        queryCache.invalidateAll();
     }
 
     @Override
@@ -141,4 +257,63 @@ public class CacheBackedStorageManager implements StorageManager {
     public StorageManager getStorageManager() {
         return dao;
     }
+
+    private static class QueryKey {
+        private static final String FIND = "find";
+        private static final String LIST = "list";
+
+        private final String namespace;
+        private final long generation;
+        private final Object query;
+        private final List<QueryParam> queryParams;
+        private final List<OrderByField> orderByFields;
+
+        QueryKey(String namespace,
+                 long generation,
+                 Object query,
+                 List<QueryParam> queryParams,
+                 List<OrderByField> orderByFields) {
+            this.namespace = namespace;
+            this.generation = generation;
+            this.query = query;
+            // callers may reuse the lists after the query
+            this.queryParams = queryParams != null ? new ArrayList<>(queryParams) : null;
+            this.orderByFields = orderByFields != null ? new ArrayList<>(orderByFields) : null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            QueryKey queryKey = (QueryKey) o;
+
+            if (generation != queryKey.generation) return false;
+            if (namespace != null ? !namespace.equals(queryKey.namespace) : queryKey.namespace != null) return false;
+            if (query != null ? !query.equals(queryKey.query) : queryKey.query != null) return false;
+            if (queryParams != null ? !queryParams.equals(queryKey.queryParams) : queryKey.queryParams != null) return false;
+            return orderByFields != null ? orderByFields.equals(queryKey.orderByFields) : queryKey.orderByFields == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = namespace != null ? namespace.hashCode() : 0;
+            result = 31 * result + (int) (generation ^ (generation >>> 32));
+            result = 31 * result + (query != null ? query.hashCode() : 0);
+            result = 31 * result + (queryParams != null ? queryParams.hashCode() : 0);
+            result = 31 * result + (orderByFields != null ? orderByFields.hashCode() : 0);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "QueryKey{" +
+                    "namespace='" + namespace + '\'' +
+                    ", generation=" + generation +
+                    ", query=" + query +
+                    ", queryParams=" + queryParams +
+                    ", orderByFields=" + orderByFields +
+                    '}';
+        }
+    }
 }
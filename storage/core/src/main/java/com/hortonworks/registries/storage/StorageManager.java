@@ -17,8 +17,10 @@ package com.hortonworks.registries.storage;
 
 import com.hortonworks.registries.common.QueryParam;
 import com.hortonworks.registries.storage.exception.StorageException;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.SearchQuery;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +52,19 @@ public interface StorageManager {
      */
     void add(Storable storable) throws StorageException;
 
+    /**
+     * Adds all the given storables to storage layer as {@link #add(Storable)} does. Storage layer implementations may add
+     * them with fewer round trips than adding each of them separately.
+     *
+     * @param storables the storables
+     * @throws StorageException
+     */
+    default void addAll(Collection<? extends Storable> storables) throws StorageException {
+        for (Storable storable : storables) {
+            add(storable);
+        }
+    }
+
     /**
      * Removes a {@link Storable} object identified by a {@link StorableKey}.
      * If the key does not exist a null value is returned, no exception is thrown.
@@ -60,6 +75,19 @@ public interface StorageManager {
      */
     <T extends Storable> T remove(StorableKey key) throws StorageException;
 
+    /**
+     * Removes all the {@link Storable} objects identified by the given keys. Keys which do not exist are ignored.
+     * Storage layer implementations may remove them with fewer round trips than removing each of them separately.
+     *
+     * @param keys of the {@link Storable} objects to remove
+     * @throws StorageException
+     */
+    default void removeAll(Collection<StorableKey> keys) throws StorageException {
+        for (StorableKey key : keys) {
+            remove(key);
+        }
+    }
+
     /**
      * Unlike add, if the storage entity already exists, it will be updated. If it does not exist, it will be created.
      *
@@ -134,6 +162,40 @@ public interface StorageManager {
      */
     <T extends Storable> Collection<T> search(SearchQuery searchQuery);
 
+    /**
+     * Counts the entries matching the given search query without loading them. Default implementation loads the
+     * entries with {@link #search(SearchQuery)}, storage managers override it with an aggregate query.
+     *
+     * @param searchQuery the search query without a limit or an offset
+     * @return number of the matching entries
+     */
+    default long count(SearchQuery searchQuery) {
+        Aggregate.validate(searchQuery);
+        return search(searchQuery).size();
+    }
+
+    /**
+     * Finds the highest value of the given field among the entries matching the given search query without loading the
+     * entries. Default implementation loads the entries with {@link #search(SearchQuery)}, storage managers override it
+     * with an aggregate query.
+     *
+     * @param searchQuery the search query without a limit or an offset
+     * @param fieldName   the field
+     * @param <V>         type of the field
+     * @return highest non null value of the field, null if there is no such value
+     */
+    default <V extends Comparable<? super V>> V max(SearchQuery searchQuery, String fieldName) {
+        Aggregate.validate(searchQuery);
+        V max = null;
+        for (Storable storable : search(searchQuery)) {
+            V value = (V) storable.toMap().get(fieldName);
+            if (value != null && (max == null || value.compareTo(max) > 0)) {
+                max = value;
+            }
+        }
+        return max;
+    }
+
     /**
      * Lists all {@link Storable} objects existing in the given namespace. If no entity is found, and empty list will be returned.
      * @param namespace the namespace
@@ -151,6 +213,23 @@ public interface StorageManager {
 
     Long nextId(String namespace) throws StorageException;
 
+    /**
+     * Returns the given number of ids as {@link #nextId(String)} does for each of them. Storage layer implementations may
+     * allocate them with fewer round trips than allocating each of them separately.
+     *
+     * @param namespace the namespace
+     * @param count number of ids
+     * @return the ids, which can be null when ids are generated while adding the storables
+     * @throws StorageException
+     */
+    default List<Long> nextIds(String namespace, int count) throws StorageException {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(nextId(namespace));
+        }
+        return ids;
+    }
+
     /**
      * Registers a Collection of {@link Storable}} classes to be used in {@link StorableFactory} for creating instances
      * of a given namespace.
@@ -59,4 +59,19 @@ public interface TransactionManager {
      */
     boolean writeLock(StorableKey key, Long time, TimeUnit timeUnit);
 
+    /**
+     * Runs the given action once the transaction of the current thread is committed, or right away if the current
+     * thread has no transaction. Actions which need to see the committed state, like invalidating caches, use this.
+     */
+    default void afterCommit(Runnable action) {
+        action.run();
+    }
+
+    /**
+     * Runs the given action if the transaction of the current thread is rolled back. It is not run if the current
+     * thread has no transaction.
+     */
+    default void afterRollback(Runnable action) {
+    }
+
 }
@@ -43,7 +43,7 @@ public class GuavaCache implements Cache<StorableKey, Storable> {
 
     public GuavaCache(final StorageManager dao, CacheBuilder guavaCacheBuilder) {
         this.dao = dao;
-        this.guavaCache = guavaCacheBuilder.build(new CacheLoader<StorableKey, Storable>() {
+        this.guavaCache = guavaCacheBuilder.recordStats().build(new CacheLoader<StorableKey, Storable>() {
             @Override
             public Storable load(StorableKey key) throws StorageException, NonexistentStorableKeyException {
                 Storable val = dao.get(key);
@@ -103,9 +103,8 @@ public class GuavaCache implements Cache<StorableKey, Storable> {
         return guavaCache.size();
     }
 
-    //TODO
     public CacheStats stats() {
-        return null;
+        return new GuavaCacheStats(guavaCache.stats());
     }
 
     @Override
@@ -0,0 +1,59 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package com.hortonworks.registries.storage.cache.impl;
+
+import com.hortonworks.registries.cache.stats.CacheStats;
+
+/**
+ * Snapshot of the statistics of a guava cache.
+ */
+public class GuavaCacheStats implements CacheStats {
+    private final com.google.common.cache.CacheStats stats;
+
+    public GuavaCacheStats(com.google.common.cache.CacheStats stats) {
+        this.stats = stats;
+    }
+
+    @Override
+    public long hitCount() {
+        return stats.hitCount();
+    }
+
+    @Override
+    public long missCount() {
+        return stats.missCount();
+    }
+
+    @Override
+    public long evictionCount() {
+        return stats.evictionCount();
+    }
+
+    @Override
+    public double hitRate() {
+        return stats.hitRate();
+    }
+
+    @Override
+    public String toString() {
+        return "GuavaCacheStats{" +
+                "hitCount=" + hitCount() +
+                ", missCount=" + missCount() +
+                ", evictionCount=" + evictionCount() +
+                '}';
+    }
+}
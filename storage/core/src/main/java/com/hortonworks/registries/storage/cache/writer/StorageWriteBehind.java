@@ -16,41 +16,505 @@
 
 package com.hortonworks.registries.storage.cache.writer;
 
+import com.google.common.util.concurrent.Futures;
 import com.hortonworks.registries.storage.Storable;
 import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.StorageManager;
+import com.hortonworks.registries.storage.TransactionManager;
+import com.hortonworks.registries.storage.transaction.TransactionIsolation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.ExecutorService;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Storage writer which accepts writes in memory and writes them to the storage later from a background thread.
+ * <p>
+ * There is at most one pending write for a storable key, a later write of the same key replaces the pending one, so
+ * that only the last state of a storable is written. Pending writes are flushed in the order they were accepted, every
+ * {@code flushIntervalMillis} or as soon as {@code batchSize} writes are pending. Consecutive adds and removes are
+ * written with the bulk {@link StorageManager#addAll(java.util.Collection)} and
+ * {@link StorageManager#removeAll(java.util.Collection)} calls, in a transaction when the storage manager is a
+ * {@link TransactionManager}.
+ * <p>
+ * Writes are always done by the flush thread, {@link #flush()} waits for it, so that they are never part of the
+ * transaction of the thread requesting the flush. A write stays visible to {@link #remove(StorableKey)} until it is
+ * written. When {@code maxPendingWrites} writes are pending, writes of other keys block until the pending writes are
+ * flushed.
+ * <p>
+ * A write which fails is retried by the next flushes, ahead of the writes accepted in the meantime, and along with
+ * them when the key is written again. After {@link #MAX_WRITE_ATTEMPTS} attempts it is dropped, logged and counted in
+ * {@link #getFailedWriteCount()}.
+ */
+public class StorageWriteBehind implements StorageWriter, Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(StorageWriteBehind.class);
+
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000L;
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_MAX_PENDING_WRITES = 10000;
+    public static final int MAX_WRITE_ATTEMPTS = 3;
 
-public class StorageWriteBehind implements StorageWriter {
-    private static final int NUM_THREADS = 5;
     private final StorageManager dao;
-    private final ExecutorService executorService;
+    private final int batchSize;
+    private final int maxPendingWrites;
+    private final ScheduledExecutorService flushExecutor;
+    private volatile Thread flushThread;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    // pending writes in the order they were accepted, guarded by lock
+    private final LinkedHashMap<StorableKey, PendingWrite> pendingWrites = new LinkedHashMap<>();
+    // writes taken by the running flush until they are written, guarded by lock
+    private final Map<StorableKey, PendingWrite> inFlightWrites = new HashMap<>();
+    // actions to run after the pending writes are written, guarded by lock
+    private final List<Runnable> afterFlushActions = new ArrayList<>();
+    private boolean closed;
+
+    // only one flush at a time, so that writes of a key are never reordered
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    private final AtomicLong flushedWriteCount = new AtomicLong();
+    private final AtomicLong failedWriteCount = new AtomicLong();
 
     public StorageWriteBehind(StorageManager dao) {
-        this(dao, Executors.newFixedThreadPool(NUM_THREADS));
+        this(dao, DEFAULT_FLUSH_INTERVAL_MILLIS, DEFAULT_BATCH_SIZE, DEFAULT_MAX_PENDING_WRITES);
     }
 
-    public StorageWriteBehind(StorageManager dao, ExecutorService executorService) {
+    public StorageWriteBehind(StorageManager dao, long flushIntervalMillis, int batchSize, int maxPendingWrites) {
+        if (dao == null) {
+            throw new IllegalArgumentException("dao must not be null");
+        }
+        if (flushIntervalMillis <= 0 || batchSize <= 0 || maxPendingWrites < batchSize) {
+            throw new IllegalArgumentException(String.format("Invalid flush interval [%d], batch size [%d] or max pending writes [%d]",
+                                                             flushIntervalMillis, batchSize, maxPendingWrites));
+        }
         this.dao = dao;
-        this.executorService = executorService;
+        this.batchSize = batchSize;
+        this.maxPendingWrites = maxPendingWrites;
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "storage-write-behind");
+            thread.setDaemon(true);
+            flushThread = thread;
+            return thread;
+        });
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
     }
 
+    @Override
     public void add(Storable storable) {
-        executorService.submit(() -> dao.add(storable));
+        enqueue(new PendingWrite(WriteType.ADD, storable.getStorableKey(), storable));
     }
 
+    @Override
     public void addOrUpdate(Storable storable) {
-        executorService.submit(() -> dao.addOrUpdate(storable));
+        enqueue(new PendingWrite(WriteType.ADD_OR_UPDATE, storable.getStorableKey(), storable));
     }
 
     @Override
     public void update(Storable storable) {
-        executorService.submit(() -> dao.update(storable));
+        enqueue(new PendingWrite(WriteType.UPDATE, storable.getStorableKey(), storable));
     }
 
+    @Override
     public Object remove(StorableKey key) {
-        return executorService.submit(() -> dao.remove(key));
+        lock.lock();
+        try {
+            PendingWrite pendingWrite = pendingWrites.get(key);
+            if (pendingWrite == null) {
+                // not written yet, the remove is written after it
+                pendingWrite = inFlightWrites.get(key);
+            }
+            if (pendingWrite != null) {
+                if (pendingWrite.type == WriteType.REMOVE) {
+                    return null;
+                }
+                enqueue(new PendingWrite(WriteType.REMOVE, key, null));
+                return pendingWrite.storable;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // nothing pending or being written for this key, storage has its current state
+        Storable storable = dao.get(key);
+        if (storable != null) {
+            enqueue(new PendingWrite(WriteType.REMOVE, key, null));
+        }
+        return storable;
+    }
+
+    /**
+     * The action runs after the flush writing the writes accepted before this call.
+     */
+    @Override
+    public void afterWritten(Runnable action) {
+        lock.lock();
+        try {
+            if (!closed) {
+                afterFlushActions.add(action);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        action.run();
+    }
+
+    private void enqueue(PendingWrite write) {
+        boolean scheduleFlush;
+        lock.lock();
+        try {
+            while (!closed && pendingWrites.size() >= maxPendingWrites && !pendingWrites.containsKey(write.key)) {
+                scheduleFlush();
+                notFull.awaitUninterruptibly();
+            }
+            if (closed) {
+                throw new IllegalStateException("Storage writer is already closed");
+            }
+
+            PendingWrite previous = pendingWrites.get(write.key);
+            PendingWrite coalesced = previous != null ? previous.coalesce(write) : write;
+            if (coalesced != null) {
+                pendingWrites.put(write.key, coalesced);
+            } else {
+                pendingWrites.remove(write.key);
+            }
+            scheduleFlush = pendingWrites.size() >= batchSize;
+        } finally {
+            lock.unlock();
+        }
+
+        if (scheduleFlush) {
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(this::flushQuietly);
+            } catch (RuntimeException e) {
+                flushScheduled.set(false);
+                LOG.debug("Failed to schedule a flush, pending writes are flushed by the next periodic flush", e);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        flushScheduled.set(false);
+        try {
+            writePendingWrites();
+        } catch (Throwable t) {
+            LOG.error("Failed to flush pending writes", t);
+        }
+    }
+
+    /**
+     * Writes all the writes accepted before this call to the storage, from the flush thread. Writes which fail are
+     * retried by the next flushes.
+     */
+    @Override
+    public void flush() {
+        if (Thread.currentThread() == flushThread) {
+            writePendingWrites();
+            return;
+        }
+
+        Future<?> future;
+        try {
+            future = flushExecutor.submit(this::writePendingWrites);
+        } catch (RejectedExecutionException e) {
+            // closed, there are no background flushes anymore
+            writePendingWrites();
+            return;
+        }
+        Futures.getUnchecked(future);
+    }
+
+    private void writePendingWrites() {
+        synchronized (flushLock) {
+            List<PendingWrite> writes;
+            List<Runnable> actions;
+            lock.lock();
+            try {
+                if (pendingWrites.isEmpty() && afterFlushActions.isEmpty()) {
+                    return;
+                }
+                writes = new ArrayList<>(pendingWrites.values());
+                inFlightWrites.putAll(pendingWrites);
+                pendingWrites.clear();
+                actions = new ArrayList<>(afterFlushActions);
+                afterFlushActions.clear();
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            List<PendingWrite> failedWrites = new ArrayList<>();
+            int start = 0;
+            while (start < writes.size()) {
+                WriteType type = writes.get(start).type;
+                int end = start + 1;
+                while (end < writes.size() && end - start < batchSize && writes.get(end).type == type) {
+                    end++;
+                }
+                failedWrites.addAll(write(type, writes.subList(start, end)));
+                start = end;
+            }
+
+            lock.lock();
+            try {
+                inFlightWrites.clear();
+                if (!failedWrites.isEmpty()) {
+                    retry(failedWrites);
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            for (Runnable action : actions) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    LOG.error("Failed to run an action after flushing writes", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return writes which failed
+     */
+    private List<PendingWrite> write(WriteType type, List<PendingWrite> writes) {
+        if (writes.size() > 1 && (type == WriteType.ADD || type == WriteType.REMOVE)) {
+            try {
+                inTransaction(() -> {
+                    if (type == WriteType.ADD) {
+                        List<Storable> storables = new ArrayList<>(writes.size());
+                        writes.forEach(x -> storables.add(x.storable));
+                        dao.addAll(storables);
+                    } else {
+                        List<StorableKey> keys = new ArrayList<>(writes.size());
+                        writes.forEach(x -> keys.add(x.key));
+                        dao.removeAll(keys);
+                    }
+                });
+                flushedWriteCount.addAndGet(writes.size());
+                return Collections.emptyList();
+            } catch (RuntimeException e) {
+                LOG.warn("Failed to write a batch of [{}] {} writes, writing them one by one", writes.size(), type, e);
+            }
+        }
+
+        List<PendingWrite> failedWrites = new ArrayList<>();
+        for (PendingWrite write : writes) {
+            try {
+                write.writeTo(dao);
+                flushedWriteCount.incrementAndGet();
+            } catch (RuntimeException e) {
+                if (write.type == WriteType.ADD && isStored(write)) {
+                    // written by a batch which failed part way without a transaction
+                    flushedWriteCount.incrementAndGet();
+                    continue;
+                }
+                failedWrites.add(write);
+                LOG.warn("Failed to write {} of [{}] in attempt [{}]", write.type, write.key, write.attempts + 1, e);
+            }
+        }
+        return failedWrites;
+    }
+
+    /**
+     * Runs the given batch in a transaction when the storage manager supports them, so that a batch which fails is
+     * not partially written.
+     */
+    private void inTransaction(Runnable batch) {
+        if (!(dao instanceof TransactionManager)) {
+            batch.run();
+            return;
+        }
+
+        TransactionManager transactionManager = (TransactionManager) dao;
+        transactionManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+        try {
+            batch.run();
+            transactionManager.commitTransaction();
+        } catch (RuntimeException e) {
+            transactionManager.rollbackTransaction();
+            throw e;
+        }
+    }
+
+    private boolean isStored(PendingWrite write) {
+        try {
+            return write.storable.equals(dao.get(write.key));
+        } catch (RuntimeException e) {
+            LOG.debug("Failed to look up [{}]", write.key, e);
+            return false;
+        }
+    }
+
+    /**
+     * Queues the failed writes again ahead of the writes accepted while they were being written, so that writes are
+     * still flushed in the order they were accepted. Called with the lock held.
+     */
+    private void retry(List<PendingWrite> failedWrites) {
+        LinkedHashMap<StorableKey, PendingWrite> retriedWrites = new LinkedHashMap<>();
+        for (PendingWrite failedWrite : failedWrites) {
+            PendingWrite next = pendingWrites.remove(failedWrite.key);
+            if (next != null) {
+                // written again in the meantime, the failed write is retried along with the later one
+                PendingWrite coalesced = failedWrite.coalesce(next);
+                if (coalesced != null) {
+                    retriedWrites.put(failedWrite.key, coalesced);
+                }
+            } else if (failedWrite.attempts + 1 < MAX_WRITE_ATTEMPTS) {
+                retriedWrites.put(failedWrite.key, failedWrite.nextAttempt());
+            } else {
+                failedWriteCount.incrementAndGet();
+                LOG.error("Dropped {} of [{}] after [{}] failed attempts", failedWrite.type, failedWrite.key, MAX_WRITE_ATTEMPTS);
+            }
+        }
+        retriedWrites.putAll(pendingWrites);
+        pendingWrites.clear();
+        pendingWrites.putAll(retriedWrites);
+    }
+
+    /**
+     * Stops the background flushes and flushes the pending writes, failed writes are retried until they are dropped.
+     * Writes are not accepted after closing.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        flushExecutor.shutdown();
+        flush();
+        for (int attempt = 1; attempt < MAX_WRITE_ATTEMPTS && getPendingWriteCount() > 0; attempt++) {
+            flush();
+        }
+    }
+
+    /**
+     * @return number of writes which are not written to the storage yet
+     */
+    public int getPendingWriteCount() {
+        lock.lock();
+        try {
+            return pendingWrites.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return milliseconds since the oldest pending write was accepted, or 0 if there are no pending writes
+     */
+    public long getLagMillis() {
+        lock.lock();
+        try {
+            Iterator<PendingWrite> iterator = pendingWrites.values().iterator();
+            return iterator.hasNext() ? System.currentTimeMillis() - iterator.next().acceptedTime : 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getFlushedWriteCount() {
+        return flushedWriteCount.get();
+    }
+
+    public long getFailedWriteCount() {
+        return failedWriteCount.get();
+    }
+
+    private enum WriteType {
+        ADD, ADD_OR_UPDATE, UPDATE, REMOVE
+    }
+
+    private static class PendingWrite {
+        private final WriteType type;
+        private final StorableKey key;
+        private final Storable storable;
+        private final long acceptedTime;
+        // failed attempts to write it
+        private final int attempts;
+
+        PendingWrite(WriteType type, StorableKey key, Storable storable) {
+            this(type, key, storable, System.currentTimeMillis(), 0);
+        }
+
+        private PendingWrite(WriteType type, StorableKey key, Storable storable, long acceptedTime, int attempts) {
+            this.type = type;
+            this.key = key;
+            this.storable = storable;
+            this.acceptedTime = acceptedTime;
+            this.attempts = attempts;
+        }
+
+        PendingWrite nextAttempt() {
+            return new PendingWrite(type, key, storable, acceptedTime, attempts + 1);
+        }
+
+        /**
+         * @return the write which has the effect of this write followed by the given write, or null if there is
+         * nothing to write
+         */
+        PendingWrite coalesce(PendingWrite next) {
+            if (type == WriteType.ADD) {
+                if (next.type == WriteType.REMOVE) {
+                    // storable was never written
+                    return null;
+                }
+                return new PendingWrite(WriteType.ADD, key, next.storable, acceptedTime, 0);
+            }
+            if (type == WriteType.REMOVE && next.type == WriteType.ADD) {
+                // storable still exists in the storage
+                return new PendingWrite(WriteType.ADD_OR_UPDATE, key, next.storable, acceptedTime, 0);
+            }
+            return new PendingWrite(next.type, key, next.storable, acceptedTime, 0);
+        }
+
+        void writeTo(StorageManager dao) {
+            switch (type) {
+                case ADD:
+                    dao.add(storable);
+                    break;
+                case ADD_OR_UPDATE:
+                    dao.addOrUpdate(storable);
+                    break;
+                case UPDATE:
+                    dao.update(storable);
+                    break;
+                case REMOVE:
+                    dao.remove(key);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown write type " + type);
+            }
+        }
     }
 }
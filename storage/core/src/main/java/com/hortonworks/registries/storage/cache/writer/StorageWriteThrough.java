@@ -3,6 +3,7 @@ package com.hortonworks.registries.storage.cache.writer;
 import com.hortonworks.registries.storage.Storable;
 import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.StorageManager;
+import com.hortonworks.registries.storage.TransactionManager;
 
 /**
  * Created by hlouro on 8/7/15.
@@ -30,4 +31,17 @@ public class StorageWriteThrough implements StorageWriter {
     public Object remove(StorableKey key) {
         return dao.remove(key);
     }
+
+    /**
+     * Writes are done in the transaction of the caller, the action runs once that transaction completes.
+     */
+    @Override
+    public void afterWritten(Runnable action) {
+        if (dao instanceof TransactionManager) {
+            ((TransactionManager) dao).afterCommit(action);
+            ((TransactionManager) dao).afterRollback(action);
+        } else {
+            action.run();
+        }
+    }
 }
@@ -27,5 +27,22 @@ public interface StorageWriter {
 
     void update(Storable storable);
 
+    /**
+     * @return the removed storable, or null if there was no storable with the given key
+     */
     Object remove(StorableKey key);
+
+    /**
+     * Writes all the writes accepted before this call to the storage, outside of the transaction of the caller.
+     * Writers which write synchronously have nothing to flush.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Runs the given action once the writes accepted before this call are written to the storage and committed.
+     */
+    default void afterWritten(Runnable action) {
+        action.run();
+    }
 }
@@ -0,0 +1,266 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package com.hortonworks.registries.storage.catalog;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Primitives;
+import com.hortonworks.registries.common.Schema;
+import com.hortonworks.registries.common.exception.ParserException;
+import com.hortonworks.registries.common.util.ReflectionHelper;
+import com.hortonworks.registries.storage.annotation.SchemaIgnore;
+import com.hortonworks.registries.storage.exception.StorageException;
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Property accessors of a {@link AbstractStorable} class, resolved once per class and shared by all its instances.
+ * <p>
+ * Getters and setters are looked up with the same POJO conventions as {@link ReflectionHelper#invokeGetter(String, Object)}
+ * and {@link ReflectionHelper#invokeSetter(String, Object, Object)}, but the lookup is done only once and the resolved
+ * methods are invoked through {@link MethodHandle}s.
+ */
+final class StorableAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    // types for which the schema type of a non null value is the same as the one of its declared type
+    private static final Map<Class<?>, Schema.Type> STATIC_TYPES = ImmutableMap.<Class<?>, Schema.Type>builder()
+            .put(String.class, Schema.Type.STRING)
+            .put(Short.class, Schema.Type.SHORT)
+            .put(Byte.class, Schema.Type.BYTE)
+            .put(Float.class, Schema.Type.FLOAT)
+            .put(Long.class, Schema.Type.LONG)
+            .put(Double.class, Schema.Type.DOUBLE)
+            .put(Integer.class, Schema.Type.INTEGER)
+            .put(Boolean.class, Schema.Type.BOOLEAN)
+            .put(byte[].class, Schema.Type.BINARY)
+            .build();
+
+    private static final ClassValue<StorableAccessor> ACCESSORS = new ClassValue<StorableAccessor>() {
+        @Override
+        protected StorableAccessor computeValue(Class<?> type) {
+            return new StorableAccessor(type);
+        }
+    };
+
+    private final Class<?> clazz;
+    private final Map<String, List<Method>> settersByName;
+    private final Map<String, Property> properties;
+    // schema fields when the schema type of every field can be derived from its declared type, null otherwise
+    private final List<Schema.Field> schemaFields;
+
+    private StorableAccessor(Class<?> clazz) {
+        this.clazz = clazz;
+        this.settersByName = getSetters(clazz);
+        Map<String, Property> properties = new LinkedHashMap<>();
+        for (Map.Entry<String, Class> entry : ReflectionHelper.getFieldNamesToTypes(clazz).entrySet()) {
+            String name = entry.getKey();
+            List<Method> setters = settersByName.getOrDefault(setterName(name), Collections.emptyList());
+            properties.put(name, new Property(clazz, name, entry.getValue(), setters));
+        }
+        this.properties = Collections.unmodifiableMap(properties);
+        this.schemaFields = createStaticSchemaFields();
+    }
+
+    static StorableAccessor of(Class<?> clazz) {
+        return ACCESSORS.get(clazz);
+    }
+
+    Map<String, Object> toMap(Object storable) {
+        Map<String, Object> fieldToVal = new HashMap<>();
+        for (Property property : properties.values()) {
+            fieldToVal.put(property.name, property.get(storable));
+        }
+        return fieldToVal;
+    }
+
+    void set(Object storable, String name, Object value) {
+        Property property = properties.get(name);
+        MethodHandle setter = property != null
+                ? property.getSetter(value.getClass())
+                : findSetter(clazz, setterName(name), settersByName.get(setterName(name)), value.getClass());
+        try {
+            setter.invokeExact(storable, value);
+        } catch (Throwable e) {
+            throw new StorageException(e);
+        }
+    }
+
+    Schema getSchema(Object storable) {
+        if (schemaFields != null) {
+            return Schema.of(new ArrayList<>(schemaFields));
+        }
+
+        List<Schema.Field> fields = new ArrayList<>();
+        for (Property property : properties.values()) {
+            property.checkSchemaField();
+            if (!property.schemaIgnore) {
+                Object val = property.get(storable);
+                try {
+                    Schema.Type type = val != null ? Schema.fromJavaType(val) : Schema.fromJavaType(property.type);
+                    fields.add(new Schema.Field(property.name, type));
+                } catch (ParserException e) {
+                    throw new StorageException(e);
+                }
+            }
+        }
+        return Schema.of(fields);
+    }
+
+    private List<Schema.Field> createStaticSchemaFields() {
+        List<Schema.Field> fields = new ArrayList<>();
+        for (Property property : properties.values()) {
+            if (property.schemaFieldError != null || property.getterError != null) {
+                return null;
+            }
+            if (!property.schemaIgnore) {
+                Schema.Type type = STATIC_TYPES.get(Primitives.wrap(property.type));
+                if (type == null) {
+                    return null;
+                }
+                fields.add(new Schema.Field(property.name, type));
+            }
+        }
+        return Collections.unmodifiableList(fields);
+    }
+
+    private static String setterName(String propertyName) {
+        return "set" + StringUtils.capitalize(propertyName);
+    }
+
+    private static Map<String, List<Method>> getSetters(Class<?> clazz) {
+        Map<String, List<Method>> setters = new LinkedHashMap<>();
+        for (Method method : clazz.getMethods()) {
+            if (method.getName().startsWith("set") && method.getParameterCount() == 1) {
+                setters.computeIfAbsent(method.getName(), x -> new ArrayList<>()).add(method);
+            }
+        }
+        return setters;
+    }
+
+    private static MethodHandle findSetter(Class<?> clazz, String setterName, List<Method> setters, Class<?> valueClass) {
+        Method method = null;
+        try {
+            // exact match on the value class is preferred, same as Class#getMethod
+            method = clazz.getMethod(setterName, valueClass);
+        } catch (NoSuchMethodException e) {
+            // try setters that accept super types
+            if (setters != null) {
+                for (Method setter : setters) {
+                    if (setter.getParameterTypes()[0].isAssignableFrom(valueClass)) {
+                        method = setter;
+                        break;
+                    }
+                }
+            }
+            if (method == null) {
+                throw new StorageException(e);
+            }
+        }
+        return unreflect(method, SETTER_TYPE);
+    }
+
+    private static MethodHandle unreflect(Method method, MethodType type) {
+        try {
+            return MethodHandles.publicLookup().unreflect(method).asType(type);
+        } catch (IllegalAccessException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    private static final class Property {
+        private final Class<?> clazz;
+        private final String name;
+        private final Class<?> type;
+        private final List<Method> setters;
+        private final MethodHandle getter;
+        private final Exception getterError;
+        private final boolean schemaIgnore;
+        private final Exception schemaFieldError;
+        private final ConcurrentMap<Class<?>, MethodHandle> settersByValueClass = new ConcurrentHashMap<>();
+
+        Property(Class<?> clazz, String name, Class<?> type, List<Method> setters) {
+            this.clazz = clazz;
+            this.name = name;
+            this.type = type;
+            this.setters = setters;
+
+            MethodHandle getter = null;
+            Exception getterError = null;
+            try {
+                getter = unreflect(clazz.getMethod("get" + StringUtils.capitalize(name)), GETTER_TYPE);
+            } catch (NoSuchMethodException e) {
+                getterError = e;
+            } catch (StorageException e) {
+                getterError = (Exception) e.getCause();
+            }
+            this.getter = getter;
+            this.getterError = getterError;
+
+            // schema is built only from the fields declared in the storable class itself
+            boolean schemaIgnore = false;
+            Exception schemaFieldError = null;
+            try {
+                Field field = clazz.getDeclaredField(name);
+                schemaIgnore = field.getAnnotation(SchemaIgnore.class) != null;
+            } catch (NoSuchFieldException e) {
+                schemaFieldError = e;
+            }
+            this.schemaIgnore = schemaIgnore;
+            this.schemaFieldError = schemaFieldError;
+        }
+
+        Object get(Object storable) {
+            if (getter == null) {
+                throw new StorageException(getterError);
+            }
+            try {
+                return getter.invokeExact(storable);
+            } catch (Throwable e) {
+                throw new StorageException(e);
+            }
+        }
+
+        MethodHandle getSetter(Class<?> valueClass) {
+            MethodHandle setter = settersByValueClass.get(valueClass);
+            if (setter == null) {
+                setter = findSetter(clazz, setterName(name), setters, valueClass);
+                settersByValueClass.putIfAbsent(valueClass, setter);
+            }
+            return setter;
+        }
+
+        void checkSchemaField() {
+            if (schemaFieldError != null) {
+                throw new StorageException(schemaFieldError);
+            }
+        }
+    }
+}
@@ -15,26 +15,62 @@
  **/
 package com.hortonworks.registries.storage.filestorage;
 
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
 import com.hortonworks.registries.common.util.FileStorage;
+import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.StorageManager;
 import com.hortonworks.registries.storage.StorageManagerAware;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
- * DB based file storage that stores the file as a blob.
+ * DB based file storage that stores the content of a file in chunks, with a {@link FileBlob} referring to its
+ * {@link FileBlobChunk}s. Files are uploaded and downloaded one chunk at a time, so the memory used for a file is bounded
+ * by the chunk size. Files stored as a single blob are still downloaded from that blob.
+ * <p>
+ * Content uploaded by its digest is looked up before it is stored, content larger than a chunk is copied to a local
+ * temporary file to compute its digest first.
+ * <p>
+ * Chunks are written as they are read, the chunks of an upload which fails are removed. Chunks of an upload which is
+ * interrupted by a crash of the server are not referred by any file blob and are not removed.
  */
 public class DbFileStorage implements FileStorage, StorageManagerAware {
     private static final Logger LOG = LoggerFactory.getLogger(DbFileStorage.class);
+
+    public static final String CONFIG_CHUNK_SIZE = "chunkSize";
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    private static final byte[] NO_DATA = new byte[0];
+
     private StorageManager dao;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
 
     @Override
     public void init(Map<String, String> config) {
+        String chunkSizeConfig = config.get(CONFIG_CHUNK_SIZE);
+        if (chunkSizeConfig != null) {
+            chunkSize = Integer.parseInt(chunkSizeConfig);
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException(CONFIG_CHUNK_SIZE + " should be greater than zero but it is: " + chunkSize);
+            }
+        }
     }
 
     @Override
@@ -45,35 +81,148 @@ public class DbFileStorage implements FileStorage, StorageManagerAware {
         if (existing.isPresent()) {
             LOG.debug("Updating existing file '{}'", name);
             FileBlob updated = new FileBlob(existing.get());
-            updated.setData(inputStream);
+            addChunks(inputStream, updated);
             updated.setVersion(existing.get().getVersion() + 1);
             updated.setTimestamp(System.currentTimeMillis());
-            dao.update(updated);
+            try {
+                dao.update(updated);
+            } catch (RuntimeException e) {
+                removeChunksQuietly(updated);
+                throw e;
+            }
+            removeChunks(existing.get());
         } else {
             LOG.debug("Adding new file '{}'", name);
             FileBlob fileBlob = new FileBlob();
             fileBlob.setName(name);
             fileBlob.setTimestamp(System.currentTimeMillis());
             fileBlob.setVersion(0L);
-            fileBlob.setData(inputStream);
-            dao.add(fileBlob);
+            addChunks(inputStream, fileBlob);
+            try {
+                dao.add(fileBlob);
+            } catch (RuntimeException e) {
+                removeChunksQuietly(fileBlob);
+                throw e;
+            }
         }
         LOG.debug("Uploaded '{}' in '{}' milliseconds", name, (System.nanoTime() - start)/1000000);
         return name;
     }
 
+    @Override
+    public String uploadContent(InputStream inputStream) throws IOException {
+        long start = System.nanoTime();
+        HashingInputStream hashingInputStream = new HashingInputStream(Hashing.sha256(), inputStream);
+        byte[] firstChunk = new byte[chunkSize];
+        int firstChunkSize = ByteStreams.read(hashingInputStream, firstChunk, 0, chunkSize);
+        if (firstChunkSize < chunkSize) {
+            String name = hashingInputStream.hash().toString();
+            addContent(name, new ByteArrayInputStream(firstChunk, 0, firstChunkSize));
+            LOG.debug("Uploaded '{}' in '{}' milliseconds", name, (System.nanoTime() - start)/1000000);
+            return name;
+        }
+
+        // content larger than a chunk is copied to a local temporary file, so that it is looked up by its digest
+        // before any of its chunks are stored
+        File tempFile = File.createTempFile("upload-", ".tmp");
+        try {
+            try (OutputStream outputStream = new FileOutputStream(tempFile)) {
+                outputStream.write(firstChunk, 0, firstChunkSize);
+                ByteStreams.copy(hashingInputStream, outputStream);
+            }
+            String name = hashingInputStream.hash().toString();
+            try (InputStream tempInputStream = new FileInputStream(tempFile)) {
+                addContent(name, tempInputStream);
+            }
+            LOG.debug("Uploaded '{}' in '{}' milliseconds", name, (System.nanoTime() - start)/1000000);
+            return name;
+        } finally {
+            if (!tempFile.delete()) {
+                LOG.warn("Failed to delete temporary file '{}'", tempFile);
+            }
+        }
+    }
+
+    /**
+     * Stores the given content with the given name, unless a file with that name already exists.
+     */
+    private void addContent(String name, InputStream content) throws IOException {
+        if (exists(name)) {
+            LOG.debug("File '{}' with the same content already exists", name);
+            return;
+        }
+
+        FileBlob fileBlob = new FileBlob();
+        addChunks(content, fileBlob);
+        fileBlob.setName(name);
+        fileBlob.setTimestamp(System.currentTimeMillis());
+        fileBlob.setVersion(0L);
+        try {
+            dao.add(fileBlob);
+        } catch (RuntimeException e) {
+            // the same content may have been added concurrently
+            boolean added = false;
+            try {
+                added = exists(name);
+            } catch (RuntimeException ex) {
+                e.addSuppressed(ex);
+            }
+            removeChunksQuietly(fileBlob);
+            if (!added) {
+                throw e;
+            }
+            LOG.debug("File '{}' with the same content was added concurrently", name);
+        }
+    }
+
     @Override
     public InputStream download(String name) throws IOException {
         LOG.debug("Downloading file '{}'", name);
         FileBlob res = get(name)
                 .orElseThrow(() -> new IOException("Not able to get file blob with name : " + name));
-        return res.getData();
+        if (res.getContentId() == null) {
+            return res.getData();
+        }
+
+        // chunks are loaded when they are reached while reading the stream
+        List<ByteSource> chunks = new ArrayList<>(res.getChunks());
+        for (int i = 0; i < res.getChunks(); i++) {
+            StorableKey chunkKey = FileBlobChunk.getStorableKey(res.getContentId(), i);
+            chunks.add(new ByteSource() {
+                @Override
+                public InputStream openStream() throws IOException {
+                    FileBlobChunk chunk = dao.get(chunkKey);
+                    if (chunk == null) {
+                        throw new IOException("Not able to get chunk " + chunkKey + " of file blob with name : " + name);
+                    }
+                    return chunk.getData();
+                }
+            });
+        }
+        return ByteSource.concat(chunks).openStream();
+    }
+
+    @Override
+    public long size(String name) throws IOException {
+        FileBlob res = get(name)
+                .orElseThrow(() -> new IOException("Not able to get file blob with name : " + name));
+        if (res.getContentId() == null) {
+            try (InputStream data = res.getData()) {
+                return ByteStreams.exhaust(data);
+            }
+        }
+        return res.getSize();
     }
 
     @Override
     public boolean delete(String name) throws IOException {
         LOG.debug("Deleting file '{}'", name);
-        return dao.remove(FileBlob.getStorableKey(name)) != null;
+        FileBlob removed = dao.remove(FileBlob.getStorableKey(name));
+        if (removed == null) {
+            return false;
+        }
+        removeChunks(removed);
+        return true;
     }
 
     @Override
@@ -85,6 +234,64 @@ public class DbFileStorage implements FileStorage, StorageManagerAware {
         return Optional.ofNullable(dao.get(FileBlob.getStorableKey(name)));
     }
 
+    /**
+     * Stores the content of the given stream in chunks with a new content id, and sets that content on the given blob.
+     * Chunks which are already stored are removed when the content can not be stored completely.
+     */
+    private void addChunks(InputStream inputStream, FileBlob fileBlob) throws IOException {
+        String contentId = UUID.randomUUID().toString();
+        byte[] buffer = new byte[chunkSize];
+        int chunks = 0;
+        long size = 0;
+        int read;
+        try {
+            while ((read = ByteStreams.read(inputStream, buffer, 0, chunkSize)) > 0) {
+                // chunk data is copied as storage managers may keep it after this call
+                dao.add(new FileBlobChunk(contentId, chunks, Arrays.copyOf(buffer, read)));
+                chunks++;
+                size += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                removeChunks(contentId, chunks);
+            } catch (RuntimeException ex) {
+                e.addSuppressed(ex);
+            }
+            throw e;
+        }
+
+        fileBlob.setContentId(contentId);
+        fileBlob.setChunks(chunks);
+        fileBlob.setSize(size);
+        fileBlob.setData(NO_DATA);
+    }
+
+    private void removeChunks(FileBlob fileBlob) {
+        if (fileBlob.getContentId() == null) {
+            return;
+        }
+        removeChunks(fileBlob.getContentId(), fileBlob.getChunks());
+    }
+
+    private void removeChunksQuietly(FileBlob fileBlob) {
+        try {
+            removeChunks(fileBlob);
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to remove the chunks of content '{}'", fileBlob.getContentId(), e);
+        }
+    }
+
+    private void removeChunks(String contentId, int chunks) {
+        if (chunks == 0) {
+            return;
+        }
+        List<StorableKey> chunkKeys = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            chunkKeys.add(FileBlobChunk.getStorableKey(contentId, i));
+        }
+        dao.removeAll(chunkKeys);
+    }
+
     @Override
     public void setStorageManager(StorageManager storageManager) {
         this.dao = storageManager;
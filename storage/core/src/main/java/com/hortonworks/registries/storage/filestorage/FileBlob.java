@@ -28,7 +28,8 @@ import java.io.InputStream;
 import java.util.Collections;
 
 /**
- * Storable for storing any kind of files as Blobs into the underlying Db.
+ * Storable for storing any kind of files as Blobs into the underlying Db. Content of the file is either stored in this
+ * blob, or in the {@link FileBlobChunk}s of the content id of this blob.
  */
 @StorableEntity
 public class FileBlob extends AbstractStorable {
@@ -45,6 +46,12 @@ public class FileBlob extends AbstractStorable {
 
     private Long timestamp;
 
+    private String contentId;
+
+    private Integer chunks;
+
+    private Long size;
+
     public FileBlob() {
     }
 
@@ -52,6 +59,9 @@ public class FileBlob extends AbstractStorable {
         version = other.version;
         name = other.name;
         timestamp = other.timestamp;
+        contentId = other.contentId;
+        chunks = other.chunks;
+        size = other.size;
     }
 
     public Long getVersion() {
@@ -90,6 +100,39 @@ public class FileBlob extends AbstractStorable {
         this.timestamp = timestamp;
     }
 
+    /**
+     * @return id of the chunks of the content, null if the content is stored in this blob
+     */
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(String contentId) {
+        this.contentId = contentId;
+    }
+
+    /**
+     * @return number of the chunks of the content
+     */
+    public Integer getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(Integer chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * @return size of the content in bytes
+     */
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+
     @JsonIgnore
     @Override
     public String getNameSpace() {
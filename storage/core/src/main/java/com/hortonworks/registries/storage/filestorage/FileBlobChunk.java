@@ -0,0 +1,106 @@
+/**
+ * Copyright 2017-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+
+ *   http://www.apache.org/licenses/LICENSE-2.0
+
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage.filestorage;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hortonworks.registries.common.Schema;
+import com.hortonworks.registries.storage.PrimaryKey;
+import com.hortonworks.registries.storage.StorableKey;
+import com.hortonworks.registries.storage.annotation.StorableEntity;
+import com.hortonworks.registries.storage.catalog.AbstractStorable;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Storable for storing a part of the content of a {@link FileBlob}, so that the content is written and read one chunk
+ * at a time.
+ */
+@StorableEntity
+public class FileBlobChunk extends AbstractStorable {
+    public static final String NAMESPACE = "fileblob_chunk";
+
+    private static final String CONTENT_ID = "contentId";
+    private static final String SEQUENCE = "sequence";
+
+    private String contentId;
+
+    private Integer sequence;
+
+    private InputStream data;
+
+    public FileBlobChunk() {
+    }
+
+    public FileBlobChunk(String contentId, Integer sequence, byte[] data) {
+        this.contentId = contentId;
+        this.sequence = sequence;
+        this.data = new ByteArrayInputStream(data);
+    }
+
+    public String getContentId() {
+        return contentId;
+    }
+
+    public void setContentId(String contentId) {
+        this.contentId = contentId;
+    }
+
+    public Integer getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Integer sequence) {
+        this.sequence = sequence;
+    }
+
+    public InputStream getData() {
+        return data;
+    }
+
+    public void setData(InputStream data) {
+        this.data = data;
+    }
+
+    @JsonIgnore
+    @Override
+    public String getNameSpace() {
+        return NAMESPACE;
+    }
+
+    @Override
+    public PrimaryKey getPrimaryKey() {
+        return getPrimaryKey(contentId, sequence);
+    }
+
+    public static StorableKey getStorableKey(String contentId, Integer sequence) {
+        return new StorableKey(NAMESPACE, getPrimaryKey(contentId, sequence));
+    }
+
+    private static PrimaryKey getPrimaryKey(String contentId, Integer sequence) {
+        Map<Schema.Field, Object> fieldToObjectMap = new HashMap<>();
+        fieldToObjectMap.put(new Schema.Field(CONTENT_ID, Schema.Type.STRING), contentId);
+        fieldToObjectMap.put(new Schema.Field(SEQUENCE, Schema.Type.INTEGER), sequence);
+        return new PrimaryKey(fieldToObjectMap);
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+}
@@ -18,6 +18,7 @@ package com.hortonworks.registries.storage.impl.jdbc;
 
 import com.hortonworks.registries.common.QueryParam;
 import com.hortonworks.registries.common.Schema;
+import com.hortonworks.registries.common.SlotSynchronizer;
 import com.hortonworks.registries.storage.common.DatabaseType;
 import com.hortonworks.registries.storage.transaction.TransactionIsolation;
 import com.hortonworks.registries.storage.OrderByField;
@@ -34,15 +35,20 @@ import com.hortonworks.registries.storage.impl.jdbc.provider.QueryExecutorFactor
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.factory.QueryExecutor;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.SqlSelectQuery;
 import com.hortonworks.registries.storage.impl.jdbc.util.Columns;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.SearchQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
@@ -50,8 +56,15 @@ import java.util.function.Supplier;
 public class JdbcStorageManager implements TransactionManager, StorageManager {
     private static final Logger log = LoggerFactory.getLogger(StorageManager.class);
     public static final String DB_TYPE = "db.type";
+    private static final long MIN_LOCK_POLL_INTERVAL_MS = 10L;
+    private static final long MAX_LOCK_POLL_INTERVAL_MS = 500L;
 
     private final StorableFactory storableFactory = new StorableFactory();
+    // column types of namespaces, these are used to build typed query parameters for each find.
+    private final ConcurrentMap<String, Columns> columnsByNamespace = new ConcurrentHashMap<>();
+    // in-process write locks, contenders on the same node wait for each other here instead of polling the database.
+    private final SlotSynchronizer<StorableKey> writeLockSlots = new SlotSynchronizer<>();
+    private final ThreadLocal<CurrentTransaction> currentTransaction = ThreadLocal.withInitial(CurrentTransaction::new);
     private QueryExecutor queryExecutor;
 
     public JdbcStorageManager() {
@@ -68,6 +81,12 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
         queryExecutor.insert(storable);
     }
 
+    @Override
+    public void addAll(Collection<? extends Storable> storables) throws StorageException {
+        log.debug("Adding [{}] storables", storables.size());
+        queryExecutor.insertAll(storables);
+    }
+
     @Override
     public <T extends Storable> T remove(StorableKey key) throws StorageException {
         T oldVal = get(key);
@@ -78,6 +97,12 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
         return oldVal;
     }
 
+    @Override
+    public void removeAll(Collection<StorableKey> keys) throws StorageException {
+        log.debug("Removing storable keys [{}]", keys);
+        queryExecutor.deleteAll(keys);
+    }
+
     @Override
     public void addOrUpdate(Storable storable) throws StorageException {
         log.debug("Adding or updating storable [{}]", storable);
@@ -118,17 +143,50 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
         }
     }
 
+    /**
+     * Obtains the write lock in two steps. The lock is first taken in-process for the given key, so that threads of this
+     * node contending for the same row queue up without touching the database, and then on the database row.
+     * The in-process lock is held until the current transaction is committed or rolled back, same as the row lock.
+     */
     @Override
     public boolean writeLock(StorableKey key, Long time, TimeUnit timeUnit) {
         log.debug("Obtaining a write lock for entry with storable key [{}]", key);
 
-        Supplier<Collection<Storable>> supplier = () -> queryExecutor.selectForUpdate(key);
+        long timeoutInMillis = TimeUnit.MILLISECONDS.convert(time, timeUnit);
+        if (timeoutInMillis < 0) {
+            throw new IllegalArgumentException("Wait time for obtaining the lock can't be negative");
+        }
 
+        long startTime = System.currentTimeMillis();
+        SlotSynchronizer<StorableKey>.Lock slotLock;
         try {
-            return getLock(supplier, time, timeUnit);
+            slotLock = writeLockSlots.tryLockSlot(key, timeoutInMillis, TimeUnit.MILLISECONDS);
         } catch (InterruptedException e) {
             throw new StorageException("Failed to obtain a write lock for storable key : " + key);
         }
+        if (slotLock == null) {
+            log.debug("Failed to obtain the in-process write lock for storable key [{}] in {} ms", key, timeoutInMillis);
+            return false;
+        }
+
+        boolean isLocked = false;
+        try {
+            Supplier<Collection<Storable>> supplier = () -> queryExecutor.selectForUpdate(key);
+            long remainingTime = Math.max(0L, timeoutInMillis - (System.currentTimeMillis() - startTime));
+            isLocked = getLock(supplier, remainingTime, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            throw new StorageException("Failed to obtain a write lock for storable key : " + key);
+        } finally {
+            CurrentTransaction transaction = currentTransaction.get();
+            if (isLocked && transaction.depth > 0) {
+                transaction.slotLocks.add(slotLock);
+            } else {
+                // without a transaction the row lock is not held either
+                slotLock.unlock();
+            }
+        }
+
+        return isLocked;
     }
 
     private boolean getLock(Supplier<Collection<Storable>> supplier, Long time, TimeUnit timeUnit) throws InterruptedException {
@@ -138,14 +196,23 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
             throw new IllegalArgumentException("Wait time for obtaining the lock can't be negative");
         }
 
+        // databases which block on the row lock return as soon as it is released, polling is only needed when the row
+        // does not exist yet or the lock is skipped. Back off from a short interval so that short waits are not
+        // rounded up to the maximum interval.
+        long sleepTime = MIN_LOCK_POLL_INTERVAL_MS;
         long startTime = System.currentTimeMillis();
         do {
             Collection<Storable> storables = supplier.get();
             if (storables != null && !storables.isEmpty()) {
                 return true;
-            } else {
-                Thread.sleep(500);
             }
+
+            long timeLeft = remainingTime - (System.currentTimeMillis() - startTime);
+            if (timeLeft <= 0) {
+                break;
+            }
+            Thread.sleep(Math.min(sleepTime, timeLeft));
+            sleepTime = Math.min(sleepTime * 2, MAX_LOCK_POLL_INTERVAL_MS);
         } while((System.currentTimeMillis() - startTime) < remainingTime);
 
 
@@ -191,6 +258,16 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
         return queryExecutor.select(searchQuery);
     }
 
+    @Override
+    public long count(SearchQuery searchQuery) {
+        return (Long) queryExecutor.selectAggregate(searchQuery, Aggregate.count());
+    }
+
+    @Override
+    public <V extends Comparable<? super V>> V max(SearchQuery searchQuery, String fieldName) {
+        return (V) queryExecutor.selectAggregate(searchQuery, Aggregate.max(fieldName));
+    }
+
     private <T extends Storable> Collection<T> list(String namespace, List<OrderByField> orderByFields) {
         log.debug("Listing entries for table [{}]", namespace);
         final Collection<T> entries = queryExecutor.select(namespace, orderByFields);
@@ -216,9 +293,24 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
         return queryExecutor.nextId(namespace);
     }
 
+    @Override
+    public List<Long> nextIds(String namespace, int count) {
+        log.debug("Finding [{}] next ids for table [{}]", count, namespace);
+        return queryExecutor.nextIds(namespace, count);
+    }
+
     @Override
     public void registerStorables(Collection<Class<? extends Storable>> classes) throws StorageException {
         storableFactory.addStorableClasses(classes);
+        invalidateColumns();
+    }
+
+    /**
+     * Discards the column types of namespaces loaded by this storage manager, so that they are loaded again from the
+     * database on the next find. This should be invoked when tables are altered, for ex: after a schema migration.
+     */
+    public void invalidateColumns() {
+        columnsByNamespace.clear();
     }
 
     // private helper methods
@@ -236,7 +328,7 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
         StorableKey storableKey = null;
 
         try {
-            Columns columns = queryExecutor.getColumns(namespace);
+            Columns columns = getColumns(namespace);
             for (QueryParam qp : queryParams) {
                 Schema.Type type = columns.getType(qp.getName());
                 if (type == null) {
@@ -263,6 +355,19 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
         return storableKey;
     }
 
+    /**
+     * Returns column types of the given namespace. Those are loaded from the table metadata on first use and kept for
+     * the lifetime of this storage manager, so that each find does not need another round trip to the database.
+     */
+    private Columns getColumns(String namespace) throws SQLException {
+        Columns columns = columnsByNamespace.get(namespace);
+        if (columns == null) {
+            columns = queryExecutor.getColumns(namespace);
+            columnsByNamespace.put(namespace, columns);
+        }
+        return columns;
+    }
+
     /**
      * Initializes this instance with {@link QueryExecutor} created from the given {@code properties}.
      * Some of these properties are jdbcDriverClass, jdbcUrl, queryTimeoutInSecs.
@@ -289,6 +394,7 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
     @Override
     public void beginTransaction(TransactionIsolation transactionIsolationLevel) {
         queryExecutor.beginTransaction(transactionIsolationLevel);
+        currentTransaction.get().depth++;
     }
 
     @Override
@@ -299,11 +405,75 @@ public class JdbcStorageManager implements TransactionManager, StorageManager {
 
         // Another implementations of QueryExecutor should provide a way of guaranteeing the
         // behavior, like call closeConnection() when rollbackTransaction() is failing.
-        queryExecutor.rollbackTransaction();
+        currentTransaction.get().rolledBack = true;
+        try {
+            queryExecutor.rollbackTransaction();
+        } finally {
+            endTransaction();
+        }
     }
 
     @Override
     public void commitTransaction() {
-        queryExecutor.commitTransaction();
+        try {
+            queryExecutor.commitTransaction();
+        } catch (RuntimeException e) {
+            currentTransaction.get().rolledBack = true;
+            throw e;
+        } finally {
+            // AbstractQueryExecutor closes the transaction even when the commit fails
+            endTransaction();
+        }
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        CurrentTransaction transaction = currentTransaction.get();
+        if (transaction.depth > 0) {
+            transaction.afterCommitActions.add(action);
+        } else {
+            currentTransaction.remove();
+            action.run();
+        }
+    }
+
+    @Override
+    public void afterRollback(Runnable action) {
+        CurrentTransaction transaction = currentTransaction.get();
+        if (transaction.depth > 0) {
+            transaction.afterRollbackActions.add(action);
+        } else {
+            currentTransaction.remove();
+        }
+    }
+
+    // releases the in-process write locks and runs the completion actions once the outermost transaction of the current
+    // thread is closed, a rollback of a nested transaction rolls back the outermost one.
+    private void endTransaction() {
+        CurrentTransaction transaction = currentTransaction.get();
+        transaction.depth = Math.max(0, transaction.depth - 1);
+        if (transaction.depth == 0) {
+            for (int i = transaction.slotLocks.size() - 1; i >= 0; i--) {
+                transaction.slotLocks.get(i).unlock();
+            }
+            currentTransaction.remove();
+
+            List<Runnable> actions = transaction.rolledBack ? transaction.afterRollbackActions : transaction.afterCommitActions;
+            for (Runnable action : actions) {
+                try {
+                    action.run();
+                } catch (Exception e) {
+                    log.error("Failed to run the action after completion of the transaction", e);
+                }
+            }
+        }
+    }
+
+    private static class CurrentTransaction {
+        private int depth;
+        private boolean rolledBack;
+        private final List<SlotSynchronizer<StorableKey>.Lock> slotLocks = new ArrayList<>();
+        private final List<Runnable> afterCommitActions = new ArrayList<>();
+        private final List<Runnable> afterRollbackActions = new ArrayList<>();
     }
 }
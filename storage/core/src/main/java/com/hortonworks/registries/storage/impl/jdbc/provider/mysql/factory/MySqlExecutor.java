@@ -16,6 +16,7 @@
 package com.hortonworks.registries.storage.impl.jdbc.provider.mysql.factory;
 
 import com.google.common.cache.CacheBuilder;
+import com.hortonworks.registries.common.Schema;
 import com.hortonworks.registries.storage.OrderByField;
 import com.hortonworks.registries.storage.Storable;
 import com.hortonworks.registries.storage.StorableKey;
@@ -31,10 +32,12 @@ import com.hortonworks.registries.storage.impl.jdbc.provider.mysql.query.MysqlUp
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.factory.AbstractQueryExecutor;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.SqlQuery;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.statement.PreparedStatementBuilder;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.SearchQuery;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * SQL query executor for MySQL DB.
@@ -72,6 +75,11 @@ public class MySqlExecutor extends AbstractQueryExecutor {
         insertOrUpdateWithUniqueId(storable, new MySqlInsertQuery(storable));
     }
 
+    @Override
+    public void insertAll(Collection<? extends Storable> storables) {
+        executeBatch(storables.stream().map(MySqlInsertQuery::new).collect(Collectors.toList()), true);
+    }
+
     @Override
     public void insertOrUpdate(final Storable storable) {
         insertOrUpdateWithUniqueId(storable, new MySqlInsertUpdateDuplicate(storable));
@@ -93,6 +101,12 @@ public class MySqlExecutor extends AbstractQueryExecutor {
         return executeQuery(searchQuery.getNameSpace(), new MySqlSelectQuery(searchQuery, storableFactory.create(searchQuery.getNameSpace()).getSchema()));
     }
 
+    @Override
+    public Object selectAggregate(SearchQuery searchQuery, Aggregate aggregate) {
+        Schema schema = storableFactory.create(searchQuery.getNameSpace()).getSchema();
+        return executeAggregateQuery(new MySqlSelectQuery(searchQuery, schema, aggregate), schema, aggregate);
+    }
+
     @Override
     public <T extends Storable> Collection<T> select(String namespace) {
         return executeQuery(namespace, new MySqlSelectQuery(namespace));
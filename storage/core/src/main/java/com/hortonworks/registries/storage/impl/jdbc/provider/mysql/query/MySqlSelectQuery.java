@@ -19,12 +19,14 @@ import com.hortonworks.registries.common.Schema;
 import com.hortonworks.registries.storage.OrderByField;
 import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.AbstractSelectQuery;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.SearchQuery;
 
 import java.util.List;
 import java.util.stream.Collectors;
 
 public class MySqlSelectQuery extends AbstractSelectQuery {
+    private static final String MAX_LIMIT = "18446744073709551615";
 
     public MySqlSelectQuery(String nameSpace) {
         super(nameSpace);
@@ -46,11 +48,24 @@ public class MySqlSelectQuery extends AbstractSelectQuery {
         super(searchQuery, schema);
     }
 
+    public MySqlSelectQuery(SearchQuery searchQuery, Schema schema, Aggregate aggregate) {
+        super(searchQuery, schema, aggregate);
+    }
+
     @Override
     protected String fieldEncloser() {
         return "`";
     }
 
+    @Override
+    protected String limitSql(String sql, Integer limit, Integer offset) {
+        // MySQL does not support OFFSET without LIMIT, the largest limit is used to return all the remaining rows
+        if (limit == null) {
+            return sql + " LIMIT " + MAX_LIMIT + " OFFSET " + offset;
+        }
+        return super.limitSql(sql, limit, offset);
+    }
+
     @Override
     protected String getParameterizedSql() {
         String sql = "SELECT * FROM " + tableName;
@@ -18,6 +18,7 @@ package com.hortonworks.registries.storage.impl.jdbc.provider.oracle.factory;
 
 
 import com.google.common.cache.CacheBuilder;
+import com.hortonworks.registries.common.Schema;
 import com.hortonworks.registries.storage.OrderByField;
 import com.hortonworks.registries.storage.Storable;
 import com.hortonworks.registries.storage.StorableKey;
@@ -37,6 +38,7 @@ import com.hortonworks.registries.storage.impl.jdbc.provider.sql.factory.Abstrac
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.SqlQuery;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.statement.PreparedStatementBuilder;
 import com.hortonworks.registries.storage.impl.jdbc.util.Columns;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.SearchQuery;
 
 import java.sql.Connection;
@@ -44,6 +46,7 @@ import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 
 public class OracleExecutor extends AbstractQueryExecutor {
@@ -64,6 +67,11 @@ public class OracleExecutor extends AbstractQueryExecutor {
         executeUpdate(new OracleInsertQuery(storable));
     }
 
+    @Override
+    public void insertAll(Collection<? extends Storable> storables) {
+        executeBatch(storables.stream().map(OracleInsertQuery::new).collect(Collectors.toList()), false);
+    }
+
     @Override
     public void insertOrUpdate(final Storable storable) {
         executeUpdate(new OracleInsertUpdateDuplicate(storable));
@@ -78,11 +86,22 @@ public class OracleExecutor extends AbstractQueryExecutor {
         executeUpdate(new OracleDeleteQuery(storableKey));
     }
 
+    @Override
+    public void deleteAll(Collection<StorableKey> storableKeys) {
+        executeBatch(storableKeys.stream().map(OracleDeleteQuery::new).collect(Collectors.toList()), false);
+    }
+
     @Override
     public <T extends Storable> Collection<T> select(SearchQuery searchQuery) {
         return executeQuery(searchQuery.getNameSpace(), new OracleSelectQuery(searchQuery, storableFactory.create(searchQuery.getNameSpace()).getSchema()));
     }
 
+    @Override
+    public Object selectAggregate(SearchQuery searchQuery, Aggregate aggregate) {
+        Schema schema = storableFactory.create(searchQuery.getNameSpace()).getSchema();
+        return executeAggregateQuery(new OracleSelectQuery(searchQuery, schema, aggregate), schema, aggregate);
+    }
+
     @Override
     public <T extends Storable> Collection<T> select(final String namespace) {
         return executeQuery(namespace, new OracleSelectQuery(namespace));
@@ -134,6 +153,20 @@ public class OracleExecutor extends AbstractQueryExecutor {
         }
     }
 
+    @Override
+    public List<Long> nextIds(String namespace, int count) {
+        OracleSequenceIdQuery oracleSequenceIdQuery = new OracleSequenceIdQuery(namespace, queryTimeoutSecs, ORACLE_DATA_TYPE_CONTEXT);
+        Connection connection = null;
+        try {
+            connection = getConnection();
+            return oracleSequenceIdQuery.getNextIDs(connection, count);
+        } finally {
+            if(!transactionBookKeeper.hasActiveTransaction(Thread.currentThread().getId())) {
+                closeConnection(connection);
+            }
+        }
+    }
+
     @Override
     public Columns getColumns(String namespace) throws SQLException {
         Columns columns = new Columns();
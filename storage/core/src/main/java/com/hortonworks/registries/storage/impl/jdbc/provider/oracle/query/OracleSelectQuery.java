@@ -21,6 +21,7 @@ import com.hortonworks.registries.storage.OrderByField;
 import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.impl.jdbc.provider.oracle.exception.OracleQueryException;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.AbstractSelectQuery;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.SearchQuery;
 
 import java.util.LinkedList;
@@ -50,6 +51,10 @@ public class OracleSelectQuery extends AbstractSelectQuery {
         super(searchQuery, schema);
     }
 
+    public OracleSelectQuery(SearchQuery searchQuery, Schema schema, Aggregate aggregate) {
+        super(searchQuery, schema, aggregate);
+    }
+
     @Override
     protected String getParameterizedSql() {
         String sql = "SELECT * FROM \"" + tableName + "\"";
@@ -85,6 +90,22 @@ public class OracleSelectQuery extends AbstractSelectQuery {
         return sql;
     }
 
+    @Override
+    protected String limitSql(String sql, Integer limit, Integer offset) {
+        // ROWNUM is assigned before ORDER BY is applied, so the ordered rows are limited in an outer query
+        if (offset == null) {
+            return "SELECT * FROM (" + sql + ") WHERE ROWNUM <= " + limit;
+        }
+
+        // row numbers of the ordered rows are selected to skip the offset, they are left out of the returned columns
+        String numberedSql = "SELECT \"rows\".*, ROWNUM AS \"rowNumber\" FROM (" + sql + ") \"rows\"";
+        if (limit != null) {
+            numberedSql += " WHERE ROWNUM <= " + (offset + limit);
+        }
+        String columns = join(selectedFieldNames().stream().map(x -> "\"" + x + "\"").collect(Collectors.toList()), ", ");
+        return "SELECT " + columns + " FROM (" + numberedSql + ") WHERE \"rowNumber\" > " + offset + " ORDER BY \"rowNumber\"";
+    }
+
     @Override
     protected String fieldEncloser() {
         return "\"";
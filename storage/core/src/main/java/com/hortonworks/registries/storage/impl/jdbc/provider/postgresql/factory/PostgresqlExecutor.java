@@ -36,12 +36,14 @@ import com.hortonworks.registries.storage.impl.jdbc.provider.postgresql.query.Po
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.factory.AbstractQueryExecutor;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.SqlQuery;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.statement.PreparedStatementBuilder;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.SearchQuery;
 
 import java.sql.ResultSet;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * SQL query executor for PostgreSQL
@@ -78,6 +80,11 @@ public class PostgresqlExecutor extends AbstractQueryExecutor {
         insertOrUpdateWithUniqueId(storable, new PostgresqlInsertQuery(storable));
     }
 
+    @Override
+    public void insertAll(Collection<? extends Storable> storables) {
+        executeBatch(storables.stream().map(PostgresqlInsertQuery::new).collect(Collectors.toList()), true);
+    }
+
     @Override
     public void insertOrUpdate(final Storable storable) {
         boolean committed = false;
@@ -128,6 +135,11 @@ public class PostgresqlExecutor extends AbstractQueryExecutor {
         executeUpdate(new PostgresqlDeleteQuery(storableKey));
     }
 
+    @Override
+    public void deleteAll(Collection<StorableKey> storableKeys) {
+        executeBatch(storableKeys.stream().map(PostgresqlDeleteQuery::new).collect(Collectors.toList()), false);
+    }
+
     @Override
     public Long nextId(String namespace) {
         // We intentionally return null. Please refer the class javadoc for more details.
@@ -140,6 +152,12 @@ public class PostgresqlExecutor extends AbstractQueryExecutor {
         return executeQuery(searchQuery.getNameSpace(), new PostgresqlSelectQuery(searchQuery, schema));
     }
 
+    @Override
+    public Object selectAggregate(SearchQuery searchQuery, Aggregate aggregate) {
+        Schema schema = storableFactory.create(searchQuery.getNameSpace()).getSchema();
+        return executeAggregateQuery(new PostgresqlSelectQuery(searchQuery, schema, aggregate), schema, aggregate);
+    }
+
     @Override
     public <T extends Storable> Collection<T> selectForShare(StorableKey storableKey) {
         return executeQuery(storableKey.getNameSpace(), new PostgresqlSelectForShareQuery(storableKey));
@@ -23,6 +23,7 @@ import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.AbstractS
 import com.hortonworks.registries.storage.search.OrderBy;
 import com.hortonworks.registries.storage.search.Predicate;
 import com.hortonworks.registries.storage.search.PredicateCombinerPair;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.SearchQuery;
 import com.hortonworks.registries.storage.search.WhereClause;
 import com.hortonworks.registries.storage.search.WhereClauseCombiner;
@@ -57,6 +58,10 @@ public class PostgresqlSelectQuery extends AbstractSelectQuery {
         super(searchQuery, schema);
     }
 
+    public PostgresqlSelectQuery(SearchQuery searchQuery, Schema schema, Aggregate aggregate) {
+        super(searchQuery, schema, aggregate);
+    }
+
     @Override
     protected String fieldEncloser() {
         return "\"";
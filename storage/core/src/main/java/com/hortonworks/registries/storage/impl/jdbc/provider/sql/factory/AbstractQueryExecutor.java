@@ -28,6 +28,8 @@ import com.hortonworks.registries.storage.exception.StorageException;
 import com.hortonworks.registries.storage.exception.TransactionException;
 import com.hortonworks.registries.storage.impl.jdbc.config.ExecutionConfig;
 import com.hortonworks.registries.storage.impl.jdbc.connection.ConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.AbstractSelectQuery;
+import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.AbstractStorableSqlQuery;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.SqlDeleteQuery;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.SqlQuery;
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.query.SqlSelectQuery;
@@ -36,6 +38,7 @@ import com.hortonworks.registries.storage.impl.jdbc.provider.sql.statement.Prepa
 import com.hortonworks.registries.storage.impl.jdbc.provider.sql.statement.StorageDataTypeContext;
 import com.hortonworks.registries.storage.impl.jdbc.util.Columns;
 import com.hortonworks.registries.storage.impl.jdbc.util.Util;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.transaction.TransactionBookKeeper;
 import com.hortonworks.registries.storage.transaction.TransactionState;
 
@@ -48,16 +51,18 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 /**
  *
  */
 public abstract class AbstractQueryExecutor implements QueryExecutor {
+    // maximum number of statements sent to the database in one batch
+    protected static final int MAX_BATCH_SIZE = 1000;
 
     protected final ExecutionConfig config;
     protected final int queryTimeoutSecs;
@@ -95,6 +100,11 @@ public abstract class AbstractQueryExecutor implements QueryExecutor {
         executeUpdate(new SqlDeleteQuery(storableKey));
     }
 
+    @Override
+    public void deleteAll(Collection<StorableKey> storableKeys) {
+        executeBatch(storableKeys.stream().map(SqlDeleteQuery::new).collect(Collectors.toList()), false);
+    }
+
     @Override
     public <T extends Storable> Collection<T> select(final String namespace) {
         return executeQuery(namespace, new SqlSelectQuery(namespace));
@@ -346,10 +356,139 @@ public abstract class AbstractQueryExecutor implements QueryExecutor {
         return getQueryExecution(sqlBuilder).executeUpdateWithReturningGeneratedKey();
     }
 
+    /**
+     * Executes the given queries with JDBC batches on one connection. Consecutive queries with the same parameterized sql
+     * are sent together in a batch of at most {@link #MAX_BATCH_SIZE} statements.
+     *
+     * @param sqlQueries the sql queries
+     * @param setGeneratedIds whether ids generated by the database are set on the storables without an id, this is only
+     *                        applicable for insert queries of storables
+     */
+    protected void executeBatch(List<? extends SqlQuery> sqlQueries, boolean setGeneratedIds) {
+        if (sqlQueries.isEmpty()) {
+            return;
+        }
+
+        Connection connection = null;
+        try {
+            connection = getConnection();
+            int from = 0;
+            while (from < sqlQueries.size()) {
+                SqlQuery sqlQuery = sqlQueries.get(from);
+                boolean returnGeneratedKeys = setGeneratedIds && hasNullId(sqlQuery);
+                int to = from + 1;
+                while (to < sqlQueries.size() && to - from < MAX_BATCH_SIZE
+                        && sqlQueries.get(to).getParametrizedSql().equals(sqlQuery.getParametrizedSql())
+                        && (setGeneratedIds && hasNullId(sqlQueries.get(to))) == returnGeneratedKeys) {
+                    to++;
+                }
+                executeBatch(connection, sqlQueries.subList(from, to), returnGeneratedKeys);
+                from = to;
+            }
+        } catch (SQLException e) {
+            throw new StorageException(e);
+        } finally {
+            if (!transactionBookKeeper.hasActiveTransaction(Thread.currentThread().getId())) {
+                closeConnection(connection);
+            }
+        }
+    }
+
+    private void executeBatch(Connection connection, List<? extends SqlQuery> sqlQueries, boolean returnGeneratedKeys) throws SQLException {
+        log.debug("Executing batch of [{}] statements for sql [{}]", sqlQueries.size(), sqlQueries.get(0).getParametrizedSql());
+        PreparedStatementBuilder preparedStatementBuilder = returnGeneratedKeys
+                ? PreparedStatementBuilder.supportReturnGeneratedKeys(connection, config, storageDataTypeContext, sqlQueries.get(0))
+                : PreparedStatementBuilder.of(connection, config, storageDataTypeContext, sqlQueries.get(0));
+        PreparedStatement preparedStatement = null;
+        try {
+            for (SqlQuery sqlQuery : sqlQueries) {
+                preparedStatement = preparedStatementBuilder.getPreparedStatement(sqlQuery);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+
+            if (returnGeneratedKeys) {
+                setGeneratedIds(preparedStatement, sqlQueries);
+            }
+        } finally {
+            if (preparedStatement != null) {
+                preparedStatement.close();
+            }
+        }
+    }
+
+    // drivers like MySQL and PostgreSQL return a generated key for each statement of the batch in the same order, ids are
+    // not set when the driver returns fewer keys as they can not be matched with the inserted storables.
+    private void setGeneratedIds(PreparedStatement preparedStatement, List<? extends SqlQuery> sqlQueries) throws SQLException {
+        List<Long> generatedIds = new ArrayList<>(sqlQueries.size());
+        try (ResultSet generatedKeys = preparedStatement.getGeneratedKeys()) {
+            while (generatedKeys.next()) {
+                generatedIds.add(generatedKeys.getLong(1));
+            }
+        }
+
+        if (generatedIds.size() != sqlQueries.size()) {
+            log.warn("Received [{}] generated keys for a batch of [{}] statements, ids are not set on the inserted storables",
+                     generatedIds.size(), sqlQueries.size());
+            return;
+        }
+        for (int i = 0; i < sqlQueries.size(); i++) {
+            ((AbstractStorableSqlQuery) sqlQueries.get(i)).getStorable().setId(generatedIds.get(i));
+        }
+    }
+
+    private static boolean hasNullId(SqlQuery sqlQuery) {
+        if (!(sqlQuery instanceof AbstractStorableSqlQuery)) {
+            return false;
+        }
+        try {
+            return ((AbstractStorableSqlQuery) sqlQuery).getStorable().getId() == null;
+        } catch (UnsupportedOperationException e) {
+            // storable does not have an id
+            return false;
+        }
+    }
+
     protected <T extends Storable> Collection<T> executeQuery(String namespace, SqlQuery sqlBuilder) {
         return getQueryExecution(sqlBuilder).executeQuery(namespace);
     }
 
+    /**
+     * Runs the given aggregate query, and converts the returned number to the type of the aggregated field as drivers
+     * return aggregates with database specific types.
+     */
+    protected Object executeAggregateQuery(AbstractSelectQuery selectQuery, Schema schema, Aggregate aggregate) {
+        Object value = getQueryExecution(selectQuery).executeScalarQuery();
+        if (!(value instanceof Number)) {
+            return value;
+        }
+
+        Number number = (Number) value;
+        if (aggregate.getFunction() == Aggregate.Function.COUNT) {
+            return number.longValue();
+        }
+        Schema.Field field = schema.getField(aggregate.getFieldName());
+        if (field == null) {
+            return number;
+        }
+        switch (field.getType()) {
+            case BYTE:
+                return number.byteValue();
+            case SHORT:
+                return number.shortValue();
+            case INTEGER:
+                return number.intValue();
+            case LONG:
+                return number.longValue();
+            case FLOAT:
+                return number.floatValue();
+            case DOUBLE:
+                return number.doubleValue();
+            default:
+                return number;
+        }
+    }
+
     protected QueryExecution getQueryExecution(SqlQuery sqlQuery) {
         return new QueryExecution(sqlQuery);
     }
@@ -375,6 +514,18 @@ public abstract class AbstractQueryExecutor implements QueryExecutor {
             return result;
         }
 
+        // returns the first column of the first row, null if there are no rows
+        Object executeScalarQuery() {
+            try (PreparedStatement preparedStatement = getPreparedStatement();
+                 ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getObject(1) : null;
+            } catch (SQLException | ExecutionException e) {
+                throw new StorageException(e);
+            } finally {
+                closeConn();
+            }
+        }
+
         void closeConn() {
             // Close every opened connection if not using cache. If using cache, cache expiry manages connections
             if (!isCacheEnabled() && !transactionBookKeeper.hasActiveTransaction(Thread.currentThread().getId())) {
@@ -498,7 +649,7 @@ public abstract class AbstractQueryExecutor implements QueryExecutor {
             try {
                 boolean next = resultSet.next();
                 if (next) {
-                    maps = new LinkedList<>();
+                    maps = new ArrayList<>();
                     ResultSetMetaData rsMetadata = resultSet.getMetaData();
                     do {
                         Map<String, Object> map = storageDataTypeContext.getMapWithRowContents(resultSet, rsMetadata);
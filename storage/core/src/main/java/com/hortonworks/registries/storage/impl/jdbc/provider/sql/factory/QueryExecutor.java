@@ -23,12 +23,14 @@ import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.exception.NonIncrementalColumnException;
 import com.hortonworks.registries.storage.impl.jdbc.config.ExecutionConfig;
 import com.hortonworks.registries.storage.impl.jdbc.util.Columns;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.SearchQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -43,6 +45,12 @@ public interface QueryExecutor {
      */
     void insert(Storable storable);
 
+    /**
+     * Inserts all the specified {@link Storable}s in storage with batched statements. Ids generated by the storage are
+     * set on the storables without an id when the JDBC driver returns a generated key for each statement of the batch.
+     */
+    void insertAll(Collection<? extends Storable> storables);
+
     /**
      * Inserts or updates the specified {@link Storable} in storage
      */
@@ -60,6 +68,11 @@ public interface QueryExecutor {
      */
     void delete(StorableKey storableKey);
 
+    /**
+     * Deletes all the specified {@link StorableKey}s from storage with batched statements
+     */
+    void deleteAll(Collection<StorableKey> storableKeys);
+
     /**
      * @return all entries in the given namespace
      */
@@ -96,6 +109,18 @@ public interface QueryExecutor {
      */
     Long nextId(String namespace);
 
+    /**
+     * @return The given number of next available ids in the specified {@code namespace}
+     * @see #nextId(String)
+     */
+    default List<Long> nextIds(String namespace, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(nextId(namespace));
+        }
+        return ids;
+    }
+
     /**
      * @return an open connection to the underlying storage
      */
@@ -115,6 +140,12 @@ public interface QueryExecutor {
     //todo unify all other select methods with this method as they are kind of special cases of SearchQuery
     <T extends Storable> Collection<T> select(SearchQuery searchQuery);
 
+    /**
+     * @return value of the given aggregate over the entries that match the specified {@link SearchQuery}, as a
+     * {@link Long} for {@link Aggregate.Function#COUNT} and as the type of the aggregated field for the other functions
+     */
+    Object selectAggregate(SearchQuery searchQuery, Aggregate aggregate);
+
     /**
      *  @return returns set of columns for a given table
      */
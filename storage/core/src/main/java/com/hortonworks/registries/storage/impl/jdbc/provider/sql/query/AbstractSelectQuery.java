@@ -17,11 +17,11 @@
  */
 package com.hortonworks.registries.storage.impl.jdbc.provider.sql.query;
 
-import com.google.common.collect.Lists;
 import com.hortonworks.registries.common.Schema;
 import com.hortonworks.registries.storage.OrderByField;
 import com.hortonworks.registries.storage.PrimaryKey;
 import com.hortonworks.registries.storage.StorableKey;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.OrderBy;
 import com.hortonworks.registries.storage.search.Predicate;
 import com.hortonworks.registries.storage.search.PredicateCombinerPair;
@@ -29,7 +29,10 @@ import com.hortonworks.registries.storage.search.SearchQuery;
 import com.hortonworks.registries.storage.search.WhereClause;
 import com.hortonworks.registries.storage.search.WhereClauseCombiner;
 import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +47,9 @@ public abstract class AbstractSelectQuery extends AbstractStorableKeyQuery {
 
     protected SearchQuery searchQuery;
     protected Schema schema;
+    protected Aggregate aggregate;
+    // values of the search query parameters in the order of their occurrence in the sql
+    private List<Pair<Schema.Field, Object>> bindings;
 
     public AbstractSelectQuery(String nameSpace) {
         this(nameSpace, null);
@@ -64,9 +70,20 @@ public abstract class AbstractSelectQuery extends AbstractStorableKeyQuery {
     }
 
     public AbstractSelectQuery(SearchQuery searchQuery, Schema schema) {
+        this(searchQuery, schema, null);
+    }
+
+    /**
+     * Query selecting the given aggregate of the entries matching the search query, instead of the entries.
+     */
+    public AbstractSelectQuery(SearchQuery searchQuery, Schema schema, Aggregate aggregate) {
         super(searchQuery.getNameSpace());
+        if (aggregate != null) {
+            Aggregate.validate(searchQuery);
+        }
         this.searchQuery = searchQuery;
         this.schema = schema;
+        this.aggregate = aggregate;
     }
 
     protected abstract String getParameterizedSql();
@@ -87,10 +104,11 @@ public abstract class AbstractSelectQuery extends AbstractStorableKeyQuery {
     }
 
     protected String buildSqlWithSearchQuery(SearchQuery searchQuery, Schema schema) {
-        String sql = "SELECT * FROM " + fieldEncloser() + tableName + fieldEncloser();
+        String sql = "SELECT " + selectSql(searchQuery) + " FROM " + fieldEncloser() + tableName + fieldEncloser();
 
         WhereClause whereClause = searchQuery.getWhereClause();
         Map<Schema.Field, Object> fieldsToValues = new HashMap<>();
+        List<Pair<Schema.Field, Object>> bindings = new ArrayList<>();
         if (whereClause != null) {
             sql += " WHERE ";
             StringBuilder clauseString = new StringBuilder();
@@ -98,7 +116,7 @@ public abstract class AbstractSelectQuery extends AbstractStorableKeyQuery {
                 WhereClauseCombiner.Operation combinerOperation = predicateCombinerPair.getCombinerOperation();
 
                 Predicate predicate = predicateCombinerPair.getPredicate();
-                clauseString.append(generateClauseString(predicate, fieldsToValues, schema));
+                clauseString.append(generateClauseString(predicate, fieldsToValues, bindings, schema));
                 if (combinerOperation != null) {
                     String opStr;
                     switch (combinerOperation) {
@@ -117,8 +135,9 @@ public abstract class AbstractSelectQuery extends AbstractStorableKeyQuery {
             sql += clauseString;
         }
 
+        // order is irrelevant for aggregates, and some databases reject ordering by a column which is not aggregated
         List<OrderBy> orderByFields = searchQuery.getOrderByFields();
-        if (orderByFields != null && !orderByFields.isEmpty()) {
+        if (aggregate == null && orderByFields != null && !orderByFields.isEmpty()) {
             sql += " ORDER BY "
                     + join(orderByFields
                                    .stream()
@@ -127,15 +146,81 @@ public abstract class AbstractSelectQuery extends AbstractStorableKeyQuery {
             );
         }
 
+        if (searchQuery.getLimit() != null || searchQuery.getOffset() != null) {
+            sql = limitSql(sql, searchQuery.getLimit(), searchQuery.getOffset());
+        }
+
         primaryKey = new PrimaryKey(fieldsToValues);
-        columns = Lists.newArrayList(fieldsToValues.keySet());
+        columns = bindings.stream().map(Pair::getKey).collect(Collectors.toList());
+        this.bindings = bindings;
 
         return sql;
     }
 
+    /**
+     * @return values to be bound to the parameters of a search query in their order, null if this is not a search query.
+     */
+    public List<Pair<Schema.Field, Object>> getBindings() {
+        if (searchQuery == null) {
+            return null;
+        }
+        // bindings are collected while building the sql
+        getParametrizedSql();
+        return bindings;
+    }
+
     protected abstract String fieldEncloser();
 
-    private String generateClauseString(Predicate predicate, Map<Schema.Field, Object> fieldsToValues, Schema schema) {
+    /**
+     * @param sql    query selecting the rows in their order
+     * @param limit  maximum number of rows to be returned, null if all the rows are returned
+     * @param offset number of rows to be skipped, null if no rows are skipped
+     * @return the given sql restricted to return at most {@code limit} rows after skipping {@code offset} rows
+     */
+    protected String limitSql(String sql, Integer limit, Integer offset) {
+        if (limit != null) {
+            sql += " LIMIT " + limit;
+        }
+        if (offset != null) {
+            sql += " OFFSET " + offset;
+        }
+        return sql;
+    }
+
+    /**
+     * @return names of the columns returned by a search query, which are the selected fields or all the fields of the schema
+     */
+    protected List<String> selectedFieldNames() {
+        if (searchQuery.getFieldNames() != null) {
+            return searchQuery.getFieldNames();
+        }
+        return schema.getFields().stream().map(Schema.Field::getName).collect(Collectors.toList());
+    }
+
+    private String selectSql(SearchQuery searchQuery) {
+        String fq = fieldEncloser();
+        if (aggregate != null) {
+            switch (aggregate.getFunction()) {
+                case COUNT:
+                    return "COUNT(*)";
+                case MAX:
+                    return "MAX(" + fq + aggregate.getFieldName() + fq + ")";
+                default:
+                    throw new IllegalArgumentException("Unsupported aggregate: " + aggregate);
+            }
+        }
+
+        List<String> fieldNames = searchQuery.getFieldNames();
+        if (fieldNames == null) {
+            return "*";
+        }
+        return join(fieldNames.stream().map(x -> fq + x + fq).collect(Collectors.toList()), ", ");
+    }
+
+    private String generateClauseString(Predicate predicate,
+                                        Map<Schema.Field, Object> fieldsToValues,
+                                        List<Pair<Schema.Field, Object>> bindings,
+                                        Schema schema) {
         if(predicate == null) {
             return "";
         }
@@ -144,8 +229,16 @@ public abstract class AbstractSelectQuery extends AbstractStorableKeyQuery {
         Predicate.Operation operation = predicate.getOperation();
         String fq = fieldEncloser();
 
+        Schema.Field field = schema.getField(predicate.getField());
         Object predicateValue = predicate.getValue();
         switch (operation) {
+            case IN:
+                Collection<?> values = (Collection<?>) predicateValue;
+                result = " " + fq + predicate.getField() + fq + " IN ("
+                        + join(values.stream().map(x -> "?").collect(Collectors.toList()), ", ") + ") ";
+                values.forEach(value -> bindings.add(Pair.of(field, value)));
+                fieldsToValues.put(field, predicateValue);
+                return result;
             case CONTAINS:
                 result = " " + fq + predicate.getField() + fq + " LIKE ?";
                 predicateValue = "%" + predicateValue + "%";
@@ -169,8 +262,8 @@ public abstract class AbstractSelectQuery extends AbstractStorableKeyQuery {
                 throw new IllegalArgumentException("Given operation " + operation + " is not supported!");
         }
 
-        Schema.Field field = schema.getField(predicate.getField());
         fieldsToValues.put(field, predicateValue);
+        bindings.add(Pair.of(field, predicateValue));
 
         return result;
     }
@@ -179,17 +272,29 @@ public abstract class AbstractSelectQuery extends AbstractStorableKeyQuery {
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
-        if (!super.equals(o)) return false;
 
         AbstractSelectQuery that = (AbstractSelectQuery) o;
 
-        return orderByFields != null ? orderByFields.equals(that.orderByFields) : that.orderByFields == null;
+        if (searchQuery != null || that.searchQuery != null) {
+            // search queries with the same sql share a prepared statement whatever values are bound to its parameters
+            return searchQuery != null && that.searchQuery != null
+                    && getParametrizedSql().equals(that.getParametrizedSql());
+        }
+
+        if (!super.equals(o)) return false;
+        if (orderByFields != null ? !orderByFields.equals(that.orderByFields) : that.orderByFields != null) return false;
+        if (aggregate != null ? !aggregate.equals(that.aggregate) : that.aggregate != null) return false;
+        return searchQuery != null ? searchQuery.equals(that.searchQuery) : that.searchQuery == null;
     }
 
     @Override
     public int hashCode() {
+        if (searchQuery != null) {
+            return getParametrizedSql().hashCode();
+        }
         int result = super.hashCode();
         result = 31 * result + (orderByFields != null ? orderByFields.hashCode() : 0);
+        result = 31 * result + (aggregate != null ? aggregate.hashCode() : 0);
         return result;
     }
 
@@ -0,0 +1,210 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage.impl.memory;
+
+import com.hortonworks.registries.common.util.ReflectionHelper;
+import com.hortonworks.registries.storage.Storable;
+import com.hortonworks.registries.storage.exception.StorageException;
+import com.hortonworks.registries.storage.search.OrderBy;
+import com.hortonworks.registries.storage.search.Predicate;
+import com.hortonworks.registries.storage.search.PredicateCombinerPair;
+import com.hortonworks.registries.storage.search.SearchQuery;
+import com.hortonworks.registries.storage.search.WhereClause;
+import com.hortonworks.registries.storage.search.WhereClauseCombiner;
+
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Evaluates {@link SearchQuery}s over storables in memory with the semantics of the sql generated for them: predicates
+ * with a null field value do not match, AND binds tighter than OR and null values come first in ascending order.
+ * Selected fields are not applied, all the fields of the matching storables are returned.
+ */
+class InMemorySearch {
+
+    private InMemorySearch() {
+    }
+
+    static <T extends Storable> List<T> search(Collection<T> storables, SearchQuery searchQuery) {
+        List<T> result = new ArrayList<>();
+        WhereClause whereClause = searchQuery.getWhereClause();
+        for (T storable : storables) {
+            if (whereClause == null || matches(storable, whereClause)) {
+                result.add(storable);
+            }
+        }
+
+        List<OrderBy> orderByFields = searchQuery.getOrderByFields();
+        if (orderByFields != null && !orderByFields.isEmpty()) {
+            result.sort((storable1, storable2) -> {
+                for (OrderBy orderBy : orderByFields) {
+                    int compareTo = compareNullsFirst(getValue(storable1, orderBy.getFieldName()),
+                                                      getValue(storable2, orderBy.getFieldName()));
+                    if (compareTo != 0) {
+                        return orderBy.isAsc() ? compareTo : -compareTo;
+                    }
+                }
+                return 0;
+            });
+        }
+
+        int fromIndex = Math.min(searchQuery.getOffset() != null ? searchQuery.getOffset() : 0, result.size());
+        int toIndex = searchQuery.getLimit() != null ? Math.min(fromIndex + searchQuery.getLimit(), result.size()) : result.size();
+        return new ArrayList<>(result.subList(fromIndex, toIndex));
+    }
+
+    private static boolean matches(Storable storable, WhereClause whereClause) {
+        // predicates and combiners are in the order of the sql where clause, they are evaluated like that clause
+        List<Object> tokens = new ArrayList<>();
+        for (PredicateCombinerPair predicateCombinerPair : whereClause.getPredicateCombinerPairs()) {
+            if (predicateCombinerPair.getPredicate() != null) {
+                tokens.add(matches(storable, predicateCombinerPair.getPredicate()));
+            }
+            if (predicateCombinerPair.getCombinerOperation() != null) {
+                tokens.add(predicateCombinerPair.getCombinerOperation());
+            }
+        }
+        return new Evaluation(tokens).evaluate();
+    }
+
+    private static boolean matches(Storable storable, Predicate predicate) {
+        Object fieldValue = getValue(storable, predicate.getField());
+        Object value = predicate.getValue();
+        if (fieldValue == null) {
+            return false;
+        }
+
+        switch (predicate.getOperation()) {
+            case EQ:
+                return compare(fieldValue, value) == 0;
+            case LT:
+                return compare(fieldValue, value) < 0;
+            case GT:
+                return compare(fieldValue, value) > 0;
+            case LTE:
+                return compare(fieldValue, value) <= 0;
+            case GTE:
+                return compare(fieldValue, value) >= 0;
+            case CONTAINS:
+                return fieldValue.toString().contains(String.valueOf(value));
+            case IN:
+                for (Object inValue : (Collection<?>) value) {
+                    if (compare(fieldValue, inValue) == 0) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                throw new IllegalArgumentException("Unsupported predicate operation: " + predicate.getOperation());
+        }
+    }
+
+    private static Object getValue(Storable storable, String fieldName) {
+        try {
+            return ReflectionHelper.invokeGetter(fieldName, storable);
+        } catch (InvocationTargetException | NoSuchMethodException | IllegalAccessException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    private static int compareNullsFirst(Object value1, Object value2) {
+        if (value1 == null || value2 == null) {
+            return value1 == value2 ? 0 : (value1 == null ? -1 : 1);
+        }
+        return compare(value1, value2);
+    }
+
+    /**
+     * Compares values like the database compares a column with a bound value, numbers are compared by their values
+     * regardless of their types and other values of different types are compared by their string representations.
+     */
+    private static int compare(Object fieldValue, Object value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Search query values can not be null");
+        }
+        if (fieldValue instanceof Number) {
+            try {
+                return new BigDecimal(fieldValue.toString()).compareTo(new BigDecimal(value.toString()));
+            } catch (NumberFormatException e) {
+                // not a number, compared as strings
+            }
+        } else if (fieldValue instanceof Comparable && fieldValue.getClass().isInstance(value)) {
+            return ((Comparable<Object>) fieldValue).compareTo(value);
+        }
+        return fieldValue.toString().compareTo(value.toString());
+    }
+
+    /**
+     * Evaluates a sequence of predicate results, AND, OR and enclosing operations.
+     */
+    private static class Evaluation {
+        private final List<Object> tokens;
+        private int index;
+
+        private Evaluation(List<Object> tokens) {
+            this.tokens = tokens;
+        }
+
+        private boolean evaluate() {
+            boolean result = or();
+            if (index != tokens.size()) {
+                throw new IllegalArgumentException("Invalid where clause: " + tokens);
+            }
+            return result;
+        }
+
+        private boolean or() {
+            boolean result = and();
+            while (next(WhereClauseCombiner.Operation.OR)) {
+                result |= and();
+            }
+            return result;
+        }
+
+        private boolean and() {
+            boolean result = operand();
+            while (next(WhereClauseCombiner.Operation.AND)) {
+                result &= operand();
+            }
+            return result;
+        }
+
+        private boolean operand() {
+            if (next(WhereClauseCombiner.Operation.ENCL_START)) {
+                boolean result = or();
+                if (!next(WhereClauseCombiner.Operation.ENCL_FINISH)) {
+                    throw new IllegalArgumentException("Invalid where clause: " + tokens);
+                }
+                return result;
+            }
+            if (index >= tokens.size() || !(tokens.get(index) instanceof Boolean)) {
+                throw new IllegalArgumentException("Invalid where clause: " + tokens);
+            }
+            return (Boolean) tokens.get(index++);
+        }
+
+        private boolean next(WhereClauseCombiner.Operation operation) {
+            if (index < tokens.size() && tokens.get(index) == operation) {
+                index++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -193,8 +193,7 @@ public class InMemoryStorageManager implements StorageManager {
 
     @Override
     public <T extends Storable> Collection<T> search(SearchQuery searchQuery) {
-        LOG.warn("This storage manager does not support search query, returning all instances with the given namespace [{}]", searchQuery.getNameSpace());
-        return list(searchQuery.getNameSpace());
+        return InMemorySearch.search(this.<T>list(searchQuery.getNameSpace()), searchQuery);
     }
 
     @Override
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.hortonworks.registries.storage.search;
+
+import java.io.Serializable;
+
+/**
+ * Aggregate function computed over the entries of a {@link SearchQuery} instead of returning those entries.
+ */
+public class Aggregate implements Serializable {
+    private static final long serialVersionUID = -2834128513560914471L;
+
+    public enum Function {COUNT, MAX}
+
+    private Function function;
+    private String fieldName;
+
+    private Aggregate() {
+    }
+
+    private Aggregate(Function function, String fieldName) {
+        this.function = function;
+        this.fieldName = fieldName;
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    /**
+     * @return field to be aggregated, null for {@link Function#COUNT}
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Aggregate aggregate = (Aggregate) o;
+
+        if (function != aggregate.function) return false;
+        return fieldName != null ? fieldName.equals(aggregate.fieldName) : aggregate.fieldName == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = function != null ? function.hashCode() : 0;
+        result = 31 * result + (fieldName != null ? fieldName.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Aggregate{" +
+                "function=" + function +
+                ", fieldName='" + fieldName + '\'' +
+                '}';
+    }
+
+    /**
+     * Aggregates are computed over all the entries matching a search query, so the query can not have a limit or an
+     * offset.
+     */
+    public static void validate(SearchQuery searchQuery) {
+        if (searchQuery.getLimit() != null || searchQuery.getOffset() != null) {
+            throw new IllegalArgumentException("limit and offset are not supported with aggregates, search query: " + searchQuery);
+        }
+    }
+
+    /**
+     * Number of the entries.
+     */
+    public static Aggregate count() {
+        return new Aggregate(Function.COUNT, null);
+    }
+
+    /**
+     * Highest non null value of the given field.
+     */
+    public static Aggregate max(String fieldName) {
+        if (fieldName == null) {
+            throw new IllegalArgumentException("fieldName can not be null");
+        }
+        return new Aggregate(Function.MAX, fieldName);
+    }
+}
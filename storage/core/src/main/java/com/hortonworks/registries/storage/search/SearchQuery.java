@@ -33,6 +33,9 @@ public class SearchQuery implements Serializable {
     private String nameSpace;
     private List<OrderBy> orderByFields;
     private WhereClause whereClause;
+    private Integer limit;
+    private Integer offset;
+    private List<String> fieldNames;
 
     private SearchQuery() {
     }
@@ -62,6 +65,53 @@ public class SearchQuery implements Serializable {
         return this;
     }
 
+    /**
+     * Returns at most the given number of entries. Combined with an ascending order and a greater than predicate on
+     * the last returned value, this can be used to fetch the entries page by page.
+     */
+    public SearchQuery limit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit should be greater than zero but it is: " + limit);
+        }
+        if (this.limit != null) {
+            throw new IllegalArgumentException("limit is already defined for this search query.");
+        }
+
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Skips the given number of entries before returning the rest, it is generally used with an order and a limit.
+     */
+    public SearchQuery offset(int offset) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset should not be negative but it is: " + offset);
+        }
+        if (this.offset != null) {
+            throw new IllegalArgumentException("offset is already defined for this search query.");
+        }
+
+        this.offset = offset;
+        return this;
+    }
+
+    /**
+     * Loads only the given fields of the entries, other fields of the returned storables are not set. Storage managers
+     * may still load all the fields.
+     */
+    public SearchQuery select(String... fieldNames) {
+        if (fieldNames.length == 0) {
+            throw new IllegalArgumentException("at least one field should be selected.");
+        }
+        if (this.fieldNames != null) {
+            throw new IllegalArgumentException("selected fields are already defined for this search query.");
+        }
+
+        this.fieldNames = Collections.unmodifiableList(Arrays.asList(fieldNames));
+        return this;
+    }
+
     public String getNameSpace() {
         return nameSpace;
     }
@@ -74,12 +124,30 @@ public class SearchQuery implements Serializable {
         return whereClause;
     }
 
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public Integer getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return fields to be loaded, null if all the fields are loaded
+     */
+    public List<String> getFieldNames() {
+        return fieldNames;
+    }
+
     @Override
     public String toString() {
         return "SearchQuery{" +
                 "nameSpace='" + nameSpace + '\'' +
                 ", orderByFields=" + orderByFields +
                 ", clause=" + whereClause +
+                ", limit=" + limit +
+                ", offset=" + offset +
+                ", fieldNames=" + fieldNames +
                 '}';
     }
 
@@ -93,7 +161,10 @@ public class SearchQuery implements Serializable {
         if (nameSpace != null ? !nameSpace.equals(that.nameSpace) : that.nameSpace != null) return false;
         if (orderByFields != null ? !orderByFields.equals(that.orderByFields) : that.orderByFields != null)
             return false;
-        return whereClause != null ? whereClause.equals(that.whereClause) : that.whereClause == null;
+        if (whereClause != null ? !whereClause.equals(that.whereClause) : that.whereClause != null) return false;
+        if (limit != null ? !limit.equals(that.limit) : that.limit != null) return false;
+        if (offset != null ? !offset.equals(that.offset) : that.offset != null) return false;
+        return fieldNames != null ? fieldNames.equals(that.fieldNames) : that.fieldNames == null;
     }
 
     @Override
@@ -101,6 +172,9 @@ public class SearchQuery implements Serializable {
         int result = nameSpace != null ? nameSpace.hashCode() : 0;
         result = 31 * result + (orderByFields != null ? orderByFields.hashCode() : 0);
         result = 31 * result + (whereClause != null ? whereClause.hashCode() : 0);
+        result = 31 * result + (limit != null ? limit.hashCode() : 0);
+        result = 31 * result + (offset != null ? offset.hashCode() : 0);
+        result = 31 * result + (fieldNames != null ? fieldNames.hashCode() : 0);
         return result;
     }
 
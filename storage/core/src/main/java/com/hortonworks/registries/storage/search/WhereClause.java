@@ -21,6 +21,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
@@ -102,6 +103,17 @@ public class WhereClause implements Serializable {
             return new WhereClauseCombiner(this, new Predicate(fieldName, value, Predicate.Operation.CONTAINS));
         }
 
+        /**
+         * @param fieldName field name
+         * @param values    non empty collection of values, the field should be equal to one of them
+         */
+        public WhereClauseCombiner in(String fieldName, Collection<?> values) {
+            if (values == null || values.isEmpty()) {
+                throw new IllegalArgumentException("values can not be empty for field " + fieldName);
+            }
+            return new WhereClauseCombiner(this, new Predicate(fieldName, new ArrayList<>(values), Predicate.Operation.IN));
+        }
+
         public WhereClauseCombiner lt(String fieldName, Object value) {
             return new WhereClauseCombiner(this, new Predicate(fieldName, value, Predicate.Operation.LT));
         }
@@ -0,0 +1,209 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage;
+
+import com.google.common.cache.CacheBuilder;
+import com.hortonworks.registries.common.QueryParam;
+import com.hortonworks.registries.common.Schema;
+import com.hortonworks.registries.storage.cache.impl.GuavaCache;
+import com.hortonworks.registries.storage.cache.writer.StorageWriteThrough;
+import com.hortonworks.registries.storage.catalog.AbstractStorable;
+import com.hortonworks.registries.storage.impl.memory.InMemoryStorageManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ */
+public class CacheBackedStorageManagerTest {
+    private static final String NAMESPACE = "cached_query_test";
+
+    private CountingInMemoryStorageManager dao;
+    private GuavaCache cache;
+    private CacheBackedStorageManager storageManager;
+
+    @Before
+    public void setUp() {
+        dao = new CountingInMemoryStorageManager();
+        dao.registerStorables(Collections.singletonList(QueryStorable.class));
+        cache = new GuavaCache(dao, CacheBuilder.newBuilder().maximumSize(100));
+        storageManager = new CacheBackedStorageManager(cache, new StorageWriteThrough(dao));
+    }
+
+    @Test
+    public void testFindIsCachedUntilNamespaceChanges() {
+        QueryStorable first = new QueryStorable(1L, "first");
+        storageManager.add(first);
+        storageManager.add(new QueryStorable(2L, "second"));
+
+        List<QueryParam> queryParams = Collections.singletonList(new QueryParam("name", "first"));
+        Assert.assertEquals(Collections.singletonList(first), new ArrayList<>(storageManager.find(NAMESPACE, queryParams)));
+        Assert.assertEquals(Collections.singletonList(first), new ArrayList<>(storageManager.find(NAMESPACE, queryParams)));
+        Assert.assertEquals(1, dao.queries.get());
+        Assert.assertEquals(1, storageManager.getQueryCacheStats().hitCount());
+
+        // other queries are not served from the cached result
+        Assert.assertEquals(2, storageManager.list(NAMESPACE).size());
+        Assert.assertEquals(2, dao.queries.get());
+
+        QueryStorable updated = new QueryStorable(1L, "updated");
+        storageManager.update(updated);
+        Assert.assertTrue(storageManager.find(NAMESPACE, queryParams).isEmpty());
+        Assert.assertEquals(Collections.singletonList(updated),
+                            new ArrayList<>(storageManager.find(NAMESPACE,
+                                                                Collections.singletonList(new QueryParam("name", "updated")))));
+        Assert.assertEquals(4, dao.queries.get());
+
+        storageManager.remove(updated.getStorableKey());
+        Assert.assertEquals(1, storageManager.list(NAMESPACE).size());
+        Assert.assertEquals(1, storageManager.list(NAMESPACE).size());
+        Assert.assertEquals(5, dao.queries.get());
+    }
+
+    @Test
+    public void testStaleCachedResultIsReloaded() {
+        QueryStorable first = new QueryStorable(1L, "first");
+        storageManager.add(first);
+        Assert.assertEquals(1, storageManager.list(NAMESPACE).size());
+
+        // removed without going through the cache backed storage manager
+        dao.remove(first.getStorableKey());
+        cache.remove(first.getStorableKey());
+        Assert.assertTrue(storageManager.list(NAMESPACE).isEmpty());
+        Assert.assertEquals(2, dao.queries.get());
+    }
+
+    @Test
+    public void testEvictedStorablesAreNotLoadedOneByOne() {
+        storageManager.add(new QueryStorable(1L, "first"));
+        storageManager.add(new QueryStorable(2L, "second"));
+        Assert.assertEquals(2, storageManager.list(NAMESPACE).size());
+        int gets = dao.gets.get();
+
+        cache.remove(new QueryStorable(2L, "second").getStorableKey());
+        Assert.assertEquals(2, storageManager.list(NAMESPACE).size());
+        Assert.assertEquals(2, dao.queries.get());
+        Assert.assertEquals(gets, dao.gets.get());
+    }
+
+    @Test
+    public void testResultCachedBeforeWriteIsCommittedIsDiscarded() {
+        List<Runnable> afterWrittenActions = new ArrayList<>();
+        storageManager = new CacheBackedStorageManager(cache, new StorageWriteThrough(dao) {
+            @Override
+            public void afterWritten(Runnable action) {
+                afterWrittenActions.add(action);
+            }
+        });
+
+        storageManager.add(new QueryStorable(1L, "first"));
+        Assert.assertEquals(1, storageManager.list(NAMESPACE).size());
+        Assert.assertEquals(1, storageManager.list(NAMESPACE).size());
+        Assert.assertEquals(1, dao.queries.get());
+
+        afterWrittenActions.forEach(Runnable::run);
+        Assert.assertEquals(1, storageManager.list(NAMESPACE).size());
+        Assert.assertEquals(2, dao.queries.get());
+    }
+
+    private static class CountingInMemoryStorageManager extends InMemoryStorageManager {
+        private final AtomicInteger queries = new AtomicInteger();
+        private final AtomicInteger gets = new AtomicInteger();
+
+        @Override
+        public <T extends Storable> T get(StorableKey key) {
+            gets.incrementAndGet();
+            return super.get(key);
+        }
+
+        @Override
+        public <T extends Storable> Collection<T> find(String namespace,
+                                                       List<QueryParam> queryParams,
+                                                       List<OrderByField> orderByFields) {
+            queries.incrementAndGet();
+            return super.find(namespace, queryParams, orderByFields);
+        }
+
+        @Override
+        public <T extends Storable> Collection<T> list(String namespace) {
+            queries.incrementAndGet();
+            return super.list(namespace);
+        }
+    }
+
+    public static class QueryStorable extends AbstractStorable {
+        private Long id;
+        private String name;
+
+        public QueryStorable() {
+        }
+
+        QueryStorable(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public String getNameSpace() {
+            return NAMESPACE;
+        }
+
+        @Override
+        public PrimaryKey getPrimaryKey() {
+            return new PrimaryKey(Collections.singletonMap(new Schema.Field("id", Schema.Type.LONG), id));
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            QueryStorable that = (QueryStorable) o;
+            return Objects.equals(id, that.id) && Objects.equals(name, that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, name);
+        }
+    }
+}
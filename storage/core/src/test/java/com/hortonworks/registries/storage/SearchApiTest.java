@@ -21,7 +21,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.Lists;
 import com.hortonworks.registries.common.Schema;
 import com.hortonworks.registries.storage.impl.jdbc.provider.mysql.query.MySqlSelectQuery;
+import com.hortonworks.registries.storage.impl.jdbc.provider.oracle.query.OracleSelectQuery;
 import com.hortonworks.registries.storage.impl.jdbc.provider.postgresql.query.PostgresqlSelectQuery;
+import com.hortonworks.registries.storage.search.Aggregate;
 import com.hortonworks.registries.storage.search.OrderBy;
 import com.hortonworks.registries.storage.search.SearchQuery;
 import com.hortonworks.registries.storage.search.WhereClause;
@@ -102,4 +104,128 @@ public class SearchApiTest {
             Assert.assertEquals(query, returnedQuery);
         }
     }
+
+    @Test
+    public void testInQuery() {
+        SearchQuery inQuery = SearchQuery.searchFrom("store")
+                                         .where(WhereClause.begin()
+                                                           .in("id", Lists.newArrayList(1L, 2L, 3L))
+                                                           .and()
+                                                           .eq("name", "foo")
+                                                           .combine());
+        Schema schema = Schema.of(Schema.Field.of("id", Schema.Type.LONG), Schema.Field.of("name", Schema.Type.STRING));
+
+        MySqlSelectQuery mySqlSelectQuery = new MySqlSelectQuery(inQuery, schema);
+        Assert.assertEquals("SELECT * FROM `store` WHERE  `id` IN (?, ?, ?) AND `name` = ? ",
+                            mySqlSelectQuery.getParametrizedSql());
+        Assert.assertEquals(Lists.newArrayList(Pair.of(Schema.Field.of("id", Schema.Type.LONG), 1L),
+                                               Pair.of(Schema.Field.of("id", Schema.Type.LONG), 2L),
+                                               Pair.of(Schema.Field.of("id", Schema.Type.LONG), 3L),
+                                               Pair.of(Schema.Field.of("name", Schema.Type.STRING), "foo")),
+                            mySqlSelectQuery.getBindings());
+
+        PostgresqlSelectQuery postgresqlSelectQuery = new PostgresqlSelectQuery(inQuery, schema);
+        Assert.assertEquals("SELECT * FROM \"store\" WHERE  \"id\" IN (?, ?, ?) AND \"name\" = ? ",
+                            postgresqlSelectQuery.getParametrizedSql());
+    }
+
+    @Test
+    public void testLimitQuery() {
+        SearchQuery limitQuery = SearchQuery.searchFrom("store")
+                                            .where(WhereClause.begin()
+                                                              .gt("id", 10L)
+                                                              .combine())
+                                            .orderBy(OrderBy.asc("id"))
+                                            .limit(5);
+        Schema schema = Schema.of(Schema.Field.of("id", Schema.Type.LONG));
+
+        Assert.assertEquals("SELECT * FROM `store` WHERE  `id` > ?  ORDER BY `id` ASC  LIMIT 5",
+                            new MySqlSelectQuery(limitQuery, schema).getParametrizedSql());
+        Assert.assertEquals("SELECT * FROM \"store\" WHERE  \"id\" > ?  ORDER BY \"id\" ASC  LIMIT 5",
+                            new PostgresqlSelectQuery(limitQuery, schema).getParametrizedSql());
+        Assert.assertEquals("SELECT * FROM (SELECT * FROM \"store\" WHERE  \"id\" > ?  ORDER BY \"id\" ASC ) WHERE ROWNUM <= 5",
+                            new OracleSelectQuery(limitQuery, schema).getParametrizedSql());
+
+        // limit is a part of the query, queries with different limits are not equal
+        Assert.assertNotEquals(new MySqlSelectQuery(limitQuery, schema),
+                               new MySqlSelectQuery(SearchQuery.searchFrom("store")
+                                                               .where(WhereClause.begin().gt("id", 10L).combine())
+                                                               .orderBy(OrderBy.asc("id"))
+                                                               .limit(10), schema));
+    }
+
+    @Test
+    public void testOffsetQuery() {
+        SearchQuery offsetQuery = SearchQuery.searchFrom("store")
+                                             .orderBy(OrderBy.asc("id"))
+                                             .limit(5)
+                                             .offset(10);
+        Schema schema = Schema.of(Schema.Field.of("id", Schema.Type.LONG), Schema.Field.of("name", Schema.Type.STRING));
+
+        Assert.assertEquals("SELECT * FROM `store` ORDER BY `id` ASC  LIMIT 5 OFFSET 10",
+                            new MySqlSelectQuery(offsetQuery, schema).getParametrizedSql());
+        Assert.assertEquals("SELECT * FROM \"store\" ORDER BY \"id\" ASC  LIMIT 5 OFFSET 10",
+                            new PostgresqlSelectQuery(offsetQuery, schema).getParametrizedSql());
+        Assert.assertEquals("SELECT \"id\", \"name\" FROM (SELECT \"rows\".*, ROWNUM AS \"rowNumber\" FROM " +
+                                    "(SELECT * FROM \"store\" ORDER BY \"id\" ASC ) \"rows\" WHERE ROWNUM <= 15) " +
+                                    "WHERE \"rowNumber\" > 10 ORDER BY \"rowNumber\"",
+                            new OracleSelectQuery(offsetQuery, schema).getParametrizedSql());
+
+        SearchQuery offsetOnlyQuery = SearchQuery.searchFrom("store").orderBy(OrderBy.asc("id")).offset(10);
+        Assert.assertEquals("SELECT * FROM `store` ORDER BY `id` ASC  LIMIT 18446744073709551615 OFFSET 10",
+                            new MySqlSelectQuery(offsetOnlyQuery, schema).getParametrizedSql());
+        Assert.assertEquals("SELECT * FROM \"store\" ORDER BY \"id\" ASC  OFFSET 10",
+                            new PostgresqlSelectQuery(offsetOnlyQuery, schema).getParametrizedSql());
+    }
+
+    @Test
+    public void testSelectedFieldsQuery() {
+        SearchQuery selectQuery = SearchQuery.searchFrom("store")
+                                             .select("id", "name")
+                                             .where(WhereClause.begin().eq("name", "foo").combine());
+        Schema schema = Schema.of(Schema.Field.of("id", Schema.Type.LONG), Schema.Field.of("name", Schema.Type.STRING),
+                                  Schema.Field.of("description", Schema.Type.STRING));
+
+        Assert.assertEquals("SELECT `id`, `name` FROM `store` WHERE  `name` = ? ",
+                            new MySqlSelectQuery(selectQuery, schema).getParametrizedSql());
+        Assert.assertEquals("SELECT \"id\", \"name\" FROM \"store\" WHERE  \"name\" = ? ",
+                            new PostgresqlSelectQuery(selectQuery, schema).getParametrizedSql());
+        Assert.assertEquals("SELECT \"id\", \"name\" FROM \"store\" WHERE  \"name\" = ? ",
+                            new OracleSelectQuery(selectQuery, schema).getParametrizedSql());
+    }
+
+    @Test
+    public void testAggregateQuery() {
+        SearchQuery searchQuery = SearchQuery.searchFrom("store")
+                                             .where(WhereClause.begin().eq("name", "foo").combine())
+                                             .orderBy(OrderBy.asc("id"));
+        Schema schema = Schema.of(Schema.Field.of("id", Schema.Type.LONG), Schema.Field.of("name", Schema.Type.STRING));
+
+        // aggregates are not ordered
+        Assert.assertEquals("SELECT COUNT(*) FROM `store` WHERE  `name` = ? ",
+                            new MySqlSelectQuery(searchQuery, schema, Aggregate.count()).getParametrizedSql());
+        Assert.assertEquals("SELECT MAX(`id`) FROM `store` WHERE  `name` = ? ",
+                            new MySqlSelectQuery(searchQuery, schema, Aggregate.max("id")).getParametrizedSql());
+        Assert.assertEquals("SELECT MAX(\"id\") FROM \"store\" WHERE  \"name\" = ? ",
+                            new PostgresqlSelectQuery(searchQuery, schema, Aggregate.max("id")).getParametrizedSql());
+        Assert.assertEquals("SELECT COUNT(*) FROM \"store\" WHERE  \"name\" = ? ",
+                            new OracleSelectQuery(searchQuery, schema, Aggregate.count()).getParametrizedSql());
+
+        // aggregate is a part of the query
+        Assert.assertNotEquals(new MySqlSelectQuery(searchQuery, schema, Aggregate.count()),
+                               new MySqlSelectQuery(searchQuery, schema, Aggregate.max("id")));
+        Assert.assertNotEquals(new MySqlSelectQuery(searchQuery, schema, Aggregate.count()),
+                               new MySqlSelectQuery(searchQuery, schema));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAggregateQueryWithLimit() {
+        Schema schema = Schema.of(Schema.Field.of("id", Schema.Type.LONG));
+        new MySqlSelectQuery(SearchQuery.searchFrom("store").limit(5), schema, Aggregate.count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInQueryWithoutValues() {
+        WhereClause.begin().in("id", Lists.newArrayList());
+    }
 }
@@ -0,0 +1,223 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage;
+
+import com.hortonworks.registries.common.Schema;
+import com.hortonworks.registries.storage.catalog.AbstractStorable;
+import com.hortonworks.registries.storage.impl.jdbc.JdbcStorageManager;
+import com.hortonworks.registries.storage.impl.jdbc.config.ExecutionConfig;
+import com.hortonworks.registries.storage.impl.jdbc.config.HikariBasicConfig;
+import com.hortonworks.registries.storage.impl.jdbc.connection.ConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.connection.HikariCPConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.provider.mysql.factory.MySqlExecutor;
+import com.hortonworks.registries.storage.impl.memory.InMemoryStorageManager;
+import com.hortonworks.registries.storage.search.OrderBy;
+import com.hortonworks.registries.storage.search.SearchQuery;
+import com.hortonworks.registries.storage.search.WhereClause;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the same search queries on the in memory storage manager and on a jdbc storage manager backed by H2, so that
+ * both of them return the same entries.
+ */
+@RunWith(Parameterized.class)
+public class StorageManagerSearchTest {
+    private static final String NAMESPACE = "search_test";
+    private static final int COUNT = 20;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> storageManagers() {
+        return Arrays.asList(new Object[]{"memory"}, new Object[]{"jdbc"});
+    }
+
+    private final boolean jdbc;
+    private ConnectionBuilder connectionBuilder;
+    private StorageManager storageManager;
+
+    public StorageManagerSearchTest(String storageManagerType) {
+        this.jdbc = "jdbc".equals(storageManagerType);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        if (jdbc) {
+            connectionBuilder = new HikariCPConnectionBuilder(HikariBasicConfig.getH2HikariConfig());
+            execute("CREATE TABLE IF NOT EXISTS " + NAMESPACE + " (id BIGINT NOT NULL, name VARCHAR(255) NOT NULL, amount INT, PRIMARY KEY (id))");
+            storageManager = new JdbcStorageManager(new MySqlExecutor(new ExecutionConfig(-1), connectionBuilder));
+        } else {
+            storageManager = new InMemoryStorageManager();
+        }
+        storageManager.registerStorables(Collections.singletonList(SearchStorable.class));
+
+        // every fifth entry does not have an amount
+        for (long i = 1; i <= COUNT; i++) {
+            storageManager.add(new SearchStorable(i, i % 2 == 0 ? "even" : "odd", i % 5 == 0 ? null : (int) i * 10));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (jdbc) {
+            execute("DROP TABLE IF EXISTS " + NAMESPACE);
+        }
+        storageManager.cleanup();
+    }
+
+    @Test
+    public void testSearch() {
+        SearchQuery searchQuery = SearchQuery.searchFrom(NAMESPACE)
+                                             .where(WhereClause.begin()
+                                                               .eq("name", "even")
+                                                               .and()
+                                                               .enclose(WhereClause.begin()
+                                                                                   .gt("amount", 100)
+                                                                                   .or()
+                                                                                   .lt("id", 3L))
+                                                               .combine())
+                                             .orderBy(OrderBy.desc("id"));
+        Assert.assertEquals(Arrays.asList(18L, 16L, 14L, 12L, 2L), ids(storageManager.search(searchQuery)));
+
+        SearchQuery inQuery = SearchQuery.searchFrom(NAMESPACE)
+                                         .where(WhereClause.begin().in("id", Arrays.asList(3L, 1L, 30L)).combine())
+                                         .orderBy(OrderBy.asc("id"));
+        Assert.assertEquals(Arrays.asList(1L, 3L), ids(storageManager.search(inQuery)));
+    }
+
+    @Test
+    public void testSearchWithLimitAndOffset() {
+        SearchQuery searchQuery = SearchQuery.searchFrom(NAMESPACE)
+                                             .where(WhereClause.begin().eq("name", "odd").combine())
+                                             .orderBy(OrderBy.desc("id"))
+                                             .limit(3)
+                                             .offset(2);
+        Assert.assertEquals(Arrays.asList(15L, 13L, 11L), ids(storageManager.search(searchQuery)));
+
+        SearchQuery lastPageQuery = SearchQuery.searchFrom(NAMESPACE)
+                                               .orderBy(OrderBy.asc("id"))
+                                               .limit(5)
+                                               .offset(COUNT - 2);
+        Assert.assertEquals(Arrays.asList(19L, 20L), ids(storageManager.search(lastPageQuery)));
+    }
+
+    @Test
+    public void testSearchWithSelectedFields() {
+        SearchQuery searchQuery = SearchQuery.searchFrom(NAMESPACE)
+                                             .select("id", "amount")
+                                             .where(WhereClause.begin().lt("id", 3L).combine())
+                                             .orderBy(OrderBy.asc("id"));
+        List<SearchStorable> storables = storageManager.<SearchStorable>search(searchQuery)
+                                                       .stream()
+                                                       .map(x -> (SearchStorable) x)
+                                                       .collect(Collectors.toList());
+        Assert.assertEquals(Arrays.asList(1L, 2L), ids(storables));
+        Assert.assertEquals(Arrays.asList(10, 20), storables.stream().map(SearchStorable::getAmount).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testCountAndMax() {
+        SearchQuery evenQuery = SearchQuery.searchFrom(NAMESPACE).where(WhereClause.begin().eq("name", "even").combine());
+        Assert.assertEquals(COUNT / 2, storageManager.count(evenQuery));
+        Assert.assertEquals(COUNT, storageManager.count(SearchQuery.searchFrom(NAMESPACE)));
+        // null amounts are not aggregated
+        Assert.assertEquals(Integer.valueOf(180), storageManager.<Integer>max(evenQuery, "amount"));
+        Assert.assertEquals(Long.valueOf(COUNT), storageManager.<Long>max(SearchQuery.searchFrom(NAMESPACE), "id"));
+
+        SearchQuery emptyQuery = SearchQuery.searchFrom(NAMESPACE).where(WhereClause.begin().eq("name", "none").combine());
+        Assert.assertEquals(0, storageManager.count(emptyQuery));
+        Assert.assertNull(storageManager.<Long>max(emptyQuery, "id"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCountWithLimit() {
+        storageManager.count(SearchQuery.searchFrom(NAMESPACE).limit(1));
+    }
+
+    private static List<Long> ids(Collection<? extends Storable> storables) {
+        return storables.stream().map(Storable::getId).collect(Collectors.toList());
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = connectionBuilder.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    public static class SearchStorable extends AbstractStorable {
+        private Long id;
+        private String name;
+        private Integer amount;
+
+        public SearchStorable() {
+        }
+
+        SearchStorable(Long id, String name, Integer amount) {
+            this.id = id;
+            this.name = name;
+            this.amount = amount;
+        }
+
+        @Override
+        public String getNameSpace() {
+            return NAMESPACE;
+        }
+
+        @Override
+        public PrimaryKey getPrimaryKey() {
+            return new PrimaryKey(Collections.singletonMap(new Schema.Field("id", Schema.Type.LONG), id));
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getAmount() {
+            return amount;
+        }
+
+        public void setAmount(Integer amount) {
+            this.amount = amount;
+        }
+    }
+}
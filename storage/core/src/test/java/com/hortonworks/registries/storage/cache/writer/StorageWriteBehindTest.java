@@ -0,0 +1,383 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage.cache.writer;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.hortonworks.registries.common.QueryParam;
+import com.hortonworks.registries.common.Schema;
+import com.hortonworks.registries.storage.CacheBackedStorageManager;
+import com.hortonworks.registries.storage.PrimaryKey;
+import com.hortonworks.registries.storage.Storable;
+import com.hortonworks.registries.storage.StorableKey;
+import com.hortonworks.registries.storage.TransactionManager;
+import com.hortonworks.registries.storage.cache.impl.GuavaCache;
+import com.hortonworks.registries.storage.catalog.AbstractStorable;
+import com.hortonworks.registries.storage.exception.StorageException;
+import com.hortonworks.registries.storage.impl.memory.InMemoryStorageManager;
+import com.hortonworks.registries.storage.transaction.TransactionIsolation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ */
+public class StorageWriteBehindTest {
+    private static final String NAMESPACE = "write_behind_test";
+    // long enough that only explicit and batch size triggered flushes happen in the tests
+    private static final long FLUSH_INTERVAL_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private CountingInMemoryStorageManager dao;
+    private StorageWriteBehind writer;
+
+    @Before
+    public void setUp() {
+        dao = new CountingInMemoryStorageManager();
+        dao.registerStorables(Collections.singletonList(WriteStorable.class));
+        writer = new StorageWriteBehind(dao, FLUSH_INTERVAL_MILLIS, 100, 1000);
+    }
+
+    @After
+    public void tearDown() {
+        writer.close();
+    }
+
+    @Test
+    public void testWritesOfAKeyAreCoalesced() {
+        writer.add(new WriteStorable(1L, "v1"));
+        writer.update(new WriteStorable(1L, "v2"));
+        writer.addOrUpdate(new WriteStorable(1L, "v3"));
+        Assert.assertEquals(1, writer.getPendingWriteCount());
+        Assert.assertNull(dao.get(new WriteStorable(1L, null).getStorableKey()));
+
+        writer.flush();
+
+        Assert.assertEquals(0, writer.getPendingWriteCount());
+        Assert.assertEquals(0L, writer.getLagMillis());
+        Assert.assertEquals(Collections.singletonList(new WriteStorable(1L, "v3")), new ArrayList<>(dao.list(NAMESPACE)));
+        Assert.assertEquals(1, writer.getFlushedWriteCount());
+    }
+
+    @Test
+    public void testRemoveOfPendingAdd() {
+        WriteStorable storable = new WriteStorable(1L, "v1");
+        writer.add(storable);
+
+        Assert.assertEquals(storable, writer.remove(storable.getStorableKey()));
+        Assert.assertEquals(0, writer.getPendingWriteCount());
+
+        writer.flush();
+        Assert.assertTrue(dao.list(NAMESPACE).isEmpty());
+        Assert.assertEquals(0, writer.getFlushedWriteCount());
+    }
+
+    @Test
+    public void testRemoveOfWrittenStorable() {
+        WriteStorable storable = new WriteStorable(1L, "v1");
+        dao.add(storable);
+
+        Assert.assertEquals(storable, writer.remove(storable.getStorableKey()));
+        Assert.assertNull(writer.remove(storable.getStorableKey()));
+        writer.add(new WriteStorable(1L, "v2"));
+        writer.flush();
+
+        Assert.assertEquals(Collections.singletonList(new WriteStorable(1L, "v2")), new ArrayList<>(dao.list(NAMESPACE)));
+    }
+
+    @Test
+    public void testAddsAreWrittenInBatches() {
+        for (long i = 0; i < 50; i++) {
+            writer.add(new WriteStorable(i, "v" + i));
+        }
+        writer.flush();
+
+        Assert.assertEquals(50, dao.list(NAMESPACE).size());
+        Assert.assertEquals(1, dao.addAllCalls.get());
+    }
+
+    @Test(timeout = 30000)
+    public void testWritesBlockUntilPendingWritesAreFlushed() throws Exception {
+        writer.close();
+        writer = new StorageWriteBehind(dao, FLUSH_INTERVAL_MILLIS, 10, 10);
+
+        for (long i = 0; i < 100; i++) {
+            writer.add(new WriteStorable(i, "v" + i));
+            Assert.assertTrue(writer.getPendingWriteCount() <= 10);
+        }
+        writer.flush();
+
+        Assert.assertEquals(100, dao.list(NAMESPACE).size());
+        Assert.assertEquals(100, writer.getFlushedWriteCount());
+    }
+
+    @Test
+    public void testCloseFlushesPendingWrites() {
+        writer.add(new WriteStorable(1L, "v1"));
+        writer.close();
+
+        Assert.assertEquals(1, dao.list(NAMESPACE).size());
+        try {
+            writer.add(new WriteStorable(2L, "v2"));
+            Assert.fail("Writes should not be accepted after closing");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testCacheBackedStorageManagerQueriesPendingWrites() {
+        CacheBackedStorageManager storageManager =
+                new CacheBackedStorageManager(new GuavaCache(dao, CacheBuilder.newBuilder().maximumSize(100)), writer);
+        WriteStorable storable = new WriteStorable(1L, "v1");
+        storageManager.add(storable);
+
+        Assert.assertEquals(Collections.singletonList(storable),
+                            new ArrayList<>(storageManager.find(NAMESPACE,
+                                                                Collections.singletonList(new QueryParam("name", "v1")))));
+        Assert.assertEquals(0, writer.getPendingWriteCount());
+    }
+
+    @Test(timeout = 30000)
+    public void testRemoveOfAddBeingWritten() throws Exception {
+        WriteStorable storable = new WriteStorable(1L, "v1");
+        dao.blockedAdd = new CountDownLatch(1);
+        writer.add(storable);
+        Thread flushThread = new Thread(writer::flush);
+        flushThread.start();
+        dao.addStarted.await();
+
+        Assert.assertEquals(storable, writer.remove(storable.getStorableKey()));
+        dao.blockedAdd.countDown();
+        flushThread.join();
+        writer.flush();
+
+        Assert.assertTrue(dao.list(NAMESPACE).isEmpty());
+    }
+
+    @Test
+    public void testFailedWritesAreRetried() {
+        dao.failingAdds.set(1);
+        writer.add(new WriteStorable(1L, "v1"));
+        writer.flush();
+        Assert.assertEquals(1, writer.getPendingWriteCount());
+
+        writer.flush();
+        Assert.assertEquals(0, writer.getPendingWriteCount());
+        Assert.assertEquals(1, dao.list(NAMESPACE).size());
+        Assert.assertEquals(0, writer.getFailedWriteCount());
+
+        dao.failingAdds.set(StorageWriteBehind.MAX_WRITE_ATTEMPTS);
+        writer.add(new WriteStorable(2L, "v2"));
+        for (int i = 0; i < StorageWriteBehind.MAX_WRITE_ATTEMPTS; i++) {
+            writer.flush();
+        }
+        Assert.assertEquals(0, writer.getPendingWriteCount());
+        Assert.assertEquals(1, dao.list(NAMESPACE).size());
+        Assert.assertEquals(1, writer.getFailedWriteCount());
+    }
+
+    @Test(timeout = 30000)
+    public void testFailedWritesAreRetriedBeforeLaterWrites() throws Exception {
+        dao.failingAdds.set(1);
+        dao.blockedAdd = new CountDownLatch(1);
+        writer.add(new WriteStorable(1L, "v1"));
+        Thread flushThread = new Thread(writer::flush);
+        flushThread.start();
+        dao.addStarted.await();
+
+        // accepted while the failing write is being written
+        writer.addOrUpdate(new WriteStorable(2L, "v2"));
+        dao.blockedAdd.countDown();
+        flushThread.join();
+        dao.blockedAdd = null;
+        writer.flush();
+
+        Assert.assertEquals(Arrays.asList(1L, 2L), dao.writtenIds);
+    }
+
+    @Test
+    public void testBatchesAreWrittenInATransaction() {
+        writer.close();
+        TransactionalInMemoryStorageManager transactionalDao = new TransactionalInMemoryStorageManager();
+        transactionalDao.registerStorables(Collections.singletonList(WriteStorable.class));
+        writer = new StorageWriteBehind(transactionalDao, FLUSH_INTERVAL_MILLIS, 100, 1000);
+
+        writer.add(new WriteStorable(1L, "v1"));
+        writer.add(new WriteStorable(2L, "v2"));
+        writer.flush();
+
+        Assert.assertEquals(2, transactionalDao.list(NAMESPACE).size());
+        Assert.assertEquals(1, transactionalDao.commits.get());
+    }
+
+    @Test
+    public void testAddsOfAPartiallyWrittenBatchAreNotRetried() {
+        dao.partialAddAll = true;
+        writer.add(new WriteStorable(1L, "v1"));
+        writer.add(new WriteStorable(2L, "v2"));
+        writer.flush();
+
+        Assert.assertEquals(2, dao.list(NAMESPACE).size());
+        Assert.assertEquals(0, writer.getPendingWriteCount());
+        Assert.assertEquals(2, writer.getFlushedWriteCount());
+    }
+
+    @Test
+    public void testWritesAreDoneByTheFlushThread() {
+        writer.add(new WriteStorable(1L, "v1"));
+        writer.flush();
+
+        Assert.assertEquals("storage-write-behind", dao.lastWriterThread);
+    }
+
+    private static class CountingInMemoryStorageManager extends InMemoryStorageManager {
+        private final AtomicInteger addAllCalls = new AtomicInteger();
+        private final AtomicInteger failingAdds = new AtomicInteger();
+        private final CountDownLatch addStarted = new CountDownLatch(1);
+        private volatile CountDownLatch blockedAdd;
+        private volatile String lastWriterThread;
+        private final List<Long> writtenIds = Collections.synchronizedList(new ArrayList<>());
+        // adds only the first storable of a batch and fails, like a batch written without a transaction
+        private volatile boolean partialAddAll;
+
+        @Override
+        public void addAll(Collection<? extends Storable> storables) {
+            addAllCalls.incrementAndGet();
+            if (partialAddAll) {
+                super.add(storables.iterator().next());
+                throw new StorageException("Failed to add " + storables);
+            }
+            super.addAll(storables);
+        }
+
+        @Override
+        public void addOrUpdate(Storable storable) {
+            writtenIds.add(storable.getId());
+            super.addOrUpdate(storable);
+        }
+
+        @Override
+        public void add(Storable storable) {
+            lastWriterThread = Thread.currentThread().getName();
+            addStarted.countDown();
+            if (blockedAdd != null) {
+                Uninterruptibles.awaitUninterruptibly(blockedAdd);
+            }
+            if (failingAdds.getAndUpdate(x -> Math.max(0, x - 1)) > 0) {
+                throw new StorageException("Failed to add " + storable);
+            }
+            if (partialAddAll && get(storable.getStorableKey()) != null) {
+                // duplicate keys fail like in a database
+                throw new StorageException("Storable already exists " + storable);
+            }
+            super.add(storable);
+        }
+    }
+
+    private static class TransactionalInMemoryStorageManager extends CountingInMemoryStorageManager implements TransactionManager {
+        private final AtomicInteger commits = new AtomicInteger();
+
+        @Override
+        public void beginTransaction(TransactionIsolation transactionIsolationLevel) {
+        }
+
+        @Override
+        public void rollbackTransaction() {
+        }
+
+        @Override
+        public void commitTransaction() {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public boolean readLock(StorableKey key, Long time, TimeUnit timeUnit) {
+            return true;
+        }
+
+        @Override
+        public boolean writeLock(StorableKey key, Long time, TimeUnit timeUnit) {
+            return true;
+        }
+    }
+
+    public static class WriteStorable extends AbstractStorable {
+        private Long id;
+        private String name;
+
+        public WriteStorable() {
+        }
+
+        WriteStorable(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public String getNameSpace() {
+            return NAMESPACE;
+        }
+
+        @Override
+        public PrimaryKey getPrimaryKey() {
+            return new PrimaryKey(Collections.singletonMap(new Schema.Field("id", Schema.Type.LONG), id));
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            WriteStorable that = (WriteStorable) o;
+            return Objects.equals(id, that.id) && Objects.equals(name, that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, name);
+        }
+    }
+}
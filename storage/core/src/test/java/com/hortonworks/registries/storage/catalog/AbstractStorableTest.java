@@ -0,0 +1,192 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage.catalog;
+
+import com.hortonworks.registries.common.Schema;
+import com.hortonworks.registries.storage.PrimaryKey;
+import com.hortonworks.registries.storage.annotation.SchemaIgnore;
+import com.hortonworks.registries.storage.exception.StorageException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+/**
+ *
+ */
+public class AbstractStorableTest {
+
+    @Test
+    public void testToMapAndFromMap() {
+        Device device = new Device();
+        device.setId(1L);
+        device.setName("device-1");
+        device.setEnabled(true);
+        device.setTags("tag");
+
+        Map<String, Object> map = device.toMap();
+        Map<String, Object> expected = new HashMap<>();
+        expected.put("id", 1L);
+        expected.put("name", "device-1");
+        expected.put("enabled", true);
+        expected.put("description", null);
+        expected.put("tags", "tag");
+        expected.put("transientState", null);
+        Assert.assertEquals(expected, map);
+
+        Device copy = (Device) new Device().fromMap(map);
+        Assert.assertEquals(1L, copy.getId().longValue());
+        Assert.assertEquals("device-1", copy.getName());
+        Assert.assertTrue(copy.getEnabled());
+        Assert.assertNull(copy.getDescription());
+        // value is set through the setter accepting a super type
+        Assert.assertEquals("tag", copy.getTags());
+    }
+
+    @Test
+    public void testGetSchema() {
+        Device device = new Device();
+        Schema schema = device.getSchema();
+        Assert.assertEquals(new HashSet<>(schema.getFields()), new HashSet<>(device.getSchema().getFields()));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(new Schema.Field("id", Schema.Type.LONG),
+                                                        new Schema.Field("name", Schema.Type.STRING),
+                                                        new Schema.Field("enabled", Schema.Type.BOOLEAN),
+                                                        new Schema.Field("description", Schema.Type.STRING),
+                                                        new Schema.Field("tags", Schema.Type.STRING))),
+                            new HashSet<>(schema.getFields()));
+
+        // returned schemas can be modified by the callers
+        Assert.assertNotSame(schema.getFields(), device.getSchema().getFields());
+    }
+
+    @Test
+    public void testGetSchemaWithValueDependentTypes() {
+        Sensor sensor = new Sensor();
+        sensor.setReading("10");
+        Assert.assertEquals(Collections.singletonList(new Schema.Field("reading", Schema.Type.STRING)),
+                            sensor.getSchema().getFields());
+
+        sensor.setReading(10L);
+        Assert.assertEquals(Collections.singletonList(new Schema.Field("reading", Schema.Type.LONG)),
+                            sensor.getSchema().getFields());
+    }
+
+    @Test(expected = StorageException.class)
+    public void testFromMapWithoutSetter() {
+        new Device().fromMap(Collections.singletonMap("unknown", "value"));
+    }
+
+    @Test(expected = StorageException.class)
+    public void testFromMapWithWrongValueType() {
+        new Device().fromMap(Collections.singletonMap("name", 10));
+    }
+
+    public static class Device extends AbstractStorable {
+        private Long id;
+        private String name;
+        private Boolean enabled;
+        private String description;
+        private String tags;
+        @SchemaIgnore
+        private Object transientState;
+
+        @Override
+        public String getNameSpace() {
+            return "devices";
+        }
+
+        @Override
+        public PrimaryKey getPrimaryKey() {
+            return new PrimaryKey(Collections.singletonMap(new Schema.Field("id", Schema.Type.LONG), id));
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Boolean getEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(Boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public String getTags() {
+            return tags;
+        }
+
+        public void setTags(CharSequence tags) {
+            this.tags = tags.toString();
+        }
+
+        public Object getTransientState() {
+            return transientState;
+        }
+
+        public void setTransientState(Object transientState) {
+            this.transientState = transientState;
+        }
+    }
+
+    public static class Sensor extends AbstractStorable {
+        private Object reading;
+
+        @Override
+        public String getNameSpace() {
+            return "sensors";
+        }
+
+        @Override
+        public PrimaryKey getPrimaryKey() {
+            return new PrimaryKey(Collections.emptyMap());
+        }
+
+        public Object getReading() {
+            return reading;
+        }
+
+        public void setReading(Object reading) {
+            this.reading = reading;
+        }
+    }
+}
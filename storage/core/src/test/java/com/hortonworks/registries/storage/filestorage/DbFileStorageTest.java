@@ -15,7 +15,10 @@
  **/
 package com.hortonworks.registries.storage.filestorage;
 
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.hortonworks.registries.storage.transaction.TransactionIsolation;
+import com.hortonworks.registries.storage.Storable;
 import com.hortonworks.registries.storage.StorageManager;
 import com.hortonworks.registries.storage.TransactionManager;
 import com.hortonworks.registries.storage.exception.StorageException;
@@ -24,6 +27,7 @@ import com.hortonworks.registries.storage.impl.jdbc.config.ExecutionConfig;
 import com.hortonworks.registries.storage.impl.jdbc.config.HikariBasicConfig;
 import com.hortonworks.registries.storage.impl.jdbc.connection.HikariCPConnectionBuilder;
 import com.hortonworks.registries.storage.impl.jdbc.provider.mysql.factory.MySqlExecutor;
+import com.hortonworks.registries.storage.impl.memory.InMemoryStorageManager;
 import com.hortonworks.registries.storage.util.StorageUtils;
 import org.apache.commons.io.IOUtils;
 import org.h2.tools.RunScript;
@@ -32,18 +36,25 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.SequenceInputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DbFileStorageTest {
     private static final String FILE_NAME = "data.txt";
     DbFileStorage dbFileStorage;
+    StorageManager storageManager;
     TransactionManager transactionManager;
     HikariCPConnectionBuilder connectionBuilder;
 
@@ -52,6 +63,7 @@ public class DbFileStorageTest {
         connectionBuilder = new HikariCPConnectionBuilder(HikariBasicConfig.getH2HikariConfig());
         MySqlExecutor queryExecutor = new MySqlExecutor(new ExecutionConfig(-1), connectionBuilder);
         StorageManager jdbcStorageManager = new JdbcStorageManager(queryExecutor);
+        storageManager = jdbcStorageManager;
         transactionManager = (TransactionManager) jdbcStorageManager;
         jdbcStorageManager.registerStorables(StorageUtils.getStorableEntities());
         dbFileStorage = new DbFileStorage();
@@ -119,6 +131,182 @@ public class DbFileStorageTest {
         }
     }
 
+    @Test
+    public void testChunkedUploadDownload() throws Exception {
+        dbFileStorage.init(Collections.singletonMap(DbFileStorage.CONFIG_CHUNK_SIZE, "1000"));
+        byte[] content = randomBytes(10 * 1000 + 1);
+        dbFileStorage.upload(new ByteArrayInputStream(content), FILE_NAME);
+        Assert.assertEquals(11, storageManager.list(FileBlobChunk.NAMESPACE).size());
+        Assert.assertArrayEquals(content, ByteStreams.toByteArray(dbFileStorage.download(FILE_NAME)));
+
+        // chunks of the replaced content are removed
+        byte[] updated = Arrays.copyOf(content, 500);
+        dbFileStorage.upload(new ByteArrayInputStream(updated), FILE_NAME);
+        Assert.assertEquals(1, storageManager.list(FileBlobChunk.NAMESPACE).size());
+        Assert.assertArrayEquals(updated, ByteStreams.toByteArray(dbFileStorage.download(FILE_NAME)));
+
+        Assert.assertTrue(dbFileStorage.delete(FILE_NAME));
+        Assert.assertTrue(storageManager.list(FileBlobChunk.NAMESPACE).isEmpty());
+    }
+
+    @Test
+    public void testContentUpload() throws Exception {
+        dbFileStorage.init(Collections.singletonMap(DbFileStorage.CONFIG_CHUNK_SIZE, "1000"));
+        byte[] content = randomBytes(2500);
+        String name = dbFileStorage.uploadContent(new ByteArrayInputStream(content));
+        Assert.assertEquals(Hashing.sha256().hashBytes(content).toString(), name);
+
+        // the same content is stored once
+        Assert.assertEquals(name, dbFileStorage.uploadContent(new ByteArrayInputStream(content)));
+        Assert.assertEquals(1, storageManager.list(FileBlob.NAMESPACE).size());
+        Assert.assertEquals(3, storageManager.list(FileBlobChunk.NAMESPACE).size());
+        Assert.assertArrayEquals(content, ByteStreams.toByteArray(dbFileStorage.download(name)));
+        Assert.assertEquals(content.length, dbFileStorage.size(name));
+    }
+
+    @Test
+    public void testContentUploadSmallerThanChunk() throws Exception {
+        byte[] content = randomBytes(500);
+        String name = dbFileStorage.uploadContent(new ByteArrayInputStream(content));
+        Assert.assertEquals(Hashing.sha256().hashBytes(content).toString(), name);
+        Assert.assertEquals(name, dbFileStorage.uploadContent(new ByteArrayInputStream(content)));
+        Assert.assertEquals(1, storageManager.list(FileBlobChunk.NAMESPACE).size());
+        Assert.assertArrayEquals(content, ByteStreams.toByteArray(dbFileStorage.download(name)));
+
+        String emptyName = dbFileStorage.uploadContent(new ByteArrayInputStream(new byte[0]));
+        Assert.assertEquals(Hashing.sha256().hashBytes(new byte[0]).toString(), emptyName);
+        Assert.assertEquals(2, storageManager.list(FileBlob.NAMESPACE).size());
+        Assert.assertEquals(1, storageManager.list(FileBlobChunk.NAMESPACE).size());
+        Assert.assertEquals(0, ByteStreams.toByteArray(dbFileStorage.download(emptyName)).length);
+        Assert.assertEquals(0, dbFileStorage.size(emptyName));
+    }
+
+    @Test
+    public void testDuplicateContentChunksAreNotStored() throws Exception {
+        AtomicInteger addedChunks = new AtomicInteger();
+        InMemoryStorageManager chunkCountingStorageManager = new InMemoryStorageManager() {
+            @Override
+            public void add(Storable storable) {
+                if (storable instanceof FileBlobChunk) {
+                    addedChunks.incrementAndGet();
+                }
+                super.add(storable);
+            }
+        };
+        chunkCountingStorageManager.registerStorables(Arrays.asList(FileBlob.class, FileBlobChunk.class));
+        dbFileStorage.setStorageManager(chunkCountingStorageManager);
+        dbFileStorage.init(Collections.singletonMap(DbFileStorage.CONFIG_CHUNK_SIZE, "1000"));
+        byte[] content = randomBytes(2500);
+        String name = dbFileStorage.uploadContent(new ByteArrayInputStream(content));
+        Assert.assertEquals(3, addedChunks.get());
+
+        // content larger than a chunk is looked up before its chunks are stored
+        Assert.assertEquals(name, dbFileStorage.uploadContent(new ByteArrayInputStream(content)));
+        Assert.assertEquals(3, addedChunks.get());
+    }
+
+    @Test
+    public void testFailedUploadRemovesItsChunks() throws Exception {
+        dbFileStorage.init(Collections.singletonMap(DbFileStorage.CONFIG_CHUNK_SIZE, "1000"));
+        InputStream failingStream = new SequenceInputStream(new ByteArrayInputStream(randomBytes(2500)), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+        try {
+            dbFileStorage.uploadContent(failingStream);
+            Assert.fail("Upload should fail with the stream");
+        } catch (IOException e) {
+            // expected
+        }
+        Assert.assertTrue(storageManager.list(FileBlobChunk.NAMESPACE).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentContentUploadIsDeduplicated() throws Exception {
+        byte[] content = randomBytes(2500);
+        // the same content is added by another upload after this one checked that it does not exist
+        DbFileStorage concurrentFileStorage = new DbFileStorage();
+        concurrentFileStorage.setStorageManager(storageManager);
+        concurrentFileStorage.init(Collections.singletonMap(DbFileStorage.CONFIG_CHUNK_SIZE, "1000"));
+        dbFileStorage = new DbFileStorage() {
+            private boolean checked;
+
+            @Override
+            public boolean exists(String name) {
+                if (!checked) {
+                    checked = true;
+                    try {
+                        concurrentFileStorage.uploadContent(new ByteArrayInputStream(content));
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                    return false;
+                }
+                return super.exists(name);
+            }
+        };
+        dbFileStorage.setStorageManager(storageManager);
+        dbFileStorage.init(Collections.singletonMap(DbFileStorage.CONFIG_CHUNK_SIZE, "1000"));
+
+        String name = dbFileStorage.uploadContent(new ByteArrayInputStream(content));
+        Assert.assertEquals(Hashing.sha256().hashBytes(content).toString(), name);
+        Assert.assertEquals(1, storageManager.list(FileBlob.NAMESPACE).size());
+        Assert.assertEquals(3, storageManager.list(FileBlobChunk.NAMESPACE).size());
+        Assert.assertArrayEquals(content, ByteStreams.toByteArray(dbFileStorage.download(name)));
+    }
+
+    @Test
+    public void testLargeContentIsStreamed() throws Exception {
+        // chunks are discarded, so that the content is never held in memory
+        InMemoryStorageManager chunkDiscardingStorageManager = new InMemoryStorageManager() {
+            @Override
+            public void add(Storable storable) {
+                if (!(storable instanceof FileBlobChunk)) {
+                    super.add(storable);
+                }
+            }
+        };
+        chunkDiscardingStorageManager.registerStorables(Arrays.asList(FileBlob.class, FileBlobChunk.class));
+        dbFileStorage.setStorageManager(chunkDiscardingStorageManager);
+
+        long size = 200L * 1024 * 1024 + 1;
+        InputStream content = ByteStreams.limit(new InputStream() {
+            @Override
+            public int read() {
+                return 7;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                Arrays.fill(b, off, off + len, (byte) 7);
+                return len;
+            }
+        }, size);
+        String name = dbFileStorage.uploadContent(content);
+
+        FileBlob fileBlob = chunkDiscardingStorageManager.get(FileBlob.getStorableKey(name));
+        Assert.assertEquals(size, fileBlob.getSize().longValue());
+        Assert.assertEquals(201, fileBlob.getChunks().intValue());
+    }
+
+    @Test
+    public void testDownloadSingleBlob() throws Exception {
+        // files stored as a single blob are downloaded from that blob
+        FileBlob fileBlob = new FileBlob();
+        fileBlob.setName(FILE_NAME);
+        fileBlob.setVersion(0L);
+        fileBlob.setTimestamp(System.currentTimeMillis());
+        fileBlob.setData("single blob".getBytes("UTF-8"));
+        storageManager.add(fileBlob);
+
+        Assert.assertEquals("single blob", IOUtils.toString(dbFileStorage.download(FILE_NAME), "UTF-8"));
+        Assert.assertEquals("single blob".length(), dbFileStorage.size(FILE_NAME));
+        Assert.assertTrue(dbFileStorage.delete(FILE_NAME));
+        Assert.assertFalse(dbFileStorage.exists(FILE_NAME));
+    }
+
     @Test (expected = StorageException.class)
     public void testConcurrentUpload() throws Throwable {
         try {
@@ -179,6 +367,12 @@ public class DbFileStorageTest {
         }
     }
 
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(7).nextBytes(bytes);
+        return bytes;
+    }
+
     private void runScript(String fileName) throws SQLException, IOException {
         Connection connection = null;
         try {
@@ -0,0 +1,189 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage.impl.jdbc;
+
+import com.hortonworks.registries.common.Schema;
+import com.hortonworks.registries.storage.PrimaryKey;
+import com.hortonworks.registries.storage.StorableKey;
+import com.hortonworks.registries.storage.catalog.AbstractStorable;
+import com.hortonworks.registries.storage.impl.jdbc.config.ExecutionConfig;
+import com.hortonworks.registries.storage.impl.jdbc.config.HikariBasicConfig;
+import com.hortonworks.registries.storage.impl.jdbc.connection.ConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.connection.HikariCPConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.provider.mysql.factory.MySqlExecutor;
+import com.hortonworks.registries.storage.transaction.TransactionIsolation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ *
+ */
+public class JdbcStorageManagerBatchTest {
+    private static final String NAMESPACE = "batch_test";
+    private static final int COUNT = 1500;
+
+    private ConnectionBuilder connectionBuilder;
+    private JdbcStorageManager jdbcStorageManager;
+
+    @Before
+    public void setUp() throws Exception {
+        connectionBuilder = new HikariCPConnectionBuilder(HikariBasicConfig.getH2HikariConfig());
+        execute("CREATE TABLE IF NOT EXISTS " + NAMESPACE + " (id BIGINT AUTO_INCREMENT NOT NULL, name VARCHAR(255) NOT NULL, PRIMARY KEY (id))");
+        jdbcStorageManager = new JdbcStorageManager(new MySqlExecutor(new ExecutionConfig(-1), connectionBuilder));
+        jdbcStorageManager.registerStorables(Collections.singletonList(BatchStorable.class));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        execute("DROP TABLE IF EXISTS " + NAMESPACE);
+        jdbcStorageManager.cleanup();
+    }
+
+    @Test
+    public void testAddAllAndRemoveAll() throws Exception {
+        List<BatchStorable> storables = new ArrayList<>();
+        for (long i = 1; i <= COUNT; i++) {
+            storables.add(new BatchStorable(i, "field-" + i));
+        }
+
+        jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+        try {
+            jdbcStorageManager.addAll(storables);
+            jdbcStorageManager.commitTransaction();
+        } catch (RuntimeException e) {
+            jdbcStorageManager.rollbackTransaction();
+            throw e;
+        }
+
+        Assert.assertEquals(new HashSet<>(storables), new HashSet<>(jdbcStorageManager.<BatchStorable>list(NAMESPACE)));
+
+        List<StorableKey> removedKeys = storables.subList(0, COUNT - 1)
+                                                 .stream()
+                                                 .map(BatchStorable::getStorableKey)
+                                                 .collect(Collectors.toList());
+        jdbcStorageManager.removeAll(removedKeys);
+
+        Assert.assertEquals(Collections.singletonList(storables.get(COUNT - 1)),
+                            new ArrayList<>(jdbcStorageManager.<BatchStorable>list(NAMESPACE)));
+    }
+
+    @Test
+    public void testAddAllWithoutIds() throws Exception {
+        List<BatchStorable> storables = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            storables.add(new BatchStorable(null, "field-" + i));
+        }
+
+        jdbcStorageManager.addAll(storables);
+
+        Collection<BatchStorable> addedStorables = jdbcStorageManager.list(NAMESPACE);
+        Assert.assertEquals(storables.stream().map(BatchStorable::getName).collect(Collectors.toSet()),
+                            addedStorables.stream().map(BatchStorable::getName).collect(Collectors.toSet()));
+        Set<Long> ids = addedStorables.stream().map(BatchStorable::getId).collect(Collectors.toSet());
+        Assert.assertEquals(COUNT, ids.size());
+        // H2 returns only the last generated key of a batch, ids are set only when the driver returns all of them
+        if (storables.get(0).getId() != null) {
+            Assert.assertEquals(new HashSet<>(storables), new HashSet<>(addedStorables));
+        }
+    }
+
+    @Test
+    public void testAddAllWithEmptyCollection() throws Exception {
+        jdbcStorageManager.addAll(Collections.emptyList());
+        jdbcStorageManager.removeAll(Collections.emptyList());
+
+        Assert.assertTrue(jdbcStorageManager.list(NAMESPACE).isEmpty());
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = connectionBuilder.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    public static class BatchStorable extends AbstractStorable {
+        private Long id;
+        private String name;
+
+        public BatchStorable() {
+        }
+
+        BatchStorable(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public String getNameSpace() {
+            return NAMESPACE;
+        }
+
+        @Override
+        public PrimaryKey getPrimaryKey() {
+            return new PrimaryKey(Collections.singletonMap(new Schema.Field("id", Schema.Type.LONG), id));
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            BatchStorable that = (BatchStorable) o;
+
+            if (id != null ? !id.equals(that.id) : that.id != null) return false;
+            return name != null ? name.equals(that.name) : that.name == null;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = id != null ? id.hashCode() : 0;
+            result = 31 * result + (name != null ? name.hashCode() : 0);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage.impl.jdbc;
+
+import com.hortonworks.registries.common.QueryParam;
+import com.hortonworks.registries.storage.impl.jdbc.config.ExecutionConfig;
+import com.hortonworks.registries.storage.impl.jdbc.config.HikariBasicConfig;
+import com.hortonworks.registries.storage.impl.jdbc.connection.ConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.connection.HikariCPConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.provider.mysql.factory.MySqlExecutor;
+import com.hortonworks.registries.storage.impl.jdbc.util.Columns;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ */
+public class JdbcStorageManagerColumnsTest {
+    private static final String NAMESPACE = "columns_test";
+
+    private ConnectionBuilder connectionBuilder;
+    private CountingMySqlExecutor queryExecutor;
+    private JdbcStorageManager jdbcStorageManager;
+
+    @Before
+    public void setUp() throws Exception {
+        connectionBuilder = new HikariCPConnectionBuilder(HikariBasicConfig.getH2HikariConfig());
+        execute("CREATE TABLE IF NOT EXISTS " + NAMESPACE + " (id BIGINT NOT NULL, name VARCHAR(255), PRIMARY KEY (id))");
+        queryExecutor = new CountingMySqlExecutor(connectionBuilder);
+        jdbcStorageManager = new JdbcStorageManager(queryExecutor);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        execute("DROP TABLE IF EXISTS " + NAMESPACE);
+        jdbcStorageManager.cleanup();
+    }
+
+    @Test
+    public void testColumnsAreLoadedOncePerNamespace() {
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(jdbcStorageManager.find(NAMESPACE, QueryParam.params("name", "name-" + i, "id", "" + i)).isEmpty());
+        }
+        Assert.assertEquals(1, queryExecutor.getColumnsInvocations.get());
+
+        jdbcStorageManager.invalidateColumns();
+        jdbcStorageManager.find(NAMESPACE, QueryParam.params("name", "name"));
+        Assert.assertEquals(2, queryExecutor.getColumnsInvocations.get());
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = connectionBuilder.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static class CountingMySqlExecutor extends MySqlExecutor {
+        private final AtomicInteger getColumnsInvocations = new AtomicInteger();
+
+        CountingMySqlExecutor(ConnectionBuilder connectionBuilder) {
+            super(new ExecutionConfig(-1), connectionBuilder);
+        }
+
+        @Override
+        public Columns getColumns(String namespace) throws SQLException {
+            getColumnsInvocations.incrementAndGet();
+            return super.getColumns(namespace);
+        }
+    }
+}
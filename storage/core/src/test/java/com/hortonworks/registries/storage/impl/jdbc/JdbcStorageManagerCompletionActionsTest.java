@@ -0,0 +1,94 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage.impl.jdbc;
+
+import com.hortonworks.registries.storage.impl.jdbc.config.ExecutionConfig;
+import com.hortonworks.registries.storage.impl.jdbc.config.HikariBasicConfig;
+import com.hortonworks.registries.storage.impl.jdbc.connection.HikariCPConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.provider.mysql.factory.MySqlExecutor;
+import com.hortonworks.registries.storage.transaction.TransactionIsolation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ *
+ */
+public class JdbcStorageManagerCompletionActionsTest {
+
+    private JdbcStorageManager jdbcStorageManager;
+    private List<String> actions;
+
+    @Before
+    public void setUp() {
+        jdbcStorageManager = new JdbcStorageManager(new MySqlExecutor(new ExecutionConfig(-1),
+                                                                    new HikariCPConnectionBuilder(HikariBasicConfig.getH2HikariConfig())));
+        actions = new ArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        jdbcStorageManager.cleanup();
+    }
+
+    @Test
+    public void testActionsWithoutTransaction() {
+        jdbcStorageManager.afterCommit(() -> actions.add("commit"));
+        jdbcStorageManager.afterRollback(() -> actions.add("rollback"));
+
+        Assert.assertEquals(Collections.singletonList("commit"), actions);
+    }
+
+    @Test
+    public void testActionsRunAfterOutermostCommit() {
+        jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+        jdbcStorageManager.afterCommit(() -> actions.add("commit-1"));
+        jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+        jdbcStorageManager.afterCommit(() -> actions.add("commit-2"));
+        jdbcStorageManager.afterRollback(() -> actions.add("rollback"));
+        jdbcStorageManager.commitTransaction();
+
+        Assert.assertTrue(actions.isEmpty());
+
+        jdbcStorageManager.commitTransaction();
+
+        Assert.assertEquals(Arrays.asList("commit-1", "commit-2"), actions);
+    }
+
+    @Test
+    public void testActionsAfterNestedRollback() {
+        jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+        jdbcStorageManager.afterCommit(() -> actions.add("commit"));
+        jdbcStorageManager.afterRollback(() -> actions.add("rollback"));
+        jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+        jdbcStorageManager.rollbackTransaction();
+        jdbcStorageManager.commitTransaction();
+
+        // rollback of a nested transaction rolls back the outermost one
+        Assert.assertEquals(Collections.singletonList("rollback"), actions);
+
+        // actions of a completed transaction are not run again
+        jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+        jdbcStorageManager.commitTransaction();
+        Assert.assertEquals(Collections.singletonList("rollback"), actions);
+    }
+}
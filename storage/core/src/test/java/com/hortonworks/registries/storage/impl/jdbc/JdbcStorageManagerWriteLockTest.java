@@ -0,0 +1,230 @@
+/**
+ * Copyright 2016-2019 Cloudera, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+package com.hortonworks.registries.storage.impl.jdbc;
+
+import com.hortonworks.registries.common.Schema;
+import com.hortonworks.registries.storage.PrimaryKey;
+import com.hortonworks.registries.storage.Storable;
+import com.hortonworks.registries.storage.StorableKey;
+import com.hortonworks.registries.storage.catalog.AbstractStorable;
+import com.hortonworks.registries.storage.impl.jdbc.config.ExecutionConfig;
+import com.hortonworks.registries.storage.impl.jdbc.config.HikariBasicConfig;
+import com.hortonworks.registries.storage.impl.jdbc.connection.ConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.connection.HikariCPConnectionBuilder;
+import com.hortonworks.registries.storage.impl.jdbc.provider.mysql.factory.MySqlExecutor;
+import com.hortonworks.registries.storage.transaction.TransactionIsolation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ */
+public class JdbcStorageManagerWriteLockTest {
+    private static final String NAMESPACE = "write_lock_test";
+
+    private ConnectionBuilder connectionBuilder;
+    private CountingMySqlExecutor queryExecutor;
+    private JdbcStorageManager jdbcStorageManager;
+
+    @Before
+    public void setUp() throws Exception {
+        connectionBuilder = new HikariCPConnectionBuilder(HikariBasicConfig.getH2HikariConfig());
+        execute("CREATE TABLE IF NOT EXISTS " + NAMESPACE + " (id BIGINT NOT NULL, PRIMARY KEY (id))");
+        execute("INSERT INTO " + NAMESPACE + " VALUES (1)");
+        queryExecutor = new CountingMySqlExecutor(connectionBuilder);
+        jdbcStorageManager = new JdbcStorageManager(queryExecutor);
+        jdbcStorageManager.registerStorables(Collections.singletonList(LockStorable.class));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        execute("DROP TABLE IF EXISTS " + NAMESPACE);
+        jdbcStorageManager.cleanup();
+    }
+
+    @Test
+    public void testConcurrentWriteLocksOnSameKey() throws Exception {
+        int threads = 8;
+        int iterations = 25;
+        StorableKey key = new LockStorable(1L).getStorableKey();
+        // not thread safe on purpose, updates are only consistent if the lock is exclusive
+        int[] counter = new int[1];
+
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        long startTime = System.currentTimeMillis();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executorService.submit(() -> {
+                    for (int j = 0; j < iterations; j++) {
+                        jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+                        try {
+                            Assert.assertTrue(jdbcStorageManager.writeLock(key, 30L, TimeUnit.SECONDS));
+                            int value = counter[0];
+                            Thread.yield();
+                            counter[0] = value + 1;
+                            jdbcStorageManager.commitTransaction();
+                        } catch (RuntimeException e) {
+                            jdbcStorageManager.rollbackTransaction();
+                            throw e;
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+        long elapsedTime = System.currentTimeMillis() - startTime;
+
+        Assert.assertEquals(threads * iterations, counter[0]);
+        // contenders wait in-process, every lock is taken with a single query without polling the database
+        Assert.assertEquals(threads * iterations, queryExecutor.selectForUpdateInvocations.get());
+        Assert.assertTrue("Taking " + threads * iterations + " locks took " + elapsedTime + " ms", elapsedTime < 20_000);
+    }
+
+    @Test
+    public void testWriteLockIsHeldUntilTransactionEnds() throws Exception {
+        StorableKey key = new LockStorable(1L).getStorableKey();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executorService.submit(() -> {
+                jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+                try {
+                    jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+                    Assert.assertTrue(jdbcStorageManager.writeLock(key, 1L, TimeUnit.SECONDS));
+                    // closing the nested transaction keeps the lock
+                    jdbcStorageManager.commitTransaction();
+                    locked.countDown();
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    jdbcStorageManager.commitTransaction();
+                }
+                return null;
+            });
+
+            Assert.assertTrue(locked.await(10, TimeUnit.SECONDS));
+            jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+            try {
+                Assert.assertFalse(jdbcStorageManager.writeLock(key, 200L, TimeUnit.MILLISECONDS));
+            } finally {
+                jdbcStorageManager.rollbackTransaction();
+            }
+
+            release.countDown();
+            holder.get();
+
+            jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+            try {
+                Assert.assertTrue(jdbcStorageManager.writeLock(key, 1L, TimeUnit.SECONDS));
+            } finally {
+                jdbcStorageManager.rollbackTransaction();
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWriteLockOnMissingRowTimesOut() {
+        StorableKey key = new LockStorable(2L).getStorableKey();
+
+        jdbcStorageManager.beginTransaction(TransactionIsolation.JDBC_DEFAULT);
+        try {
+            long startTime = System.currentTimeMillis();
+            Assert.assertFalse(jdbcStorageManager.writeLock(key, 300L, TimeUnit.MILLISECONDS));
+            long elapsedTime = System.currentTimeMillis() - startTime;
+            Assert.assertTrue("Elapsed time " + elapsedTime, elapsedTime >= 300 && elapsedTime < 1000);
+        } finally {
+            jdbcStorageManager.rollbackTransaction();
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = connectionBuilder.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    public static class LockStorable extends AbstractStorable {
+        private Long id;
+
+        public LockStorable() {
+        }
+
+        LockStorable(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getNameSpace() {
+            return NAMESPACE;
+        }
+
+        @Override
+        public PrimaryKey getPrimaryKey() {
+            return new PrimaryKey(Collections.singletonMap(new Schema.Field("id", Schema.Type.LONG), id));
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+
+    private static class CountingMySqlExecutor extends MySqlExecutor {
+        private final AtomicInteger selectForUpdateInvocations = new AtomicInteger();
+
+        CountingMySqlExecutor(ConnectionBuilder connectionBuilder) {
+            super(new ExecutionConfig(-1), connectionBuilder);
+        }
+
+        @Override
+        public <T extends Storable> Collection<T> selectForUpdate(StorableKey storableKey) {
+            selectForUpdateInvocations.incrementAndGet();
+            return super.selectForUpdate(storableKey);
+        }
+    }
+}
@@ -22,6 +22,8 @@ import com.hortonworks.registries.storage.OrderByField;
 import com.hortonworks.registries.storage.PrimaryKey;
 import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.impl.jdbc.provider.mysql.query.MySqlSelectQuery;
+import com.hortonworks.registries.storage.search.SearchQuery;
+import com.hortonworks.registries.storage.search.WhereClause;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -71,4 +73,24 @@ public class MySqlSelectQueryTest {
         Assert.assertEquals("SELECT * FROM topic WHERE `foo` = ? ORDER BY `foo` DESC, ORDER BY `bar` ASC", parametrizedSql);
 
     }
+
+    @Test
+    public void testSearchQueriesAreEqualByTheirSql() throws Exception {
+        Schema schema = Schema.of(new Schema.Field("foo", Schema.Type.LONG));
+
+        MySqlSelectQuery query = searchQuery(schema, 1L, 2L);
+        MySqlSelectQuery sameSqlQuery = searchQuery(schema, 3L, 4L);
+        MySqlSelectQuery otherSqlQuery = searchQuery(schema, 1L, 2L, 3L);
+
+        // values are bound to the prepared statement, they do not make a different query
+        Assert.assertEquals(query, sameSqlQuery);
+        Assert.assertEquals(query.hashCode(), sameSqlQuery.hashCode());
+        Assert.assertNotEquals(query, otherSqlQuery);
+    }
+
+    private MySqlSelectQuery searchQuery(Schema schema, Long... values) {
+        SearchQuery searchQuery = SearchQuery.searchFrom(nameSpace)
+                                             .where(WhereClause.begin().in("foo", Arrays.asList(values)).combine());
+        return new MySqlSelectQuery(searchQuery, schema);
+    }
 }
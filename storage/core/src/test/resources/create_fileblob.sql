@@ -3,5 +3,15 @@ CREATE TABLE IF NOT EXISTS fileblob (
     version BIGINT NOT NULL,
     data LONGBLOB NOT NULL,
     timestamp BIGINT,
+    contentId VARCHAR(255),
+    chunks INT,
+    size BIGINT,
     PRIMARY KEY (name)
-);
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS fileblob_chunk (
+    contentId VARCHAR(255) NOT NULL,
+    sequence INT NOT NULL,
+    data LONGBLOB NOT NULL,
+    PRIMARY KEY (contentId, sequence)
+);
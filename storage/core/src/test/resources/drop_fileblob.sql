@@ -1 +1,2 @@
-drop table fileblob;
\ No newline at end of file
+drop table fileblob;
+drop table fileblob_chunk;
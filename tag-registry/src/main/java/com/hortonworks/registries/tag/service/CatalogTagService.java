@@ -23,6 +23,8 @@ import com.hortonworks.registries.common.QueryParam;
 import com.hortonworks.registries.storage.Storable;
 import com.hortonworks.registries.storage.StorableKey;
 import com.hortonworks.registries.storage.StorageManager;
+import com.hortonworks.registries.storage.search.SearchQuery;
+import com.hortonworks.registries.storage.search.WhereClause;
 import com.hortonworks.registries.storage.util.StorageUtils;
 import com.hortonworks.registries.tag.Tag;
 import com.hortonworks.registries.tag.TaggedEntity;
@@ -72,7 +74,12 @@ public class CatalogTagService implements TagService {
 
     // handle this check at application layer since in-memory storage etc does not contain unique key constraint
     private void validateTag(Tag tag) {
-        StorageUtils.ensureUnique(tag, this::listTags, QueryParam.params("name", tag.getName()));
+        // ids of two tags with the same name are enough, their nested tags are not needed
+        SearchQuery searchQuery = SearchQuery.searchFrom(TAG_NAMESPACE)
+                                             .select(Tag.ID)
+                                             .where(WhereClause.begin().eq(Tag.NAME, tag.getName()).combine())
+                                             .limit(2);
+        StorageUtils.ensureUnique(tag, params -> dao.<Tag>search(searchQuery), QueryParam.params(Tag.NAME, tag.getName()));
     }
 
     @Override
@@ -150,7 +157,7 @@ public class CatalogTagService implements TagService {
     public Tag removeTag(Long tagId) {
         Tag tag = getTag(tagId);
         if (tag != null) {
-            if (!getEntities(tagId, false).isEmpty()) {
+            if (countTagStorableMappings(tagId) > 0) {
                 throw new TagNotEmptyException("Tag not empty, has child entities.");
             }
             removeTagsFromStorable(getTaggedEntity(tag), tag.getTags());
@@ -270,6 +277,11 @@ public class CatalogTagService implements TagService {
         return dao.find(TAG_STORABLE_MAPPING_NAMESPACE, params);
     }
 
+    private long countTagStorableMappings(Long tagId) {
+        return dao.count(SearchQuery.searchFrom(TAG_STORABLE_MAPPING_NAMESPACE)
+                                    .where(WhereClause.begin().eq(TagStorableMapping.FIELD_TAG_ID, tagId).combine()));
+    }
+
     private Collection<Tag> makeTags(Collection<Tag> tags) {
         if (tags != null) {
             for (Tag tag : tags) {
@@ -39,6 +39,7 @@ import com.hortonworks.registries.storage.StorageManager;
 import com.hortonworks.registries.storage.StorageManagerAware;
 import com.hortonworks.registries.storage.StorageProviderConfiguration;
 import io.dropwizard.Application;
+import io.dropwizard.lifecycle.Managed;
 import io.dropwizard.lifecycle.ServerLifecycleListener;
 import io.dropwizard.setup.Bootstrap;
 import io.dropwizard.setup.Environment;
@@ -91,6 +92,16 @@ public class RegistryApplication extends Application<RegistryConfiguration> {
 
         registerAndNotifyOtherServers(environment);
 
+        environment.lifecycle().manage(new Managed() {
+            @Override
+            public void start() {
+            }
+
+            @Override
+            public void stop() {
+                haServerNotificationManager.close();
+            }
+        });
     }
 
     private void initializeUGI(RegistryConfiguration conf) throws IOException {